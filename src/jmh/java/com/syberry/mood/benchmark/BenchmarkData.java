@@ -0,0 +1,92 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Generates deterministic fixtures shared by the benchmarks.
+ */
+@UtilityClass
+public class BenchmarkData {
+
+  private static final long SEED = 42L;
+  private static final double FILL_RATE = 0.8;
+  private static final Role USER_ROLE = new Role(4L, RoleName.USER);
+
+  /**
+   * Creates enabled patients sorted by id descending, like the patient repository returns them.
+   *
+   * @param count the number of patients
+   * @return the list of patients
+   */
+  public static List<User> patients(int count) {
+    List<User> patients = new ArrayList<>(count);
+    for (long id = count; id > 0; id--) {
+      patients.add(User.builder()
+          .id(id)
+          .username("Superhero " + id)
+          .password("password")
+          .role(USER_ROLE)
+          .createdAt(LocalDate.now().minusYears(1).atStartOfDay())
+          .build());
+    }
+    return patients;
+  }
+
+  /**
+   * Creates a filter covering the given number of days up to today.
+   *
+   * @param days the number of days
+   * @return the filter
+   */
+  public static EmotionRecordFilter filter(int days) {
+    LocalDate today = LocalDate.now();
+    return new EmotionRecordFilter(today.minusDays(days - 1L), today);
+  }
+
+  /**
+   * Creates records for the given patients, filling most of the period slots of every day.
+   *
+   * @param patients the patients
+   * @param days the number of days up to today
+   * @return the list of records
+   */
+  public static List<EmotionRecordDto> records(List<User> patients, int days) {
+    Random random = new Random(SEED);
+    Emotion[] emotions = Emotion.values();
+    List<EmotionRecordDto> records = new ArrayList<>();
+    long id = 1;
+    LocalDate today = LocalDate.now();
+    for (int day = 0; day < days; day++) {
+      LocalDate date = today.minusDays(day);
+      for (User patient : patients) {
+        for (Period period : PeriodSchedule.DEFAULT.getPeriods()) {
+          if (random.nextDouble() < FILL_RATE) {
+            records.add(EmotionRecordDto.builder()
+                .id(id++)
+                .emotion(emotions[random.nextInt(emotions.length)])
+                .intensity(1 + random.nextInt(5))
+                .period(period)
+                .createdAt(date.atTime(PeriodSchedule.DEFAULT.getStartTime(period)))
+                .note(random.nextBoolean() ? "Note " + id : null)
+                .patientId(patient.getId())
+                .superheroName(patient.getUsername())
+                .build());
+          }
+        }
+      }
+    }
+    return records;
+  }
+}
@@ -0,0 +1,50 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.service.CsvService;
+import com.syberry.mood.emotion.record.service.impl.CsvServiceImpl;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the reflection based csv export of emotion records.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CsvServiceBenchmark {
+
+  @Param({"30", "365"})
+  private int days;
+
+  private final CsvService csvService = new CsvServiceImpl();
+  private List<EmotionRecordDto> records;
+
+  /**
+   * Prepares the exported records for 25 patients.
+   */
+  @Setup
+  public void setUp() {
+    records = BenchmarkData.records(BenchmarkData.patients(25), days);
+  }
+
+  @Benchmark
+  public ByteArrayOutputStream createCsv() {
+    return csvService.createCsv(records, EmotionRecordDto.class);
+  }
+}
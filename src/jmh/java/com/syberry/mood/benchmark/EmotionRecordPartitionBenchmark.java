@@ -0,0 +1,187 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.util.MonthlyPartitions;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the range queries of the emotion records on a plain and on a monthly partitioned
+ * table holding several years of records, both with the same indexes. Needs a MySQL database,
+ * pass its URL and credentials with -Djmh.args="-p url=... -p username=... -p password=...".
+ * The tables are seeded on the first run and reused afterwards.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EmotionRecordPartitionBenchmark {
+
+  private static final int PATIENTS = 300;
+  private static final int YEARS = 3;
+  private static final int BATCH_SIZE = 5_000;
+  private static final double FILL_RATE = 0.8;
+  private static final String COLUMNS = "(`id` bigint NOT NULL AUTO_INCREMENT, "
+      + "`created_at` datetime(6) NOT NULL, `emotion` varchar(255) NOT NULL, "
+      + "`intensity` integer NOT NULL, `note` varchar(255), `period` varchar(255) NOT NULL, "
+      + "`updated_at` datetime(6), `user_id` bigint, PRIMARY KEY (`id`, `created_at`), "
+      + "KEY `idx_patient_created_at` (`user_id`, `created_at`)) ENGINE=InnoDB ";
+
+  @Param("jdbc:mysql://localhost:3306/mood_benchmark?createDatabaseIfNotExist=true"
+      + "&rewriteBatchedStatements=true")
+  private String url;
+  @Param("root")
+  private String username;
+  @Param("root")
+  private String password;
+  @Param({"plain", "partitioned"})
+  private String table;
+
+  private Connection connection;
+  private PreparedStatement monthQuery;
+  private PreparedStatement patientQuery;
+  private LocalDateTime monthStart;
+  private LocalDateTime monthEnd;
+  private long patientId;
+
+  /**
+   * Seeds the table if needed and prepares the queries of the last full month.
+   *
+   * @throws SQLException if the database is not available
+   */
+  @Setup
+  public void setUp() throws SQLException {
+    connection = DriverManager.getConnection(url, username, password);
+    String tableName = "emotion_record_" + table;
+    YearMonth lastMonth = YearMonth.now().minusMonths(1);
+    LocalDate firstDay = lastMonth.plusMonths(1).atDay(1).minusYears(YEARS);
+    if (!isSeeded(tableName)) {
+      execute("DROP TABLE IF EXISTS `" + tableName + "`");
+      execute("CREATE TABLE `" + tableName + "` " + COLUMNS + ("partitioned".equals(table)
+          ? MonthlyPartitions.partitionBy(YearMonth.from(firstDay), lastMonth.plusMonths(3))
+          : ""));
+      seed(tableName, firstDay, lastMonth.plusMonths(1).atDay(1));
+    }
+    monthStart = lastMonth.atDay(1).atStartOfDay();
+    monthEnd = lastMonth.plusMonths(1).atDay(1).atStartOfDay();
+    monthQuery = connection.prepareStatement("SELECT `id`, `user_id`, `created_at`, "
+        + "`period`, `emotion`, `intensity` FROM `" + tableName + "` "
+        + "WHERE `created_at` >= ? AND `created_at` < ?");
+    patientQuery = connection.prepareStatement("SELECT `emotion`, COUNT(*) FROM `"
+        + tableName + "` WHERE `user_id` = ? AND `created_at` >= ? AND `created_at` < ? "
+        + "GROUP BY `emotion`");
+  }
+
+  @TearDown
+  public void tearDown() throws SQLException {
+    connection.close();
+  }
+
+  @Benchmark
+  public long readMonthOfAllPatients() throws SQLException {
+    monthQuery.setTimestamp(1, Timestamp.valueOf(monthStart));
+    monthQuery.setTimestamp(2, Timestamp.valueOf(monthEnd));
+    return countRows(monthQuery);
+  }
+
+  @Benchmark
+  public long countMonthOfPatient() throws SQLException {
+    patientId = patientId % PATIENTS + 1;
+    patientQuery.setLong(1, patientId);
+    patientQuery.setTimestamp(2, Timestamp.valueOf(monthStart));
+    patientQuery.setTimestamp(3, Timestamp.valueOf(monthEnd));
+    return countRows(patientQuery);
+  }
+
+  private boolean isSeeded(String tableName) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT COUNT(*) FROM information_schema.TABLES "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?")) {
+      statement.setString(1, tableName);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1) > 0;
+      }
+    }
+  }
+
+  private void seed(String tableName, LocalDate firstDay, LocalDate endDay)
+      throws SQLException {
+    Random random = new Random(42L);
+    Emotion[] emotions = Emotion.values();
+    connection.setAutoCommit(false);
+    try (PreparedStatement insert = connection.prepareStatement("INSERT INTO `" + tableName
+        + "` (`created_at`, `emotion`, `intensity`, `period`, `user_id`) "
+        + "VALUES (?, ?, ?, ?, ?)")) {
+      int batched = 0;
+      for (LocalDate day = firstDay; day.isBefore(endDay); day = day.plusDays(1)) {
+        for (long patient = 1; patient <= PATIENTS; patient++) {
+          for (Period period : PeriodSchedule.DEFAULT.getPeriods()) {
+            if (random.nextDouble() >= FILL_RATE) {
+              continue;
+            }
+            LocalTime time =
+                PeriodSchedule.DEFAULT.getStartTime(period).plusMinutes(random.nextInt(240));
+            insert.setTimestamp(1, Timestamp.valueOf(day.atTime(time)));
+            insert.setString(2, emotions[random.nextInt(emotions.length)].name());
+            insert.setInt(3, random.nextInt(5) + 1);
+            insert.setString(4, period.name());
+            insert.setLong(5, patient);
+            insert.addBatch();
+            if (++batched % BATCH_SIZE == 0) {
+              insert.executeBatch();
+              connection.commit();
+            }
+          }
+        }
+      }
+      insert.executeBatch();
+      connection.commit();
+    } finally {
+      connection.setAutoCommit(true);
+    }
+  }
+
+  private void execute(String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static long countRows(PreparedStatement statement) throws SQLException {
+    long rows = 0;
+    try (ResultSet resultSet = statement.executeQuery()) {
+      while (resultSet.next()) {
+        rows++;
+      }
+    }
+    return rows;
+  }
+}
@@ -0,0 +1,67 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.emotion.record.converter.EmotionConverter;
+import com.syberry.mood.emotion.record.converter.EmotionRecordConverter;
+import com.syberry.mood.emotion.record.converter.PeriodConverter;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.user.entity.User;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the date/patient/period grid returned by the emotion records endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridConverterBenchmark {
+
+  @Param({"25", "100"})
+  private int patientCount;
+  @Param({"7", "31"})
+  private int days;
+
+  private EmotionRecordConverter converter;
+  private List<User> patients;
+  private List<EmotionRecordDto> records;
+  private EmotionRecordFilter filter;
+
+  /**
+   * Prepares the patients and records of the grid.
+   */
+  @Setup
+  public void setUp() {
+    converter = new EmotionRecordConverter(new EmotionConverter(),
+        new PeriodConverter(PeriodSchedule.DEFAULT), PeriodSchedule.DEFAULT);
+    patients = BenchmarkData.patients(patientCount);
+    records = BenchmarkData.records(patients, days);
+    filter = BenchmarkData.filter(days);
+  }
+
+  @Benchmark
+  public Map<String, Map<String, Map<String, EmotionRecordDto>>> convertToMap() {
+    return converter.convertToMap(records, filter, patients);
+  }
+
+  @Benchmark
+  public Map<String, Map<String, Map<String, EmotionRecordDto>>> generateEmptyGrid() {
+    return converter.convertToMap(List.of(), filter, patients);
+  }
+}
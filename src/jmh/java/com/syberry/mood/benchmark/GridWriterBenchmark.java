@@ -0,0 +1,103 @@
+package com.syberry.mood.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.syberry.mood.emotion.record.converter.EmotionConverter;
+import com.syberry.mood.emotion.record.converter.EmotionRecordConverter;
+import com.syberry.mood.emotion.record.converter.EmotionRecordGridWriter;
+import com.syberry.mood.emotion.record.converter.PeriodConverter;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.user.entity.User;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares writing the JSON of the grid of all patients from the nested maps with writing it
+ * by the streaming grid writer. Run with the gc profiler of the benchmarks profile to compare
+ * the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GridWriterBenchmark {
+
+  @Param({"25", "100"})
+  private int patientCount;
+  @Param({"7", "31"})
+  private int days;
+
+  private ObjectMapper objectMapper;
+  private EmotionRecordConverter converter;
+  private EmotionRecordGridWriter gridWriter;
+  private List<User> patients;
+  private List<EmotionRecordDto> records;
+  private List<List<EmotionRecordDto>> dayRecords;
+  private EmotionRecordFilter filter;
+
+  /**
+   * Prepares the patients and the records of the grid, for the writer grouped by day
+   * in the order of the streamed query.
+   */
+  @Setup
+  public void setUp() {
+    objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    converter = new EmotionRecordConverter(new EmotionConverter(),
+        new PeriodConverter(PeriodSchedule.DEFAULT), PeriodSchedule.DEFAULT);
+    gridWriter = new EmotionRecordGridWriter(PeriodSchedule.DEFAULT);
+    patients = BenchmarkData.patients(patientCount);
+    records = BenchmarkData.records(patients, days);
+    filter = BenchmarkData.filter(days);
+    dayRecords = new ArrayList<>();
+    for (int day = 0; day < days; day++) {
+      LocalDate date = filter.getStartDate().plusDays(day);
+      dayRecords.add(records.stream()
+          .filter(record -> record.getCreatedAt().toLocalDate().equals(date))
+          .sorted(EmotionRecordGridWriter.DAY_ORDER)
+          .toList());
+    }
+  }
+
+  @Benchmark
+  public void writeMaps() throws IOException {
+    objectMapper.writeValue(OutputStream.nullOutputStream(),
+        converter.convertToMap(records, filter, patients));
+  }
+
+  @Benchmark
+  public void writeStreaming() throws IOException {
+    try (JsonGenerator generator =
+             objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+      generator.writeStartObject();
+      for (int day = 0; day < days; day++) {
+        LocalDate date = filter.getStartDate().plusDays(day);
+        List<EmotionRecordDto> recordsOfDay = dayRecords.get(day);
+        if (gridWriter.hasContent(date, recordsOfDay, patients)) {
+          generator.writeFieldName(date.toString());
+          gridWriter.writeDay(generator, date, recordsOfDay, patients);
+        }
+      }
+      generator.writeEndObject();
+    }
+  }
+}
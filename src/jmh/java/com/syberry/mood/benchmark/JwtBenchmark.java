@@ -0,0 +1,54 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.authorization.util.SecurityUtils;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures generating and validating access tokens, which happens on every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+  private static final String USERNAME = "Magical Fairy";
+
+  private final SecurityUtils securityUtils = new SecurityUtils();
+  private String token;
+
+  /**
+   * Prepares a valid token.
+   */
+  @Setup
+  public void setUp() {
+    token = securityUtils.generateTokenFromUsername(USERNAME);
+  }
+
+  @Benchmark
+  public String generateToken() {
+    return securityUtils.generateTokenFromUsername(USERNAME);
+  }
+
+  @Benchmark
+  public boolean validateToken() {
+    return securityUtils.validateJwtToken(token);
+  }
+
+  @Benchmark
+  public String parseUsername() {
+    return securityUtils.getUsernameFromJwtToken(token);
+  }
+}
@@ -0,0 +1,93 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.emotion.record.converter.EmotionConverter;
+import com.syberry.mood.emotion.record.converter.EmotionRecordConverter;
+import com.syberry.mood.emotion.record.converter.PeriodConverter;
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.service.PdfService;
+import com.syberry.mood.emotion.record.service.impl.PdfServiceImpl;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.repository.UserRepository;
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building the pdf documents with emotion records and statistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class PdfServiceBenchmark {
+
+  @Param({"7", "31"})
+  private int days;
+
+  private PdfService pdfService;
+  private EmotionRecordFilter filter;
+  private Map<String, Map<String, Map<String, EmotionRecordDto>>> grid;
+  private Map<String, Map<String, Map<String, EmotionRecordDto>>> patientGrid;
+  private EmotionsStatisticDto statistic;
+
+  /**
+   * Prepares the grids for 25 patients and for a single patient.
+   */
+  @Setup
+  public void setUp() {
+    List<User> patients = BenchmarkData.patients(25);
+    User patient = patients.get(0);
+    UserRepository userRepository = (UserRepository) Proxy.newProxyInstance(
+        UserRepository.class.getClassLoader(), new Class<?>[]{UserRepository.class},
+        (proxy, method, args) -> patient);
+    pdfService = new PdfServiceImpl(userRepository, PeriodSchedule.DEFAULT);
+    EmotionRecordConverter converter = new EmotionRecordConverter(new EmotionConverter(),
+        new PeriodConverter(PeriodSchedule.DEFAULT), PeriodSchedule.DEFAULT);
+    filter = BenchmarkData.filter(days);
+    grid = converter.convertToMap(BenchmarkData.records(patients, days), filter, patients);
+    patientGrid = converter.convertToMap(
+        BenchmarkData.records(List.of(patient), days), filter, List.of(patient));
+    Map<Emotion, Long> frequency = new EnumMap<>(Emotion.class);
+    for (Emotion emotion : Emotion.values()) {
+      frequency.put(emotion, (long) emotion.ordinal() * days);
+    }
+    statistic = EmotionsStatisticDto.builder()
+        .patientId(patient.getId())
+        .lastEmotion(Emotion.HAPPY)
+        .mostOftenEmotions(List.of(Emotion.RELAXED))
+        .totalEmotionRecords(days * 3)
+        .missedRecords(days)
+        .frequencyOfEmotions(frequency)
+        .build();
+  }
+
+  @Benchmark
+  public ByteArrayInputStream createPdfWithEmotionRecords() {
+    return pdfService.createPdfWithEmotionRecords(filter, grid);
+  }
+
+  @Benchmark
+  public ByteArrayInputStream createPdfWithPatientEmotionRecords() {
+    return pdfService.createPdfWithPatientEmotionRecords(filter, patientGrid, statistic);
+  }
+}
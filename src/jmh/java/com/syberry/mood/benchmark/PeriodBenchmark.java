@@ -0,0 +1,73 @@
+package com.syberry.mood.benchmark;
+
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the period arithmetic used by the grid, validation and statistics.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PeriodBenchmark {
+
+  private static final int SAMPLES = 1024;
+  private static final int MINUTES_PER_DAY = 24 * 60;
+
+  private final LocalTime[] times = new LocalTime[SAMPLES];
+  private final LocalDateTime[] starts = new LocalDateTime[SAMPLES];
+  private final LocalDateTime[] ends = new LocalDateTime[SAMPLES];
+  private final PeriodSchedule schedule = PeriodSchedule.DEFAULT;
+
+  /**
+   * Prepares random times and date ranges of up to one year.
+   */
+  @Setup
+  public void setUp() {
+    Random random = new Random(42L);
+    LocalDateTime base = LocalDateTime.of(2023, 1, 1, 0, 0);
+    for (int i = 0; i < SAMPLES; i++) {
+      times[i] = LocalTime.ofSecondOfDay(random.nextInt(MINUTES_PER_DAY) * 60L);
+      starts[i] = base.plusMinutes(random.nextInt(MINUTES_PER_DAY * 30));
+      ends[i] = starts[i].plusMinutes(random.nextInt(MINUTES_PER_DAY * 365));
+    }
+  }
+
+  @Benchmark
+  public void findOutPeriodByTime(Blackhole blackhole) {
+    for (LocalTime time : times) {
+      blackhole.consume(schedule.periodAt(time));
+    }
+  }
+
+  @Benchmark
+  public void countPeriodsBefore(Blackhole blackhole) {
+    for (LocalTime time : times) {
+      blackhole.consume(schedule.countPeriodsUntil(schedule.periodAt(time)));
+    }
+  }
+
+  @Benchmark
+  public void countPeriodsBetween(Blackhole blackhole) {
+    for (int i = 0; i < SAMPLES; i++) {
+      blackhole.consume(schedule.countPeriodsBetween(starts[i], ends[i]));
+    }
+  }
+}
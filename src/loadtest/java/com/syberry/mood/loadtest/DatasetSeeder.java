@@ -0,0 +1,253 @@
+package com.syberry.mood.loadtest;
+
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.user.dto.RoleName;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * Bulk-inserts a reproducible dataset of patients and their emotion records
+ * into the embedded database of a locally started application.
+ * The schema is created by the application, so it has to be started before seeding.
+ * A change of every seeded patient is appended to the change log, so the application adds
+ * the patients to its directory and changes the entity tags, while the records are picked up
+ * by the periodic reload of the record indexes.
+ */
+@RequiredArgsConstructor
+public class DatasetSeeder {
+
+  public static final String PATIENT_PREFIX = "Load Tester";
+  public static final String PATIENT_PASSWORD = "load_test_user";
+  public static final String ADMIN_USERNAME = "loadtest.admin@mood.local";
+  public static final String ADMIN_PASSWORD = "LoadTest_2024";
+  private static final int BATCH_SIZE = 1_000;
+  private static final long RANDOM_SEED = 42;
+  private static final Map<Period, LocalTime> RECORD_TIMES = new EnumMap<>(Map.of(
+      Period.MORNING, LocalTime.of(9, 0),
+      Period.AFTERNOON, LocalTime.of(14, 0),
+      Period.EVENING, LocalTime.of(19, 0)));
+
+  private final LoadTestSettings settings;
+
+  /**
+   * Replaces the previously seeded data with N patients having a record
+   * for each of the 3 periods of the last M days. Today is left empty,
+   * so that the patients are able to create records during the run.
+   *
+   * @return the seeded patients
+   * @throws SQLException if the database is not reachable
+   */
+  public List<SeededPatient> seed() throws SQLException {
+    try (Connection connection = connect()) {
+      connection.setAutoCommit(false);
+      clean(connection);
+      String patientPassword = new BCryptPasswordEncoder().encode(PATIENT_PASSWORD);
+      String adminPassword = new BCryptPasswordEncoder().encode(ADMIN_PASSWORD);
+      long adminId = insertUser(connection, ADMIN_USERNAME, adminPassword,
+          findOrCreateRole(connection, RoleName.ADMIN));
+      insertEmployee(connection, adminId);
+      insertPatients(connection, patientPassword, findOrCreateRole(connection, RoleName.USER));
+      connection.commit();
+      List<SeededPatient> patients = findPatients(connection);
+      insertEmotionRecords(connection, patients);
+      logPatients(connection, patients);
+      connection.commit();
+      return patients;
+    }
+  }
+
+  /**
+   * Reads the patients seeded by a previous run.
+   *
+   * @return the seeded patients
+   * @throws SQLException if the database is not reachable
+   */
+  public List<SeededPatient> findPatients() throws SQLException {
+    try (Connection connection = connect()) {
+      return findPatients(connection);
+    }
+  }
+
+  private Connection connect() throws SQLException {
+    return DriverManager.getConnection(settings.getJdbcUrl(), "sa", "sa");
+  }
+
+  private void clean(Connection connection) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.executeUpdate("DELETE FROM \"emotion_record\" WHERE \"user_id\" IN"
+          + " (SELECT \"id\" FROM \"user\" WHERE \"username\" LIKE '" + PATIENT_PREFIX + "%')");
+      statement.executeUpdate("DELETE FROM \"employee\" WHERE \"user_id\" IN"
+          + " (SELECT \"id\" FROM \"user\" WHERE \"username\" = '" + ADMIN_USERNAME + "')");
+      statement.executeUpdate("DELETE FROM \"refresh_token\" WHERE \"user_id\" IN"
+          + " (SELECT \"id\" FROM \"user\" WHERE \"username\" LIKE '" + PATIENT_PREFIX + "%'"
+          + " OR \"username\" = '" + ADMIN_USERNAME + "')");
+      statement.executeUpdate("DELETE FROM \"user\" WHERE \"username\" LIKE '"
+          + PATIENT_PREFIX + "%' OR \"username\" = '" + ADMIN_USERNAME + "'");
+    }
+  }
+
+  private long findOrCreateRole(Connection connection, RoleName roleName) throws SQLException {
+    try (PreparedStatement select = connection.prepareStatement(
+        "SELECT \"id\" FROM \"role\" WHERE \"role_name\" = ?")) {
+      select.setString(1, roleName.name());
+      try (ResultSet resultSet = select.executeQuery()) {
+        if (resultSet.next()) {
+          return resultSet.getLong(1);
+        }
+      }
+    }
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO \"role\" (\"role_name\") VALUES (?)", Statement.RETURN_GENERATED_KEYS)) {
+      insert.setString(1, roleName.name());
+      insert.executeUpdate();
+      return generatedKey(insert);
+    }
+  }
+
+  private long insertUser(Connection connection, String username, String password, long roleId)
+      throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO \"user\" (\"username\", \"password\", \"role_id\", \"created_at\","
+            + " \"disabled\") VALUES (?, ?, ?, ?, FALSE)", Statement.RETURN_GENERATED_KEYS)) {
+      insert.setString(1, username);
+      insert.setString(2, password);
+      insert.setLong(3, roleId);
+      insert.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+      insert.executeUpdate();
+      return generatedKey(insert);
+    }
+  }
+
+  private void insertEmployee(Connection connection, long userId) throws SQLException {
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO \"employee\" (\"first_name\", \"last_name\", \"user_id\") VALUES (?, ?, ?)")) {
+      insert.setString(1, "Load");
+      insert.setString(2, "Admin");
+      insert.setLong(3, userId);
+      insert.executeUpdate();
+    }
+  }
+
+  private void insertPatients(Connection connection, String password, long roleId)
+      throws SQLException {
+    Timestamp createdAt = Timestamp.valueOf(
+        LocalDate.now().minusDays(settings.getDays()).atStartOfDay());
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO \"user\" (\"username\", \"password\", \"role_id\", \"created_at\","
+            + " \"disabled\") VALUES (?, ?, ?, ?, FALSE)")) {
+      for (int i = 0; i < settings.getPatients(); i++) {
+        insert.setString(1, PATIENT_PREFIX + suffix(i));
+        insert.setString(2, password);
+        insert.setLong(3, roleId);
+        insert.setTimestamp(4, createdAt);
+        insert.addBatch();
+        if ((i + 1) % BATCH_SIZE == 0) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+    }
+  }
+
+  private void insertEmotionRecords(Connection connection, List<SeededPatient> patients)
+      throws SQLException {
+    Random random = new Random(RANDOM_SEED);
+    Emotion[] emotions = Emotion.values();
+    LocalDate today = LocalDate.now();
+    int pending = 0;
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO \"emotion_record\" (\"emotion\", \"intensity\", \"created_at\","
+            + " \"user_id\", \"period\") VALUES (?, ?, ?, ?, ?)")) {
+      for (SeededPatient patient : patients) {
+        for (LocalDate date = today.minusDays(settings.getDays()); date.isBefore(today);
+            date = date.plusDays(1)) {
+          for (Period period : RECORD_TIMES.keySet()) {
+            insert.setString(1, emotions[random.nextInt(emotions.length)].name());
+            insert.setInt(2, 1 + random.nextInt(5));
+            insert.setTimestamp(3, Timestamp.valueOf(date.atTime(RECORD_TIMES.get(period))));
+            insert.setLong(4, patient.getId());
+            insert.setString(5, period.name());
+            insert.addBatch();
+            if (++pending % BATCH_SIZE == 0) {
+              insert.executeBatch();
+            }
+          }
+        }
+      }
+      insert.executeBatch();
+    }
+  }
+
+  private void logPatients(Connection connection, List<SeededPatient> patients)
+      throws SQLException {
+    Timestamp createdAt = Timestamp.valueOf(LocalDateTime.now());
+    int pending = 0;
+    try (PreparedStatement insert = connection.prepareStatement(
+        "INSERT INTO \"change_log\" (\"entity_type\", \"entity_id\", \"operation\","
+            + " \"created_at\") VALUES (?, ?, ?, ?)")) {
+      for (SeededPatient patient : patients) {
+        insert.setString(1, ChangedEntity.PATIENT.name());
+        insert.setLong(2, patient.getId());
+        insert.setString(3, ChangeType.CREATED.name());
+        insert.setTimestamp(4, createdAt);
+        insert.addBatch();
+        if (++pending % BATCH_SIZE == 0) {
+          insert.executeBatch();
+        }
+      }
+      insert.executeBatch();
+    }
+  }
+
+  private List<SeededPatient> findPatients(Connection connection) throws SQLException {
+    List<SeededPatient> patients = new ArrayList<>();
+    try (PreparedStatement select = connection.prepareStatement(
+        "SELECT \"id\", \"username\" FROM \"user\" WHERE \"username\" LIKE ? ORDER BY \"id\"")) {
+      select.setString(1, PATIENT_PREFIX + "%");
+      try (ResultSet resultSet = select.executeQuery()) {
+        while (resultSet.next()) {
+          patients.add(new SeededPatient(resultSet.getLong(1), resultSet.getString(2)));
+        }
+      }
+    }
+    return patients;
+  }
+
+  private static long generatedKey(Statement statement) throws SQLException {
+    try (ResultSet keys = statement.getGeneratedKeys()) {
+      keys.next();
+      return keys.getLong(1);
+    }
+  }
+
+  /**
+   * Builds a lowercase suffix, so that the patient names stay valid superhero names.
+   */
+  private static String suffix(int index) {
+    StringBuilder suffix = new StringBuilder();
+    int rest = index;
+    for (int i = 0; i < 4; i++) {
+      suffix.insert(0, (char) ('a' + rest % 26));
+      rest /= 26;
+    }
+    return suffix.toString();
+  }
+}
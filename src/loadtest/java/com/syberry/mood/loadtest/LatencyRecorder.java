@@ -0,0 +1,125 @@
+package com.syberry.mood.loadtest;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collects the response times of the virtual users per endpoint
+ * and reports throughput and latency percentiles.
+ */
+public class LatencyRecorder {
+
+  private static final String HEADER =
+      "endpoint,requests,failures,throughput_rps,p50_ms,p95_ms,p99_ms,max_ms";
+
+  private final Map<String, EndpointLatencies> endpoints = new ConcurrentHashMap<>();
+  private volatile boolean recording;
+
+  /**
+   * Starts recording, the responses received before are treated as warmup.
+   */
+  public void start() {
+    recording = true;
+  }
+
+  /**
+   * Stops recording.
+   */
+  public void stop() {
+    recording = false;
+  }
+
+  /**
+   * Records a response of the endpoint.
+   *
+   * @param endpoint the endpoint name
+   * @param nanos the response time in nanoseconds
+   * @param success whether the response status was successful
+   */
+  public void record(String endpoint, long nanos, boolean success) {
+    if (recording) {
+      endpoints.computeIfAbsent(endpoint, key -> new EndpointLatencies()).add(nanos, success);
+    }
+  }
+
+  /**
+   * Prints the report as a table and writes it as csv to the file.
+   *
+   * @param elapsed the duration of the measurement
+   * @param out the stream to print the table to
+   * @param csv the file to write the csv report to
+   * @throws IOException if the csv report cannot be written
+   */
+  public void report(Duration elapsed, PrintStream out, Path csv) throws IOException {
+    double seconds = elapsed.toMillis() / 1000.0;
+    List<String> lines = new ArrayList<>();
+    lines.add(HEADER);
+    out.printf("%-22s %9s %9s %10s %9s %9s %9s %9s%n", "endpoint", "requests", "failures",
+        "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+    long total = 0;
+    for (Map.Entry<String, EndpointLatencies> entry : new TreeMap<>(endpoints).entrySet()) {
+      long[] sorted = entry.getValue().sorted();
+      int failures = entry.getValue().getFailures();
+      total += sorted.length;
+      out.printf("%-22s %9d %9d %10.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+          sorted.length, failures, sorted.length / seconds, percentile(sorted, 50),
+          percentile(sorted, 95), percentile(sorted, 99), percentile(sorted, 100));
+      lines.add(String.format("%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f", entry.getKey(), sorted.length,
+          failures, sorted.length / seconds, percentile(sorted, 50), percentile(sorted, 95),
+          percentile(sorted, 99), percentile(sorted, 100)));
+    }
+    out.printf("total: %d requests in %.1fs, %.1f req/s%n", total, seconds, total / seconds);
+    Files.createDirectories(csv.toAbsolutePath().getParent());
+    Files.write(csv, lines);
+  }
+
+  /**
+   * Returns the nearest-rank percentile of the sorted response times in milliseconds.
+   */
+  private static double percentile(long[] sorted, int percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1] / 1_000_000.0;
+  }
+
+  /**
+   * The response times of a single endpoint.
+   */
+  private static class EndpointLatencies {
+
+    private long[] nanos = new long[1024];
+    private int size;
+    private int failures;
+
+    synchronized void add(long value, boolean success) {
+      if (size == nanos.length) {
+        nanos = Arrays.copyOf(nanos, size * 2);
+      }
+      nanos[size++] = value;
+      if (!success) {
+        failures++;
+      }
+    }
+
+    synchronized long[] sorted() {
+      long[] sorted = Arrays.copyOf(nanos, size);
+      Arrays.sort(sorted);
+      return sorted;
+    }
+
+    synchronized int getFailures() {
+      return failures;
+    }
+  }
+}
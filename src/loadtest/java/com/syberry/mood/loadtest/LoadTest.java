@@ -0,0 +1,96 @@
+package com.syberry.mood.loadtest;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Seeds the embedded database of a locally started application, runs the virtual users
+ * against it and reports throughput and latency percentiles per endpoint.
+ * The application has to be started with the "loadtest" profile beforehand. It reloads
+ * the record indexes every minute with this profile, so a seeding run ends after seeding
+ * and the measured run is started once the application has reloaded them.
+ */
+public class LoadTest {
+
+  /**
+   * Runs the load test configured by the "loadtest.*" system properties.
+   *
+   * @param args not used
+   * @throws Exception if seeding, logging in or writing the report fails,
+   *     or the application has not loaded the seeded dataset
+   */
+  public static void main(String[] args) throws Exception {
+    LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+    System.out.println("Load test: " + settings);
+
+    DatasetSeeder seeder = new DatasetSeeder(settings);
+    long seedStart = System.nanoTime();
+    if (settings.isSeed()) {
+      List<SeededPatient> patients = seeder.seed();
+      System.out.printf("Dataset: %d patients, %d emotion records, seeded in %ds%n",
+          patients.size(), (long) patients.size() * settings.getDays() * 3,
+          TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - seedStart));
+      System.out.println("Wait a minute for the application to load the dataset,"
+          + " then run with -Dloadtest.seed=false");
+      return;
+    }
+    List<SeededPatient> patients = seeder.findPatients();
+    if (patients.isEmpty()) {
+      throw new IllegalStateException("No seeded patients found, run with -Dloadtest.seed=true");
+    }
+    System.out.printf("Dataset: %d patients%n", patients.size());
+
+    LatencyRecorder recorder = new LatencyRecorder();
+    MoodClient client = new MoodClient(settings.getBaseUrl(), recorder);
+    MoodClient.Session admin =
+        client.login(DatasetSeeder.ADMIN_USERNAME, DatasetSeeder.ADMIN_PASSWORD);
+    checkDatasetLoaded(client, admin, patients);
+
+    AtomicBoolean running = new AtomicBoolean(true);
+    ExecutorService executor = Executors.newFixedThreadPool(settings.getUsers());
+    for (int i = 0; i < settings.getUsers(); i++) {
+      List<SeededPatient> ownPatients = new ArrayList<>();
+      for (int j = i; j < patients.size(); j += settings.getUsers()) {
+        ownPatients.add(patients.get(j));
+      }
+      executor.execute(new VirtualUser(
+          client, admin, patients, ownPatients, settings, running::get, i));
+    }
+
+    Thread.sleep(settings.getWarmup().toMillis());
+    recorder.start();
+    long start = System.nanoTime();
+    Thread.sleep(settings.getDuration().toMillis());
+    recorder.stop();
+    Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+    running.set(false);
+    executor.shutdown();
+    executor.awaitTermination(1, TimeUnit.MINUTES);
+
+    recorder.report(elapsed, System.out, settings.getReport());
+    System.out.println("Report written to " + settings.getReport().toAbsolutePath());
+  }
+
+  /**
+   * Checks that the patient directory of the application contains the last seeded patient,
+   * otherwise the run would measure the calls against an empty dataset.
+   */
+  private static void checkDatasetLoaded(MoodClient client, MoodClient.Session admin,
+                                         List<SeededPatient> patients)
+      throws IOException, InterruptedException {
+    String lastPatient = patients.get(patients.size() - 1).getUsername();
+    HttpResponse<byte[]> response = client.get(admin, "GET /patients", "/patients");
+    if (!new String(response.body(), StandardCharsets.UTF_8).contains(lastPatient)) {
+      throw new IllegalStateException("The application has not loaded the seeded dataset,"
+          + " start it with the loadtest profile and wait a minute after seeding");
+    }
+  }
+}
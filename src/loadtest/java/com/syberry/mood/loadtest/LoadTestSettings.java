@@ -0,0 +1,54 @@
+package com.syberry.mood.loadtest;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * The settings of a load test run, read from the "loadtest.*" system properties.
+ */
+@Getter
+@Builder
+public class LoadTestSettings {
+
+  private final String baseUrl;
+  private final String jdbcUrl;
+  private final boolean seed;
+  private final int patients;
+  private final int days;
+  private final int users;
+  private final Duration warmup;
+  private final Duration duration;
+  private final Duration thinkTime;
+  private final Path report;
+
+  /**
+   * Reads the settings from the system properties, falling back to the defaults
+   * of the "loadtest" Maven profile.
+   *
+   * @return the load test settings
+   */
+  public static LoadTestSettings fromSystemProperties() {
+    return LoadTestSettings.builder()
+        .baseUrl(System.getProperty("loadtest.base-url", "http://localhost:8080/api/v1"))
+        .jdbcUrl(System.getProperty("loadtest.jdbc-url",
+            "jdbc:h2:file:./target/loadtest/mood;AUTO_SERVER=TRUE;DATABASE_TO_UPPER=false"))
+        .seed(Boolean.parseBoolean(System.getProperty("loadtest.seed", "false")))
+        .patients(Integer.getInteger("loadtest.patients", 100))
+        .days(Integer.getInteger("loadtest.days", 90))
+        .users(Integer.getInteger("loadtest.users", 20))
+        .warmup(Duration.ofSeconds(Integer.getInteger("loadtest.warmup", 10)))
+        .duration(Duration.ofSeconds(Integer.getInteger("loadtest.duration", 60)))
+        .thinkTime(Duration.ofMillis(Integer.getInteger("loadtest.think-time", 100)))
+        .report(Path.of(System.getProperty("loadtest.report", "target/loadtest/report.csv")))
+        .build();
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%d patients x %d days, %d virtual users, %ds warmup, %ds measurement,"
+            + " %dms think time against %s", patients, days, users, warmup.toSeconds(),
+        duration.toSeconds(), thinkTime.toMillis(), baseUrl);
+  }
+}
@@ -0,0 +1,137 @@
+package com.syberry.mood.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.stream.Collectors;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * HTTP client of the application API, authenticating through the "/auth/login" endpoint
+ * and recording the response time of every call.
+ */
+@RequiredArgsConstructor
+public class MoodClient {
+
+  private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+  private final HttpClient httpClient = HttpClient.newBuilder()
+      .connectTimeout(TIMEOUT)
+      .build();
+  private final String baseUrl;
+  private final LatencyRecorder recorder;
+
+  /**
+   * Logs in and collects the access and refresh token cookies.
+   *
+   * @param username the username
+   * @param password the password
+   * @return the authenticated session
+   * @throws IOException if the login fails
+   * @throws InterruptedException if the thread is interrupted
+   */
+  public Session login(String username, String password)
+      throws IOException, InterruptedException {
+    Session session = new Session(username, password);
+    authenticate(session);
+    return session;
+  }
+
+  /**
+   * Sends a GET request on behalf of the session.
+   *
+   * @param session the authenticated session
+   * @param endpoint the endpoint name used in the report
+   * @param path the path relative to the base url
+   * @return the response
+   * @throws IOException if the request fails
+   * @throws InterruptedException if the thread is interrupted
+   */
+  public HttpResponse<byte[]> get(Session session, String endpoint, String path)
+      throws IOException, InterruptedException {
+    return send(session, endpoint, request(path).GET());
+  }
+
+  /**
+   * Sends a POST request with a JSON body on behalf of the session.
+   *
+   * @param session the authenticated session
+   * @param endpoint the endpoint name used in the report
+   * @param path the path relative to the base url
+   * @param json the request body
+   * @return the response
+   * @throws IOException if the request fails
+   * @throws InterruptedException if the thread is interrupted
+   */
+  public HttpResponse<byte[]> post(Session session, String endpoint, String path, String json)
+      throws IOException, InterruptedException {
+    return send(session, endpoint, request(path)
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(json)));
+  }
+
+  /**
+   * Sends the request and logs in again once if the access token has expired.
+   */
+  private HttpResponse<byte[]> send(Session session, String endpoint,
+                                    HttpRequest.Builder builder)
+      throws IOException, InterruptedException {
+    HttpResponse<byte[]> response = timed(endpoint,
+        builder.copy().header("Cookie", session.getCookies()).build());
+    if (response.statusCode() == 401) {
+      authenticate(session);
+      response = timed(endpoint, builder.header("Cookie", session.getCookies()).build());
+    }
+    return response;
+  }
+
+  private void authenticate(Session session) throws IOException, InterruptedException {
+    String body = String.format("{\"username\":\"%s\",\"password\":\"%s\"}",
+        session.getUsername(), session.getPassword());
+    HttpResponse<byte[]> response = timed("POST /auth/login", request("/auth/login")
+        .header("Content-Type", "application/json")
+        .POST(HttpRequest.BodyPublishers.ofString(body))
+        .build());
+    if (response.statusCode() != 200) {
+      throw new IOException(String.format("Login of %s failed with status %d",
+          session.getUsername(), response.statusCode()));
+    }
+    session.cookies = response.headers().allValues("Set-Cookie").stream()
+        .map(cookie -> cookie.split(";", 2)[0])
+        .collect(Collectors.joining("; "));
+  }
+
+  private HttpResponse<byte[]> timed(String endpoint, HttpRequest request)
+      throws IOException, InterruptedException {
+    long start = System.nanoTime();
+    boolean success = false;
+    try {
+      HttpResponse<byte[]> response =
+          httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+      success = response.statusCode() < 400;
+      return response;
+    } finally {
+      recorder.record(endpoint, System.nanoTime() - start, success);
+    }
+  }
+
+  private HttpRequest.Builder request(String path) {
+    return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(TIMEOUT);
+  }
+
+  /**
+   * The cookies of a logged in user.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Session {
+
+    private final String username;
+    private final String password;
+    private volatile String cookies;
+  }
+}
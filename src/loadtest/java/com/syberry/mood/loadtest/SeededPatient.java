@@ -0,0 +1,15 @@
+package com.syberry.mood.loadtest;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A patient inserted by the dataset seeder.
+ */
+@Getter
+@RequiredArgsConstructor
+public class SeededPatient {
+
+  private final Long id;
+  private final String username;
+}
@@ -0,0 +1,135 @@
+package com.syberry.mood.loadtest;
+
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.BooleanSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A virtual user running a weighted mix of the admin and patient calls in a closed loop.
+ * The admin calls share one session, the patient calls are made on behalf of the patients
+ * owned by this virtual user, so that the patients of different virtual users do not collide.
+ */
+@Slf4j
+public class VirtualUser implements Runnable {
+
+  private static final int GRID_DAYS = 7;
+  private static final int STATISTIC_DAYS = 30;
+
+  private final MoodClient client;
+  private final MoodClient.Session admin;
+  private final List<SeededPatient> patients;
+  private final List<SeededPatient> ownPatients;
+  private final Map<Long, MoodClient.Session> patientSessions = new HashMap<>();
+  private final LoadTestSettings settings;
+  private final BooleanSupplier running;
+  private final Random random;
+  private int nextPatient;
+
+  /**
+   * Creates a virtual user.
+   *
+   * @param client the API client
+   * @param admin the shared admin session
+   * @param patients all seeded patients
+   * @param ownPatients the patients this virtual user logs in as
+   * @param settings the load test settings
+   * @param running tells whether the load test is still running
+   * @param seed the seed of the random choices
+   */
+  public VirtualUser(MoodClient client, MoodClient.Session admin, List<SeededPatient> patients,
+                     List<SeededPatient> ownPatients, LoadTestSettings settings,
+                     BooleanSupplier running, long seed) {
+    this.client = client;
+    this.admin = admin;
+    this.patients = patients;
+    this.ownPatients = ownPatients;
+    this.settings = settings;
+    this.running = running;
+    this.random = new Random(seed);
+  }
+
+  @Override
+  public void run() {
+    while (running.getAsBoolean()) {
+      try {
+        step();
+        Thread.sleep(settings.getThinkTime().toMillis());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (IOException e) {
+        log.warn("Request failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Runs one call of the mix: 30% grid, 10% patient grid, 20% statistic,
+   * 30% today with a create if the current period is not recorded yet,
+   * 7% csv export and 3% pdf export.
+   */
+  private void step() throws IOException, InterruptedException {
+    int choice = random.nextInt(100);
+    if (choice < 30) {
+      client.get(admin, "GET /emotion-records", "/emotion-records" + range(GRID_DAYS));
+    } else if (choice < 40) {
+      client.get(admin, "GET /patients/{id}", "/emotion-records/patients/"
+          + randomPatient().getId() + range(GRID_DAYS));
+    } else if (choice < 60) {
+      client.get(admin, "GET /statistic", "/emotion-records/patients/"
+          + randomPatient().getId() + "/statistic" + range(STATISTIC_DAYS));
+    } else if (choice < 90) {
+      today();
+    } else if (choice < 97) {
+      client.get(admin, "GET /csv-file", "/emotion-records/csv-file" + range(GRID_DAYS));
+    } else {
+      client.get(admin, "GET /pdf-file/patients", "/emotion-records/pdf-file/patients/"
+          + randomPatient().getId() + range(STATISTIC_DAYS));
+    }
+  }
+
+  /**
+   * Opens the today page of the next own patient and records the current period if it is empty.
+   */
+  private void today() throws IOException, InterruptedException {
+    if (ownPatients.isEmpty()) {
+      return;
+    }
+    SeededPatient patient = ownPatients.get(nextPatient++ % ownPatients.size());
+    MoodClient.Session session = patientSessions.get(patient.getId());
+    if (session == null) {
+      session = client.login(patient.getUsername(), DatasetSeeder.PATIENT_PASSWORD);
+      patientSessions.put(patient.getId(), session);
+    }
+    HttpResponse<byte[]> today = client.get(session, "GET /today", "/emotion-records/today");
+    String period = PeriodSchedule.DEFAULT.periodAt(LocalTime.now()).name();
+    if (new String(today.body(), StandardCharsets.UTF_8).contains("\"" + period + "\":null")) {
+      Emotion emotion = Emotion.values()[random.nextInt(Emotion.values().length)];
+      client.post(session, "POST /emotion-records", "/emotion-records", String.format(
+          "{\"emotion\":\"%s\",\"intensity\":%d}", emotion, 1 + random.nextInt(5)));
+    }
+  }
+
+  private SeededPatient randomPatient() {
+    return patients.get(random.nextInt(patients.size()));
+  }
+
+  /**
+   * Builds the query of a random date range within the seeded days.
+   */
+  private String range(int days) {
+    int length = Math.min(days, settings.getDays());
+    LocalDate end = LocalDate.now().minusDays(random.nextInt(settings.getDays() - length + 1));
+    return "?startDate=" + end.minusDays(length - 1L) + "&endDate=" + end;
+  }
+}
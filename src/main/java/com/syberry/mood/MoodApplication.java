@@ -2,12 +2,13 @@ package com.syberry.mood;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
 
 /**
  * This is the main class for the Mood application.
  * It uses the Spring Boot framework to configure and run the application.
  */
-@SpringBootApplication
+@SpringBootApplication(exclude = FlywayAutoConfiguration.class)
 public class MoodApplication {
 
   public static void main(String[] args) {
@@ -0,0 +1,238 @@
+package com.syberry.mood.admission;
+
+import com.syberry.mood.exception.TooManyRequestsException;
+import com.syberry.mood.user.service.PatientDirectoryService;
+import com.syberry.mood.version.service.DataVersionService;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Admits the requests of the {@link AdmissionControlled} controller methods. A request needs
+ * a free slot of its endpoint class and the tokens of its cost in the bucket of the user.
+ * The cost is estimated as the number of the requested patient-days: the days of the filter
+ * range times one patient, or times all patients if the request is not for a single one.
+ * A conditional request carrying the current entity tag of the requested records is admitted
+ * for one token, and the rest of its cost is charged after it completes unless it was answered
+ * with 304 Not Modified, so revalidations stay cheap while a made-up tag pays the full cost.
+ * A rejected request fails with 429 Too Many Requests and a Retry-After header.
+ */
+@Slf4j
+@Component
+public class AdmissionControlInterceptor implements HandlerInterceptor {
+
+  private static final String ADMISSION_ATTRIBUTE =
+      AdmissionControlInterceptor.class.getName() + ".ADMISSION";
+  private static final String START_DATE = "startDate";
+  private static final String END_DATE = "endDate";
+  private static final String PATIENT_ID_VARIABLE = "id";
+  private static final String PATIENT_ID_PARAMETER = "patientId";
+  private static final long CONCURRENCY_RETRY_AFTER_SECONDS = 1;
+  private static final long REVALIDATION_COST = 1;
+
+  private final PatientDirectoryService patientDirectory;
+  private final DataVersionService dataVersionService;
+  private final MeterRegistry meterRegistry;
+  private final Clock clock;
+  private final boolean enabled;
+  private final double bucketCapacity;
+  private final double refillPerSecond;
+  private final Map<EndpointClass, Semaphore> slots = new EnumMap<>(EndpointClass.class);
+  private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the interceptor.
+   *
+   * @param patientDirectory the directory counting the patients
+   * @param dataVersionService the service providing the current entity tags
+   * @param meterRegistry the registry of the admission metrics
+   * @param clock the clock the default filter range ends by
+   * @param environment the environment with the concurrency limits of the endpoint classes
+   * @param enabled whether the requests are admission controlled
+   * @param bucketCapacity the maximum number of patient-days a user may request at once
+   * @param refillPerSecond the number of patient-days a user may request per second
+   */
+  public AdmissionControlInterceptor(
+      PatientDirectoryService patientDirectory,
+      DataVersionService dataVersionService,
+      MeterRegistry meterRegistry,
+      Clock clock,
+      Environment environment,
+      @Value("${app.admission.enabled:true}") boolean enabled,
+      @Value("${app.admission.bucket-capacity:100000}") double bucketCapacity,
+      @Value("${app.admission.refill-per-second:1000}") double refillPerSecond) {
+    this.patientDirectory = patientDirectory;
+    this.dataVersionService = dataVersionService;
+    this.meterRegistry = meterRegistry;
+    this.clock = clock;
+    this.enabled = enabled;
+    this.bucketCapacity = bucketCapacity;
+    this.refillPerSecond = refillPerSecond;
+    for (EndpointClass endpointClass : EndpointClass.values()) {
+      slots.put(endpointClass, new Semaphore(environment.getProperty(
+          "app.admission.max-concurrent." + endpointClass.getKey(), Integer.class,
+          endpointClass.getDefaultMaxConcurrent())));
+    }
+  }
+
+  /**
+   * Takes a slot of the endpoint class and the tokens of the request cost,
+   * or a single token if the request carries the current entity tag.
+   *
+   * @param request http request
+   * @param response http response
+   * @param handler chosen handler to execute
+   * @return always true
+   * @throws TooManyRequestsException if the request is not admitted
+   */
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    AdmissionControlled admission = handler instanceof HandlerMethod handlerMethod
+        ? handlerMethod.getMethodAnnotation(AdmissionControlled.class) : null;
+    if (!enabled || admission == null) {
+      return true;
+    }
+    EndpointClass endpointClass = admission.value();
+    Semaphore slot = slots.get(endpointClass);
+    if (!slot.tryAcquire()) {
+      reject(endpointClass, "concurrency", CONCURRENCY_RETRY_AFTER_SECONDS);
+    }
+    long cost = estimateCost(request);
+    long admissionCost = hasCurrentTag(request) ? Math.min(cost, REVALIDATION_COST) : cost;
+    long now = System.nanoTime();
+    TokenBucket bucket = buckets.computeIfAbsent(currentUser(),
+        user -> new TokenBucket(bucketCapacity, refillPerSecond, now));
+    long waitNanos = bucket.tryConsume(admissionCost, now);
+    if (waitNanos > 0) {
+      slot.release();
+      reject(endpointClass, "rate", TimeUnit.NANOSECONDS.toSeconds(waitNanos - 1) + 1);
+    }
+    request.setAttribute(ADMISSION_ATTRIBUTE,
+        new Admission(slot, bucket, cost - admissionCost));
+    meterRegistry.counter("mood.admission.admitted", "class", endpointClass.getKey()).increment();
+    log.debug("Admitted a {} request of {} patient-days", endpointClass.getKey(), cost);
+    return true;
+  }
+
+  /**
+   * Releases the slot of the admitted request and charges the rest of the cost
+   * of a conditional request that was not answered with 304 Not Modified.
+   *
+   * @param request http request
+   * @param response http response
+   * @param handler the executed handler
+   * @param ex exception thrown on handler execution, if any
+   */
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    Object attribute = request.getAttribute(ADMISSION_ATTRIBUTE);
+    if (attribute instanceof Admission admission) {
+      request.removeAttribute(ADMISSION_ATTRIBUTE);
+      admission.slot().release();
+      if (admission.deferredCost() > 0 && response.getStatus() != HttpStatus.NOT_MODIFIED.value()) {
+        admission.bucket().consume(admission.deferredCost(), System.nanoTime());
+      }
+    }
+  }
+
+  private void reject(EndpointClass endpointClass, String reason, long retryAfterSeconds) {
+    meterRegistry.counter("mood.admission.rejected",
+        "class", endpointClass.getKey(), "reason", reason).increment();
+    log.info("Rejected a {} request of {} by {} limit", endpointClass.getKey(), currentUser(),
+        reason);
+    throw new TooManyRequestsException(String.format(
+        "Too many %s requests, retry in %d s", endpointClass.getKey(), retryAfterSeconds),
+        retryAfterSeconds);
+  }
+
+  private long estimateCost(HttpServletRequest request) {
+    LocalDate today = LocalDate.now(clock);
+    LocalDate startDate = parseDate(request.getParameter(START_DATE), today);
+    LocalDate endDate = parseDate(request.getParameter(END_DATE), today);
+    long days = Math.max(1, ChronoUnit.DAYS.between(startDate, endDate) + 1);
+    long patients = patientIdOf(request) != null
+        ? 1 : Math.max(1, patientDirectory.findAllPatients().size());
+    return days * patients;
+  }
+
+  /**
+   * Checks whether one of the "If-None-Match" tags carries the current versions of the requested
+   * records. The tags of the handlers start with these versions and go on with the request
+   * parameters they depend on, so a tag the client got from the handler matches by its prefix.
+   */
+  private boolean hasCurrentTag(HttpServletRequest request) {
+    if (request.getHeader(HttpHeaders.IF_NONE_MATCH) == null) {
+      return false;
+    }
+    String patientId = patientIdOf(request);
+    String current;
+    try {
+      current = dataVersionService.getSettledTag(patientId != null
+          ? dataVersionService.getPatientRecordsTag(Long.valueOf(patientId))
+          : dataVersionService.getAllRecordsTag());
+    } catch (NumberFormatException e) {
+      return false;
+    }
+    if (current == null) {
+      return false;
+    }
+    String versions = current.substring(0, current.length() - 1);
+    for (String header : Collections.list(request.getHeaders(HttpHeaders.IF_NONE_MATCH))) {
+      for (String tag : header.split(",")) {
+        tag = tag.trim();
+        if (tag.equals(current) || tag.startsWith(versions + "-")) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static String patientIdOf(HttpServletRequest request) {
+    Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+    if (variables instanceof Map<?, ?> map && map.get(PATIENT_ID_VARIABLE) != null) {
+      return map.get(PATIENT_ID_VARIABLE).toString();
+    }
+    return request.getParameter(PATIENT_ID_PARAMETER);
+  }
+
+  private static LocalDate parseDate(String value, LocalDate defaultDate) {
+    try {
+      return value == null ? defaultDate : LocalDate.parse(value);
+    } catch (DateTimeParseException e) {
+      return defaultDate;
+    }
+  }
+
+  private static String currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication == null || authentication.getName() == null
+        ? "" : authentication.getName();
+  }
+
+  private record Admission(Semaphore slot, TokenBucket bucket, long deferredCost) {
+  }
+}
@@ -0,0 +1,24 @@
+package com.syberry.mood.admission;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an expensive controller method whose requests are admitted by the
+ * {@link AdmissionControlInterceptor} before they are handled.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AdmissionControlled {
+
+  /**
+   * Returns the endpoint class sharing the concurrency limit.
+   *
+   * @return the endpoint class
+   */
+  EndpointClass value();
+}
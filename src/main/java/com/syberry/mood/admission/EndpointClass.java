@@ -0,0 +1,29 @@
+package com.syberry.mood.admission;
+
+import java.util.Locale;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The classes of the expensive endpoints, each with its own limit of concurrent requests.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum EndpointClass {
+
+  GRID(8),
+  STATISTIC(8),
+  CSV(4),
+  PDF(2);
+
+  private final int defaultMaxConcurrent;
+
+  /**
+   * Returns the name of the endpoint class used in the properties and the metrics.
+   *
+   * @return the lower case name
+   */
+  public String getKey() {
+    return name().toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,65 @@
+package com.syberry.mood.admission;
+
+/**
+ * A token bucket refilled continuously at a fixed rate up to its capacity.
+ * The tokens are kept as a double, so fractional refills are not lost between requests.
+ * The tokens charged after the fact may leave the bucket in deficit.
+ */
+public class TokenBucket {
+
+  private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+  private final double capacity;
+  private final double refillPerSecond;
+  private double tokens;
+  private long refilledAt;
+
+  /**
+   * Creates a full bucket.
+   *
+   * @param capacity the maximum number of tokens
+   * @param refillPerSecond the number of tokens added per second
+   * @param now the current time in nanoseconds
+   */
+  public TokenBucket(double capacity, double refillPerSecond, long now) {
+    this.capacity = capacity;
+    this.refillPerSecond = refillPerSecond;
+    this.tokens = capacity;
+    this.refilledAt = now;
+  }
+
+  /**
+   * Takes the tokens if the bucket has enough of them. A cost above the capacity takes
+   * the full bucket, so an expensive request is delayed but never rejected forever.
+   *
+   * @param cost the number of tokens to take
+   * @param now the current time in nanoseconds
+   * @return 0 if the tokens are taken, otherwise the nanoseconds until the bucket has enough
+   */
+  public synchronized long tryConsume(double cost, long now) {
+    refill(now);
+    double required = Math.min(cost, capacity);
+    if (tokens >= required) {
+      tokens -= required;
+      return 0;
+    }
+    return (long) Math.ceil((required - tokens) / refillPerSecond * NANOS_PER_SECOND);
+  }
+
+  /**
+   * Takes the tokens even if the bucket does not have enough of them, so the deficit
+   * delays the next requests. A cost above the capacity takes at most the capacity.
+   *
+   * @param cost the number of tokens to take
+   * @param now the current time in nanoseconds
+   */
+  public synchronized void consume(double cost, long now) {
+    refill(now);
+    tokens -= Math.min(cost, capacity);
+  }
+
+  private void refill(long now) {
+    tokens = Math.min(capacity, tokens + (now - refilledAt) / NANOS_PER_SECOND * refillPerSecond);
+    refilledAt = now;
+  }
+}
@@ -4,6 +4,7 @@ import com.syberry.mood.authorization.dto.LoginDto;
 import com.syberry.mood.authorization.dto.LoginRequestDto;
 import com.syberry.mood.authorization.dto.RestorePasswordDto;
 import com.syberry.mood.authorization.service.AuthService;
+import com.syberry.mood.monitoring.sql.SqlStatementBudget;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ import org.springframework.web.bind.annotation.RestController;
 @RestController
 @CrossOrigin
 @Validated
+@SqlStatementBudget(5)
 @RequestMapping("/auth")
 @RequiredArgsConstructor
 @Slf4j
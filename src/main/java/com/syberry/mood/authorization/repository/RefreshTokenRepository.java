@@ -2,6 +2,8 @@ package com.syberry.mood.authorization.repository;
 
 import com.syberry.mood.authorization.entity.RefreshToken;
 import com.syberry.mood.exception.TokenRefreshException;
+import com.syberry.mood.sharding.Aggregation;
+import com.syberry.mood.sharding.ScatterGather;
 import com.syberry.mood.user.entity.User;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -19,6 +21,7 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
    * @param token refresh token
    * @return an Optional containing refresh token if it exists, or an empty Optional if id does not
    */
+  @ScatterGather(Aggregation.FIRST)
   Optional<RefreshToken> findByToken(String token);
 
   /**
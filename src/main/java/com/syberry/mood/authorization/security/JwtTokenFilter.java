@@ -1,6 +1,10 @@
 package com.syberry.mood.authorization.security;
 
 import com.syberry.mood.authorization.util.SecurityUtils;
+import com.syberry.mood.monitoring.metrics.MetricTags;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -25,6 +29,7 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
   private UserDetailsService userDetailsService;
   private SecurityUtils securityUtils;
+  private MeterRegistry meterRegistry;
 
   /**
    * Injects UserDetailsService bean.
@@ -46,6 +51,16 @@ public class JwtTokenFilter extends OncePerRequestFilter {
     this.securityUtils = securityUtils;
   }
 
+  /**
+   * Injects MeterRegistry bean.
+   *
+   * @param meterRegistry registry for the filter latency timer
+   */
+  @Autowired
+  public void setMeterRegistry(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
   /**
    * Analyzes users requests, puts users details into Security Context.
    *
@@ -60,15 +75,41 @@ public class JwtTokenFilter extends OncePerRequestFilter {
       HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     String jwtFromCookies = securityUtils.getJwtFromCookies(request);
-    if (jwtFromCookies != null && securityUtils.validateJwtToken(jwtFromCookies)) {
-      String username = securityUtils.getUsernameFromJwtToken(jwtFromCookies);
-      UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-      UsernamePasswordAuthenticationToken authentication =
-          new UsernamePasswordAuthenticationToken(userDetails, null,
-              userDetails.getAuthorities());
-      authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-      SecurityContextHolder.getContext().setAuthentication(authentication);
+    if (jwtFromCookies != null) {
+      Timer.Sample sample = Timer.start(meterRegistry);
+      String outcome = "error";
+      try {
+        outcome = authenticate(request, jwtFromCookies) ? "authenticated" : "rejected";
+      } finally {
+        sample.stop(Timer.builder("mood.security.jwt.filter")
+            .description("Time spent validating the access token and loading the user")
+            .tag("outcome", outcome)
+            .tags(Tags.of(MetricTags.role()))
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+      }
     }
     filterChain.doFilter(request, response);
   }
+
+  /**
+   * Validates the access token and puts users details into Security Context.
+   *
+   * @param request http request
+   * @param jwtFromCookies access token
+   * @return true if the token is valid
+   */
+  private boolean authenticate(HttpServletRequest request, String jwtFromCookies) {
+    if (!securityUtils.validateJwtToken(jwtFromCookies)) {
+      return false;
+    }
+    String username = securityUtils.getUsernameFromJwtToken(jwtFromCookies);
+    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+    UsernamePasswordAuthenticationToken authentication =
+        new UsernamePasswordAuthenticationToken(userDetails, null,
+            userDetails.getAuthorities());
+    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+    SecurityContextHolder.getContext().setAuthentication(authentication);
+    return true;
+  }
 }
@@ -4,6 +4,9 @@ import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.syberry.mood.authorization.service.impl.UserDetailsServiceImpl;
+import com.syberry.mood.monitoring.metrics.TimedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import lombok.RequiredArgsConstructor;
@@ -34,6 +37,7 @@ public class SecurityConfig {
   private final UserDetailsServiceImpl userDetailsService;
   private final AuthEntryPointJwt authEntryPointJwt;
   private final JwtTokenFilter jwtTokenFilter;
+  private final MeterRegistry meterRegistry;
 
   @Value("${app.cache-expiration}")
   private long cacheExpiration;
@@ -66,11 +70,11 @@ public class SecurityConfig {
   /**
    * Defines encoder for passwords.
    *
-   * @return password encoder
+   * @return password encoder measuring the hashing time
    */
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    return new TimedPasswordEncoder(new BCryptPasswordEncoder(), meterRegistry);
   }
 
   /**
@@ -91,6 +95,8 @@ public class SecurityConfig {
         .antMatchers("/auth/refresh").permitAll()
         .antMatchers("/auth/reset").permitAll()
         .antMatchers("/auth/restore").permitAll()
+        .antMatchers("/actuator/health").permitAll()
+        .antMatchers("/actuator/**").hasRole("SUPER_ADMIN")
         .anyRequest().authenticated();
 
     http.headers().frameOptions().sameOrigin();
@@ -126,17 +132,19 @@ public class SecurityConfig {
   /**
    * Defines LoadingCache bean.
    *
-   * @return LoadingCache bean
+   * @return LoadingCache bean with hit and miss statistics bound to the meter registry
    */
   @Bean
   public LoadingCache<String, String> passwordResetTokenCache() {
-    return CacheBuilder.newBuilder()
+    LoadingCache<String, String> cache = CacheBuilder.newBuilder()
         .expireAfterWrite(cacheExpiration, TimeUnit.MINUTES)
+        .recordStats()
         .build(new CacheLoader<>() {
           @Override
           public String load(String key) {
             return "";
           }
         });
+    return GuavaCacheMetrics.monitor(meterRegistry, cache, "passwordResetTokenCache");
   }
 }
@@ -0,0 +1,50 @@
+package com.syberry.mood.changelog.controller;
+
+import com.syberry.mood.changelog.dto.ChangeLogPageDto;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.monitoring.sql.SqlStatementBudget;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * A controller for handling the requests of the consumers tailing the change log.
+ */
+@RestController
+@CrossOrigin
+@Validated
+@Slf4j
+@RequiredArgsConstructor
+@SqlStatementBudget(1)
+@RequestMapping("/changes")
+public class ChangeLogController {
+
+  private final ChangeLogService changeLogService;
+
+  /**
+   * Returns the changes of the emotion records and the patients of a shard following
+   * the cursor, without skipping the changes still being committed.
+   *
+   * @param shard the index of the shard, 0 if the data is not sharded
+   * @param cursor the cursor returned with the last changes, 0 to start from the oldest change
+   * @param limit the maximum number of changes to return
+   * @return the changes with the cursor to request the next ones with
+   */
+  @GetMapping
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN')")
+  public ChangeLogPageDto findChanges(@RequestParam(defaultValue = "0") @Min(0) int shard,
+                                      @RequestParam(defaultValue = "0") @Min(0) long cursor,
+                                      @RequestParam(defaultValue = "100") @Min(1) @Max(1000)
+                                      int limit) {
+    log.info("GET-request: getting changes of shard {} after {}", shard, cursor);
+    return changeLogService.findChanges(shard, cursor, limit);
+  }
+}
@@ -0,0 +1,61 @@
+package com.syberry.mood.changelog.converter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.entity.ChangeLogEntry;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import java.io.UncheckedIOException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * A component that provides converting methods for the ChangeLogEntry entity.
+ */
+@Component
+@RequiredArgsConstructor
+public class ChangeLogConverter {
+
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Converts a change of an entity to a ChangeLogEntry entity with its DTO as the payload.
+   *
+   * @param entityType the kind of the changed entity
+   * @param entityId the ID of the changed entity
+   * @param operation the kind of the change
+   * @param payload the DTO of the changed entity, or null if the change has no payload
+   * @return the ChangeLogEntry entity
+   */
+  public ChangeLogEntry convertToEntity(ChangedEntity entityType, Long entityId,
+                                        ChangeType operation, Object payload) {
+    try {
+      return ChangeLogEntry.builder()
+          .entityType(entityType)
+          .entityId(entityId)
+          .operation(operation)
+          .payload(payload == null ? null : objectMapper.writeValueAsString(payload))
+          .build();
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Converts a ChangeLogEntry entity to a ChangeLogEntryDto object.
+   *
+   * @param entry the ChangeLogEntry entity to be converted
+   * @return the ChangeLogEntryDto object corresponding to the given entity
+   */
+  public ChangeLogEntryDto convertToDto(ChangeLogEntry entry) {
+    return ChangeLogEntryDto.builder()
+        .sequence(entry.getSequence())
+        .entityType(entry.getEntityType())
+        .entityId(entry.getEntityId())
+        .operation(entry.getOperation())
+        .payload(entry.getPayload())
+        .createdAt(entry.getCreatedAt())
+        .build();
+  }
+}
@@ -0,0 +1,29 @@
+package com.syberry.mood.changelog.dto;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data transfer object that represents a ChangeLogEntry entity.
+ * The payload is the JSON of the changed entity as it was after the change,
+ * or before it for the deletions.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntryDto {
+
+  private Long sequence;
+  private ChangedEntity entityType;
+  private Long entityId;
+  private ChangeType operation;
+  @JsonRawValue
+  private String payload;
+  private LocalDateTime createdAt;
+}
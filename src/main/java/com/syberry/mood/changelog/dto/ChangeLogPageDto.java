@@ -0,0 +1,24 @@
+package com.syberry.mood.changelog.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data transfer object that represents the changes following a cursor of the change log.
+ * The cursor to request the next changes with is the sequence of the last returned change.
+ * If changes following the requested cursor were already removed by the retention,
+ * truncated is set and the consumer has to reload the data instead of applying the changes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogPageDto {
+
+  private List<ChangeLogEntryDto> changes;
+  private long cursor;
+  private boolean truncated;
+}
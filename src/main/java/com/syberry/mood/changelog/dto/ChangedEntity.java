@@ -0,0 +1,14 @@
+package com.syberry.mood.changelog.dto;
+
+/**
+ * An enumeration representing the kinds of entities whose changes are logged.
+ */
+public enum ChangedEntity {
+
+  EMOTION_RECORD,
+  PATIENT,
+  /**
+   * The emotion records of a month removed at once, identified like 202301.
+   */
+  EMOTION_RECORD_MONTH
+}
@@ -0,0 +1,53 @@
+package com.syberry.mood.changelog.entity;
+
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import java.time.LocalDateTime;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * The entity representing an entry of the append-only change log. The sequence is the identity
+ * of the table, so it follows the order the entries were inserted in, not the order they
+ * were committed in.
+ */
+@Entity
+@Table(name = "change_log")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeLogEntry {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long sequence;
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  @Column(length = 20)
+  private ChangedEntity entityType;
+  @NotNull
+  private Long entityId;
+  @NotNull
+  @Enumerated(EnumType.STRING)
+  @Column(length = 10)
+  private ChangeType operation;
+  @Column(length = 2000)
+  private String payload;
+  @NotNull
+  @Builder.Default
+  private LocalDateTime createdAt = LocalDateTime.now();
+}
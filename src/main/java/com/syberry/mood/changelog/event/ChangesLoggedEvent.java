@@ -0,0 +1,18 @@
+package com.syberry.mood.changelog.event;
+
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An application event published when this instance appends changes to the change log.
+ * Listeners should use {@link org.springframework.transaction.event.TransactionalEventListener}
+ * to react only to committed changes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ChangesLoggedEvent {
+
+  private final List<ChangeLogEntryDto> changes;
+}
@@ -0,0 +1,20 @@
+package com.syberry.mood.changelog.event;
+
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An application event published when the change log of a shard has been read up to a cursor.
+ * The changes are the committed ones of all instances, this one included, and are empty
+ * for the cursor the log is tailed from.
+ */
+@Getter
+@RequiredArgsConstructor
+public class ChangesTailedEvent {
+
+  private final int shard;
+  private final List<ChangeLogEntryDto> changes;
+  private final long cursor;
+}
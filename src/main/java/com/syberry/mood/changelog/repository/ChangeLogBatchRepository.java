@@ -0,0 +1,18 @@
+package com.syberry.mood.changelog.repository;
+
+import com.syberry.mood.changelog.entity.ChangeLogEntry;
+import java.util.List;
+
+/**
+ * Repository fragment appending change log entries through JDBC batches.
+ */
+public interface ChangeLogBatchRepository {
+
+  /**
+   * Inserts the entries in a single JDBC batch, bypassing the persistence context,
+   * and sets their generated sequences.
+   *
+   * @param entries the entries to insert, their sequences are assigned in this order
+   */
+  void insertAll(List<ChangeLogEntry> entries);
+}
@@ -0,0 +1,71 @@
+package com.syberry.mood.changelog.repository;
+
+import com.syberry.mood.changelog.entity.ChangeLogEntry;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * JDBC implementation of the {@link ChangeLogBatchRepository} fragment.
+ */
+@RequiredArgsConstructor
+public class ChangeLogBatchRepositoryImpl implements ChangeLogBatchRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private volatile String insertSql;
+
+  @Override
+  public void insertAll(List<ChangeLogEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.execute(
+        connection -> connection.prepareStatement(getInsertSql(), Statement.RETURN_GENERATED_KEYS),
+        (PreparedStatementCallback<Void>) statement -> {
+          for (ChangeLogEntry entry : entries) {
+            statement.setString(1, entry.getEntityType().name());
+            statement.setLong(2, entry.getEntityId());
+            statement.setString(3, entry.getOperation().name());
+            statement.setString(4, entry.getPayload());
+            statement.setTimestamp(5, Timestamp.valueOf(entry.getCreatedAt()));
+            statement.addBatch();
+          }
+          statement.executeBatch();
+          try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (ChangeLogEntry entry : entries) {
+              if (!keys.next()) {
+                throw new IllegalStateException("The generated keys of the batch are missing");
+              }
+              entry.setSequence(keys.getLong(1));
+            }
+          }
+          return null;
+        });
+  }
+
+  /**
+   * Builds the insert statement quoting the identifiers like Hibernate does
+   * with globally quoted identifiers.
+   */
+  private String getInsertSql() {
+    if (insertSql == null) {
+      String quote;
+      try {
+        quote = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+            metaData -> metaData.getIdentifierQuoteString().trim());
+      } catch (MetaDataAccessException e) {
+        quote = "";
+      }
+      insertSql = String.format("INSERT INTO %1$schange_log%1$s (%1$sentity_type%1$s,"
+          + " %1$sentity_id%1$s, %1$soperation%1$s, %1$spayload%1$s, %1$screated_at%1$s)"
+          + " VALUES (?, ?, ?, ?, ?)", quote);
+    }
+    return insertSql;
+  }
+}
@@ -0,0 +1,68 @@
+package com.syberry.mood.changelog.repository;
+
+import com.syberry.mood.changelog.entity.ChangeLogEntry;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for reading and appending the entries of the change log.
+ */
+@Repository
+public interface ChangeLogRepository extends JpaRepository<ChangeLogEntry, Long>,
+    ChangeLogBatchRepository {
+
+  /**
+   * Finds the entry of the sequence, if it is retained, and the entries following it
+   * in the order of their sequences.
+   *
+   * @param sequence the sequence to start from
+   * @param pageable the number of entries to return
+   * @return the entries from the sequence on
+   */
+  List<ChangeLogEntry> findBySequenceGreaterThanEqualOrderBySequence(Long sequence,
+                                                                     Pageable pageable);
+
+  /**
+   * Finds the sequences of the oldest entries created before the given time.
+   * The entries are scanned in the order of the primary key, where the old ones come first.
+   *
+   * @param before the time to find the entries created before
+   * @param pageable the number of sequences to return
+   * @return the sequences in ascending order
+   */
+  @Query("SELECT e.sequence FROM ChangeLogEntry e WHERE e.createdAt < :before "
+      + "ORDER BY e.sequence")
+  List<Long> findSequencesCreatedBefore(LocalDateTime before, Pageable pageable);
+
+  /**
+   * Finds the entry of the last sequence.
+   *
+   * @return the entry, or empty if the log is empty
+   */
+  Optional<ChangeLogEntry> findFirstByOrderBySequenceDesc();
+
+  /**
+   * Finds the sequence of the last entry created before the given time.
+   *
+   * @param before the time to find the entry created before
+   * @return the sequence, or null if there is no such entry
+   */
+  @Query("SELECT MAX(e.sequence) FROM ChangeLogEntry e WHERE e.createdAt < :before")
+  Long findLastSequenceCreatedBefore(LocalDateTime before);
+
+  /**
+   * Deletes the entries up to the given sequence.
+   *
+   * @param sequence the last sequence to delete
+   * @return the number of deleted entries
+   */
+  @Modifying
+  @Query("DELETE FROM ChangeLogEntry e WHERE e.sequence <= :sequence")
+  int deleteUpTo(Long sequence);
+}
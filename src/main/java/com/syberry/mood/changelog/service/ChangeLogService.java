@@ -0,0 +1,72 @@
+package com.syberry.mood.changelog.service;
+
+import com.syberry.mood.changelog.dto.ChangeLogPageDto;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import java.util.Map;
+
+/**
+ * Service interface for the append-only change log of the emotion records and the patients,
+ * which lets the consumers like caches and the data warehouse follow the changes
+ * instead of scanning the tables.
+ */
+public interface ChangeLogService {
+
+  /**
+   * Appends a change to the log in the transaction of the change, so the entry is committed
+   * together with it. The consumers wait for an entry to be committed before they read
+   * the entries inserted after it, so the change should be recorded at the end of its
+   * transaction.
+   *
+   * @param entityType the kind of the changed entity
+   * @param entityId the ID of the changed entity
+   * @param operation the kind of the change
+   * @param payload the DTO of the entity after the change, or before it for a deletion,
+   *     null if the change has no payload
+   * @throws org.springframework.transaction.IllegalTransactionStateException
+   *     if no transaction is active
+   */
+  void recordChange(ChangedEntity entityType, Long entityId, ChangeType operation,
+                    Object payload);
+
+  /**
+   * Appends the changes of several entities of the same kind to the log in one batch,
+   * in the transaction of the changes, like {@link #recordChange}.
+   *
+   * @param entityType the kind of the changed entities
+   * @param operation the kind of the changes
+   * @param payloads the DTOs of the changed entities by their IDs, in the order to log them,
+   *     null values for the changes without a payload
+   * @throws org.springframework.transaction.IllegalTransactionStateException
+   *     if no transaction is active
+   */
+  void recordChanges(ChangedEntity entityType, ChangeType operation, Map<Long, ?> payloads);
+
+  /**
+   * Finds the changes of a shard following the cursor. Every shard has its own log,
+   * so the consumer keeps a cursor per shard.
+   *
+   * @param shard the index of the shard, 0 if the data is not sharded
+   * @param cursor the sequence of the last change seen by the consumer, 0 to start from the oldest
+   * @param limit the maximum number of changes to return
+   * @return the changes with the cursor to request the next ones with
+   * @throws com.syberry.mood.exception.EntityNotFoundException if the shard does not exist
+   */
+  ChangeLogPageDto findChanges(int shard, long cursor, int limit);
+
+  /**
+   * Finds the cursor to tail the log of a shard from, the sequence of the last change
+   * older than the commit timeout before the newest change, since the younger ones may still
+   * be preceded by changes committed later.
+   *
+   * @param shard the index of the shard
+   * @return the cursor to pass to {@link #findChanges}
+   */
+  long findTailStart(int shard);
+
+  /**
+   * Deletes the changes older than the retention period from the logs of all shards
+   * in chunks, each one in its own transaction.
+   */
+  void deleteExpiredChanges();
+}
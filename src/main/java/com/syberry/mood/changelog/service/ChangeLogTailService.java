@@ -0,0 +1,15 @@
+package com.syberry.mood.changelog.service;
+
+/**
+ * Service interface following the change log of every shard on every instance of the
+ * application, so the in-memory state derived from the data learns about the changes
+ * committed by the other instances.
+ */
+public interface ChangeLogTailService {
+
+  /**
+   * Reads the changes committed since the last call and publishes them
+   * as {@link com.syberry.mood.changelog.event.ChangesTailedEvent}s.
+   */
+  void pollChanges();
+}
@@ -0,0 +1,183 @@
+package com.syberry.mood.changelog.service.impl;
+
+import com.syberry.mood.changelog.converter.ChangeLogConverter;
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import com.syberry.mood.changelog.dto.ChangeLogPageDto;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.entity.ChangeLogEntry;
+import com.syberry.mood.changelog.event.ChangesLoggedEvent;
+import com.syberry.mood.changelog.repository.ChangeLogRepository;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.exception.EntityNotFoundException;
+import com.syberry.mood.sharding.ShardContext;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link ChangeLogService} interface.
+ * The sequences are drawn from the identity of the log table without any lock, so the writing
+ * transactions do not wait for each other, and an entry may be committed after the entries
+ * following it. The changes are therefore returned up to the first gap in the sequences
+ * whose following entry is younger than the commit timeout, as the gap may still be filled
+ * by a transaction in flight, and older gaps are taken as rolled back. A consumer tailing
+ * the log, also from a lagging replica, thus never skips a committed change. The entries are
+ * deleted from the oldest one on, so the retained ones always follow a known sequence.
+ */
+@Slf4j
+@Service
+public class ChangeLogServiceImpl implements ChangeLogService {
+
+  private final ChangeLogRepository changeLogRepository;
+  private final ChangeLogConverter converter;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TransactionTemplate readTransaction;
+  private final TransactionTemplate writeTransaction;
+  private final Clock clock;
+  private final int retentionDays;
+  private final int chunkSize;
+  private final int commitTimeoutSeconds;
+
+  /**
+   * Creates the service.
+   *
+   * @param changeLogRepository the repository of the log entries
+   * @param converter the converter of the log entries
+   * @param eventPublisher the publisher of the appended changes
+   * @param transactionManager the transaction manager of the database
+   * @param clock the clock the age of the entries is measured with
+   * @param retentionDays the number of days the changes are kept, 0 keeps them forever
+   * @param chunkSize the number of changes deleted per transaction
+   * @param commitTimeoutSeconds the seconds after which a gap in the sequences is taken
+   *     as a rolled back transaction
+   */
+  public ChangeLogServiceImpl(
+      ChangeLogRepository changeLogRepository,
+      ChangeLogConverter converter,
+      ApplicationEventPublisher eventPublisher,
+      PlatformTransactionManager transactionManager,
+      Clock clock,
+      @Value("${app.change-log.retention-days:30}") int retentionDays,
+      @Value("${app.change-log.chunk-size:1000}") int chunkSize,
+      @Value("${app.change-log.commit-timeout-seconds:60}") int commitTimeoutSeconds) {
+    this.changeLogRepository = changeLogRepository;
+    this.converter = converter;
+    this.eventPublisher = eventPublisher;
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.clock = clock;
+    this.retentionDays = retentionDays;
+    this.chunkSize = chunkSize;
+    this.commitTimeoutSeconds = commitTimeoutSeconds;
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordChange(ChangedEntity entityType, Long entityId, ChangeType operation,
+                           Object payload) {
+    ChangeLogEntry entry = changeLogRepository.save(
+        converter.convertToEntity(entityType, entityId, operation, payload));
+    eventPublisher.publishEvent(new ChangesLoggedEvent(List.of(converter.convertToDto(entry))));
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordChanges(ChangedEntity entityType, ChangeType operation,
+                            Map<Long, ?> payloads) {
+    if (payloads.isEmpty()) {
+      return;
+    }
+    List<ChangeLogEntry> entries = new ArrayList<>(payloads.size());
+    for (Map.Entry<Long, ?> payload : payloads.entrySet()) {
+      entries.add(converter.convertToEntity(
+          entityType, payload.getKey(), operation, payload.getValue()));
+    }
+    changeLogRepository.insertAll(entries);
+    eventPublisher.publishEvent(new ChangesLoggedEvent(
+        entries.stream().map(converter::convertToDto).toList()));
+  }
+
+  @Override
+  public ChangeLogPageDto findChanges(int shard, long cursor, int limit) {
+    if (shard >= ShardContext.shardCount()) {
+      throw new EntityNotFoundException(String.format("Shard with index: %s is not found", shard));
+    }
+    // the sequences of a shard start at its id range, and the entry of the cursor is read
+    // along, it tells a gap from the removed entries
+    long after = Math.max(cursor, ((long) shard << ShardContext.ID_BITS) - 1);
+    List<ChangeLogEntry> entries = ShardContext.callOn(shard, () -> readTransaction.execute(
+        status -> changeLogRepository.findBySequenceGreaterThanEqualOrderBySequence(
+            after, PageRequest.of(0, limit + 1))));
+    boolean retained = !entries.isEmpty() && entries.get(0).getSequence() == after;
+    List<ChangeLogEntry> following = retained
+        ? entries.subList(1, entries.size())
+        : entries.subList(0, Math.min(limit, entries.size()));
+    boolean truncated = !retained && !following.isEmpty()
+        && following.get(0).getSequence() > after + 1;
+    LocalDateTime committedBefore = LocalDateTime.now(clock).minusSeconds(commitTimeoutSeconds);
+    List<ChangeLogEntryDto> changes = new ArrayList<>(following.size());
+    long last = after;
+    for (ChangeLogEntry entry : following) {
+      boolean gap = entry.getSequence() > last + 1 && !(truncated && changes.isEmpty());
+      if (gap && entry.getCreatedAt().isAfter(committedBefore)) {
+        break;
+      }
+      changes.add(converter.convertToDto(entry));
+      last = entry.getSequence();
+    }
+    return ChangeLogPageDto.builder()
+        .changes(changes)
+        .cursor(last)
+        .truncated(truncated)
+        .build();
+  }
+
+  @Override
+  public long findTailStart(int shard) {
+    // the commit timeout is measured from the newest entry of the primary, the replica
+    // may lag behind it
+    Long sequence = ShardContext.callOn(shard, () -> writeTransaction.execute(
+        status -> changeLogRepository.findFirstByOrderBySequenceDesc()
+            .map(last -> changeLogRepository.findLastSequenceCreatedBefore(
+                last.getCreatedAt().minusSeconds(commitTimeoutSeconds)))
+            .orElse(null)));
+    return sequence != null ? sequence : Math.max(((long) shard << ShardContext.ID_BITS) - 1, 0);
+  }
+
+  @Override
+  @Scheduled(cron = "${app.change-log.cron:0 45 3 * * *}")
+  public void deleteExpiredChanges() {
+    if (retentionDays <= 0) {
+      return;
+    }
+    LocalDateTime before = LocalDateTime.now(clock).minusDays(retentionDays);
+    long total = 0;
+    for (int shard = 0; shard < ShardContext.shardCount(); shard++) {
+      int deleted;
+      do {
+        deleted = ShardContext.callOn(shard, () -> writeTransaction.execute(status -> {
+          List<Long> sequences = changeLogRepository.findSequencesCreatedBefore(
+              before, PageRequest.of(0, chunkSize));
+          return sequences.isEmpty()
+              ? 0 : changeLogRepository.deleteUpTo(sequences.get(sequences.size() - 1));
+        }));
+        total += deleted;
+      } while (deleted >= chunkSize);
+    }
+    log.info("Deleted {} changes created before {}", total, before);
+  }
+}
@@ -0,0 +1,139 @@
+package com.syberry.mood.changelog.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import com.syberry.mood.changelog.dto.ChangeLogPageDto;
+import com.syberry.mood.changelog.event.ChangesLoggedEvent;
+import com.syberry.mood.changelog.event.ChangesTailedEvent;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.changelog.service.ChangeLogTailService;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsRemovedEvent;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.sharding.ShardMap;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.UserRepository;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import javax.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the {@link ChangeLogTailService} interface. The log of every shard
+ * is tailed from the last change older than the commit timeout, found before the application
+ * starts, and is read at a fixed delay.
+ * The changes committed by the other instances are published again as the events the writer
+ * published, so the listeners keeping in-memory state handle them as local ones, and a changed
+ * patient is evicted from the second-level cache before it is read. The changes logged by this
+ * instance are remembered until the tail passes them and are skipped.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChangeLogTailServiceImpl implements ChangeLogTailService,
+    SmartInitializingSingleton {
+
+  private static final int PAGE_SIZE = 1000;
+
+  private final ChangeLogService changeLogService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectProvider<ShardMap> shardMap;
+  private final ObjectMapper objectMapper;
+  private final UserRepository userRepository;
+  private final EntityManagerFactory entityManagerFactory;
+  private final NavigableSet<Long> loggedSequences = new ConcurrentSkipListSet<>();
+  private long[] cursors;
+
+  @Override
+  public synchronized void afterSingletonsInstantiated() {
+    ShardMap shards = shardMap.getIfAvailable();
+    cursors = new long[shards != null ? shards.size() : 1];
+    for (int shard = 0; shard < cursors.length; shard++) {
+      cursors[shard] = changeLogService.findTailStart(shard);
+      eventPublisher.publishEvent(new ChangesTailedEvent(shard, List.of(), cursors[shard]));
+    }
+  }
+
+  @Override
+  @Scheduled(fixedDelayString = "${app.change-log.tail-millis:1000}",
+      initialDelayString = "${app.change-log.tail-millis:1000}")
+  public synchronized void pollChanges() {
+    for (int shard = 0; shard < cursors.length; shard++) {
+      ChangeLogPageDto page;
+      do {
+        page = changeLogService.findChanges(shard, cursors[shard], PAGE_SIZE);
+        if (page.isTruncated()) {
+          log.warn("The changes of shard {} following {} were removed before they were read",
+              shard, cursors[shard]);
+        }
+        if (page.getCursor() != cursors[shard]) {
+          cursors[shard] = page.getCursor();
+          for (ChangeLogEntryDto change : page.getChanges()) {
+            if (!loggedSequences.remove(change.getSequence())) {
+              replay(change);
+            }
+          }
+          // the sequences of the rolled back transactions are never read
+          loggedSequences.subSet((long) shard << ShardContext.ID_BITS, true,
+              page.getCursor(), true).clear();
+          eventPublisher.publishEvent(
+              new ChangesTailedEvent(shard, page.getChanges(), page.getCursor()));
+        }
+      } while (page.getChanges().size() == PAGE_SIZE);
+    }
+  }
+
+  /**
+   * Remembers the changes logged by this instance, which published their events itself.
+   * It runs in the transaction of the changes, before the tail can read them.
+   *
+   * @param event the changes appended to the log
+   */
+  @EventListener
+  public void onChangesLogged(ChangesLoggedEvent event) {
+    event.getChanges().forEach(change -> loggedSequences.add(change.getSequence()));
+  }
+
+  private void replay(ChangeLogEntryDto change) {
+    try {
+      publish(change);
+    } catch (JsonProcessingException | RuntimeException e) {
+      log.error("Could not replay the change {}", change.getSequence(), e);
+    }
+  }
+
+  private void publish(ChangeLogEntryDto change) throws JsonProcessingException {
+    switch (change.getEntityType()) {
+      case EMOTION_RECORD -> {
+        if (change.getOperation() != ChangeType.ARCHIVED) {
+          eventPublisher.publishEvent(new EmotionRecordChangedEvent(change.getOperation(),
+              objectMapper.readValue(change.getPayload(), EmotionRecordDto.class)));
+        }
+      }
+      case PATIENT -> {
+        entityManagerFactory.getCache().evict(User.class, change.getEntityId());
+        userRepository.findById(change.getEntityId())
+            .ifPresent(patient -> eventPublisher.publishEvent(new PatientChangedEvent(patient)));
+      }
+      case EMOTION_RECORD_MONTH -> {
+        YearMonth month = YearMonth.of(Math.toIntExact(change.getEntityId() / 100),
+            Math.toIntExact(change.getEntityId() % 100));
+        eventPublisher.publishEvent(
+            new EmotionRecordsRemovedEvent(month.atDay(1), month.atEndOfMonth()));
+      }
+    }
+  }
+}
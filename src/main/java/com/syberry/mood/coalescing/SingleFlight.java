@@ -0,0 +1,93 @@
+package com.syberry.mood.coalescing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Coalesces the concurrent identical calls into one. The first caller of a key computes
+ * the result and the callers arriving while it is in flight wait for it and share it.
+ * Nothing is cached: the key is forgotten as soon as the call completes. A waiting caller
+ * that is interrupted stops waiting without affecting the others. If the computing caller
+ * is interrupted, its call is cancelled and one of the waiting callers computes it again.
+ */
+@Component
+@RequiredArgsConstructor
+public class SingleFlight {
+
+  private static final String LEADER = "leader";
+  private static final String FOLLOWER = "follower";
+  private static final String RETRIED = "retried";
+
+  private final MeterRegistry meterRegistry;
+  private final Map<FlightKey, CompletableFuture<Object>> flights = new ConcurrentHashMap<>();
+
+  /**
+   * Returns the result of the call, computed by this caller or shared with a concurrent one.
+   *
+   * @param name the name of the kind of the call, used in the metrics
+   * @param key the key of the call, equal for the calls with equal results
+   * @param call the call computing the result
+   * @param <V> the type of the result
+   * @return the result of the call
+   * @throws CancellationException if the caller is interrupted while waiting
+   */
+  @SuppressWarnings("unchecked")
+  public <V> V execute(String name, Object key, Supplier<V> call) {
+    FlightKey flightKey = new FlightKey(name, key);
+    while (true) {
+      CompletableFuture<Object> flight = new CompletableFuture<>();
+      CompletableFuture<Object> inFlight = flights.putIfAbsent(flightKey, flight);
+      if (inFlight == null) {
+        count(name, LEADER);
+        return (V) lead(flightKey, flight, call);
+      }
+      count(name, FOLLOWER);
+      try {
+        return (V) inFlight.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new CancellationException("Interrupted while waiting for the " + name + " call");
+      } catch (CancellationException e) {
+        flights.remove(flightKey, inFlight);
+        count(name, RETRIED);
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof Error error) {
+          throw error;
+        }
+        throw (RuntimeException) e.getCause();
+      }
+    }
+  }
+
+  private Object lead(FlightKey flightKey, CompletableFuture<Object> flight,
+                      Supplier<?> call) {
+    try {
+      Object result = call.get();
+      flight.complete(result);
+      return result;
+    } catch (RuntimeException | Error e) {
+      if (Thread.currentThread().isInterrupted()) {
+        flight.cancel(false);
+      } else {
+        flight.completeExceptionally(e);
+      }
+      throw e;
+    } finally {
+      flights.remove(flightKey, flight);
+    }
+  }
+
+  private void count(String name, String role) {
+    meterRegistry.counter("mood.single-flight.calls", "name", name, "role", role).increment();
+  }
+
+  private record FlightKey(String name, Object key) {
+  }
+}
@@ -2,14 +2,48 @@ package com.syberry.mood.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 /**
  * Configuration bean for setting up application.
  */
 @Configuration
-public class AppConfig {
+@EnableScheduling
+public class AppConfig implements WebMvcConfigurer {
+
+  /**
+   * Defines the period schedule bean the period arithmetic is done with.
+   *
+   * @param schedule the period names with their start times
+   * @return the period schedule in effect
+   */
+  @Bean
+  public PeriodSchedule periodSchedule(
+      @Value("${app.period-schedule:MORNING=00:00, AFTERNOON=12:00, EVENING=17:00}")
+      String schedule) {
+    return PeriodSchedule.parse(schedule);
+  }
+
+  /**
+   * Defines the clock the current date and time are taken from.
+   *
+   * @return the clock of the system time zone
+   */
+  @Bean
+  public Clock clock() {
+    return Clock.systemDefaultZone();
+  }
 
   /**
    * Defines object mapper bean.
@@ -22,4 +56,21 @@ public class AppConfig {
     objectMapper.registerModule(new JavaTimeModule());
     return objectMapper;
   }
+
+  /**
+   * Lets the JSON converter write application/x-ndjson, so that the errors of the streaming
+   * endpoints are rendered as a single JSON line.
+   *
+   * @param converters the configured message converters
+   */
+  @Override
+  public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+    for (HttpMessageConverter<?> converter : converters) {
+      if (converter instanceof MappingJackson2HttpMessageConverter jsonConverter) {
+        List<MediaType> mediaTypes = new ArrayList<>(jsonConverter.getSupportedMediaTypes());
+        mediaTypes.add(MediaType.APPLICATION_NDJSON);
+        jsonConverter.setSupportedMediaTypes(mediaTypes);
+      }
+    }
+  }
 }
@@ -0,0 +1,48 @@
+package com.syberry.mood.configuration;
+
+import com.syberry.mood.sharding.ShardMap;
+import java.util.List;
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the database migrations. The schema is created and updated by Hibernate,
+ * so the migrations run once all beans including the entity manager factory are created,
+ * instead of before it like the auto-configured ones, and only change what Hibernate does
+ * not manage. The existing databases are baselined at version 0, so all migrations run on them.
+ * If sharding is enabled, every shard is migrated.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.flyway.enabled", matchIfMissing = true)
+@RequiredArgsConstructor
+public class FlywayConfig implements SmartInitializingSingleton {
+
+  private final DataSource dataSource;
+  private final List<JavaMigration> migrations;
+  private final ObjectProvider<ShardMap> shardMap;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    migrate(dataSource);
+    ShardMap shards = shardMap.getIfAvailable();
+    for (int shard = 1; shards != null && shard < shards.size(); shard++) {
+      migrate(shards.dataSource(shard));
+    }
+  }
+
+  private void migrate(DataSource target) {
+    Flyway.configure()
+        .dataSource(target)
+        .javaMigrations(migrations.toArray(new JavaMigration[0]))
+        .baselineOnMigrate(true)
+        .baselineVersion("0")
+        .load()
+        .migrate();
+  }
+}
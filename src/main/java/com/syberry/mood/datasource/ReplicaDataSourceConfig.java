@@ -0,0 +1,57 @@
+package com.syberry.mood.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration of the read replica. It is active only when the replica URL is set,
+ * otherwise the auto-configured data source of the primary is used for everything.
+ */
+@Configuration
+@ConditionalOnProperty("app.datasource.replica.url")
+public class ReplicaDataSourceConfig {
+
+  /**
+   * Defines the data source routing the read-only transactions to the replica pool.
+   * The replica uses the driver and, unless overridden, the credentials of the primary.
+   *
+   * @param properties the properties of the primary data source
+   * @param url        the JDBC URL of the replica
+   * @param username   the username of the replica
+   * @param password   the password of the replica
+   * @param maxLag     the time in seconds after a write during which the writer reads
+   *                   from the primary
+   * @return the routing data source
+   */
+  @Bean
+  public DataSource dataSource(
+      DataSourceProperties properties,
+      @Value("${app.datasource.replica.url}") String url,
+      @Value("${app.datasource.replica.username:${spring.datasource.username:}}")
+      String username,
+      @Value("${app.datasource.replica.password:${spring.datasource.password:}}")
+      String password,
+      @Value("${app.datasource.replica.max-lag:5}") long maxLag) {
+    HikariDataSource primary = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    primary.setPoolName("primary");
+    HikariDataSource replica = DataSourceBuilder.create()
+        .type(HikariDataSource.class)
+        .driverClassName(properties.determineDriverClassName())
+        .url(url)
+        .username(username)
+        .password(password)
+        .build();
+    replica.setPoolName("replica");
+    replica.setReadOnly(true);
+    return new ReplicaRoutingDataSource(primary, replica, Duration.ofSeconds(maxLag));
+  }
+}
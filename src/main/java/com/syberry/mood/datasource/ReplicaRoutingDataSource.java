@@ -0,0 +1,120 @@
+package com.syberry.mood.datasource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * A data source sending the read-only transactions to the replica and everything else
+ * to the primary. The physical connection is fetched lazily on the first statement,
+ * when the read-only flag of the transaction is already known.
+ * The replica lags behind the primary, so the reads of a user who committed a write
+ * within the maximum lag still go to the primary and the user reads own writes.
+ */
+public class ReplicaRoutingDataSource extends LazyConnectionDataSourceProxy implements Closeable {
+
+  private static final int PRUNE_THRESHOLD = 10_000;
+
+  private final DataSource primary;
+  private final DataSource replica;
+  private final Duration maxLag;
+  private final Map<String, Instant> lastWrites = new ConcurrentHashMap<>();
+
+  /**
+   * Creates the data source routing between the primary and the replica.
+   *
+   * @param primary the primary data source
+   * @param replica the replica data source
+   * @param maxLag  the time after a write during which the reads of the writer go to the primary
+   */
+  public ReplicaRoutingDataSource(DataSource primary, DataSource replica, Duration maxLag) {
+    this.primary = primary;
+    this.replica = replica;
+    this.maxLag = maxLag;
+    Router router = new Router();
+    router.setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+    router.setDefaultTargetDataSource(primary);
+    router.afterPropertiesSet();
+    setTargetDataSource(router);
+  }
+
+  @Override
+  public void close() throws IOException {
+    try {
+      closeIfPossible(replica);
+    } finally {
+      closeIfPossible(primary);
+    }
+  }
+
+  private Target determineTarget() {
+    String user = currentUser();
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      if (TransactionSynchronizationManager.isSynchronizationActive()) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+          @Override
+          public void afterCommit() {
+            recordWrite(user);
+          }
+        });
+      }
+      return Target.PRIMARY;
+    }
+    return isRecentWriter(user) ? Target.PRIMARY : Target.REPLICA;
+  }
+
+  private void recordWrite(String user) {
+    Instant now = Instant.now();
+    lastWrites.put(user, now);
+    if (lastWrites.size() > PRUNE_THRESHOLD) {
+      lastWrites.values().removeIf(lastWrite -> !lastWrite.plus(maxLag).isAfter(now));
+    }
+  }
+
+  private boolean isRecentWriter(String user) {
+    Instant lastWrite = lastWrites.get(user);
+    if (lastWrite == null) {
+      return false;
+    }
+    if (lastWrite.plus(maxLag).isAfter(Instant.now())) {
+      return true;
+    }
+    lastWrites.remove(user, lastWrite);
+    return false;
+  }
+
+  private static String currentUser() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    return authentication != null && authentication.getName() != null
+        ? authentication.getName() : "";
+  }
+
+  private static void closeIfPossible(DataSource dataSource) throws IOException {
+    if (dataSource instanceof Closeable closeable) {
+      closeable.close();
+    }
+  }
+
+  private enum Target {
+    PRIMARY,
+    REPLICA
+  }
+
+  private class Router extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+      return determineTarget();
+    }
+  }
+}
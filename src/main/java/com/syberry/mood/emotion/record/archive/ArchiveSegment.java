@@ -0,0 +1,197 @@
+package com.syberry.mood.emotion.record.archive;
+
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.Period;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * An immutable file of archived emotion records, read through a memory mapping.
+ * The file starts with a header of the magic number, the format version and the number
+ * of records, followed by the fixed-size records ordered by creation time and id, followed
+ * by the notes. A record holds its id, patient id, epoch day, nanosecond of the day, period,
+ * emotion, intensity and the offset of its note, or -1 without a note. A note is its length
+ * as an unsigned short and its UTF-8 bytes. The time of the update is not archived.
+ */
+public final class ArchiveSegment {
+
+  /**
+   * The order of the records in a segment.
+   */
+  public static final Comparator<EmotionRecordDto> ORDER = Comparator
+      .comparing(EmotionRecordDto::getCreatedAt)
+      .thenComparing(EmotionRecordDto::getId);
+
+  private static final int MAGIC = 0x4d4f4f44;
+  private static final int VERSION = 1;
+  private static final int HEADER_SIZE = 12;
+  private static final int RECORD_SIZE = 35;
+  private static final int COUNT_OFFSET = 8;
+  private static final int NO_NOTE = -1;
+  private static final Period[] PERIODS = Period.values();
+  private static final Emotion[] EMOTIONS = Emotion.values();
+
+  private final MappedByteBuffer buffer;
+  private final int count;
+  private final int notesStart;
+
+  private ArchiveSegment(MappedByteBuffer buffer, int count) {
+    this.buffer = buffer;
+    this.count = count;
+    this.notesStart = HEADER_SIZE + count * RECORD_SIZE;
+  }
+
+  /**
+   * Maps the segment file into memory.
+   *
+   * @param file the segment file
+   * @return the segment
+   * @throws IOException if the file cannot be read or is not a segment
+   */
+  public static ArchiveSegment open(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+      if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC
+          || buffer.getInt(4) != VERSION) {
+        throw new IOException("Not an emotion record archive segment: " + file);
+      }
+      return new ArchiveSegment(buffer, buffer.getInt(COUNT_OFFSET));
+    }
+  }
+
+  /**
+   * Writes the records into a segment file. The file is written aside and moved into place
+   * once complete, so the readers never see a partial segment.
+   *
+   * @param file the segment file
+   * @param records the records ordered by creation time and id
+   * @return the number of the written records
+   * @throws IOException if the file cannot be written
+   */
+  public static int write(Path file, Iterator<EmotionRecordDto> records) throws IOException {
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    ByteArrayOutputStream notes = new ByteArrayOutputStream();
+    DataOutputStream noteOutput = new DataOutputStream(notes);
+    int count = 0;
+    try (DataOutputStream output = new DataOutputStream(
+        new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+      output.writeInt(MAGIC);
+      output.writeInt(VERSION);
+      output.writeInt(0);
+      while (records.hasNext()) {
+        EmotionRecordDto record = records.next();
+        LocalDateTime createdAt = record.getCreatedAt();
+        output.writeLong(record.getId());
+        output.writeLong(record.getPatientId());
+        output.writeInt(Math.toIntExact(createdAt.toLocalDate().toEpochDay()));
+        output.writeLong(createdAt.toLocalTime().toNanoOfDay());
+        output.writeByte(record.getPeriod().ordinal());
+        output.writeByte(record.getEmotion().ordinal());
+        output.writeByte(record.getIntensity());
+        if (record.getNote() == null) {
+          output.writeInt(NO_NOTE);
+        } else {
+          byte[] note = record.getNote().getBytes(StandardCharsets.UTF_8);
+          output.writeInt(notes.size());
+          noteOutput.writeShort(note.length);
+          noteOutput.write(note);
+        }
+        count++;
+      }
+      notes.writeTo(output);
+    }
+    try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, count), COUNT_OFFSET);
+      channel.force(true);
+    }
+    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+        StandardCopyOption.REPLACE_EXISTING);
+    return count;
+  }
+
+  public int size() {
+    return count;
+  }
+
+  /**
+   * Streams the records created within the time range in the order of the segment.
+   *
+   * @param patientId the ID of the patient or null for the records of all patients
+   * @param startDateTime the start of the time range, inclusive
+   * @param endDateTime the end of the time range, exclusive
+   * @return the stream of the records, without the superhero names of the patients
+   */
+  public Stream<EmotionRecordDto> stream(Long patientId, LocalDateTime startDateTime,
+                                         LocalDateTime endDateTime) {
+    IntStream indexes = IntStream.range(lowerBound(startDateTime), lowerBound(endDateTime));
+    if (patientId != null) {
+      indexes = indexes.filter(index -> buffer.getLong(position(index) + 8) == patientId);
+    }
+    return indexes.mapToObj(this::read);
+  }
+
+  private EmotionRecordDto read(int index) {
+    int position = position(index);
+    int noteOffset = buffer.getInt(position + 31);
+    return EmotionRecordDto.builder()
+        .id(buffer.getLong(position))
+        .patientId(buffer.getLong(position + 8))
+        .createdAt(LocalDate.ofEpochDay(buffer.getInt(position + 16))
+            .atTime(LocalTime.ofNanoOfDay(buffer.getLong(position + 20))))
+        .period(PERIODS[buffer.get(position + 28)])
+        .emotion(EMOTIONS[buffer.get(position + 29)])
+        .intensity(buffer.get(position + 30))
+        .note(noteOffset == NO_NOTE ? null : readNote(notesStart + noteOffset))
+        .build();
+  }
+
+  private String readNote(int position) {
+    byte[] note = new byte[Short.toUnsignedInt(buffer.getShort(position))];
+    buffer.get(position + Short.BYTES, note);
+    return new String(note, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Finds the index of the first record created at or after the time.
+   */
+  private int lowerBound(LocalDateTime dateTime) {
+    long epochDay = dateTime.toLocalDate().toEpochDay();
+    long nanoOfDay = dateTime.toLocalTime().toNanoOfDay();
+    int low = 0;
+    int high = count;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      int position = position(middle);
+      int dayComparison = Long.compare(buffer.getInt(position + 16), epochDay);
+      if (dayComparison < 0
+          || dayComparison == 0 && buffer.getLong(position + 20) < nanoOfDay) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static int position(int index) {
+    return HEADER_SIZE + index * RECORD_SIZE;
+  }
+}
@@ -0,0 +1,202 @@
+package com.syberry.mood.emotion.record.cache;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsImportedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsRemovedEvent;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Cache of the finished days of the emotion record grid. A slice is the JSON of the part of
+ * the grid of one date, the records of the patients by period, written by
+ * {@link com.syberry.mood.emotion.record.converter.EmotionRecordGridWriter}, and only the days
+ * before today are cached. If sharding is enabled, every shard has its own slice of a day.
+ * The committed record writes and removals, made by this instance or tailed from the change
+ * log, evict the slices of their dates and the patient changes evict all of them, as the names
+ * and the set of the patients shown on every day may change. All slices are evicted
+ * periodically, so the writes missed by the change log are read as well.
+ * A slice read before an eviction of its date is not put afterwards, nor is one read while
+ * the replica may still lag behind the evicting write, so the cache never keeps a stale day.
+ */
+@Component
+public class GridSliceCache {
+
+  private static final int ALL_SHARDS = -1;
+
+  private final MeterRegistry meterRegistry;
+  private final Clock clock;
+  private final int maxDays;
+  private final long settleNanos;
+  private final NavigableMap<SliceKey, SerializableString> slices =
+      new ConcurrentSkipListMap<>();
+  private final Map<LocalDate, Eviction> evictions = new HashMap<>();
+  private long generation;
+  private Eviction lastClear;
+
+  /**
+   * Creates the cache.
+   *
+   * @param meterRegistry the registry of the hit and miss counters
+   * @param clock the clock telling today, the first day not cached
+   * @param maxDays the maximum number of the cached slices, the oldest days are dropped first
+   * @param settleSeconds the seconds after an eviction during which the day is not cached,
+   *     the maximum lag of the read replica by default
+   */
+  public GridSliceCache(
+      MeterRegistry meterRegistry,
+      Clock clock,
+      @Value("${app.grid-cache.max-days:400}") int maxDays,
+      @Value("${app.grid-cache.settle-seconds:${app.datasource.replica.max-lag:0}}")
+      long settleSeconds) {
+    this.meterRegistry = meterRegistry;
+    this.clock = clock;
+    this.maxDays = maxDays;
+    this.settleNanos = Duration.ofSeconds(settleSeconds).toNanos();
+    this.lastClear = new Eviction(0, System.nanoTime() - settleNanos);
+  }
+
+  /**
+   * Returns the current stamp of the cache. It has to be taken before the records
+   * of the slices to put are read.
+   *
+   * @return the stamp to pass to {@link #put}
+   */
+  public synchronized long stamp() {
+    return generation;
+  }
+
+  /**
+   * Returns the cached slice of the date.
+   *
+   * @param date the date of the slice
+   * @return the JSON of the slice, empty if the day is not a part of the grid,
+   *     or null if not cached
+   */
+  public SerializableString get(LocalDate date) {
+    SerializableString slice = slices.get(SliceKey.current(date));
+    meterRegistry.counter("mood.grid-cache.days", "result", slice == null ? "miss" : "hit")
+        .increment();
+    return slice;
+  }
+
+  /**
+   * Caches the slice of a day before today, unless the day was evicted after the stamp
+   * was taken or too recently for the replica to catch up.
+   *
+   * @param date the date of the slice
+   * @param slice the JSON of the slice, empty if the day is not a part of the grid
+   * @param stamp the stamp taken before the records of the slice were read
+   */
+  public synchronized void put(LocalDate date, SerializableString slice, long stamp) {
+    long now = System.nanoTime();
+    Eviction eviction = evictions.get(date);
+    if (!date.isBefore(LocalDate.now(clock)) || lastClear.isAfter(stamp, now, settleNanos)
+        || eviction != null && eviction.isAfter(stamp, now, settleNanos)) {
+      return;
+    }
+    slices.put(SliceKey.current(date), slice);
+    while (slices.size() > maxDays) {
+      slices.pollFirstEntry();
+    }
+  }
+
+  /**
+   * Evicts the slices of the dates.
+   *
+   * @param dates the dates of the written records
+   */
+  public synchronized void evict(Collection<LocalDate> dates) {
+    Eviction eviction = new Eviction(++generation, System.nanoTime());
+    for (LocalDate date : dates) {
+      slices.subMap(new SliceKey(date, ALL_SHARDS), true,
+          new SliceKey(date, Integer.MAX_VALUE), true).clear();
+      evictions.put(date, eviction);
+    }
+  }
+
+  /**
+   * Evicts all slices.
+   */
+  @Scheduled(cron = "${app.index-reconcile.cron:0 0 * * * *}")
+  public synchronized void clear() {
+    lastClear = new Eviction(++generation, System.nanoTime());
+    slices.clear();
+    evictions.clear();
+  }
+
+  /**
+   * Evicts the slice of the date of the created, updated or deleted record.
+   *
+   * @param event the committed change of the emotion record
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordChanged(EmotionRecordChangedEvent event) {
+    evict(Collections.singleton(event.getEmotionRecord().getCreatedAt().toLocalDate()));
+  }
+
+  /**
+   * Evicts the slices of the dates of the imported records.
+   *
+   * @param event the written chunk of the import
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordsImported(EmotionRecordsImportedEvent event) {
+    evict(event.getDates());
+  }
+
+  /**
+   * Evicts the slices of the dates of the removed records.
+   *
+   * @param event the removal of the records
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordsRemoved(EmotionRecordsRemovedEvent event) {
+    evict(event.getStartDate().datesUntil(event.getEndDate().plusDays(1)).toList());
+  }
+
+  /**
+   * Evicts all slices, as the patient may be shown on any day.
+   *
+   * @param event the committed change of the patient
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onPatientChanged(PatientChangedEvent event) {
+    clear();
+  }
+
+  private record SliceKey(LocalDate date, int shard) implements Comparable<SliceKey> {
+
+    static SliceKey current(LocalDate date) {
+      Integer shard = ShardContext.current();
+      return new SliceKey(date, shard != null ? shard : ALL_SHARDS);
+    }
+
+    @Override
+    public int compareTo(SliceKey other) {
+      int byDate = date.compareTo(other.date);
+      return byDate != 0 ? byDate : Integer.compare(shard, other.shard);
+    }
+  }
+
+  private record Eviction(long stamp, long nanoTime) {
+
+    boolean isAfter(long readStamp, long now, long settleNanos) {
+      return stamp > readStamp || now - nanoTime < settleNanos;
+    }
+  }
+}
@@ -1,17 +1,44 @@
 package com.syberry.mood.emotion.record.controller;
 
+import com.syberry.mood.admission.AdmissionControlled;
+import com.syberry.mood.admission.EndpointClass;
+import com.syberry.mood.coalescing.SingleFlight;
+import com.syberry.mood.emotion.record.dto.ComplianceReportDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordByPatientDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordCreationDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.dto.EmotionRecordImportResultDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordUpdatingDto;
+import com.syberry.mood.emotion.record.dto.EmotionTrendDto;
 import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
+import com.syberry.mood.emotion.record.dto.ImportFormat;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.service.ComplianceReportService;
+import com.syberry.mood.emotion.record.service.EmotionRecordEventService;
+import com.syberry.mood.emotion.record.service.EmotionRecordImportService;
 import com.syberry.mood.emotion.record.service.EmotionRecordService;
+import com.syberry.mood.emotion.record.service.EmotionTrendService;
+import com.syberry.mood.monitoring.sql.SqlStatementBudget;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.user.dto.PatientDto;
+import com.syberry.mood.version.service.DataVersionService;
+import com.syberry.mood.version.util.ConditionalRequestUtils;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.InputStreamResource;
@@ -20,6 +47,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -28,9 +58,13 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * A controller for handling emotion records related HTTP requests.
@@ -40,25 +74,76 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 @CrossOrigin
 @RequiredArgsConstructor
+@SqlStatementBudget(6)
 @RequestMapping("/emotion-records")
 public class EmotionRecordController {
 
   private static final String ATTACHMENT = "attachment;filename=emotion-records.csv";
+  private static final String COMPLIANCE_ATTACHMENT = "attachment;filename=compliance-report.csv";
+  private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
 
   private final EmotionRecordService emotionRecordService;
+  private final EmotionRecordImportService importService;
+  private final EmotionRecordEventService eventService;
+  private final ComplianceReportService complianceReportService;
+  private final EmotionTrendService trendService;
+  private final DataVersionService dataVersionService;
+  private final SingleFlight singleFlight;
+  private final Clock clock;
+  private final PeriodSchedule schedule;
 
   /**
    * Retrieves all emotion records grouped by date, filtered by the given dates from filter.
+   * The JSON is written by the service without building the map, so that the concurrent
+   * identical requests share the written bytes.
    *
    * @param filter the filter to use for retrieving the emotion records
-   * @return a map containing the emotion records grouped by date
+   * @param request the current request
+   * @return the JSON of a map containing the emotion records grouped by date,
+   *     or nothing if the client has the current version
    */
   @GetMapping
+  @AdmissionControlled(EndpointClass.GRID)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
-  public Map<String, Map<String, Map<String, EmotionRecordDto>>> findAllEmotionRecords(
-      EmotionRecordFilter filter) {
+  public ResponseEntity<byte[]> findAllEmotionRecords(EmotionRecordFilter filter,
+                                                      WebRequest request) {
     log.info("GET-request: getting all emotion records with id");
-    return emotionRecordService.findAllEmotionRecordsGroupByDate(filter);
+    // the grid ends today, so its shape changes at midnight
+    String tag = dataVersionService.getAllRecordsTag(filter.getStartDate(), filter.getEndDate(),
+        lastDay(filter));
+    if (ConditionalRequestUtils.checkNotModified(request,
+        dataVersionService.getSettledTag(tag))) {
+      return null;
+    }
+    byte[] grid = singleFlight.execute("grid", coalescingKey(tag), () -> {
+      ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+      try {
+        emotionRecordService.writeEmotionRecordsGrid(filter, outputStream);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return outputStream.toByteArray();
+    });
+    return ResponseEntity.ok()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(grid);
+  }
+
+  /**
+   * Streams all emotion records filtered by the given dates from filter as JSON lines,
+   * if the client accepts application/x-ndjson.
+   *
+   * @param filter the filter to use for retrieving the emotion records
+   * @param response the response to write the JSON lines to
+   * @throws IOException if writing the response fails
+   */
+  @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @AdmissionControlled(EndpointClass.GRID)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public void streamAllEmotionRecords(EmotionRecordFilter filter, HttpServletResponse response)
+      throws IOException {
+    log.info("GET-request: streaming all emotion records");
+    streamEmotionRecords(null, filter, response);
   }
 
   /**
@@ -66,14 +151,62 @@ public class EmotionRecordController {
    *
    * @param id the ID of the patient for whom to retrieve emotion records
    * @param filter the filter to use for retrieving the emotion records
-   * @return a map containing the emotion records grouped by date
+   * @param request the current request
+   * @return a map containing the emotion records grouped by date,
+   *     or nothing if the client has the current version
    */
   @GetMapping("/patients/{id}")
+  @AdmissionControlled(EndpointClass.GRID)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
   public Map<String, Map<String, Map<String, EmotionRecordDto>>> findEmotionRecordsByPatient(
-      @PathVariable("id") Long id, EmotionRecordFilter filter) {
+      @PathVariable("id") Long id, EmotionRecordFilter filter, WebRequest request) {
     log.info("GET-request: getting all emotion records for patient with id: {}", id);
-    return emotionRecordService.findEmotionRecordsByPatient(id, filter);
+    String tag = dataVersionService.getPatientRecordsTag(
+        id, filter.getStartDate(), filter.getEndDate(), lastDay(filter));
+    if (ConditionalRequestUtils.checkNotModified(request,
+        dataVersionService.getSettledTag(tag))) {
+      return null;
+    }
+    return singleFlight.execute("patient-grid", coalescingKey(id, tag),
+        () -> emotionRecordService.findEmotionRecordsByPatient(id, filter));
+  }
+
+  /**
+   * Streams the emotion records of a specific patient filtered by the given dates from filter
+   * as JSON lines, if the client accepts application/x-ndjson.
+   *
+   * @param id the ID of the patient for whom to retrieve emotion records
+   * @param filter the filter to use for retrieving the emotion records
+   * @param response the response to write the JSON lines to
+   * @throws IOException if writing the response fails
+   */
+  @GetMapping(value = "/patients/{id}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  @AdmissionControlled(EndpointClass.GRID)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public void streamEmotionRecordsByPatient(@PathVariable("id") Long id,
+                                            EmotionRecordFilter filter,
+                                            HttpServletResponse response) throws IOException {
+    log.info("GET-request: streaming emotion records for patient with id: {}", id);
+    streamEmotionRecords(id, filter, response);
+  }
+
+  /**
+   * Streams the flat listing of the emotion records filtered by the given dates from filter
+   * and optionally by patient as JSON lines.
+   *
+   * @param patientId the ID of the patient or null for the records of all patients
+   * @param filter the filter to use for retrieving the emotion records
+   * @param response the response to write the JSON lines to
+   * @throws IOException if writing the response fails
+   */
+  @GetMapping("/records")
+  @AdmissionControlled(EndpointClass.GRID)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public void streamEmotionRecordListing(@RequestParam(required = false) Long patientId,
+                                         EmotionRecordFilter filter,
+                                         HttpServletResponse response) throws IOException {
+    log.info("GET-request: streaming emotion record listing");
+    streamEmotionRecords(patientId, filter, response);
   }
 
   /**
@@ -81,14 +214,121 @@ public class EmotionRecordController {
    *
    * @param id the ID of the patient for whom to retrieve emotion statistics
    * @param filter the filter to use for retrieving the emotion statistics
-   * @return a DTO containing various statistics about the patient's emotions
+   * @param request the current request
+   * @return a DTO containing various statistics about the patient's emotions,
+   *     or nothing if the client has the current version
    */
   @GetMapping("/patients/{id}/statistic")
+  @SqlStatementBudget(8)
+  @AdmissionControlled(EndpointClass.STATISTIC)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
   public EmotionsStatisticDto getStatistic(
-      @PathVariable("id") Long id, EmotionRecordFilter filter) {
+      @PathVariable("id") Long id, EmotionRecordFilter filter, WebRequest request) {
     log.info("GET-request: getting statistic for patient with id: {}", id);
-    return emotionRecordService.getStatistic(id, filter);
+    // the missed records are counted up to the current period
+    LocalDateTime now = LocalDateTime.now(clock);
+    String tag = dataVersionService.getPatientRecordsTag(id, filter.getStartDate(),
+        filter.getEndDate(), now.toLocalDate(), schedule.periodAt(now.toLocalTime()));
+    if (ConditionalRequestUtils.checkNotModified(request,
+        dataVersionService.getSettledTag(tag))) {
+      return null;
+    }
+    return singleFlight.execute("statistic", coalescingKey(id, tag),
+        () -> emotionRecordService.getStatistic(id, filter));
+  }
+
+  /**
+   * Retrieves the emotion trend of a specific patient, filtered by the given dates from filter.
+   *
+   * @param id the ID of the patient for whom to retrieve the emotion trend
+   * @param filter the filter to use for retrieving the emotion trend
+   * @param bucket the finest bucket size: day, week, month, quarter or year
+   * @param window the number of trailing buckets of the moving average
+   * @param request the current request
+   * @return the emotion trend of the patient, or nothing if the client has the current version
+   */
+  @GetMapping("/patients/{id}/trend")
+  @AdmissionControlled(EndpointClass.STATISTIC)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public EmotionTrendDto getEmotionTrend(@PathVariable("id") Long id, EmotionRecordFilter filter,
+                                         @RequestParam(required = false) String bucket,
+                                         @RequestParam(required = false) @Min(1) @Max(30)
+                                         Integer window,
+                                         WebRequest request) {
+    log.info("GET-request: getting emotion trend for patient with id: {}", id);
+    String tag = dataVersionService.getPatientRecordsTag(id, filter.getStartDate(),
+        filter.getEndDate(), bucket, window);
+    if (ConditionalRequestUtils.checkNotModified(request,
+        dataVersionService.getSettledTag(tag))) {
+      return null;
+    }
+    return trendService.getEmotionTrend(id, filter, bucket, window);
+  }
+
+  /**
+   * Retrieves the compliance of all patients with the check-in schedule,
+   * filtered by the given dates from filter.
+   *
+   * @param filter the filter to use for the date range of the report
+   * @return the expected, recorded and missed records of every patient
+   */
+  @GetMapping("/compliance")
+  @AdmissionControlled(EndpointClass.STATISTIC)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public List<ComplianceReportDto> getComplianceReport(EmotionRecordFilter filter) {
+    log.info("GET-request: getting compliance report");
+    return complianceReportService.getComplianceReport(filter);
+  }
+
+  /**
+   * Generates csv file with the compliance of all patients with the check-in schedule.
+   *
+   * @param filter filter with startDate and endDate parameters
+   * @return response entity with byte array
+   */
+  @GetMapping("/compliance/csv-file")
+  @AdmissionControlled(EndpointClass.CSV)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public ResponseEntity<byte[]> getComplianceReportCsvFile(EmotionRecordFilter filter) {
+    log.info("GET-request: creating compliance report csv file");
+    return ResponseEntity.ok()
+        .header(HttpHeaders.CONTENT_DISPOSITION, COMPLIANCE_ATTACHMENT)
+        .contentType(MediaType.parseMediaType(ImportFormat.CSV_MEDIA_TYPE))
+        .body(complianceReportService.getComplianceReportCsv(filter).toByteArray());
+  }
+
+  /**
+   * Retrieves the active patients without a record in the given period of the date,
+   * the current period by default.
+   *
+   * @param date the date of the period
+   * @param period the period: morning, afternoon or evening
+   * @return the patients without a record ordered by id DESC
+   */
+  @GetMapping("/missing")
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public List<PatientDto> findPatientsWithoutRecord(
+      @RequestParam(required = false) LocalDate date,
+      @RequestParam(required = false) String period) {
+    log.info("GET-request: getting patients without emotion record");
+    return emotionRecordService.findPatientsWithoutRecord(date, period);
+  }
+
+  /**
+   * Subscribes to the server-sent events of created, updated and deleted emotion records.
+   * A reconnecting client resumes after the last received event.
+   *
+   * @param lastEventIdHeader the ID of the last received event sent by the browser on reconnect
+   * @param lastEventId the ID of the last received event for a manually resumed subscription
+   * @return the emitter of the subscription
+   */
+  @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public SseEmitter subscribeToEmotionRecordEvents(
+      @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventIdHeader,
+      @RequestParam(required = false) String lastEventId) {
+    log.info("GET-request: subscribing to emotion record events");
+    return eventService.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
   }
 
   /**
@@ -149,6 +389,26 @@ public class EmotionRecordController {
     return emotionRecordService.createEmotionRecordByPatient(dto);
   }
 
+  /**
+   * Imports emotion records streamed as csv with a header line or as JSON lines.
+   * Each row has the fields of an emotion record created by admin: patientId, date, period,
+   * emotion, intensity and optional note.
+   *
+   * @param request the request with the uploaded content
+   * @return the numbers of imported and rejected rows and the reasons of the rejections
+   * @throws IOException if the upload cannot be read
+   */
+  @PostMapping(value = "/import",
+      consumes = {ImportFormat.CSV_MEDIA_TYPE, ImportFormat.NDJSON_MEDIA_TYPE})
+  @SqlStatementBudget(value = 0, perChunk = 7)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
+  public EmotionRecordImportResultDto importEmotionRecords(HttpServletRequest request)
+      throws IOException {
+    log.info("POST-request: importing emotion records");
+    return importService.importEmotionRecords(
+        request.getInputStream(), ImportFormat.fromContentType(request.getContentType()));
+  }
+
   /**
    * Updates the emotion record with the specified ID.
    *
@@ -199,6 +459,7 @@ public class EmotionRecordController {
    * @return response entity with byte array
    */
   @GetMapping(value = {"/csv-file", "/csv-file/patients/{id}", "/csv-file/patients"})
+  @AdmissionControlled(EndpointClass.CSV)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
   public ResponseEntity<?> getCsvFile(EmotionRecordFilter filter,
       @PathVariable(value = "id", required = false) Long patientId) {
@@ -218,6 +479,7 @@ public class EmotionRecordController {
    * @return response entity with attachment
    */
   @GetMapping(value = "/pdf-file")
+  @AdmissionControlled(EndpointClass.PDF)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
   public ResponseEntity<InputStreamResource> getEmotionRecordsDataInPdf(
       EmotionRecordFilter filter) {
@@ -239,6 +501,8 @@ public class EmotionRecordController {
    * @return response entity with attachment
    */
   @GetMapping(value = "/pdf-file/patients/{id}")
+  @SqlStatementBudget(11)
+  @AdmissionControlled(EndpointClass.PDF)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
   public ResponseEntity<InputStreamResource> getPatientEmotionRecordsDataInPdf(
       EmotionRecordFilter filter, @PathVariable(value = "id") Long patientId) {
@@ -252,4 +516,43 @@ public class EmotionRecordController {
         .contentType(MediaType.APPLICATION_PDF)
         .body(new InputStreamResource(bis));
   }
+
+  /**
+   * Builds the key of the coalesced queries from the entity tag, which covers the request
+   * parameters and the data version, and from the roles and the shard of the caller,
+   * which scope the visible records.
+   */
+  private static String coalescingKey(Object... parts) {
+    StringBuilder key = new StringBuilder();
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication != null) {
+      authentication.getAuthorities().stream()
+          .map(GrantedAuthority::getAuthority)
+          .sorted()
+          .forEach(authority -> key.append(authority).append(','));
+    }
+    Integer shard = ShardContext.current();
+    if (shard != null) {
+      key.append("shard=").append(shard).append(',');
+    }
+    for (Object part : parts) {
+      key.append('/').append(part);
+    }
+    return key.toString();
+  }
+
+  /**
+   * Returns the last day of the grid of the filter, which ends today at the latest.
+   */
+  private LocalDate lastDay(EmotionRecordFilter filter) {
+    LocalDate today = LocalDate.now(clock);
+    return filter.getEndDate().isBefore(today) ? filter.getEndDate() : today;
+  }
+
+  private void streamEmotionRecords(Long patientId, EmotionRecordFilter filter,
+                                    HttpServletResponse response) throws IOException {
+    response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    emotionRecordService.streamEmotionRecords(patientId, filter, response.getOutputStream());
+  }
 }
@@ -7,6 +7,7 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
 import com.syberry.mood.emotion.record.dto.EmotionRecordUpdatingDto;
 import com.syberry.mood.emotion.record.dto.Period;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.emotion.record.util.DateUtil;
 import com.syberry.mood.user.entity.User;
 import java.time.LocalDate;
@@ -27,6 +28,7 @@ public class EmotionRecordConverter {
 
   private final EmotionConverter emotionConverter;
   private final PeriodConverter periodConverter;
+  private final PeriodSchedule schedule;
 
   /**
    * Converts an EmotionRecordCreationDto to an EmotionRecord entity.
@@ -40,7 +42,7 @@ public class EmotionRecordConverter {
         .emotion(emotionConverter.convertToEnum(dto.getEmotion()))
         .intensity(dto.getIntensity())
         .note(dto.getNote())
-        .createdAt(dto.getDate().atTime(period.getPeriodStartTime()))
+        .createdAt(dto.getDate().atTime(schedule.getStartTime(period)))
         .period(period)
         .build();
   }
@@ -149,9 +151,9 @@ public class EmotionRecordConverter {
       for (User patient : patients) {
         if (mayBeRecordOnDate(patient, date)) {
           Map<String, EmotionRecordDto> emotionMap = new HashMap<>();
-          emotionMap.put("MORNING", null);
-          emotionMap.put("AFTERNOON", null);
-          emotionMap.put("EVENING", null);
+          for (Period period : schedule.getPeriods()) {
+            emotionMap.put(period.toString(), null);
+          }
           dateMap.put(patient.getUsername(), emotionMap);
         }
       }
@@ -186,7 +188,7 @@ public class EmotionRecordConverter {
    * @param date the date to check
    * @return true if the user may have a record on the given date, false otherwise
    */
-  private boolean mayBeRecordOnDate(User patient, LocalDate date) {
+  public static boolean mayBeRecordOnDate(User patient, LocalDate date) {
     return !patient.isDisabled()
         || patient.getUpdatedAt().isAfter(DateUtil.convertToDateTimeEndDay(date));
   }
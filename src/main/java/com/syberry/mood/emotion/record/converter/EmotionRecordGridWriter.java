@@ -0,0 +1,138 @@
+package com.syberry.mood.emotion.record.converter;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.user.entity.User;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes the days of the emotion record grid as JSON of the same shape as the map built by
+ * {@link EmotionRecordConverter#convertToMap}, without building it. The records of a day are
+ * merge-joined with the patients ordered by id descending, so every patient object is written
+ * at once with the scheduled periods in the order of the day.
+ */
+@Component
+@RequiredArgsConstructor
+public class EmotionRecordGridWriter {
+
+  /**
+   * The order of the records of a day expected by the writer, the order of the patients
+   * and then the order of creation.
+   */
+  public static final Comparator<EmotionRecordDto> DAY_ORDER = Comparator
+      .comparing(EmotionRecordDto::getPatientId, Comparator.reverseOrder())
+      .thenComparing(EmotionRecordDto::getCreatedAt);
+
+  private final PeriodSchedule schedule;
+
+  /**
+   * Checks whether the day is a part of the grid, i.e. it has records or patients who may
+   * have a record on it.
+   *
+   * @param date the date of the day
+   * @param records the records of the day
+   * @param patients the patients
+   * @return true if the day is written to the grid
+   */
+  public boolean hasContent(LocalDate date, List<EmotionRecordDto> records,
+                            List<User> patients) {
+    if (!records.isEmpty()) {
+      return true;
+    }
+    for (User patient : patients) {
+      if (EmotionRecordConverter.mayBeRecordOnDate(patient, date)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Writes the object of the day, patient name to period to record. The patients who may have
+   * a record on the date are written with all scheduled periods, the other ones only with
+   * the periods of their records.
+   *
+   * @param generator the generator to write to
+   * @param date the date of the day
+   * @param records the records of the day ordered by {@link #DAY_ORDER}
+   * @param patients the patients ordered by id descending
+   * @throws IOException if writing fails
+   */
+  public void writeDay(JsonGenerator generator, LocalDate date, List<EmotionRecordDto> records,
+                       List<User> patients) throws IOException {
+    generator.writeStartObject();
+    int next = 0;
+    for (User patient : patients) {
+      while (next < records.size() && records.get(next).getPatientId() > patient.getId()) {
+        next = writePatient(generator, records, next);
+      }
+      boolean hasRecords = next < records.size()
+          && records.get(next).getPatientId().equals(patient.getId());
+      if (EmotionRecordConverter.mayBeRecordOnDate(patient, date)) {
+        generator.writeFieldName(patient.getUsername());
+        next = writePeriods(generator, records, next, hasRecords ? groupEnd(records, next) : next,
+            true);
+      } else if (hasRecords) {
+        next = writePatient(generator, records, next);
+      }
+    }
+    while (next < records.size()) {
+      next = writePatient(generator, records, next);
+    }
+    generator.writeEndObject();
+  }
+
+  private int writePatient(JsonGenerator generator, List<EmotionRecordDto> records, int from)
+      throws IOException {
+    generator.writeFieldName(records.get(from).getSuperheroName());
+    return writePeriods(generator, records, from, groupEnd(records, from), false);
+  }
+
+  private int writePeriods(JsonGenerator generator, List<EmotionRecordDto> records, int from,
+                           int to, boolean scheduled) throws IOException {
+    generator.writeStartObject();
+    List<Period> periods = schedule.getPeriods();
+    if (scheduled) {
+      for (Period period : periods) {
+        generator.writeFieldName(period.toString());
+        generator.writeObject(findLast(records, from, to, period));
+      }
+    }
+    for (int i = from; i < to; i++) {
+      Period period = records.get(i).getPeriod();
+      if ((!scheduled || !periods.contains(period))
+          && findLast(records, i + 1, to, period) == null) {
+        generator.writeFieldName(period.toString());
+        generator.writeObject(records.get(i));
+      }
+    }
+    generator.writeEndObject();
+    return to;
+  }
+
+  private static int groupEnd(List<EmotionRecordDto> records, int from) {
+    Long patientId = records.get(from).getPatientId();
+    int to = from + 1;
+    while (to < records.size() && records.get(to).getPatientId().equals(patientId)) {
+      to++;
+    }
+    return to;
+  }
+
+  private static EmotionRecordDto findLast(List<EmotionRecordDto> records, int from, int to,
+                                           Period period) {
+    for (int i = to - 1; i >= from; i--) {
+      if (records.get(i).getPeriod() == period) {
+        return records.get(i);
+      }
+    }
+    return null;
+  }
+}
@@ -1,15 +1,20 @@
 package com.syberry.mood.emotion.record.converter;
 
 import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.exception.InvalidArgumentTypeException;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 /**
  * A component that provides converting method for the Period enum.
  */
 @Component
+@RequiredArgsConstructor
 public class PeriodConverter {
 
+  private final PeriodSchedule schedule;
+
   /**
    * Converts a string representation of a period into a Period enum value.
    *
@@ -19,11 +24,15 @@ public class PeriodConverter {
    */
   public Period convertToEnum(String period) {
     try {
-      return Period.valueOf(period.toUpperCase());
+      Period value = Period.valueOf(period.toUpperCase());
+      if (schedule.isScheduled(value)) {
+        return value;
+      }
     } catch (IllegalArgumentException e) {
-      throw new InvalidArgumentTypeException(
-          String.format("Error while converting invalid period: %s. Valid periods: %s",
-              period, Period.getNames()));
+      // reported below together with the unscheduled periods
     }
+    throw new InvalidArgumentTypeException(
+        String.format("Error while converting invalid period: %s. Valid periods: %s",
+            period, schedule.getNames()));
   }
 }
@@ -0,0 +1,25 @@
+package com.syberry.mood.emotion.record.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The compliance of a patient with the check-in schedule in the requested range.
+ * The completion rate is a percentage and is null if no record was expected.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ComplianceReportDto {
+
+  private Long patientId;
+  private String superheroName;
+  private Boolean disabled;
+  private int expectedRecords;
+  private long recordedRecords;
+  private long missedRecords;
+  private Double completionRate;
+}
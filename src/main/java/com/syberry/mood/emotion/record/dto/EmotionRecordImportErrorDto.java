@@ -0,0 +1,17 @@
+package com.syberry.mood.emotion.record.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data transfer object that represents a rejected row of an emotion record import.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmotionRecordImportErrorDto {
+
+  private long line;
+  private String message;
+}
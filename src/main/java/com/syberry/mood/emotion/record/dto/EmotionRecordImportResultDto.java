@@ -0,0 +1,23 @@
+package com.syberry.mood.emotion.record.dto;
+
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data transfer object that represents the outcome of an emotion record import.
+ * Only the first rejected rows are listed in errors, rejected holds the total number.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmotionRecordImportResultDto {
+
+  private long rows;
+  private long imported;
+  private long rejected;
+  private List<EmotionRecordImportErrorDto> errors;
+}
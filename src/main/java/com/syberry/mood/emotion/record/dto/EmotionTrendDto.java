@@ -0,0 +1,29 @@
+package com.syberry.mood.emotion.record.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data transfer object that represents the emotion trend of a patient, downsampled
+ * to buckets so that the number of points stays bounded for any date range.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmotionTrendDto {
+
+  private Long patientId;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  private LocalDate startDate;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  private LocalDate endDate;
+  private TrendBucket bucket;
+  private int movingAverageWindow;
+  private List<EmotionTrendPointDto> points;
+}
@@ -0,0 +1,30 @@
+package com.syberry.mood.emotion.record.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import java.time.LocalDate;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A data transfer object that represents one bucket of an emotion trend. The intensities
+ * are null for a bucket without records, the moving average covers the trailing buckets.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmotionTrendPointDto {
+
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  private LocalDate startDate;
+  @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd")
+  private LocalDate endDate;
+  private long totalEmotionRecords;
+  private Map<Emotion, Long> frequencyOfEmotions;
+  private Double meanIntensity;
+  private Integer maxIntensity;
+  private Double movingAverageIntensity;
+}
@@ -0,0 +1,36 @@
+package com.syberry.mood.emotion.record.dto;
+
+import com.syberry.mood.exception.InvalidArgumentTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * An enumeration representing the supported formats of streamed emotion record uploads.
+ */
+public enum ImportFormat {
+
+  CSV,
+  NDJSON;
+
+  public static final String CSV_MEDIA_TYPE = "text/csv";
+  public static final String NDJSON_MEDIA_TYPE = MediaType.APPLICATION_NDJSON_VALUE;
+
+  /**
+   * Determines the import format by the content type of the upload.
+   *
+   * @param contentType the content type of the request
+   * @return the import format
+   * @throws InvalidArgumentTypeException if the content type is not supported
+   */
+  public static ImportFormat fromContentType(String contentType) {
+    MediaType mediaType = contentType == null ? null : MediaType.parseMediaType(contentType);
+    if (mediaType != null && mediaType.isCompatibleWith(MediaType.valueOf(CSV_MEDIA_TYPE))) {
+      return CSV;
+    } else if (mediaType != null
+        && mediaType.isCompatibleWith(MediaType.valueOf(NDJSON_MEDIA_TYPE))) {
+      return NDJSON;
+    }
+    throw new InvalidArgumentTypeException(String.format(
+        "Unsupported import content type: %s. Supported content types: %s, %s",
+        contentType, CSV_MEDIA_TYPE, NDJSON_MEDIA_TYPE));
+  }
+}
@@ -0,0 +1,77 @@
+package com.syberry.mood.emotion.record.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * An enumeration representing the sizes of the buckets of an emotion trend, from the finest.
+ */
+public enum TrendBucket {
+
+  DAY(ChronoUnit.DAYS, 1),
+  WEEK(ChronoUnit.WEEKS, 1),
+  MONTH(ChronoUnit.MONTHS, 1),
+  QUARTER(ChronoUnit.MONTHS, 3),
+  YEAR(ChronoUnit.YEARS, 1);
+
+  private final ChronoUnit unit;
+  private final int amount;
+
+  TrendBucket(ChronoUnit unit, int amount) {
+    this.unit = unit;
+    this.amount = amount;
+  }
+
+  /**
+   * Returns a string containing the names of all bucket sizes.
+   *
+   * @return a string containing the names of all bucket sizes
+   */
+  public static String getNames() {
+    return Arrays.stream(values()).map(Enum::name).collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Returns the first day of the bucket containing the date.
+   *
+   * @param date the date within the bucket
+   * @return the first day of the bucket
+   */
+  public LocalDate startOf(LocalDate date) {
+    return switch (this) {
+      case DAY -> date;
+      case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+      case MONTH -> date.withDayOfMonth(1);
+      case QUARTER -> date.withDayOfMonth(1).withMonth((date.getMonthValue() - 1) / 3 * 3 + 1);
+      case YEAR -> date.withDayOfYear(1);
+    };
+  }
+
+  /**
+   * Returns the first day of the next bucket.
+   *
+   * @param bucketStart the first day of a bucket
+   * @return the first day of the following bucket
+   */
+  public LocalDate next(LocalDate bucketStart) {
+    return bucketStart.plus(amount, unit);
+  }
+
+  /**
+   * Counts the buckets covering the dates inclusive.
+   *
+   * @param startDate the first date
+   * @param endDate the last date
+   * @return the number of buckets, 0 if the start date is after the end date
+   */
+  public long countBuckets(LocalDate startDate, LocalDate endDate) {
+    if (startDate.isAfter(endDate)) {
+      return 0;
+    }
+    return unit.between(startOf(startDate), startOf(endDate)) / amount + 1;
+  }
+}
@@ -10,8 +10,10 @@ import javax.persistence.Enumerated;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotNull;
@@ -23,8 +25,12 @@ import lombok.Setter;
 
 /**
  * The entity representing an emotion record in the application.
+ * On MySQL the table is partitioned by month, which rules out the foreign key to the patient,
+ * see {@link com.syberry.mood.emotion.record.migration.PartitionedTableIntegrator}.
  */
 @Entity
+@Table(indexes = @Index(name = "idx_emotion_record_patient_created_at",
+    columnList = "user_id, createdAt"))
 @Getter
 @Setter
 @Builder
@@ -0,0 +1,15 @@
+package com.syberry.mood.emotion.record.event;
+
+/**
+ * An enumeration representing the kinds of changes of an entity.
+ */
+public enum ChangeType {
+
+  CREATED,
+  UPDATED,
+  DELETED,
+  /**
+   * The entity was moved from the database to the archive, it is only logged.
+   */
+  ARCHIVED
+}
@@ -0,0 +1,18 @@
+package com.syberry.mood.emotion.record.event;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An application event published when an emotion record is created, updated or deleted.
+ * Listeners should use {@link org.springframework.transaction.event.TransactionalEventListener}
+ * to react only to committed changes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EmotionRecordChangedEvent {
+
+  private final ChangeType type;
+  private final EmotionRecordDto emotionRecord;
+}
@@ -0,0 +1,17 @@
+package com.syberry.mood.emotion.record.event;
+
+import java.time.LocalDate;
+import java.util.Set;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An application event published after a chunk of imported emotion records has been written.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EmotionRecordsImportedEvent {
+
+  private final Set<Long> patientIds;
+  private final Set<LocalDate> dates;
+}
@@ -0,0 +1,17 @@
+package com.syberry.mood.emotion.record.event;
+
+import java.time.LocalDate;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An application event published after the emotion records created within a range of dates
+ * have been removed from the database at once, like by dropping the partition of a month.
+ */
+@Getter
+@RequiredArgsConstructor
+public class EmotionRecordsRemovedEvent {
+
+  private final LocalDate startDate;
+  private final LocalDate endDate;
+}
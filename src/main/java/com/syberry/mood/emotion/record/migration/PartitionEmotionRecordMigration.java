@@ -0,0 +1,140 @@
+package com.syberry.mood.emotion.record.migration;
+
+import static com.syberry.mood.emotion.record.util.MonthlyPartitions.TABLE;
+
+import com.syberry.mood.emotion.record.util.MonthlyPartitions;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The migration partitioning the emotion_record table by the month of the creation time
+ * on MySQL, so the range queries read only the partitions of the requested months
+ * and the old months are removed by dropping their partitions. The table is partitioned
+ * from the month of its first record. MySQL requires the partitioning column in every
+ * unique key and does not support foreign keys on partitioned tables, so the primary key
+ * is extended with the creation time and the foreign key to the patient is dropped.
+ * Nothing is done on other databases.
+ */
+@Component
+public class PartitionEmotionRecordMigration implements JavaMigration {
+
+  private final int monthsAhead;
+
+  /**
+   * Creates the migration.
+   *
+   * @param monthsAhead the number of the upcoming months to create partitions for
+   */
+  public PartitionEmotionRecordMigration(
+      @Value("${app.record-partitions.months-ahead:3}") int monthsAhead) {
+    this.monthsAhead = monthsAhead;
+  }
+
+  @Override
+  public MigrationVersion getVersion() {
+    return MigrationVersion.fromVersion("1");
+  }
+
+  @Override
+  public String getDescription() {
+    return "Partition emotion record";
+  }
+
+  @Override
+  public Integer getChecksum() {
+    return null;
+  }
+
+  @Override
+  public boolean isUndo() {
+    return false;
+  }
+
+  @Override
+  public boolean isBaselineMigration() {
+    return false;
+  }
+
+  @Override
+  public boolean canExecuteInTransaction() {
+    return false;
+  }
+
+  @Override
+  public void migrate(Context context) throws SQLException {
+    Connection connection = context.getConnection();
+    if (!"MySQL".equals(connection.getMetaData().getDatabaseProductName())) {
+      return;
+    }
+    if (countRows(connection, "SELECT COUNT(*) FROM information_schema.PARTITIONS "
+        + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? "
+        + "AND PARTITION_NAME IS NOT NULL") > 0) {
+      return;
+    }
+    for (String foreignKey : findForeignKeys(connection)) {
+      execute(connection, "ALTER TABLE `" + TABLE + "` DROP FOREIGN KEY `" + foreignKey + "`");
+    }
+    YearMonth currentMonth = YearMonth.now();
+    YearMonth lastMonth = currentMonth.plusMonths(monthsAhead);
+    YearMonth firstMonth = findFirstMonth(connection, currentMonth);
+    execute(connection, "ALTER TABLE `" + TABLE + "` DROP PRIMARY KEY, "
+        + "ADD PRIMARY KEY (`id`, `created_at`) "
+        + MonthlyPartitions.partitionBy(firstMonth,
+            firstMonth.isAfter(lastMonth) ? firstMonth : lastMonth));
+  }
+
+  private static long countRows(Connection connection, String sql) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sql)) {
+      statement.setString(1, TABLE);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        resultSet.next();
+        return resultSet.getLong(1);
+      }
+    }
+  }
+
+  private static List<String> findForeignKeys(Connection connection) throws SQLException {
+    List<String> foreignKeys = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT CONSTRAINT_NAME FROM information_schema.TABLE_CONSTRAINTS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? "
+            + "AND CONSTRAINT_TYPE = 'FOREIGN KEY'")) {
+      statement.setString(1, TABLE);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          foreignKeys.add(resultSet.getString(1));
+        }
+      }
+    }
+    return foreignKeys;
+  }
+
+  private static YearMonth findFirstMonth(Connection connection, YearMonth defaultMonth)
+      throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(
+             "SELECT MIN(`created_at`) FROM `" + TABLE + "`")) {
+      resultSet.next();
+      Timestamp first = resultSet.getTimestamp(1);
+      return first != null ? YearMonth.from(first.toLocalDateTime()) : defaultMonth;
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
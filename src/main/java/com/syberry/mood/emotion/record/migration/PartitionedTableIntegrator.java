@@ -0,0 +1,42 @@
+package com.syberry.mood.emotion.record.migration;
+
+import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import org.hibernate.boot.Metadata;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.ForeignKey;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Keeps Hibernate from adding the foreign keys of the emotion_record table back on MySQL,
+ * where {@link PartitionEmotionRecordMigration} drops them to partition the table.
+ * The foreign keys stay mapped and are created on the other databases.
+ */
+public class PartitionedTableIntegrator implements Integrator {
+
+  @Override
+  public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                        SessionFactoryServiceRegistry serviceRegistry) {
+    disableForeignKeys(metadata, sessionFactory.getJdbcServices().getDialect());
+  }
+
+  @Override
+  public void disintegrate(SessionFactoryImplementor sessionFactory,
+                           SessionFactoryServiceRegistry serviceRegistry) {
+  }
+
+  /**
+   * Disables the creation of the foreign keys of the partitioned table on MySQL.
+   *
+   * @param metadata the metadata the schema is created or updated from
+   * @param dialect the dialect of the database
+   */
+  public static void disableForeignKeys(Metadata metadata, Dialect dialect) {
+    if (dialect instanceof MySQLDialect) {
+      metadata.getEntityBinding(EmotionRecord.class.getName()).getTable().getForeignKeys()
+          .values().forEach(ForeignKey::disableCreation);
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.syberry.mood.emotion.record.repository;
+
+import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import java.util.List;
+
+/**
+ * Repository fragment writing emotion records through JDBC batches.
+ */
+public interface EmotionRecordBatchRepository {
+
+  /**
+   * Inserts the emotion records in a single JDBC batch,
+   * bypassing the persistence context and the IDENTITY insert per entity.
+   * The ids of the records are populated from the generated keys of the batch.
+   *
+   * @param emotionRecords the emotion records with their patients to insert
+   */
+  void insertAll(List<EmotionRecord> emotionRecords);
+}
@@ -0,0 +1,72 @@
+package com.syberry.mood.emotion.record.repository;
+
+import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+/**
+ * JDBC implementation of the {@link EmotionRecordBatchRepository} fragment.
+ */
+@RequiredArgsConstructor
+public class EmotionRecordBatchRepositoryImpl implements EmotionRecordBatchRepository {
+
+  private final JdbcTemplate jdbcTemplate;
+  private volatile String insertSql;
+
+  @Override
+  public void insertAll(List<EmotionRecord> emotionRecords) {
+    if (emotionRecords.isEmpty()) {
+      return;
+    }
+    jdbcTemplate.execute(
+        connection -> connection.prepareStatement(getInsertSql(), Statement.RETURN_GENERATED_KEYS),
+        (PreparedStatementCallback<Void>) statement -> {
+          for (EmotionRecord emotionRecord : emotionRecords) {
+            statement.setString(1, emotionRecord.getEmotion().name());
+            statement.setInt(2, emotionRecord.getIntensity());
+            statement.setString(3, emotionRecord.getNote());
+            statement.setTimestamp(4, Timestamp.valueOf(emotionRecord.getCreatedAt()));
+            statement.setLong(5, emotionRecord.getPatient().getId());
+            statement.setString(6, emotionRecord.getPeriod().name());
+            statement.addBatch();
+          }
+          statement.executeBatch();
+          try (ResultSet keys = statement.getGeneratedKeys()) {
+            for (EmotionRecord emotionRecord : emotionRecords) {
+              if (!keys.next()) {
+                throw new IllegalStateException("The generated keys of the batch are missing");
+              }
+              emotionRecord.setId(keys.getLong(1));
+            }
+          }
+          return null;
+        });
+  }
+
+  /**
+   * Builds the insert statement quoting the identifiers like Hibernate does
+   * with globally quoted identifiers.
+   */
+  private String getInsertSql() {
+    if (insertSql == null) {
+      String quote;
+      try {
+        quote = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+            metaData -> metaData.getIdentifierQuoteString().trim());
+      } catch (MetaDataAccessException e) {
+        quote = "";
+      }
+      insertSql = String.format("INSERT INTO %1$semotion_record%1$s (%1$semotion%1$s,"
+          + " %1$sintensity%1$s, %1$snote%1$s, %1$screated_at%1$s, %1$suser_id%1$s,"
+          + " %1$speriod%1$s) VALUES (?, ?, ?, ?, ?, ?)", quote);
+    }
+    return insertSql;
+  }
+}
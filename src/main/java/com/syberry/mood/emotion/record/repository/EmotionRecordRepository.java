@@ -1,22 +1,39 @@
 package com.syberry.mood.emotion.record.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.dto.Period;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.exception.EntityNotFoundException;
+import com.syberry.mood.sharding.Aggregation;
+import com.syberry.mood.sharding.ScatterGather;
+import com.syberry.mood.sharding.ShardKey;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 /**
  * Repository interface for managing emotion record entities.
  */
 public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Long>,
-    JpaSpecificationExecutor<EmotionRecord> {
+    JpaSpecificationExecutor<EmotionRecord>, EmotionRecordBatchRepository {
+
+  String STREAM_FETCH_SIZE = "500";
+  String STREAM_SELECT = "SELECT new com.syberry.mood.emotion.record.dto.EmotionRecordDto("
+      + "er.id, er.emotion, er.intensity, er.period, er.createdAt, er.updatedAt, er.note, "
+      + "p.id, p.username) FROM EmotionRecord er JOIN er.patient p ";
 
   /**
    * Finds an EmotionRecord entity with the specified patient id,
@@ -30,7 +47,7 @@ public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Lo
    *     or an empty Optional if not found
    */
   Optional<EmotionRecord> findByPatientIdAndCreatedAtBetweenAndPeriod(
-      Long id, LocalDateTime createdAtStart, LocalDateTime createdAtEnd, Period period);
+      @ShardKey Long id, LocalDateTime createdAtStart, LocalDateTime createdAtEnd, Period period);
 
   /**
    * Finds the most recent emotion record for a given patient within a specified time range.
@@ -42,7 +59,7 @@ public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Lo
    *     within the specified time range, or an empty Optional if no such record is found
    */
   Optional<EmotionRecord> findFirstByPatientIdAndCreatedAtBetweenOrderByCreatedAtDesc(
-      Long id, LocalDateTime createdAtStart, LocalDateTime createdAtEnd);
+      @ShardKey Long id, LocalDateTime createdAtStart, LocalDateTime createdAtEnd);
 
   /**
    * Counts the number of emotion records for a given user
@@ -59,8 +76,122 @@ public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Lo
       + "AND er.createdAt >= :startDate "
       + "AND er.createdAt <= :endDate "
       + "GROUP BY er.emotion")
-  List<Object[]> countRecordsByEmotion(Long userId, LocalDateTime startDate, LocalDateTime endDate);
+  List<Object[]> countRecordsByEmotion(@ShardKey Long userId, LocalDateTime startDate,
+                                       LocalDateTime endDate);
+
+
+  /**
+   * Finds the occupied slots of the given patients within a specified time range.
+   *
+   * @param patientIds the IDs of the patients to search for
+   * @param startDate the start of the time range, inclusive
+   * @param endDate the end of the time range, exclusive
+   * @return a list of Object arrays, where each array contains the patient ID,
+   *     the creation time and the period of a record
+   */
+  @Query("SELECT er.patient.id, er.createdAt, er.period FROM EmotionRecord er "
+      + "WHERE er.patient.id IN :patientIds "
+      + "AND er.createdAt >= :startDate "
+      + "AND er.createdAt < :endDate")
+  @ScatterGather(Aggregation.CONCAT)
+  List<Object[]> findSlotsByPatientIds(Collection<Long> patientIds, LocalDateTime startDate,
+                                       LocalDateTime endDate);
+
+  /**
+   * Finds all occupied slots of the given patients.
+   *
+   * @param patientIds the IDs of the patients to search for
+   * @return a list of Object arrays, where each array contains the patient ID,
+   *     the creation time and the period of a record
+   */
+  @Query("SELECT er.patient.id, er.createdAt, er.period FROM EmotionRecord er "
+      + "WHERE er.patient.id IN :patientIds")
+  @ScatterGather(Aggregation.CONCAT)
+  List<Object[]> findAllSlotsByPatientIds(Collection<Long> patientIds);
+
+  /**
+   * Streams the occupied slots of all patients. Must be consumed in a transaction.
+   *
+   * @return a stream of Object arrays, where each array contains the patient ID,
+   *     the creation time and the period of a record
+   */
+  @Query("SELECT er.patient.id, er.createdAt, er.period FROM EmotionRecord er")
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @ScatterGather(Aggregation.CONCAT)
+  Stream<Object[]> streamAllSlots();
 
+  /**
+   * Aggregates the emotion records of a patient within a specified time range per day and
+   * emotion.
+   *
+   * @param patientId the ID of the patient
+   * @param startDate the start of the time range, inclusive
+   * @param endDate the end of the time range, exclusive
+   * @return a list of Object arrays, where each array contains the day, the emotion,
+   *     the number of records and the sum and the maximum of their intensities
+   */
+  @Query("SELECT CAST(er.createdAt AS date), er.emotion, COUNT(er), SUM(er.intensity), "
+      + "MAX(er.intensity) FROM EmotionRecord er "
+      + "WHERE er.patient.id = :patientId "
+      + "AND er.createdAt >= :startDate "
+      + "AND er.createdAt < :endDate "
+      + "GROUP BY CAST(er.createdAt AS date), er.emotion")
+  List<Object[]> aggregateDailyByPatientId(@ShardKey Long patientId, LocalDateTime startDate,
+                                           LocalDateTime endDate);
+
+  /**
+   * Streams the emotion records created within a specified time range as DTOs,
+   * ordered by creation time. The rows are fetched in batches and no entities are managed,
+   * so the memory does not grow with the number of records. Must be consumed in a transaction.
+   *
+   * @param startDate the start of the time range, inclusive
+   * @param endDate the end of the time range, exclusive
+   * @return a stream of emotion record DTOs
+   */
+  @Query(STREAM_SELECT
+      + "WHERE er.createdAt >= :startDate AND er.createdAt < :endDate "
+      + "ORDER BY er.createdAt, er.id")
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  @ScatterGather(value = Aggregation.CONCAT, orderBy = {"createdAt", "id"})
+  Stream<EmotionRecordDto> streamAllCreatedWithin(LocalDateTime startDate,
+                                                  LocalDateTime endDate);
+
+  /**
+   * Streams the emotion records of a patient created within a specified time range as DTOs,
+   * ordered by creation time. Must be consumed in a transaction.
+   *
+   * @param patientId the ID of the patient
+   * @param startDate the start of the time range, inclusive
+   * @param endDate the end of the time range, exclusive
+   * @return a stream of emotion record DTOs
+   */
+  @Query(STREAM_SELECT
+      + "WHERE p.id = :patientId "
+      + "AND er.createdAt >= :startDate AND er.createdAt < :endDate "
+      + "ORDER BY er.createdAt, er.id")
+  @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = STREAM_FETCH_SIZE))
+  Stream<EmotionRecordDto> streamAllByPatientIdCreatedWithin(
+      @ShardKey Long patientId, LocalDateTime startDate, LocalDateTime endDate);
+
+  /**
+   * Finds the creation time of the oldest emotion record having a patient.
+   *
+   * @return the creation time of the oldest record, or null if there are no records
+   */
+  @Query("SELECT MIN(er.createdAt) FROM EmotionRecord er JOIN er.patient p")
+  @ScatterGather(Aggregation.MIN)
+  LocalDateTime findFirstCreatedAt();
+
+  /**
+   * Deletes the emotion records with the given ids on every shard.
+   *
+   * @param ids the ids of the records to delete
+   * @return the number of the deleted records
+   */
+  @Modifying
+  @ScatterGather(Aggregation.SUM)
+  @Query("DELETE FROM EmotionRecord er WHERE er.id IN :ids")
+  int deleteAllByIdIn(Collection<Long> ids);
 
   /**
    * Counts the number of emotion records for a given patient within a specified time range.
@@ -70,7 +201,36 @@ public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Lo
    * @param endDate the end of the time range to search for emotion records
    * @return the number of emotion records for the given patient within the specified time range
    */
-  int countByPatientIdAndCreatedAtBetween(Long id, LocalDateTime startDate, LocalDateTime endDate);
+  int countByPatientIdAndCreatedAtBetween(@ShardKey Long id, LocalDateTime startDate,
+                                          LocalDateTime endDate);
+
+  /**
+   * Finds an EmotionRecord entity with the specified id on the shard of the id.
+   *
+   * @param id The id of the EmotionRecord entity to retrieve
+   * @return The EmotionRecord entity wrapped in an Optional if found,
+   *     or an empty Optional if not found
+   */
+  @Override
+  Optional<EmotionRecord> findById(@ShardKey Long id);
+
+  /**
+   * Deletes the EmotionRecord entity with the specified id on the shard of the id.
+   *
+   * @param id The id of the EmotionRecord entity to delete
+   */
+  @Override
+  void deleteById(@ShardKey Long id);
+
+  /**
+   * Finds the EmotionRecord entities matching the specification on every shard.
+   *
+   * @param spec the specification of the records
+   * @return the matching EmotionRecord entities
+   */
+  @Override
+  @ScatterGather(Aggregation.CONCAT)
+  List<EmotionRecord> findAll(Specification<EmotionRecord> spec);
 
   /**
    * Finds an EmotionRecord entity with the specified id,
@@ -92,13 +252,14 @@ public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Lo
    * @param id     The id of the patient
    * @param period The period of EmotionRecord
    * @param date   The date of EmotionRecord
+   * @param schedule the schedule of the periods
    * @return The EmotionRecord entity wrapped in an Optional if found,
    *     or an empty Optional if not found
    */
   default Optional<EmotionRecord> findByPatientIdAndPeriodAndDate(
-      Long id, Period period, LocalDate date) {
-    LocalDateTime start = date.atTime(period.getPeriodStartTime());
-    LocalDateTime end = date.atTime(period.getPeriodEndTime().minusNanos(1));
+      Long id, Period period, LocalDate date, PeriodSchedule schedule) {
+    LocalDateTime start = date.atTime(schedule.getStartTime(period));
+    LocalDateTime end = date.atTime(schedule.getEndTime(period).minusNanos(1_000));
     return findByPatientIdAndCreatedAtBetweenAndPeriod(id, start, end, period);
   }
 
@@ -106,13 +267,16 @@ public interface EmotionRecordRepository extends JpaRepository<EmotionRecord, Lo
    * Finds an EmotionRecord for a patient with the specified ID and the current date.
    *
    * @param id the ID of the patient to find the EmotionRecord for
+   * @param now the current date and time
+   * @param schedule the schedule of the periods
    * @return the EmotionRecord for the specified patient and the current date, if it exists
    * @throws EntityNotFoundException if no EmotionRecord is found
    *     for the specified patient and current date
    */
-  default EmotionRecord findByPatientIdAndCurrentDate(Long id) {
+  default EmotionRecord findByPatientIdAndCurrentDate(Long id, LocalDateTime now,
+                                                      PeriodSchedule schedule) {
     return findByPatientIdAndPeriodAndDate(
-        id, Period.findOutPeriodByTime(LocalTime.now()), LocalDate.now()).orElseThrow(
+        id, schedule.periodAt(now.toLocalTime()), now.toLocalDate(), schedule).orElseThrow(
             () -> new EntityNotFoundException(String.format(
         "EmotionRecord for patient with id: %s and current date is not found", id)));
   }
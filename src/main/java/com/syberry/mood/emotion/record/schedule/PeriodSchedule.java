@@ -0,0 +1,244 @@
+package com.syberry.mood.emotion.record.schedule;
+
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.exception.InvalidArgumentTypeException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The daily schedule of the check-in periods. Every period starts at its configured time and
+ * lasts until the start of the next one, the last period lasts until midnight.
+ * The period of a time is looked up in a precomputed minute-of-day table and the periods
+ * between two instants are counted in closed form, so the hot arithmetic does not allocate.
+ */
+public final class PeriodSchedule {
+
+  private static final int MINUTES_PER_DAY = 24 * 60;
+  private static final String SLOT_DELIMITER = ",";
+  private static final String START_DELIMITER = "=";
+
+  /**
+   * The default schedule: morning until noon, afternoon until 17:00 and evening until midnight.
+   */
+  public static final PeriodSchedule DEFAULT = new PeriodSchedule(Map.of(
+      Period.MORNING, LocalTime.MIDNIGHT,
+      Period.AFTERNOON, LocalTime.NOON,
+      Period.EVENING, LocalTime.of(17, 0)));
+
+  private final Period[] periods;
+  private final int[] startMinutes;
+  private final int[] indexByOrdinal;
+  private final byte[] indexByMinute = new byte[MINUTES_PER_DAY];
+  private final List<Period> periodList;
+
+  /**
+   * Creates the schedule of the periods with the given start times.
+   *
+   * @param startTimes the start times of the periods, the first one must start at midnight
+   */
+  public PeriodSchedule(Map<Period, LocalTime> startTimes) {
+    List<Map.Entry<Period, LocalTime>> slots = new ArrayList<>(startTimes.entrySet());
+    slots.sort(Map.Entry.comparingByValue());
+    if (slots.isEmpty() || !slots.get(0).getValue().equals(LocalTime.MIDNIGHT)) {
+      throw new InvalidArgumentTypeException("The first period must start at 00:00");
+    }
+    periods = new Period[slots.size()];
+    startMinutes = new int[slots.size()];
+    indexByOrdinal = new int[Period.values().length];
+    Arrays.fill(indexByOrdinal, -1);
+    for (int i = 0; i < slots.size(); i++) {
+      LocalTime start = slots.get(i).getValue();
+      if (start.getSecond() != 0 || start.getNano() != 0) {
+        throw new InvalidArgumentTypeException(String.format(
+            "The start of the period %s is not a whole minute", slots.get(i).getKey()));
+      }
+      periods[i] = slots.get(i).getKey();
+      startMinutes[i] = start.getHour() * 60 + start.getMinute();
+      if (i > 0 && startMinutes[i] == startMinutes[i - 1]) {
+        throw new InvalidArgumentTypeException(String.format(
+            "The periods %s and %s start at the same time", periods[i - 1], periods[i]));
+      }
+      indexByOrdinal[periods[i].ordinal()] = i;
+      int end = i + 1 < slots.size()
+          ? slots.get(i + 1).getValue().getHour() * 60 + slots.get(i + 1).getValue().getMinute()
+          : MINUTES_PER_DAY;
+      Arrays.fill(indexByMinute, startMinutes[i], end, (byte) i);
+    }
+    periodList = Collections.unmodifiableList(Arrays.asList(periods.clone()));
+  }
+
+  /**
+   * Parses a schedule in the format "MORNING=00:00, AFTERNOON=12:00, EVENING=17:00".
+   *
+   * @param schedule the period names with their start times
+   * @return the parsed schedule
+   */
+  public static PeriodSchedule parse(String schedule) {
+    Map<Period, LocalTime> startTimes = new LinkedHashMap<>();
+    for (String slot : schedule.split(SLOT_DELIMITER)) {
+      String[] parts = slot.split(START_DELIMITER);
+      if (parts.length != 2) {
+        throw new InvalidArgumentTypeException(
+            String.format("Invalid period schedule entry: %s", slot.trim()));
+      }
+      try {
+        Period period = Period.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+        if (startTimes.put(period, LocalTime.parse(parts[1].trim())) != null) {
+          throw new InvalidArgumentTypeException(
+              String.format("The period %s is scheduled twice", period));
+        }
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        throw new InvalidArgumentTypeException(
+            String.format("Invalid period schedule entry: %s", slot.trim()));
+      }
+    }
+    return new PeriodSchedule(startTimes);
+  }
+
+  /**
+   * Returns the scheduled periods in the order of the day.
+   *
+   * @return the unmodifiable list of the scheduled periods
+   */
+  public List<Period> getPeriods() {
+    return periodList;
+  }
+
+  /**
+   * Returns the names of the scheduled periods in the order of the day.
+   *
+   * @return the names separated by commas
+   */
+  public String getNames() {
+    return periodList.stream().map(Enum::name).collect(Collectors.joining(", "));
+  }
+
+  /**
+   * Returns the number of periods per day.
+   *
+   * @return the number of periods per day
+   */
+  public int size() {
+    return periods.length;
+  }
+
+  /**
+   * Checks whether the period is part of the schedule.
+   *
+   * @param period the period to check
+   * @return true if the period is scheduled
+   */
+  public boolean isScheduled(Period period) {
+    return indexByOrdinal[period.ordinal()] >= 0;
+  }
+
+  /**
+   * Returns the period the time belongs to.
+   *
+   * @param time the time of the day
+   * @return the period of the time
+   */
+  public Period periodAt(LocalTime time) {
+    return periods[indexByMinute[time.getHour() * 60 + time.getMinute()]];
+  }
+
+  /**
+   * Returns the start time of the period.
+   *
+   * @param period the scheduled period
+   * @return the start time of the period
+   */
+  public LocalTime getStartTime(Period period) {
+    return LocalTime.ofSecondOfDay(startMinutes[indexOf(period)] * 60L);
+  }
+
+  /**
+   * Returns the end time of the period, which is midnight for the last period of the day.
+   *
+   * @param period the scheduled period
+   * @return the end time of the period exclusive
+   */
+  public LocalTime getEndTime(Period period) {
+    int next = indexOf(period) + 1;
+    return next < periods.length
+        ? LocalTime.ofSecondOfDay(startMinutes[next] * 60L)
+        : LocalTime.MIDNIGHT;
+  }
+
+  /**
+   * Counts the periods from the given period until the end of the day inclusive.
+   *
+   * @param period the scheduled period
+   * @return the number of periods from the given one until the end of the day
+   */
+  public int countPeriodsFrom(Period period) {
+    return periods.length - indexOf(period);
+  }
+
+  /**
+   * Counts the periods from the start of the day until the given period inclusive.
+   *
+   * @param period the scheduled period
+   * @return the number of periods from the start of the day until the given one
+   */
+  public int countPeriodsUntil(Period period) {
+    return indexOf(period) + 1;
+  }
+
+  /**
+   * Counts the periods of one day between two periods inclusive.
+   *
+   * @param first the first scheduled period
+   * @param second the second scheduled period
+   * @return the number of periods between the given ones inclusive
+   */
+  public int countPeriodsBetween(Period first, Period second) {
+    return Math.abs(indexOf(first) - indexOf(second)) + 1;
+  }
+
+  /**
+   * Counts the periods between two instants inclusive, the periods of both instants included.
+   *
+   * @param start the start instant
+   * @param end the end instant
+   * @return the number of periods between the instants
+   */
+  public int countPeriodsBetween(LocalDateTime start, LocalDateTime end) {
+    long days = end.toLocalDate().toEpochDay() - start.toLocalDate().toEpochDay();
+    return Math.toIntExact(days * periods.length
+        + indexAt(end.getHour(), end.getMinute())
+        - indexAt(start.getHour(), start.getMinute()) + 1);
+  }
+
+  private int indexAt(int hour, int minute) {
+    return indexByMinute[hour * 60 + minute];
+  }
+
+  private int indexOf(Period period) {
+    int index = indexByOrdinal[period.ordinal()];
+    if (index < 0) {
+      throw new InvalidArgumentTypeException(
+          String.format("The period %s is not scheduled", period));
+    }
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder schedule = new StringBuilder();
+    for (int i = 0; i < periods.length; i++) {
+      schedule.append(i == 0 ? "" : ", ").append(periods[i]).append(START_DELIMITER)
+          .append(LocalTime.ofSecondOfDay(startMinutes[i] * 60L));
+    }
+    return schedule.toString();
+  }
+}
@@ -0,0 +1,29 @@
+package com.syberry.mood.emotion.record.service;
+
+import com.syberry.mood.emotion.record.dto.ComplianceReportDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import java.io.ByteArrayOutputStream;
+import java.util.List;
+
+/**
+ * Service interface for the ward-wide compliance with the check-in schedule.
+ */
+public interface ComplianceReportService {
+
+  /**
+   * Returns the expected, recorded and missed records of every patient within the dates
+   * of the filter.
+   *
+   * @param filter the filter with the date range
+   * @return the compliance of every patient ordered by id DESC
+   */
+  List<ComplianceReportDto> getComplianceReport(EmotionRecordFilter filter);
+
+  /**
+   * Generates a csv file with the compliance of every patient within the dates of the filter.
+   *
+   * @param filter the filter with the date range
+   * @return byteArrayOutput stream with created csv file
+   */
+  ByteArrayOutputStream getComplianceReportCsv(EmotionRecordFilter filter);
+}
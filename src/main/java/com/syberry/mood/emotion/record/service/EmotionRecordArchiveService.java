@@ -0,0 +1,32 @@
+package com.syberry.mood.emotion.record.service;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+/**
+ * Service interface for the archive of the emotion records of the closed months.
+ * The records older than the archive horizon are moved out of the database into immutable
+ * segment files, one per month, and the reads of the records merge them with the live rows.
+ */
+public interface EmotionRecordArchiveService {
+
+  /**
+   * Moves the records of the months before the archive horizon into the segment files.
+   * The records of a month already archived, like the imported ones, are merged into its segment.
+   */
+  void archiveClosedMonths();
+
+  /**
+   * Streams the archived records created within the time range, ordered by creation time and id.
+   * The archive is shared by the shards, only the records of the patients on the shard
+   * the current thread works with are streamed.
+   *
+   * @param patientId the ID of the patient or null for the records of all patients
+   * @param startDateTime the start of the time range, inclusive
+   * @param endDateTime the end of the time range, exclusive
+   * @return the stream of the archived records, empty if the range is not archived
+   */
+  Stream<EmotionRecordDto> streamRecords(Long patientId, LocalDateTime startDateTime,
+                                         LocalDateTime endDateTime);
+}
@@ -0,0 +1,27 @@
+package com.syberry.mood.emotion.record.service;
+
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Service interface for pushing committed emotion record changes to server-sent event
+ * subscribers.
+ */
+public interface EmotionRecordEventService {
+
+  /**
+   * Subscribes to the emotion record changes. Each event carries a sequential ID,
+   * which the client sends back as resume token to receive the changes it missed.
+   *
+   * @param lastEventId the ID of the last received event or null for a new subscription
+   * @return the emitter of the subscription
+   */
+  SseEmitter subscribe(String lastEventId);
+
+  /**
+   * Pushes a committed emotion record change to the subscribers.
+   *
+   * @param event the change of the emotion record
+   */
+  void onEmotionRecordChanged(EmotionRecordChangedEvent event);
+}
@@ -0,0 +1,21 @@
+package com.syberry.mood.emotion.record.service;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordImportResultDto;
+import com.syberry.mood.emotion.record.dto.ImportFormat;
+import java.io.InputStream;
+
+/**
+ * Service interface for bulk importing emotion records.
+ */
+public interface EmotionRecordImportService {
+
+  /**
+   * Imports the emotion records streamed in the given format.
+   * Valid rows are imported, invalid rows are rejected and reported with their line numbers.
+   *
+   * @param inputStream the uploaded content
+   * @param format the format of the uploaded content
+   * @return the numbers of imported and rejected rows and the reasons of the rejections
+   */
+  EmotionRecordImportResultDto importEmotionRecords(InputStream inputStream, ImportFormat format);
+}
@@ -0,0 +1,15 @@
+package com.syberry.mood.emotion.record.service;
+
+/**
+ * Service interface for the maintenance of the monthly partitions of the emotion records.
+ * The partitions exist only on MySQL, on other databases the table is not partitioned
+ * and the maintenance does nothing.
+ */
+public interface EmotionRecordPartitionService {
+
+  /**
+   * Creates the partitions of the upcoming months and removes the partitions
+   * of the months beyond the retention period.
+   */
+  void maintainPartitions();
+}
@@ -6,8 +6,13 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
 import com.syberry.mood.emotion.record.dto.EmotionRecordUpdatingDto;
 import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
+import com.syberry.mood.user.dto.PatientDto;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -98,6 +103,16 @@ public interface EmotionRecordService {
    */
   void deleteEmotionRecordById(Long id);
 
+  /**
+   * Finds the active patients without a record in the given period of the date,
+   * for example the patients to remind of the check-in.
+   *
+   * @param date the date of the period or null for today
+   * @param period the period or null for the current period
+   * @return the patients without a record ordered by id DESC
+   */
+  List<PatientDto> findPatientsWithoutRecord(LocalDate date, String period);
+
   /**
    * Generates csv file with patient's emotion records.
    *
@@ -124,4 +139,27 @@ public interface EmotionRecordService {
    */
   ByteArrayInputStream getPatientEmotionRecordsDataInPdf(
       EmotionRecordFilter filter, Long patientId);
+
+  /**
+   * Writes the emotion records filtered by the given filter as JSON lines,
+   * one line per record as the rows arrive from the database.
+   *
+   * @param patientId the ID of the patient or null for the records of all patients
+   * @param filter the filter with the date range
+   * @param outputStream the stream to write the JSON lines to
+   * @throws IOException if writing to the stream fails
+   */
+  void streamEmotionRecords(Long patientId, EmotionRecordFilter filter,
+                            OutputStream outputStream) throws IOException;
+
+  /**
+   * Writes all emotion records filtered by the given filter as the JSON of the map grouped
+   * by date, patient and period returned by {@link #findAllEmotionRecordsGroupByDate}.
+   *
+   * @param filter the filter with the date range
+   * @param outputStream the stream to write the JSON to
+   * @throws IOException if writing to the stream fails
+   */
+  void writeEmotionRecordsGrid(EmotionRecordFilter filter, OutputStream outputStream)
+      throws IOException;
 }
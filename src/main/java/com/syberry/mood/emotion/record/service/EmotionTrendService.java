@@ -0,0 +1,24 @@
+package com.syberry.mood.emotion.record.service;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.dto.EmotionTrendDto;
+
+/**
+ * Service interface for the emotion trends of the patients.
+ */
+public interface EmotionTrendService {
+
+  /**
+   * Returns the emotion trend of a patient within the dates of the filter. The bucket size
+   * is the smallest one, not finer than the requested size, that keeps the number of points
+   * within the limit.
+   *
+   * @param patientId the ID of the patient
+   * @param filter the filter with the date range
+   * @param bucket the finest bucket size to use or null for the automatic choice
+   * @param window the number of trailing buckets of the moving average or null for the default
+   * @return the emotion trend of the patient
+   */
+  EmotionTrendDto getEmotionTrend(Long patientId, EmotionRecordFilter filter, String bucket,
+                                  Integer window);
+}
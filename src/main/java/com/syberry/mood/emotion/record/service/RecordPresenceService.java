@@ -0,0 +1,64 @@
+package com.syberry.mood.emotion.record.service;
+
+import com.syberry.mood.emotion.record.dto.Period;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for the in-memory index of the filled record slots. A slot is a scheduled
+ * period of a day, every patient may have at most one emotion record per slot.
+ */
+public interface RecordPresenceService {
+
+  /**
+   * Checks whether the patient has a record in the given period of the date.
+   *
+   * @param patientId the ID of the patient
+   * @param date the date of the slot
+   * @param period the scheduled period of the slot
+   * @return true if the slot is filled
+   */
+  boolean isFilled(Long patientId, LocalDate date, Period period);
+
+  /**
+   * Counts the filled slots of the patient between the periods of two instants inclusive.
+   *
+   * @param patientId the ID of the patient
+   * @param startDateTime the instant of the first slot
+   * @param endDateTime the instant of the last slot
+   * @return the number of filled slots
+   */
+  int countFilledSlots(Long patientId, LocalDateTime startDateTime, LocalDateTime endDateTime);
+
+  /**
+   * Returns the missing slots of the patient between two dates inclusive. The bit
+   * {@code days * periodsPerDay + periodIndex} stands for the period of the day
+   * {@code startDate + days} in the order of the schedule.
+   *
+   * @param patientId the ID of the patient
+   * @param startDate the first date
+   * @param endDate the last date
+   * @return the set of the missing slots
+   */
+  BitSet findMissingSlots(Long patientId, LocalDate startDate, LocalDate endDate);
+
+  /**
+   * Selects the patients without a record in the given period of the date.
+   *
+   * @param patientIds the IDs of the patients to check
+   * @param date the date of the slot
+   * @param period the scheduled period of the slot
+   * @return the IDs of the patients, whose slot is missing, in the order of the given IDs
+   */
+  List<Long> findPatientsWithoutRecord(Collection<Long> patientIds, LocalDate date,
+                                       Period period);
+
+  /**
+   * Replaces the index with the slots read from the database and the archive, so the records
+   * missed by the change log, like the ones written by other tools, are caught up with.
+   */
+  void reloadSlots();
+}
@@ -0,0 +1,75 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import com.syberry.mood.emotion.record.dto.ComplianceReportDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.service.ComplianceReportService;
+import com.syberry.mood.emotion.record.service.CsvService;
+import com.syberry.mood.emotion.record.service.RecordPresenceService;
+import com.syberry.mood.emotion.record.util.DateUtil;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.service.PatientDirectoryService;
+import java.io.ByteArrayOutputStream;
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the {@link ComplianceReportService} interface.
+ * The expected records are computed from the period schedule and the active time of every
+ * patient, the recorded ones are counted in the presence index, so nothing is queried.
+ */
+@Service
+@RequiredArgsConstructor
+public class ComplianceReportServiceImpl implements ComplianceReportService {
+
+  private final PatientDirectoryService patientDirectory;
+  private final RecordPresenceService presenceService;
+  private final CsvService csvService;
+  private final PeriodSchedule schedule;
+  private final Clock clock;
+
+  @Override
+  public List<ComplianceReportDto> getComplianceReport(EmotionRecordFilter filter) {
+    LocalDateTime now = LocalDateTime.now(clock);
+    LocalDateTime start = filter.getStartDate().atStartOfDay();
+    LocalDateTime end = DateUtil.convertToDateTimeEndDay(filter.getEndDate());
+    end = end.isAfter(now) ? now : end;
+    List<ComplianceReportDto> report = new ArrayList<>();
+    for (User patient : patientDirectory.findAllPatients()) {
+      LocalDateTime activeStart = start.isAfter(patient.getCreatedAt())
+          ? start : patient.getCreatedAt();
+      LocalDateTime activeEnd = !patient.isDisabled() || patient.getUpdatedAt() == null
+          || end.isBefore(patient.getUpdatedAt()) ? end : patient.getUpdatedAt();
+      boolean active = !activeStart.isAfter(activeEnd);
+      report.add(convertToDto(patient,
+          active ? schedule.countPeriodsBetween(activeStart, activeEnd) : 0,
+          active ? presenceService.countFilledSlots(patient.getId(), activeStart, activeEnd) : 0));
+    }
+    return report;
+  }
+
+  @Override
+  public ByteArrayOutputStream getComplianceReportCsv(EmotionRecordFilter filter) {
+    return csvService.createCsv(getComplianceReport(filter), ComplianceReportDto.class);
+  }
+
+  private ComplianceReportDto convertToDto(User patient, int expectedRecords,
+                                           long recordedRecords) {
+    return ComplianceReportDto.builder()
+        .patientId(patient.getId())
+        .superheroName(patient.getUsername())
+        .disabled(patient.isDisabled())
+        .expectedRecords(expectedRecords)
+        .recordedRecords(recordedRecords)
+        .missedRecords(Math.max(0, expectedRecords - recordedRecords))
+        .completionRate(expectedRecords == 0
+            ? null
+            : Math.round(Math.min(recordedRecords, expectedRecords) * 1000.0 / expectedRecords)
+                / 10.0)
+        .build();
+  }
+}
@@ -0,0 +1,256 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.emotion.record.archive.ArchiveSegment;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.service.EmotionRecordArchiveService;
+import com.syberry.mood.emotion.record.util.MergingIterator;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.sharding.ShardMap;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.service.PatientDirectoryService;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link EmotionRecordArchiveService} interface.
+ * Every archived month is a segment file named like records-2023-01.seg in a directory shared
+ * by all instances of the application. A month is archived by merging its rows with its segment,
+ * if any, into a new segment that atomically replaces the old one, and by deleting the archived
+ * rows afterwards, so a failed run leaves the records at least in one place and the next run
+ * completes it. The segments are mapped into memory on the first read and are mapped again
+ * when their file is replaced. Only the ids written into the segment are deleted, so the rows
+ * added to the month while it is archived stay in the database until the next run. The reads
+ * of the ranges after the horizon do not touch the files. Every shard is archived on its own,
+ * its rows streamed from its database and merged into the segments the previous shards wrote.
+ */
+@Slf4j
+@Service
+public class EmotionRecordArchiveServiceImpl implements EmotionRecordArchiveService {
+
+  private static final String SEGMENT_PREFIX = "records-";
+  private static final String SEGMENT_SUFFIX = ".seg";
+  private static final String LOCK_FILE = ".lock";
+  private static final int DELETE_CHUNK_SIZE = 1000;
+
+  private final EmotionRecordRepository recordRepository;
+  private final PatientDirectoryService patientDirectory;
+  private final ChangeLogService changeLog;
+  private final ObjectProvider<ShardMap> shardMap;
+  private final TransactionTemplate readTransaction;
+  private final TransactionTemplate writeTransaction;
+  private final Path directory;
+  private final int horizonMonths;
+  private final NavigableMap<YearMonth, LoadedSegment> segments = new ConcurrentSkipListMap<>();
+
+  /**
+   * Creates the service.
+   *
+   * @param recordRepository the repository of the live emotion records
+   * @param patientDirectory the directory providing the superhero names of the patients
+   * @param changeLog the log the moves of the records to the archive are appended to
+   * @param shardMap the shards of the database, absent if the data is not sharded
+   * @param transactionManager the transaction manager of the database
+   * @param directory the directory of the segment files
+   * @param horizonMonths the number of the past months kept in the database,
+   *     0 disables the archive
+   */
+  public EmotionRecordArchiveServiceImpl(
+      EmotionRecordRepository recordRepository,
+      PatientDirectoryService patientDirectory,
+      ChangeLogService changeLog,
+      ObjectProvider<ShardMap> shardMap,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.record-archive.directory:archive}") Path directory,
+      @Value("${app.record-archive.horizon-months:0}") int horizonMonths) {
+    this.recordRepository = recordRepository;
+    this.patientDirectory = patientDirectory;
+    this.changeLog = changeLog;
+    this.shardMap = shardMap;
+    this.readTransaction = new TransactionTemplate(transactionManager);
+    this.readTransaction.setReadOnly(true);
+    this.writeTransaction = new TransactionTemplate(transactionManager);
+    this.directory = directory;
+    this.horizonMonths = horizonMonths;
+  }
+
+  @Override
+  @Scheduled(cron = "${app.record-archive.cron:0 30 3 * * *}")
+  public void archiveClosedMonths() {
+    if (horizonMonths <= 0) {
+      return;
+    }
+    try {
+      Files.createDirectories(directory);
+      try (FileChannel channel = FileChannel.open(directory.resolve(LOCK_FILE),
+          StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+           FileLock lock = channel.tryLock()) {
+        if (lock == null) {
+          return;
+        }
+        YearMonth horizon = horizon();
+        ShardMap shards = shardMap.getIfAvailable();
+        for (int shard = 0; shard < (shards != null ? shards.size() : 1); shard++) {
+          ShardContext.callOn(shard, () -> {
+            archiveShard(horizon);
+            return null;
+          });
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public Stream<EmotionRecordDto> streamRecords(Long patientId, LocalDateTime startDateTime,
+                                                LocalDateTime endDateTime) {
+    if (horizonMonths <= 0 || !startDateTime.isBefore(endDateTime)
+        || !YearMonth.from(startDateTime).isBefore(horizon())) {
+      return Stream.empty();
+    }
+    refreshSegments();
+    List<ArchiveSegment> covered = segments
+        .subMap(YearMonth.from(startDateTime), true, YearMonth.from(endDateTime), true)
+        .values().stream()
+        .map(LoadedSegment::segment)
+        .toList();
+    if (covered.isEmpty()) {
+      return Stream.empty();
+    }
+    Map<Long, String> superheroNames = patientDirectory.findAllPatients().stream()
+        .collect(Collectors.toMap(User::getId, User::getUsername));
+    return covered.stream()
+        .flatMap(segment -> segment.stream(patientId, startDateTime, endDateTime))
+        .filter(record -> ShardContext.isVisible(record.getPatientId()))
+        .peek(record -> record.setSuperheroName(superheroNames.get(record.getPatientId())));
+  }
+
+  private void archiveShard(YearMonth horizon) {
+    LocalDateTime firstCreatedAt = recordRepository.findFirstCreatedAt();
+    while (firstCreatedAt != null && YearMonth.from(firstCreatedAt).isBefore(horizon)) {
+      archiveMonth(YearMonth.from(firstCreatedAt));
+      firstCreatedAt = recordRepository.findFirstCreatedAt();
+    }
+  }
+
+  private void archiveMonth(YearMonth month) {
+    LocalDateTime start = month.atDay(1).atStartOfDay();
+    LocalDateTime end = month.plusMonths(1).atDay(1).atStartOfDay();
+    Path file = segmentFile(month);
+    ArchiveSegment archived;
+    try {
+      archived = Files.exists(file) ? ArchiveSegment.open(file) : null;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    List<Long> ids = new ArrayList<>();
+    int count = readTransaction.execute(status -> {
+      try (Stream<EmotionRecordDto> live = recordRepository.streamAllCreatedWithin(start, end)) {
+        Iterator<EmotionRecordDto> records = live
+            .peek(record -> ids.add(record.getId()))
+            .iterator();
+        if (archived != null) {
+          records = new MergingIterator<>(records,
+              archived.stream(null, start, end).iterator(), ArchiveSegment.ORDER);
+        }
+        return ArchiveSegment.write(file, records);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    int deleted = 0;
+    for (int from = 0; from < ids.size(); from += DELETE_CHUNK_SIZE) {
+      List<Long> chunk = ids.subList(from, Math.min(from + DELETE_CHUNK_SIZE, ids.size()));
+      deleted += writeTransaction.execute(status -> {
+        int chunkDeleted = recordRepository.deleteAllByIdIn(chunk);
+        Map<Long, Object> moved = new LinkedHashMap<>();
+        chunk.forEach(id -> moved.put(id, null));
+        changeLog.recordChanges(ChangedEntity.EMOTION_RECORD, ChangeType.ARCHIVED, moved);
+        return chunkDeleted;
+      });
+    }
+    log.info("Archived {} emotion records of {}, {} of them moved from shard {}",
+        count, month, deleted, ShardContext.current());
+  }
+
+  private void refreshSegments() {
+    if (!Files.isDirectory(directory)) {
+      segments.clear();
+      return;
+    }
+    Set<YearMonth> found = new HashSet<>();
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+        SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        YearMonth month = parseMonth(file.getFileName().toString());
+        if (month == null) {
+          continue;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        List<Object> version = Arrays.asList(attributes.fileKey(),
+            attributes.lastModifiedTime(), attributes.size());
+        found.add(month);
+        LoadedSegment loaded = segments.get(month);
+        if (loaded == null || !loaded.version().equals(version)) {
+          segments.put(month, new LoadedSegment(version, ArchiveSegment.open(file)));
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    segments.keySet().retainAll(found);
+  }
+
+  private YearMonth horizon() {
+    return YearMonth.now().minusMonths(horizonMonths);
+  }
+
+  private Path segmentFile(YearMonth month) {
+    return directory.resolve(SEGMENT_PREFIX + month + SEGMENT_SUFFIX);
+  }
+
+  private static YearMonth parseMonth(String fileName) {
+    try {
+      return YearMonth.parse(fileName.substring(SEGMENT_PREFIX.length(),
+          fileName.length() - SEGMENT_SUFFIX.length()));
+    } catch (DateTimeParseException e) {
+      return null;
+    }
+  }
+
+  private record LoadedSegment(List<Object> version, ArchiveSegment segment) {
+  }
+}
@@ -0,0 +1,222 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.service.EmotionRecordEventService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Implementation of the {@link EmotionRecordEventService} interface.
+ * Every subscriber has a bounded buffer drained by a shared sender pool, so a slow client
+ * never blocks the committing thread: when its buffer is full the oldest event is dropped
+ * and the client notices the gap in the event IDs. The last events are kept in a history
+ * to replay them to reconnecting clients; a client whose resume token is older than the
+ * history receives a "reset" event and should reload the full grid.
+ */
+@Slf4j
+@Service
+public class EmotionRecordEventServiceImpl implements EmotionRecordEventService {
+
+  static final String SUBSCRIBED_EVENT = "subscribed";
+  static final String RESET_EVENT = "reset";
+  private static final long HEARTBEAT_SECONDS = 15;
+  private static final RecordEvent HEARTBEAT = new RecordEvent(-1, "heartbeat", Map.of());
+
+  private final int bufferSize;
+  private final int historySize;
+  private final long timeoutMillis;
+  private final Deque<RecordEvent> history = new ArrayDeque<>();
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private final ScheduledExecutorService sender;
+  private final Counter droppedEvents;
+  private long lastEventId;
+
+  /**
+   * Creates the service.
+   *
+   * @param bufferSize the maximum number of events buffered per subscriber
+   * @param historySize the number of the last events kept to resume subscriptions
+   * @param timeout the lifetime of a subscription in minutes, after which the client reconnects
+   * @param meterRegistry the registry of the subscriber and dropped event meters
+   */
+  public EmotionRecordEventServiceImpl(
+      @Value("${app.record-events.buffer-size:256}") int bufferSize,
+      @Value("${app.record-events.history-size:1024}") int historySize,
+      @Value("${app.record-events.timeout:30}") long timeout,
+      MeterRegistry meterRegistry) {
+    this.bufferSize = bufferSize;
+    this.historySize = historySize;
+    this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeout);
+    AtomicInteger threadNumber = new AtomicInteger();
+    this.sender = Executors.newScheduledThreadPool(2, runnable -> {
+      Thread thread = new Thread(runnable, "record-events-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.sender.scheduleAtFixedRate(this::sendHeartbeats,
+        HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+    this.droppedEvents = Counter.builder("mood.record.events.dropped")
+        .description("Record change events dropped from full subscriber buffers")
+        .register(meterRegistry);
+    Gauge.builder("mood.record.events.subscribers", subscribers, Set::size)
+        .description("Active subscribers of the record change events")
+        .register(meterRegistry);
+  }
+
+  @Override
+  public SseEmitter subscribe(String lastEventId) {
+    Subscriber subscriber = new Subscriber(createEmitter());
+    subscriber.emitter.onCompletion(() -> subscribers.remove(subscriber));
+    subscriber.emitter.onTimeout(() -> subscribers.remove(subscriber));
+    subscriber.emitter.onError(error -> subscribers.remove(subscriber));
+    Long resumeToken = parseEventId(lastEventId);
+    synchronized (this) {
+      subscribers.add(subscriber);
+      if (resumeToken == null) {
+        subscriber.offer(new RecordEvent(this.lastEventId, SUBSCRIBED_EVENT, Map.of()));
+      } else if (canResume(resumeToken)) {
+        history.stream()
+            .filter(event -> event.id > resumeToken)
+            .forEach(subscriber::offer);
+      } else {
+        subscriber.offer(new RecordEvent(this.lastEventId, RESET_EVENT, Map.of()));
+      }
+    }
+    return subscriber.emitter;
+  }
+
+  @Override
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordChanged(EmotionRecordChangedEvent event) {
+    synchronized (this) {
+      RecordEvent recordEvent = new RecordEvent(++lastEventId,
+          event.getType().name().toLowerCase(Locale.ROOT), event.getEmotionRecord());
+      history.addLast(recordEvent);
+      if (history.size() > historySize) {
+        history.removeFirst();
+      }
+      subscribers.forEach(subscriber -> subscriber.offer(recordEvent));
+    }
+  }
+
+  /**
+   * Completes the subscriptions and stops the sender threads on shutdown.
+   */
+  @PreDestroy
+  public void shutdown() {
+    sender.shutdownNow();
+    subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    subscribers.clear();
+  }
+
+  /**
+   * Creates the emitter of a new subscription.
+   */
+  SseEmitter createEmitter() {
+    return new SseEmitter(timeoutMillis);
+  }
+
+  /**
+   * Checks that no event after the resume token has been evicted from the history.
+   */
+  private boolean canResume(long resumeToken) {
+    if (resumeToken > lastEventId) {
+      return false;
+    }
+    return history.isEmpty()
+        ? resumeToken == lastEventId
+        : resumeToken >= history.getFirst().id - 1;
+  }
+
+  private void sendHeartbeats() {
+    subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+  }
+
+  private static Long parseEventId(String eventId) {
+    if (eventId == null || eventId.isBlank()) {
+      return null;
+    }
+    try {
+      return Long.parseLong(eventId.trim());
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  /**
+   * An event of the feed, the ID is the resume token of the event.
+   */
+  private record RecordEvent(long id, String name, Object data) {
+  }
+
+  /**
+   * A subscription with its bounded buffer.
+   */
+  private final class Subscriber {
+
+    private final SseEmitter emitter;
+    private final Deque<RecordEvent> buffer = new ArrayDeque<>();
+    private boolean draining;
+
+    private Subscriber(SseEmitter emitter) {
+      this.emitter = emitter;
+    }
+
+    private synchronized void offer(RecordEvent event) {
+      if (buffer.size() >= bufferSize) {
+        buffer.removeFirst();
+        droppedEvents.increment();
+      }
+      buffer.addLast(event);
+      if (!draining) {
+        draining = true;
+        sender.execute(this::drain);
+      }
+    }
+
+    private void drain() {
+      while (true) {
+        RecordEvent event;
+        synchronized (this) {
+          event = buffer.pollFirst();
+          if (event == null) {
+            draining = false;
+            return;
+          }
+        }
+        try {
+          emitter.send(event == HEARTBEAT
+              ? SseEmitter.event().comment("heartbeat")
+              : SseEmitter.event()
+                  .id(String.valueOf(event.id))
+                  .name(event.name)
+                  .data(event.data, MediaType.APPLICATION_JSON));
+        } catch (IOException | IllegalStateException e) {
+          log.debug("Removing record events subscriber: {}", e.getMessage());
+          subscribers.remove(this);
+          emitter.completeWithError(e);
+          return;
+        }
+      }
+    }
+  }
+}
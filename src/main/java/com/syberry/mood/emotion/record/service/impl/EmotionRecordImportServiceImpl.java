@@ -0,0 +1,382 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.emotion.record.converter.EmotionRecordConverter;
+import com.syberry.mood.emotion.record.dto.EmotionRecordCreationDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordImportErrorDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordImportResultDto;
+import com.syberry.mood.emotion.record.dto.ImportFormat;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsImportedEvent;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.service.EmotionRecordImportService;
+import com.syberry.mood.emotion.record.validation.EmotionRecordValidator;
+import com.syberry.mood.exception.InvalidArgumentTypeException;
+import com.syberry.mood.exception.ValidationException;
+import com.syberry.mood.monitoring.sql.SqlStatisticsHolder;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.repository.UserRepository;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link EmotionRecordImportService} interface.
+ * The upload is read line by line and processed in chunks. The rows of a chunk are written
+ * on the shard of their patient, in one transaction per shard: the patients and the occupied
+ * slots are loaded with one query each, the valid rows are written in one JDBC batch
+ * and their changes are logged in another one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class EmotionRecordImportServiceImpl implements EmotionRecordImportService {
+
+  static final int CHUNK_SIZE = 1_000;
+  static final int MAX_REPORTED_ERRORS = 1_000;
+  private static final String NULL_CELL = "-";
+  private static final List<String> REQUIRED_COLUMNS =
+      List.of("patientid", "period", "emotion", "intensity");
+
+  private final EmotionRecordRepository recordRepository;
+  private final UserRepository userRepository;
+  private final EmotionRecordConverter recordConverter;
+  private final EmotionRecordValidator recordValidator;
+  private final Validator validator;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ChangeLogService changeLog;
+  private final PlatformTransactionManager transactionManager;
+
+  @Override
+  public EmotionRecordImportResultDto importEmotionRecords(InputStream inputStream,
+                                                           ImportFormat format) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    ImportProgress progress = new ImportProgress();
+    List<ImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+      Map<String, Integer> columns = null;
+      long lineNumber = 0;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lineNumber++;
+        if (line.isBlank()) {
+          continue;
+        }
+        if (format == ImportFormat.CSV && columns == null) {
+          columns = parseHeader(line);
+          continue;
+        }
+        progress.rows++;
+        ImportRow row = parseRow(lineNumber, line, format, columns, progress);
+        if (row != null) {
+          chunk.add(row);
+        }
+        if (chunk.size() == CHUNK_SIZE) {
+          importChunk(chunk, progress, transaction);
+          chunk.clear();
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    importChunk(chunk, progress, transaction);
+    progress.errors.sort(Comparator.comparingLong(EmotionRecordImportErrorDto::getLine));
+    return EmotionRecordImportResultDto.builder()
+        .rows(progress.rows)
+        .imported(progress.imported)
+        .rejected(progress.rejected)
+        .errors(progress.errors)
+        .build();
+  }
+
+  /**
+   * Parses and validates a single row, the rejected rows are added to the progress.
+   */
+  private ImportRow parseRow(long lineNumber, String line, ImportFormat format,
+                             Map<String, Integer> columns, ImportProgress progress) {
+    try {
+      EmotionRecordCreationDto dto = format == ImportFormat.CSV
+          ? parseCsvRow(line, columns)
+          : objectMapper.readValue(line, EmotionRecordCreationDto.class);
+      Set<ConstraintViolation<EmotionRecordCreationDto>> violations = validator.validate(dto);
+      if (!violations.isEmpty()) {
+        progress.reject(lineNumber, violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; ")));
+        return null;
+      }
+      EmotionRecord emotionRecord = recordConverter.convertToEntity(dto);
+      return new ImportRow(lineNumber, dto.getPatientId(), emotionRecord);
+    } catch (JsonProcessingException e) {
+      progress.reject(lineNumber, "Malformed JSON: " + e.getOriginalMessage());
+    } catch (NumberFormatException | DateTimeParseException e) {
+      progress.reject(lineNumber, "Malformed value: " + e.getMessage());
+    } catch (InvalidArgumentTypeException | ValidationException e) {
+      progress.reject(lineNumber, e.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Splits the chunk by the shards of the patients and writes the rows of each shard
+   * in its own transaction on that shard, adding the outcome to the progress.
+   * Rows failing to be written are rolled back and reported as rejected.
+   */
+  private void importChunk(List<ImportRow> chunk, ImportProgress progress,
+                           TransactionTemplate transaction) {
+    Map<Integer, List<ImportRow>> shards = chunk.stream().collect(Collectors.groupingBy(
+        row -> ShardContext.shardOf(row.patientId()), TreeMap::new, Collectors.toList()));
+    shards.forEach((shard, rows) -> {
+      if (shard >= ShardContext.shardCount()) {
+        rows.forEach(row -> progress.reject(row.line(),
+            String.format("Patient with id: %s is not found", row.patientId())));
+        return;
+      }
+      SqlStatisticsHolder.recordChunk();
+      try {
+        ImportProgress shardProgress = new ImportProgress();
+        ShardContext.callOn(shard, () -> transaction.execute(status -> {
+          writeChunk(rows, shardProgress);
+          return null;
+        }));
+        progress.add(shardProgress);
+      } catch (DataAccessException e) {
+        log.warn("Failed to import the rows from line {} to {}",
+            rows.get(0).line(), rows.get(rows.size() - 1).line(), e);
+        rows.forEach(row ->
+            progress.reject(row.line(), "The row could not be written, try again"));
+      }
+    });
+  }
+
+  /**
+   * Locks the patients of the chunk, checks them and the slots with set-based queries,
+   * inserts the accepted rows in one batch and logs and publishes them as created records.
+   * A record created concurrently locks its patient as well, so the checked slots stay free.
+   */
+  private void writeChunk(List<ImportRow> chunk, ImportProgress progress) {
+    Set<Long> patientIds = chunk.stream().map(ImportRow::patientId).collect(Collectors.toSet());
+    Map<Long, User> patients = userRepository.findAllByIdForUpdate(patientIds).stream()
+        .filter(user -> user.getRole().getRoleName() == RoleName.USER)
+        .collect(Collectors.toMap(User::getId, Function.identity()));
+    Set<String> occupiedSlots = findOccupiedSlots(chunk, patients.keySet());
+    List<EmotionRecord> accepted = new ArrayList<>(chunk.size());
+    for (ImportRow row : chunk) {
+      EmotionRecord emotionRecord = row.emotionRecord();
+      LocalDate date = emotionRecord.getCreatedAt().toLocalDate();
+      User patient = patients.get(row.patientId());
+      if (patient == null) {
+        progress.reject(row.line(),
+            String.format("Patient with id: %s is not found", row.patientId()));
+        continue;
+      }
+      try {
+        recordValidator.validateDateNotAfterDisable(patient, date, emotionRecord.getPeriod());
+      } catch (ValidationException e) {
+        progress.reject(row.line(), e.getMessage());
+        continue;
+      }
+      if (!occupiedSlots.add(slot(patient.getId(), date, emotionRecord.getPeriod()))) {
+        progress.reject(row.line(), String.format("There is already an emotion record for: %s %s",
+            date, emotionRecord.getPeriod().toString().toLowerCase(Locale.ROOT)));
+        continue;
+      }
+      emotionRecord.setPatient(patient);
+      accepted.add(emotionRecord);
+    }
+    if (accepted.isEmpty()) {
+      return;
+    }
+    recordRepository.insertAll(accepted);
+    progress.imported += accepted.size();
+    Map<Long, EmotionRecordDto> created = new LinkedHashMap<>();
+    accepted.forEach(emotionRecord ->
+        created.put(emotionRecord.getId(), recordConverter.convertToDto(emotionRecord)));
+    changeLog.recordChanges(ChangedEntity.EMOTION_RECORD, ChangeType.CREATED, created);
+    created.values().forEach(dto ->
+        eventPublisher.publishEvent(new EmotionRecordChangedEvent(ChangeType.CREATED, dto)));
+    eventPublisher.publishEvent(new EmotionRecordsImportedEvent(
+        accepted.stream()
+            .map(emotionRecord -> emotionRecord.getPatient().getId())
+            .collect(Collectors.toSet()),
+        accepted.stream()
+            .map(emotionRecord -> emotionRecord.getCreatedAt().toLocalDate())
+            .collect(Collectors.toSet())));
+  }
+
+  private Set<String> findOccupiedSlots(List<ImportRow> chunk, Set<Long> patientIds) {
+    Set<String> slots = new HashSet<>();
+    if (patientIds.isEmpty()) {
+      return slots;
+    }
+    LocalDate from = LocalDate.MAX;
+    LocalDate to = LocalDate.MIN;
+    for (ImportRow row : chunk) {
+      LocalDate date = row.emotionRecord().getCreatedAt().toLocalDate();
+      from = date.isBefore(from) ? date : from;
+      to = date.isAfter(to) ? date : to;
+    }
+    for (Object[] slot : recordRepository.findSlotsByPatientIds(
+        patientIds, from.atStartOfDay(), to.plusDays(1).atStartOfDay())) {
+      slots.add(slot((Long) slot[0], ((LocalDateTime) slot[1]).toLocalDate(), (Period) slot[2]));
+    }
+    return slots;
+  }
+
+  private static String slot(Long patientId, LocalDate date, Period period) {
+    return patientId + "|" + date + "|" + period;
+  }
+
+  /**
+   * Maps the header names to the column indexes. Besides "date" the "createdAt" column
+   * of the csv export is accepted, so that exported files can be imported as they are.
+   */
+  private Map<String, Integer> parseHeader(String line) {
+    Map<String, Integer> columns = new HashMap<>();
+    List<String> names = splitCsvLine(line);
+    for (int i = 0; i < names.size(); i++) {
+      columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+    }
+    List<String> missing = REQUIRED_COLUMNS.stream()
+        .filter(column -> !columns.containsKey(column))
+        .collect(Collectors.toList());
+    if (!columns.containsKey("date") && !columns.containsKey("createdat")) {
+      missing.add("date");
+    }
+    if (!missing.isEmpty()) {
+      throw new ValidationException(
+          "The csv header misses the columns: " + String.join(", ", missing));
+    }
+    return columns;
+  }
+
+  private EmotionRecordCreationDto parseCsvRow(String line, Map<String, Integer> columns) {
+    List<String> cells = splitCsvLine(line);
+    String patientId = cell(cells, columns, "patientid");
+    String intensity = cell(cells, columns, "intensity");
+    String date = columns.containsKey("date")
+        ? cell(cells, columns, "date")
+        : cell(cells, columns, "createdat");
+    return EmotionRecordCreationDto.builder()
+        .patientId(patientId == null ? null : Long.valueOf(patientId))
+        .date(date == null ? null : LocalDate.parse(date.length() > 10
+            ? date.substring(0, 10)
+            : date))
+        .period(cell(cells, columns, "period"))
+        .emotion(cell(cells, columns, "emotion"))
+        .intensity(intensity == null ? 0 : Integer.parseInt(intensity))
+        .note(cell(cells, columns, "note"))
+        .build();
+  }
+
+  private static String cell(List<String> cells, Map<String, Integer> columns, String column) {
+    Integer index = columns.get(column);
+    if (index == null || index >= cells.size()) {
+      return null;
+    }
+    String value = cells.get(index).trim();
+    return value.isEmpty() || NULL_CELL.equals(value) ? null : value;
+  }
+
+  /**
+   * Splits a csv line by commas, supporting quoted cells with escaped quotes.
+   */
+  private static List<String> splitCsvLine(String line) {
+    List<String> cells = new ArrayList<>();
+    StringBuilder cell = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char character = line.charAt(i);
+      if (quoted) {
+        if (character == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          cell.append(character);
+          i++;
+        } else if (character == '"') {
+          quoted = false;
+        } else {
+          cell.append(character);
+        }
+      } else if (character == '"') {
+        quoted = true;
+      } else if (character == ',') {
+        cells.add(cell.toString());
+        cell.setLength(0);
+      } else {
+        cell.append(character);
+      }
+    }
+    cells.add(cell.toString());
+    return cells;
+  }
+
+  /**
+   * A parsed row waiting for the set-based checks of its chunk.
+   */
+  private record ImportRow(long line, Long patientId, EmotionRecord emotionRecord) {
+  }
+
+  /**
+   * The counters and the reported errors of a running import.
+   */
+  private static class ImportProgress {
+
+    private long rows;
+    private long imported;
+    private long rejected;
+    private final List<EmotionRecordImportErrorDto> errors = new ArrayList<>();
+
+    void reject(long line, String message) {
+      rejected++;
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add(new EmotionRecordImportErrorDto(line, message));
+      }
+    }
+
+    void add(ImportProgress chunkProgress) {
+      imported += chunkProgress.imported;
+      rejected += chunkProgress.rejected;
+      chunkProgress.errors.stream()
+          .limit(Math.max(0, MAX_REPORTED_ERRORS - errors.size()))
+          .forEach(errors::add);
+    }
+  }
+}
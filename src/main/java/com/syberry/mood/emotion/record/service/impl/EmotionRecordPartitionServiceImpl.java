@@ -0,0 +1,183 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import static com.syberry.mood.emotion.record.util.MonthlyPartitions.TABLE;
+
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordsRemovedEvent;
+import com.syberry.mood.emotion.record.service.EmotionRecordPartitionService;
+import com.syberry.mood.emotion.record.util.MonthlyPartitions;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link EmotionRecordPartitionService}. The partitions of the upcoming
+ * months are split off the empty pmax partition in advance, so the inserts never land in it.
+ * An expired partition is dropped, or first exchanged with an empty table named after it,
+ * like emotion_record_p202301, to keep its records in the archive. Both are changes
+ * of the metadata and take the same time for any number of records, so an
+ * {@link EmotionRecordsRemovedEvent} is published for every removed month instead of
+ * the events of its records, and the month is logged as one change. The maintenance holds
+ * a named lock, so only one of the application instances performs it at a time.
+ */
+@Slf4j
+@Service
+public class EmotionRecordPartitionServiceImpl implements EmotionRecordPartitionService {
+
+  private static final String LOCK_NAME = "emotion_record_partitions";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ChangeLogService changeLog;
+  private final TransactionTemplate transaction;
+  private final int monthsAhead;
+  private final int retentionMonths;
+  private final boolean archive;
+
+  /**
+   * Creates the service.
+   *
+   * @param jdbcTemplate the JDBC template of the primary database
+   * @param eventPublisher the publisher of the removed months
+   * @param changeLog the log the removed months are appended to
+   * @param transactionManager the transaction manager of the change log entries
+   * @param monthsAhead the number of the upcoming months to have partitions for
+   * @param retentionMonths the number of the past months to keep partitions for,
+   *     0 keeps all partitions
+   * @param archive whether the expired partitions are archived instead of dropped
+   */
+  public EmotionRecordPartitionServiceImpl(
+      JdbcTemplate jdbcTemplate,
+      ApplicationEventPublisher eventPublisher,
+      ChangeLogService changeLog,
+      PlatformTransactionManager transactionManager,
+      @Value("${app.record-partitions.months-ahead:3}") int monthsAhead,
+      @Value("${app.record-partitions.retention-months:0}") int retentionMonths,
+      @Value("${app.record-partitions.archive:true}") boolean archive) {
+    this.jdbcTemplate = jdbcTemplate;
+    this.eventPublisher = eventPublisher;
+    this.changeLog = changeLog;
+    this.transaction = new TransactionTemplate(transactionManager);
+    this.monthsAhead = monthsAhead;
+    this.retentionMonths = retentionMonths;
+    this.archive = archive;
+  }
+
+  @Override
+  @Scheduled(cron = "${app.record-partitions.cron:0 0 3 * * *}")
+  public void maintainPartitions() {
+    jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+      if (!isMySql(connection) || !acquireLock(connection)) {
+        return null;
+      }
+      try {
+        List<YearMonth> months = findPartitionMonths(connection);
+        if (!months.isEmpty()) {
+          createUpcomingPartitions(connection, months.get(months.size() - 1));
+          removeExpiredPartitions(connection, months);
+        }
+      } finally {
+        releaseLock(connection);
+      }
+      return null;
+    });
+  }
+
+  private void createUpcomingPartitions(Connection connection, YearMonth lastMonth)
+      throws SQLException {
+    YearMonth last = YearMonth.now().plusMonths(monthsAhead);
+    if (lastMonth.isBefore(last)) {
+      execute(connection, MonthlyPartitions.reorganizeMaxValue(lastMonth.plusMonths(1), last));
+      log.info("Created the emotion record partitions up to {}", last);
+    }
+  }
+
+  private void removeExpiredPartitions(Connection connection, List<YearMonth> months)
+      throws SQLException {
+    if (retentionMonths <= 0) {
+      return;
+    }
+    YearMonth firstKept = YearMonth.now().minusMonths(retentionMonths);
+    for (YearMonth month : months) {
+      if (!month.isBefore(firstKept)) {
+        break;
+      }
+      String partition = MonthlyPartitions.partitionName(month);
+      if (archive) {
+        String archiveTable = TABLE + "_" + partition;
+        execute(connection, "CREATE TABLE `" + archiveTable + "` LIKE `" + TABLE + "`");
+        execute(connection, "ALTER TABLE `" + archiveTable + "` REMOVE PARTITIONING");
+        execute(connection, "ALTER TABLE `" + TABLE + "` EXCHANGE PARTITION " + partition
+            + " WITH TABLE `" + archiveTable + "`");
+      }
+      execute(connection, "ALTER TABLE `" + TABLE + "` DROP PARTITION " + partition);
+      log.info("{} the emotion record partition {}", archive ? "Archived" : "Dropped", partition);
+      EmotionRecordsRemovedEvent removed =
+          new EmotionRecordsRemovedEvent(month.atDay(1), month.atEndOfMonth());
+      transaction.executeWithoutResult(status -> changeLog.recordChange(
+          ChangedEntity.EMOTION_RECORD_MONTH, (long) month.getYear() * 100 + month.getMonthValue(),
+          archive ? ChangeType.ARCHIVED : ChangeType.DELETED, removed));
+      eventPublisher.publishEvent(removed);
+    }
+  }
+
+  private static List<YearMonth> findPartitionMonths(Connection connection) throws SQLException {
+    List<YearMonth> months = new ArrayList<>();
+    try (PreparedStatement statement = connection.prepareStatement(
+        "SELECT PARTITION_NAME FROM information_schema.PARTITIONS "
+            + "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? "
+            + "AND PARTITION_NAME IS NOT NULL ORDER BY PARTITION_ORDINAL_POSITION")) {
+      statement.setString(1, TABLE);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          Optional<YearMonth> month = MonthlyPartitions.parseMonth(resultSet.getString(1));
+          month.ifPresent(months::add);
+        }
+      }
+    }
+    return months;
+  }
+
+  private static boolean isMySql(Connection connection) throws SQLException {
+    return "MySQL".equals(connection.getMetaData().getDatabaseProductName());
+  }
+
+  private static boolean acquireLock(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+      statement.setString(1, LOCK_NAME);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        return resultSet.next() && resultSet.getInt(1) == 1;
+      }
+    }
+  }
+
+  private static void releaseLock(Connection connection) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+      statement.setString(1, LOCK_NAME);
+      statement.execute();
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
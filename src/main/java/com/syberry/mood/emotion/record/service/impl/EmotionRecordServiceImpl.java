@@ -2,7 +2,16 @@ package com.syberry.mood.emotion.record.service.impl;
 
 import static com.syberry.mood.authorization.util.SecurityUtils.getUserDetails;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.emotion.record.archive.ArchiveSegment;
+import com.syberry.mood.emotion.record.cache.GridSliceCache;
 import com.syberry.mood.emotion.record.converter.EmotionRecordConverter;
+import com.syberry.mood.emotion.record.converter.EmotionRecordGridWriter;
 import com.syberry.mood.emotion.record.converter.PeriodConverter;
 import com.syberry.mood.emotion.record.dto.Emotion;
 import com.syberry.mood.emotion.record.dto.EmotionRecordByPatientDto;
@@ -13,31 +22,49 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordUpdatingDto;
 import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
 import com.syberry.mood.emotion.record.dto.Period;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
 import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.emotion.record.service.CsvService;
+import com.syberry.mood.emotion.record.service.EmotionRecordArchiveService;
 import com.syberry.mood.emotion.record.service.EmotionRecordService;
 import com.syberry.mood.emotion.record.service.PdfService;
+import com.syberry.mood.emotion.record.service.RecordPresenceService;
 import com.syberry.mood.emotion.record.service.StatisticService;
 import com.syberry.mood.emotion.record.specification.EmotionRecordSpecification;
 import com.syberry.mood.emotion.record.util.DateUtil;
+import com.syberry.mood.emotion.record.util.MergingIterator;
 import com.syberry.mood.emotion.record.validation.EmotionRecordValidator;
+import com.syberry.mood.user.converter.UserConverter;
+import com.syberry.mood.user.dto.PatientDto;
 import com.syberry.mood.user.entity.User;
 import com.syberry.mood.user.repository.UserRepository;
+import com.syberry.mood.user.service.PatientDirectoryService;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.time.Clock;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import javax.transaction.Transactional;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Service implementation for managing emotion records.
@@ -46,6 +73,8 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class EmotionRecordServiceImpl implements EmotionRecordService {
 
+  private static final String NEW_LINE = "\n";
+
   private final CsvService csvService;
   private final EmotionRecordConverter recordConverter;
   private final EmotionRecordRepository recordRepository;
@@ -55,6 +84,17 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
   private final PdfService pdfService;
   private final EmotionRecordSpecification specification;
   private final StatisticService statisticService;
+  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final RecordPresenceService presenceService;
+  private final UserConverter userConverter;
+  private final PatientDirectoryService patientDirectory;
+  private final EmotionRecordArchiveService archiveService;
+  private final GridSliceCache gridCache;
+  private final EmotionRecordGridWriter gridWriter;
+  private final ChangeLogService changeLog;
+  private final PeriodSchedule schedule;
+  private final Clock clock;
 
   /**
    * Finds all emotion records filtered by the given filter.
@@ -62,13 +102,13 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @param filter the filter to apply to the search
    * @return a map of emotion records grouped by date, patient, period
    */
+  @Transactional(readOnly = true)
   public Map<String, Map<String, Map<String, EmotionRecordDto>>> findAllEmotionRecordsGroupByDate(
       EmotionRecordFilter filter) {
-    List<User> patients = userRepository.findAllPatientsSortIdDesc();
+    List<User> patients = patientDirectory.findAllPatients();
     List<EmotionRecord> emotionRecords = recordRepository
         .findAll(specification.buildGetAllByDatesSpecification(filter));
-    List<EmotionRecordDto> recordDtos = emotionRecords.stream()
-        .map(recordConverter::convertToDto).toList();
+    List<EmotionRecordDto> recordDtos = withArchivedRecords(emotionRecords, null, filter);
     return recordConverter.convertToMap(recordDtos, filter, patients);
   }
 
@@ -79,13 +119,13 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @param filter the filter to apply to the search
    * @return a map of emotion records for the specified patient grouped by date, patient, period
    */
+  @Transactional(readOnly = true)
   public Map<String, Map<String, Map<String, EmotionRecordDto>>> findEmotionRecordsByPatient(
       Long id, EmotionRecordFilter filter) {
     User patient = userRepository.findPatientByIdIfExists(id);
     List<EmotionRecord> emotionRecords = recordRepository
         .findAll(specification.buildGetAllByPatientIdSpecification(id, filter));
-    List<EmotionRecordDto> recordDtos = emotionRecords.stream()
-        .map(recordConverter::convertToDto).toList();
+    List<EmotionRecordDto> recordDtos = withArchivedRecords(emotionRecords, id, filter);
     return recordConverter.convertToMap(
         recordDtos, filter, new ArrayList<>(Collections.singletonList(patient)));
   }
@@ -97,6 +137,7 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @param filter the filter to apply to the statistics search
    * @return an EmotionsStatisticDto object containing the retrieved statistics
    */
+  @Transactional(readOnly = true)
   public EmotionsStatisticDto getStatistic(Long id, EmotionRecordFilter filter) {
     User patient = userRepository.findPatientByIdIfExists(id);
     LocalDateTime startDateTime = filter.getStartDate().atStartOfDay();
@@ -137,9 +178,10 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
   @Override
   public Map<String, EmotionRecordDto> findTodayEmotionRecordsForCurrentPatient() {
     Map<String, EmotionRecordDto> todayEmotions = new HashMap<>();
-    for (Period period : Period.values()) {
+    LocalDate today = LocalDate.now(clock);
+    for (Period period : schedule.getPeriods()) {
       Optional<EmotionRecord> optional = recordRepository.findByPatientIdAndPeriodAndDate(
-          getUserDetails().getId(), period, LocalDate.now());
+          getUserDetails().getId(), period, today, schedule);
       EmotionRecord emotionRecord = optional.orElse(null);
       EmotionRecordDto dto = emotionRecord != null
           ? recordConverter.convertToDto(emotionRecord)
@@ -156,14 +198,16 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @return the EmotionRecordDto object of the created Emotion Record
    */
   @Override
+  @Transactional
   public EmotionRecordDto createEmotionRecord(EmotionRecordCreationDto dto) {
     Period period = periodConverter.convertToEnum(dto.getPeriod());
+    User patient = userRepository.findPatientByIdForUpdate(dto.getPatientId());
     validator.validateIsNoOtherRecordSameTime(dto.getPatientId(), period, dto.getDate());
-    User patient = userRepository.findPatientByIdIfExists(dto.getPatientId());
     validator.validateDateNotAfterDisable(patient, dto.getDate(), period);
     EmotionRecord emotionRecord = recordConverter.convertToEntity(dto);
     emotionRecord.setPatient(patient);
-    return recordConverter.convertToDto(recordRepository.save(emotionRecord));
+    return publish(ChangeType.CREATED,
+        recordConverter.convertToDto(recordRepository.save(emotionRecord)));
   }
 
   /**
@@ -173,14 +217,17 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @return the EmotionRecordDto object of the created Emotion Record
    */
   @Override
+  @Transactional
   public EmotionRecordDto createEmotionRecordByPatient(EmotionRecordByPatientDto dto) {
     Long patientId = getUserDetails().getId();
-    User patient = userRepository.findPatientByIdIfExists(patientId);
-    Period period = Period.findOutPeriodByTime(LocalTime.now());
-    validator.validateIsNoOtherRecordSameTime(patientId, period, LocalDate.now());
+    User patient = userRepository.findPatientByIdForUpdate(patientId);
+    LocalDateTime now = LocalDateTime.now(clock);
+    Period period = schedule.periodAt(now.toLocalTime());
+    validator.validateIsNoOtherRecordSameTime(patientId, period, now.toLocalDate());
     EmotionRecord emotionRecord = recordConverter.convertToEntity(dto, period);
     emotionRecord.setPatient(patient);
-    return recordConverter.convertToDto(recordRepository.save(emotionRecord));
+    return publish(ChangeType.CREATED,
+        recordConverter.convertToDto(recordRepository.save(emotionRecord)));
   }
 
   /**
@@ -194,7 +241,7 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
   public EmotionRecordDto updateEmotionRecordById(EmotionRecordUpdatingDto dto) {
     EmotionRecord emotionRecord = recordRepository.findByIdIfExists(dto.getId());
     emotionRecord = recordConverter.convertToEntity(dto, emotionRecord);
-    return recordConverter.convertToDto(emotionRecord);
+    return publish(ChangeType.UPDATED, recordConverter.convertToDto(emotionRecord));
   }
 
   /**
@@ -208,10 +255,10 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
   @Transactional
   public EmotionRecordDto updateEmotionRecordByPatient(EmotionRecordByPatientDto dto) {
     EmotionRecord emotionRecord = recordRepository.findByPatientIdAndCurrentDate(
-        getUserDetails().getId());
+        getUserDetails().getId(), LocalDateTime.now(clock), schedule);
     validator.validateIsNotUpdated(emotionRecord);
     emotionRecord = recordConverter.convertToEntity(dto, emotionRecord);
-    return recordConverter.convertToDto(emotionRecord);
+    return publish(ChangeType.UPDATED, recordConverter.convertToDto(emotionRecord));
   }
 
   /**
@@ -220,9 +267,41 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @param id the ID of the emotion record to be deleted
    */
   @Override
+  @Transactional
   public void deleteEmotionRecordById(Long id) {
-    recordRepository.findByIdIfExists(id);
+    EmotionRecordDto deleted = recordConverter.convertToDto(recordRepository.findByIdIfExists(id));
     recordRepository.deleteById(id);
+    publish(ChangeType.DELETED, deleted);
+  }
+
+  /**
+   * Finds the active patients without a record in the given period of the date.
+   * The missing records are looked up in the presence index without a query.
+   *
+   * @param date the date of the period or null for today
+   * @param period the period or null for the current period
+   * @return the patients without a record ordered by id DESC
+   */
+  @Override
+  public List<PatientDto> findPatientsWithoutRecord(LocalDate date, String period) {
+    LocalDateTime now = LocalDateTime.now(clock);
+    LocalDate day = date == null ? now.toLocalDate() : date;
+    Period slot = period == null
+        ? schedule.periodAt(now.toLocalTime()) : periodConverter.convertToEnum(period);
+    LocalDateTime slotStart = day.atTime(schedule.getStartTime(slot));
+    LocalDateTime slotEnd = schedule.getEndTime(slot).equals(LocalTime.MIDNIGHT)
+        ? day.plusDays(1).atStartOfDay() : day.atTime(schedule.getEndTime(slot));
+    Map<Long, User> patients = new LinkedHashMap<>();
+    for (User patient : patientDirectory.findAllPatients()) {
+      if (patient.getCreatedAt().isBefore(slotEnd)
+          && (!patient.isDisabled() || patient.getUpdatedAt().isAfter(slotStart))) {
+        patients.put(patient.getId(), patient);
+      }
+    }
+    return presenceService.findPatientsWithoutRecord(patients.keySet(), day, slot).stream()
+        .map(patients::get)
+        .map(userConverter::convertToPatientDto)
+        .toList();
   }
 
   /**
@@ -233,18 +312,20 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
    * @return byteArrayOutputStream with created csv file
    */
   @Override
+  @Transactional(readOnly = true)
   public ByteArrayOutputStream getCsvFile(Long patientId, EmotionRecordFilter filter) {
     Specification<EmotionRecord> recordSpecification = patientId != null
         ? specification.buildGetAllByPatientIdSpecification(patientId, filter)
         : specification.buildGetAllByDatesSpecification(filter);
 
     List<EmotionRecord> emotionRecords = recordRepository.findAll(recordSpecification);
-    List<EmotionRecordDto> emotionRecordsDto = emotionRecords.stream()
-        .map(recordConverter::convertToDto).toList();
+    List<EmotionRecordDto> emotionRecordsDto =
+        withArchivedRecords(emotionRecords, patientId, filter);
     return csvService.createCsv(emotionRecordsDto, EmotionRecordDto.class);
   }
 
   @Override
+  @Transactional(readOnly = true)
   public ByteArrayInputStream getEmotionRecordsDataInPdf(EmotionRecordFilter filter) {
     Map<String, Map<String, Map<String, EmotionRecordDto>>> records =
         findAllEmotionRecordsGroupByDate(filter);
@@ -252,6 +333,7 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
   }
 
   @Override
+  @Transactional(readOnly = true)
   public ByteArrayInputStream getPatientEmotionRecordsDataInPdf(
       EmotionRecordFilter filter, Long patientId) {
     Map<String, Map<String, Map<String, EmotionRecordDto>>> records =
@@ -259,4 +341,149 @@ public class EmotionRecordServiceImpl implements EmotionRecordService {
     EmotionsStatisticDto statisticsDto = getStatistic(patientId, filter);
     return pdfService.createPdfWithPatientEmotionRecords(filter, records, statisticsDto);
   }
+
+  /**
+   * Writes the emotion records as JSON lines while they are read from the database
+   * and the archive. The output is flushed after the first record to keep the time
+   * to first byte low.
+   *
+   * @param patientId the ID of the patient or null for the records of all patients
+   * @param filter the filter with the date range
+   * @param outputStream the stream to write the JSON lines to
+   * @throws IOException if writing to the stream fails
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void streamEmotionRecords(Long patientId, EmotionRecordFilter filter,
+                                   OutputStream outputStream) throws IOException {
+    LocalDateTime start = filter.getStartDate().atStartOfDay();
+    LocalDateTime end = DateUtil.convertToDateTimeStartNextDay(filter.getEndDate());
+    if (patientId != null) {
+      userRepository.findPatientByIdIfExists(patientId);
+    }
+    try (Stream<EmotionRecordDto> records = patientId != null
+        ? recordRepository.streamAllByPatientIdCreatedWithin(patientId, start, end)
+        : recordRepository.streamAllCreatedWithin(start, end);
+         Stream<EmotionRecordDto> archivedRecords =
+             archiveService.streamRecords(patientId, start, end);
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      generator.setRootValueSeparator(new SerializedString(NEW_LINE));
+      Iterator<EmotionRecordDto> iterator = new MergingIterator<>(records.iterator(),
+          archivedRecords.iterator(), ArchiveSegment.ORDER);
+      boolean first = true;
+      while (iterator.hasNext()) {
+        generator.writeObject(iterator.next());
+        if (first) {
+          generator.flush();
+          first = false;
+        }
+      }
+      if (!first) {
+        generator.writeRaw(NEW_LINE);
+      }
+    }
+  }
+
+  /**
+   * Writes the grid of all emotion records day by day. The days before today are taken from
+   * the grid slice cache, the records of the other days are streamed by one query over the
+   * range from the first to the last of them and merge-joined with the patients of each day.
+   *
+   * @param filter the filter with the date range
+   * @param outputStream the stream to write the JSON to
+   * @throws IOException if writing to the stream fails
+   */
+  @Override
+  @Transactional(readOnly = true)
+  public void writeEmotionRecordsGrid(EmotionRecordFilter filter, OutputStream outputStream)
+      throws IOException {
+    long stamp = gridCache.stamp();
+    LocalDate today = LocalDate.now(clock);
+    LocalDate startDate = filter.getStartDate();
+    LocalDate endDate = filter.getEndDate().isBefore(today) ? filter.getEndDate() : today;
+    int days = Math.max(0, (int) ChronoUnit.DAYS.between(startDate, endDate) + 1);
+    SerializableString[] slices = new SerializableString[days];
+    int firstUncached = days;
+    int lastUncached = -1;
+    for (int day = 0; day < days; day++) {
+      slices[day] = gridCache.get(startDate.plusDays(day));
+      if (slices[day] == null) {
+        firstUncached = Math.min(firstUncached, day);
+        lastUncached = day;
+      }
+    }
+    List<User> patients = patientDirectory.findAllPatients();
+    LocalDateTime start = startDate.plusDays(firstUncached).atStartOfDay();
+    LocalDateTime end = DateUtil.convertToDateTimeStartNextDay(startDate.plusDays(lastUncached));
+    try (Stream<EmotionRecordDto> records = firstUncached > lastUncached
+        ? Stream.empty() : recordRepository.streamAllCreatedWithin(start, end);
+         Stream<EmotionRecordDto> archivedRecords = firstUncached > lastUncached
+             ? Stream.empty() : archiveService.streamRecords(null, start, end);
+         JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      Iterator<EmotionRecordDto> iterator = new MergingIterator<>(records.iterator(),
+          archivedRecords.iterator(), ArchiveSegment.ORDER);
+      EmotionRecordDto next = iterator.hasNext() ? iterator.next() : null;
+      List<EmotionRecordDto> dayRecords = new ArrayList<>();
+      generator.writeStartObject();
+      for (int day = 0; day < days; day++) {
+        LocalDate date = startDate.plusDays(day);
+        dayRecords.clear();
+        while (next != null && !next.getCreatedAt().toLocalDate().isAfter(date)) {
+          if (slices[day] == null) {
+            dayRecords.add(next);
+          }
+          next = iterator.hasNext() ? iterator.next() : null;
+        }
+        if (slices[day] == null) {
+          dayRecords.sort(EmotionRecordGridWriter.DAY_ORDER);
+          slices[day] = writeGridDay(generator, date, dayRecords, patients, stamp);
+        } else if (slices[day].charLength() > 0) {
+          generator.writeFieldName(date.toString());
+          generator.writeRawValue(slices[day]);
+        }
+      }
+      generator.writeEndObject();
+    }
+  }
+
+  private SerializableString writeGridDay(JsonGenerator generator, LocalDate date,
+                                          List<EmotionRecordDto> records, List<User> patients,
+                                          long stamp) throws IOException {
+    boolean hasContent = gridWriter.hasContent(date, records, patients);
+    if (!date.isBefore(LocalDate.now(clock))) {
+      if (hasContent) {
+        generator.writeFieldName(date.toString());
+        gridWriter.writeDay(generator, date, records, patients);
+      }
+      return null;
+    }
+    SerializableString slice = new SerializedString("");
+    if (hasContent) {
+      StringWriter writer = new StringWriter();
+      try (JsonGenerator sliceGenerator = objectMapper.getFactory().createGenerator(writer)) {
+        gridWriter.writeDay(sliceGenerator, date, records, patients);
+      }
+      slice = new SerializedString(writer.toString());
+      generator.writeFieldName(date.toString());
+      generator.writeRawValue(slice);
+    }
+    gridCache.put(date, slice, stamp);
+    return slice;
+  }
+
+  private List<EmotionRecordDto> withArchivedRecords(List<EmotionRecord> emotionRecords,
+                                                     Long patientId, EmotionRecordFilter filter) {
+    return Stream.concat(
+        emotionRecords.stream().map(recordConverter::convertToDto),
+        archiveService.streamRecords(patientId, filter.getStartDate().atStartOfDay(),
+            DateUtil.convertToDateTimeStartNextDay(filter.getEndDate()))).toList();
+  }
+
+  private EmotionRecordDto publish(ChangeType type, EmotionRecordDto dto) {
+    changeLog.recordChange(ChangedEntity.EMOTION_RECORD, dto.getId(), type, dto);
+    eventPublisher.publishEvent(new EmotionRecordChangedEvent(type, dto));
+    return dto;
+  }
 }
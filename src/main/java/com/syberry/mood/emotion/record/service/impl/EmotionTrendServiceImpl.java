@@ -0,0 +1,159 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.dto.EmotionTrendDto;
+import com.syberry.mood.emotion.record.dto.EmotionTrendPointDto;
+import com.syberry.mood.emotion.record.dto.TrendBucket;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.service.EmotionRecordArchiveService;
+import com.syberry.mood.emotion.record.service.EmotionTrendService;
+import com.syberry.mood.emotion.record.util.DateUtil;
+import com.syberry.mood.exception.InvalidArgumentTypeException;
+import com.syberry.mood.user.repository.UserRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Implementation of the {@link EmotionTrendService} interface.
+ * The records are aggregated per day and emotion in the database and the daily rows are
+ * rolled up into the buckets in memory, so the work does not depend on the number of records.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmotionTrendServiceImpl implements EmotionTrendService {
+
+  static final int MAX_POINTS = 120;
+  static final int DEFAULT_WINDOW = 3;
+  private static final Emotion[] EMOTIONS = Emotion.values();
+
+  private final EmotionRecordRepository recordRepository;
+  private final UserRepository userRepository;
+  private final EmotionRecordArchiveService archiveService;
+
+  @Override
+  @Transactional(readOnly = true)
+  public EmotionTrendDto getEmotionTrend(Long patientId, EmotionRecordFilter filter,
+                                         String bucket, Integer window) {
+    userRepository.findPatientByIdIfExists(patientId);
+    LocalDate startDate = filter.getStartDate();
+    LocalDate endDate = filter.getEndDate();
+    TrendBucket trendBucket = chooseBucket(convertToBucket(bucket), startDate, endDate);
+    int movingAverageWindow = window != null ? window : DEFAULT_WINDOW;
+    int size = (int) trendBucket.countBuckets(startDate, endDate);
+    LocalDate firstStart = trendBucket.startOf(startDate);
+
+    long[] records = new long[size];
+    long[] intensitySums = new long[size];
+    int[] maxIntensities = new int[size];
+    long[][] emotionCounts = new long[size][EMOTIONS.length];
+    if (size > 0) {
+      LocalDateTime start = startDate.atStartOfDay();
+      LocalDateTime end = DateUtil.convertToDateTimeStartNextDay(endDate);
+      for (Object[] row : recordRepository.aggregateDailyByPatientId(patientId, start, end)) {
+        int index = (int) trendBucket.countBuckets(firstStart, toLocalDate(row[0])) - 1;
+        long count = ((Number) row[2]).longValue();
+        records[index] += count;
+        intensitySums[index] += ((Number) row[3]).longValue();
+        maxIntensities[index] = Math.max(maxIntensities[index], ((Number) row[4]).intValue());
+        emotionCounts[index][((Emotion) row[1]).ordinal()] += count;
+      }
+      try (Stream<EmotionRecordDto> archived =
+               archiveService.streamRecords(patientId, start, end)) {
+        archived.forEach(emotionRecord -> {
+          int index = (int) trendBucket.countBuckets(firstStart,
+              emotionRecord.getCreatedAt().toLocalDate()) - 1;
+          records[index]++;
+          intensitySums[index] += emotionRecord.getIntensity();
+          maxIntensities[index] = Math.max(maxIntensities[index], emotionRecord.getIntensity());
+          emotionCounts[index][emotionRecord.getEmotion().ordinal()]++;
+        });
+      }
+    }
+
+    List<EmotionTrendPointDto> points = new ArrayList<>(size);
+    long windowRecords = 0;
+    long windowIntensity = 0;
+    LocalDate bucketStart = firstStart;
+    for (int i = 0; i < size; i++) {
+      windowRecords += records[i];
+      windowIntensity += intensitySums[i];
+      if (i >= movingAverageWindow) {
+        windowRecords -= records[i - movingAverageWindow];
+        windowIntensity -= intensitySums[i - movingAverageWindow];
+      }
+      LocalDate nextStart = trendBucket.next(bucketStart);
+      points.add(EmotionTrendPointDto.builder()
+          .startDate(bucketStart.isBefore(startDate) ? startDate : bucketStart)
+          .endDate(nextStart.isAfter(endDate) ? endDate : nextStart.minusDays(1))
+          .totalEmotionRecords(records[i])
+          .frequencyOfEmotions(toFrequency(emotionCounts[i]))
+          .meanIntensity(average(intensitySums[i], records[i]))
+          .maxIntensity(records[i] == 0 ? null : maxIntensities[i])
+          .movingAverageIntensity(average(windowIntensity, windowRecords))
+          .build());
+      bucketStart = nextStart;
+    }
+    return EmotionTrendDto.builder()
+        .patientId(patientId)
+        .startDate(startDate)
+        .endDate(endDate)
+        .bucket(trendBucket)
+        .movingAverageWindow(movingAverageWindow)
+        .points(points)
+        .build();
+  }
+
+  /**
+   * Chooses the finest bucket size, not finer than the requested one, that keeps the number
+   * of points within the limit; the coarsest size is used if none does.
+   */
+  private TrendBucket chooseBucket(TrendBucket finest, LocalDate startDate, LocalDate endDate) {
+    TrendBucket[] buckets = TrendBucket.values();
+    for (int i = finest.ordinal(); i < buckets.length; i++) {
+      if (buckets[i].countBuckets(startDate, endDate) <= MAX_POINTS) {
+        return buckets[i];
+      }
+    }
+    return buckets[buckets.length - 1];
+  }
+
+  private TrendBucket convertToBucket(String bucket) {
+    if (bucket == null) {
+      return TrendBucket.DAY;
+    }
+    try {
+      return TrendBucket.valueOf(bucket.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new InvalidArgumentTypeException(
+          String.format("Error while converting invalid bucket: %s. Valid buckets: %s",
+              bucket, TrendBucket.getNames()));
+    }
+  }
+
+  private static LocalDate toLocalDate(Object day) {
+    return day instanceof java.sql.Date date ? date.toLocalDate() : (LocalDate) day;
+  }
+
+  private static Map<Emotion, Long> toFrequency(long[] counts) {
+    Map<Emotion, Long> frequency = new EnumMap<>(Emotion.class);
+    for (Emotion emotion : EMOTIONS) {
+      frequency.put(emotion, counts[emotion.ordinal()]);
+    }
+    return frequency;
+  }
+
+  private static Double average(long sum, long count) {
+    return count == 0 ? null : Math.round(sum * 100.0 / count) / 100.0;
+  }
+}
@@ -17,6 +17,7 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
 import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
 import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.emotion.record.service.PdfService;
 import com.syberry.mood.user.repository.UserRepository;
 import java.awt.Color;
@@ -27,6 +28,7 @@ import java.text.DecimalFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -59,7 +61,6 @@ public class PdfServiceImpl implements PdfService {
   private static final int CELL_PADDING = 5;
   private static final int WIGHT = 500;
   private static final int HEIGHT = 400;
-  private static final int NUM_COLUMNS = 4;
   private static final int COORDINATE_X = 50;
   private static final int COORDINATE_Y = 180;
   public static final String EMOTION_RECORDS = "Emotion records";
@@ -82,6 +83,7 @@ public class PdfServiceImpl implements PdfService {
   public static final String PERCENT_FORMAT = "0%";
 
   private final UserRepository userRepository;
+  private final PeriodSchedule schedule;
 
   @Override
   public ByteArrayInputStream createPdfWithEmotionRecords(
@@ -98,9 +100,9 @@ public class PdfServiceImpl implements PdfService {
       paragraph.setAlignment(Element.ALIGN_LEFT);
       document.add(paragraph);
 
-      PdfPTable table = new PdfPTable(NUM_COLUMNS);
+      PdfPTable table = new PdfPTable(schedule.getPeriods().size() + 1);
       table.setWidthPercentage(100f);
-      table.setWidths(new int[]{2, 1, 1, 1});
+      table.setWidths(getColumnWidths());
       table.setSpacingBefore(SPACING_BEFORE);
       table.setSpacingAfter(SPACING_AFTER);
 
@@ -138,7 +140,7 @@ public class PdfServiceImpl implements PdfService {
     paragraph.setSpacingAfter(SPACING_AFTER);
     document.add(paragraph);
 
-    PdfPTable table = new PdfPTable(NUM_COLUMNS);
+    PdfPTable table = new PdfPTable(schedule.getPeriods().size() + 1);
     table.setWidthPercentage(100f);
     table.setSpacingBefore(SPACING_BEFORE);
 
@@ -223,6 +225,13 @@ public class PdfServiceImpl implements PdfService {
     return dates;
   }
 
+  private int[] getColumnWidths() {
+    int[] widths = new int[schedule.getPeriods().size() + 1];
+    Arrays.fill(widths, 1);
+    widths[0] = 2;
+    return widths;
+  }
+
   private void addTableHeader(PdfPTable table, int firstColumnAlignment, String firstColumnName) {
     PdfPCell cell = new PdfPCell();
     cell.setPadding(CELL_PADDING);
@@ -232,7 +241,7 @@ public class PdfServiceImpl implements PdfService {
     cell.setPhrase(new Phrase(firstColumnName, FONT_HEADERS));
     table.addCell(cell);
     cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-    for (Period period : Period.values()) {
+    for (Period period : schedule.getPeriods()) {
       cell.setPhrase(new Phrase(period.toString(), FONT_HEADERS));
       table.addCell(cell);
     }
@@ -249,7 +258,7 @@ public class PdfServiceImpl implements PdfService {
       table.addCell(cell);
 
       cell.setHorizontalAlignment(Element.ALIGN_CENTER);
-      for (Period period : Period.values()) {
+      for (Period period : schedule.getPeriods()) {
         EmotionRecordDto emotionRecordDto = userRecords.getValue().get(period.toString());
         cell.setPhrase(new Phrase(
             emotionRecordDto != null
@@ -271,7 +280,7 @@ public class PdfServiceImpl implements PdfService {
     for (String date : dates) {
       cell.setPhrase(new Phrase(date, FONT_CELLS));
       table.addCell(cell);
-      for (Period period : Period.values()) {
+      for (Period period : schedule.getPeriods()) {
         EmotionRecordDto emotionRecordDto = records.get(date).get(patient).get(period.toString());
         cell.setPhrase(new Phrase(
             emotionRecordDto != null
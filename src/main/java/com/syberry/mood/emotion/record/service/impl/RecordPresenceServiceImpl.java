@@ -0,0 +1,271 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsImportedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsRemovedEvent;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.service.EmotionRecordArchiveService;
+import com.syberry.mood.emotion.record.service.RecordPresenceService;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link RecordPresenceService} interface.
+ * Every patient has a bitmap of the slots {@code epochDay * periodsPerDay + periodIndex},
+ * so the index takes about one bit per scheduled period and the queries are word-wise bit
+ * operations. The bitmaps are loaded by one streamed query and a scan of the archive before
+ * the application starts and periodically, and are maintained by the committed record changes
+ * and removals, made by this instance or tailed from the change log. The changes applied while
+ * the bitmaps are reloaded are journaled and applied to the reloaded ones again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecordPresenceServiceImpl implements RecordPresenceService,
+    SmartInitializingSingleton {
+
+  private final EmotionRecordRepository recordRepository;
+  private final PlatformTransactionManager transactionManager;
+  private final PeriodSchedule schedule;
+  private final EmotionRecordArchiveService archiveService;
+  private final Object reloadLock = new Object();
+  private volatile Map<Long, SlotBitmap> bitmaps = new ConcurrentHashMap<>();
+  private List<Consumer<Map<Long, SlotBitmap>>> journal;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    reloadSlots();
+  }
+
+  @Override
+  @Scheduled(cron = "${app.index-reconcile.cron:0 0 * * * *}")
+  public void reloadSlots() {
+    synchronized (reloadLock) {
+      Map<Long, SlotBitmap> loaded = new ConcurrentHashMap<>();
+      synchronized (this) {
+        journal = new ArrayList<>();
+      }
+      try {
+        // not read-only, so the slots are read from the primary and not from a lagging replica,
+        // the committed changes the replica has not applied yet would be missed for good
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+          try (Stream<Object[]> slots = recordRepository.streamAllSlots()) {
+            slots.forEach(row -> setSlot(loaded, row));
+          }
+        });
+        try (Stream<EmotionRecordDto> archived =
+                 archiveService.streamRecords(null, LocalDateTime.MIN, LocalDateTime.MAX)) {
+          archived.forEach(emotionRecord -> setSlot(loaded, slotOf(emotionRecord)));
+        }
+        synchronized (this) {
+          journal.forEach(change -> change.accept(loaded));
+          bitmaps = loaded;
+        }
+      } finally {
+        synchronized (this) {
+          journal = null;
+        }
+      }
+      log.info("Loaded the record slots of {} patients into the presence index", loaded.size());
+    }
+  }
+
+  @Override
+  public boolean isFilled(Long patientId, LocalDate date, Period period) {
+    SlotBitmap bitmap = bitmaps.get(patientId);
+    return bitmap != null && bitmap.get(slot(date, period));
+  }
+
+  @Override
+  public int countFilledSlots(Long patientId, LocalDateTime startDateTime,
+                              LocalDateTime endDateTime) {
+    SlotBitmap bitmap = bitmaps.get(patientId);
+    long from = slot(startDateTime.toLocalDate(), schedule.periodAt(startDateTime.toLocalTime()));
+    long to = slot(endDateTime.toLocalDate(), schedule.periodAt(endDateTime.toLocalTime()));
+    return bitmap == null || from > to ? 0 : bitmap.get(from, to + 1).cardinality();
+  }
+
+  @Override
+  public BitSet findMissingSlots(Long patientId, LocalDate startDate, LocalDate endDate) {
+    long from = startDate.toEpochDay() * schedule.size();
+    long to = (endDate.toEpochDay() + 1) * schedule.size();
+    if (from >= to) {
+      return new BitSet();
+    }
+    SlotBitmap bitmap = bitmaps.get(patientId);
+    BitSet missing = bitmap == null ? new BitSet() : bitmap.get(from, to);
+    missing.flip(0, Math.toIntExact(to - from));
+    return missing;
+  }
+
+  @Override
+  public List<Long> findPatientsWithoutRecord(Collection<Long> patientIds, LocalDate date,
+                                              Period period) {
+    long slot = slot(date, period);
+    List<Long> patients = new ArrayList<>();
+    for (Long patientId : patientIds) {
+      SlotBitmap bitmap = bitmaps.get(patientId);
+      if (bitmap == null || !bitmap.get(slot)) {
+        patients.add(patientId);
+      }
+    }
+    return patients;
+  }
+
+  /**
+   * Fills or frees the slot of the created or deleted emotion record. It runs before the
+   * other listeners, so the data version is bumped only after the slot is updated.
+   *
+   * @param event the committed change of the emotion record
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordChanged(EmotionRecordChangedEvent event) {
+    EmotionRecordDto emotionRecord = event.getEmotionRecord();
+    if (event.getType() != ChangeType.UPDATED && schedule.isScheduled(emotionRecord.getPeriod())) {
+      long slot = slot(emotionRecord.getCreatedAt().toLocalDate(), emotionRecord.getPeriod());
+      apply(bitmaps -> bitmaps.computeIfAbsent(emotionRecord.getPatientId(),
+          id -> new SlotBitmap()).set(slot, event.getType() == ChangeType.CREATED));
+    }
+  }
+
+  /**
+   * Fills the slots of the patients of the imported emotion records. The import only adds
+   * records, so the slots of the patients are reloaded and merged into their bitmaps.
+   *
+   * @param event the written chunk of the import
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordsImported(EmotionRecordsImportedEvent event) {
+    List<Object[]> slots = recordRepository.findAllSlotsByPatientIds(event.getPatientIds());
+    apply(bitmaps -> slots.forEach(row -> setSlot(bitmaps, row)));
+  }
+
+  /**
+   * Frees the slots of the removed emotion records and fills those of the records archived
+   * within the removed dates again.
+   *
+   * @param event the removal of the records
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onEmotionRecordsRemoved(EmotionRecordsRemovedEvent event) {
+    long from = event.getStartDate().toEpochDay() * schedule.size();
+    long to = (event.getEndDate().toEpochDay() + 1) * schedule.size();
+    List<Object[]> archivedSlots;
+    try (Stream<EmotionRecordDto> archived = archiveService.streamRecords(null,
+        event.getStartDate().atStartOfDay(), event.getEndDate().plusDays(1).atStartOfDay())) {
+      archivedSlots = archived.map(RecordPresenceServiceImpl::slotOf).toList();
+    }
+    apply(bitmaps -> {
+      bitmaps.values().forEach(bitmap -> bitmap.clear(from, to));
+      archivedSlots.forEach(row -> setSlot(bitmaps, row));
+    });
+  }
+
+  private synchronized void apply(Consumer<Map<Long, SlotBitmap>> change) {
+    if (journal != null) {
+      journal.add(change);
+    }
+    change.accept(bitmaps);
+  }
+
+  private void setSlot(Map<Long, SlotBitmap> bitmaps, Object[] row) {
+    Period period = (Period) row[2];
+    if (schedule.isScheduled(period)) {
+      bitmaps.computeIfAbsent((Long) row[0], id -> new SlotBitmap())
+          .set(slot(((LocalDateTime) row[1]).toLocalDate(), period), true);
+    }
+  }
+
+  private static Object[] slotOf(EmotionRecordDto emotionRecord) {
+    return new Object[] {emotionRecord.getPatientId(), emotionRecord.getCreatedAt(),
+        emotionRecord.getPeriod()};
+  }
+
+  private long slot(LocalDate date, Period period) {
+    return date.toEpochDay() * schedule.size() + schedule.countPeriodsUntil(period) - 1;
+  }
+
+  /**
+   * The slots of one patient. The bits are stored from the first 64-slot word in use, which
+   * is moved back when an older slot is filled.
+   */
+  private static final class SlotBitmap {
+
+    private long baseSlot = Long.MAX_VALUE;
+    private BitSet bits = new BitSet();
+
+    synchronized void set(long slot, boolean filled) {
+      if (slot < baseSlot) {
+        if (!filled) {
+          return;
+        }
+        long newBase = Math.floorDiv(slot, Long.SIZE) * Long.SIZE;
+        if (!bits.isEmpty()) {
+          long[] words = bits.toLongArray();
+          long[] shifted = new long[Math.toIntExact((baseSlot - newBase) / Long.SIZE)
+              + words.length];
+          System.arraycopy(words, 0, shifted, shifted.length - words.length, words.length);
+          bits = BitSet.valueOf(shifted);
+        }
+        baseSlot = newBase;
+      }
+      bits.set(Math.toIntExact(slot - baseSlot), filled);
+    }
+
+    synchronized void clear(long fromSlot, long toSlot) {
+      long start = Math.max(fromSlot - baseSlot, 0);
+      long end = Math.min(toSlot - baseSlot, bits.length());
+      if (start < end) {
+        bits.clear(Math.toIntExact(start), Math.toIntExact(end));
+      }
+    }
+
+    synchronized boolean get(long slot) {
+      return slot >= baseSlot && bits.get(Math.toIntExact(slot - baseSlot));
+    }
+
+    synchronized BitSet get(long fromSlot, long toSlot) {
+      if (bits.isEmpty() || toSlot <= baseSlot) {
+        return new BitSet();
+      }
+      long end = Math.min(toSlot - baseSlot, bits.length());
+      if (fromSlot >= baseSlot) {
+        return fromSlot - baseSlot >= end
+            ? new BitSet()
+            : bits.get(Math.toIntExact(fromSlot - baseSlot), Math.toIntExact(end));
+      }
+      BitSet range = new BitSet();
+      int offset = Math.toIntExact(baseSlot - fromSlot);
+      for (int bit = bits.nextSetBit(0); bit >= 0 && bit < end; bit = bits.nextSetBit(bit + 1)) {
+        range.set(offset + bit);
+      }
+      return range;
+    }
+  }
+}
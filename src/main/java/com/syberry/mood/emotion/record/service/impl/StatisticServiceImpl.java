@@ -1,20 +1,23 @@
 package com.syberry.mood.emotion.record.service.impl;
 
 import com.syberry.mood.emotion.record.dto.Emotion;
-import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
 import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.service.EmotionRecordArchiveService;
+import com.syberry.mood.emotion.record.service.RecordPresenceService;
 import com.syberry.mood.emotion.record.service.StatisticService;
 import com.syberry.mood.user.entity.User;
-import java.time.LocalDate;
+import java.time.Clock;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
@@ -26,6 +29,10 @@ import org.springframework.stereotype.Service;
 public class StatisticServiceImpl implements StatisticService {
 
   private final EmotionRecordRepository recordRepository;
+  private final RecordPresenceService presenceService;
+  private final EmotionRecordArchiveService archiveService;
+  private final PeriodSchedule schedule;
+  private final Clock clock;
 
   /**
    * Finds the last recorded emotion for the specified patient within the specified time period.
@@ -40,6 +47,13 @@ public class StatisticServiceImpl implements StatisticService {
     Optional<EmotionRecord> lastEmotionOptional =
         recordRepository.findFirstByPatientIdAndCreatedAtBetweenOrderByCreatedAtDesc(patientId,
             startDateTime, endDateTime);
+    Optional<EmotionRecordDto> lastArchived = streamArchivedRecords(patientId, startDateTime,
+        endDateTime).reduce((previous, next) -> next);
+    if (lastArchived.isPresent() && lastEmotionOptional
+        .map(live -> lastArchived.get().getCreatedAt().isAfter(live.getCreatedAt()))
+        .orElse(true)) {
+      return lastArchived.get().getEmotion();
+    }
     return lastEmotionOptional.map(EmotionRecord::getEmotion).orElse(null);
   }
 
@@ -77,7 +91,8 @@ public class StatisticServiceImpl implements StatisticService {
   public int countTotalRecords(Long patientId, LocalDateTime startDateTime,
                                                 LocalDateTime endDateTime) {
     return recordRepository.countByPatientIdAndCreatedAtBetween(patientId,
-        startDateTime, endDateTime);
+        startDateTime, endDateTime)
+        + (int) streamArchivedRecords(patientId, startDateTime, endDateTime).count();
   }
 
   /**
@@ -102,6 +117,8 @@ public class StatisticServiceImpl implements StatisticService {
 
   /**
    * Counts the number of missed records for a given patient within a specified time range.
+   * The filled periods are counted by the presence index, so a record made in the creation
+   * period before the creation of the patient is taken into account.
    *
    * @param patient the user representing the patient to count missed records for
    * @param startDateTime the start date and time of the time range
@@ -115,8 +132,12 @@ public class StatisticServiceImpl implements StatisticService {
     LocalDateTime start = startDateTime.isAfter(createdAt) ? startDateTime : createdAt;
     LocalDateTime end = !patient.isDisabled() || endDateTime.isBefore(updatedAt)
         ? endDateTime : updatedAt;
-    end = end.isAfter(LocalDateTime.now()) ? LocalDateTime.now() : end;
-    int totalRecords = countTotalRecords(patient.getId(), start, end);
+    LocalDateTime now = LocalDateTime.now(clock);
+    end = end.isAfter(now) ? now : end;
+    if (start.isAfter(end)) {
+      return 0;
+    }
+    int totalRecords = presenceService.countFilledSlots(patient.getId(), start, end);
     int totalRecordsRequired = countPeriodsBetween(start, end);
     return totalRecordsRequired - totalRecords;
   }
@@ -129,22 +150,8 @@ public class StatisticServiceImpl implements StatisticService {
    * @return the number of periods between the start and end LocalDateTime objects
    */
   private int countPeriodsBetween(LocalDateTime startDateTime,
-                                LocalDateTime endDateTime) {
-    LocalDate startDate = startDateTime.toLocalDate();
-    LocalDate endDate = endDateTime.toLocalDate();
-    int periodCount = 0;
-    Period startPeriod = Period.findOutPeriodByTime(startDateTime.toLocalTime());
-    Period endPeriod = Period.findOutPeriodByTime(endDateTime.toLocalTime());
-
-    if (!startDate.isEqual(endDate)) {
-      long daysBetween = ChronoUnit.DAYS.between(startDate, endDate) - 1;
-      periodCount += daysBetween * 3;
-      periodCount += startPeriod.getPeriodsAfter();
-      periodCount += endPeriod.countPeriodsBefore();
-    } else {
-      periodCount += startPeriod.countDayPeriodsBetween(endPeriod);
-    }
-    return periodCount;
+                                  LocalDateTime endDateTime) {
+    return schedule.countPeriodsBetween(startDateTime, endDateTime);
   }
 
   /**
@@ -160,10 +167,23 @@ public class StatisticServiceImpl implements StatisticService {
                                                      LocalDateTime endDateTime) {
     List<Object[]> results = recordRepository.countRecordsByEmotion(patientId,
         startDateTime, endDateTime);
-    return results.stream()
+    Map<Emotion, Long> frequency = results.stream()
         .collect(Collectors.toMap(
             obj -> (Emotion) obj[0],
             obj -> (Long) obj[1]
         ));
+    streamArchivedRecords(patientId, startDateTime, endDateTime)
+        .forEach(archived -> frequency.merge(archived.getEmotion(), 1L, Long::sum));
+    return frequency;
+  }
+
+  /**
+   * Streams the archived records of a patient within the time range, which includes
+   * its end like the queries of the live records.
+   */
+  private Stream<EmotionRecordDto> streamArchivedRecords(Long patientId,
+                                                         LocalDateTime startDateTime,
+                                                         LocalDateTime endDateTime) {
+    return archiveService.streamRecords(patientId, startDateTime, endDateTime.plusNanos(1));
   }
 }
@@ -23,8 +23,8 @@ public class EmotionRecordSpecification {
    * @return a Specification object for the specified date range
    */
   public Specification<EmotionRecord> buildGetAllByDatesSpecification(EmotionRecordFilter filter) {
-    return buildCreatedAtBetweenSpecification(filter.getStartDate().atStartOfDay(),
-        DateUtil.convertToDateTimeEndDay(filter.getEndDate()));
+    return buildCreatedAtWithinSpecification(filter.getStartDate().atStartOfDay(),
+        DateUtil.convertToDateTimeStartNextDay(filter.getEndDate()));
   }
 
   /**
@@ -43,16 +43,19 @@ public class EmotionRecordSpecification {
 
   /**
    * Builds a JPA Specification object to query EmotionRecord entities
-   * with CREATED_AT property between the given start and end dates (inclusive).
+   * with CREATED_AT property from the start date (inclusive) to the end date (exclusive).
+   * The plain comparisons of the column let the database read only the partitions
+   * of the range.
    *
    * @param startDate the start date of the query range
    * @param endDate   the end date of the query range
    * @return a JPA Specification object to be used in the repository's query methods
    */
-  private Specification<EmotionRecord> buildCreatedAtBetweenSpecification(LocalDateTime startDate,
-                                                                          LocalDateTime endDate) {
-    return (root, query, criteriaBuilder) ->
-        criteriaBuilder.between(root.get(EmotionRecord_.CREATED_AT), startDate, endDate);
+  private Specification<EmotionRecord> buildCreatedAtWithinSpecification(LocalDateTime startDate,
+                                                                         LocalDateTime endDate) {
+    return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+        criteriaBuilder.greaterThanOrEqualTo(root.get(EmotionRecord_.CREATED_AT), startDate),
+        criteriaBuilder.lessThan(root.get(EmotionRecord_.CREATED_AT), endDate));
   }
 
   /**
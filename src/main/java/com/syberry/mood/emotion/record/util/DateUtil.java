@@ -2,6 +2,7 @@ package com.syberry.mood.emotion.record.util;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import lombok.experimental.UtilityClass;
 
 /**
@@ -11,12 +12,25 @@ import lombok.experimental.UtilityClass;
 public class DateUtil {
 
   /**
-   * Converts a LocalDate to LocalDateTime representing the end of the day.
+   * Converts a LocalDate to LocalDateTime representing the end of the day. It is the last
+   * microsecond of the day, the precision of the database, so that the database does not
+   * round it up to the next day.
    *
    * @param date the LocalDate to be converted.
    * @return the LocalDateTime representing the end of the day.
    */
   public static LocalDateTime convertToDateTimeEndDay(LocalDate date) {
-    return date.plusDays(1).atStartOfDay().minusNanos(1);
+    return date.plusDays(1).atStartOfDay().minus(1, ChronoUnit.MICROS);
+  }
+
+  /**
+   * Converts a LocalDate to LocalDateTime representing the start of the next day,
+   * the exclusive end of the day.
+   *
+   * @param date the LocalDate to be converted.
+   * @return the LocalDateTime representing the start of the next day.
+   */
+  public static LocalDateTime convertToDateTimeStartNextDay(LocalDate date) {
+    return date.plusDays(1).atStartOfDay();
   }
 }
@@ -0,0 +1,59 @@
+package com.syberry.mood.emotion.record.util;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An iterator merging two iterators ordered by the same comparator into one ordered iterator.
+ * Of the elements equal by the comparator, the one of the first iterator is returned
+ * and the one of the second iterator is skipped.
+ *
+ * @param <T> the type of the elements
+ */
+public class MergingIterator<T> implements Iterator<T> {
+
+  private final Iterator<T> first;
+  private final Iterator<T> second;
+  private final Comparator<? super T> comparator;
+  private T nextOfFirst;
+  private T nextOfSecond;
+
+  /**
+   * Creates the iterator.
+   *
+   * @param first the first ordered iterator, preferred for the equal elements
+   * @param second the second ordered iterator
+   * @param comparator the order of both iterators
+   */
+  public MergingIterator(Iterator<T> first, Iterator<T> second,
+                         Comparator<? super T> comparator) {
+    this.first = first;
+    this.second = second;
+    this.comparator = comparator;
+    this.nextOfFirst = first.hasNext() ? first.next() : null;
+    this.nextOfSecond = second.hasNext() ? second.next() : null;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return nextOfFirst != null || nextOfSecond != null;
+  }
+
+  @Override
+  public T next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    int comparison = nextOfFirst == null ? 1
+        : nextOfSecond == null ? -1 : comparator.compare(nextOfFirst, nextOfSecond);
+    T next = comparison <= 0 ? nextOfFirst : nextOfSecond;
+    if (comparison <= 0) {
+      nextOfFirst = first.hasNext() ? first.next() : null;
+    }
+    if (comparison >= 0) {
+      nextOfSecond = second.hasNext() ? second.next() : null;
+    }
+    return next;
+  }
+}
@@ -0,0 +1,80 @@
+package com.syberry.mood.emotion.record.util;
+
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import lombok.experimental.UtilityClass;
+
+/**
+ * A utility class building the MySQL statements of the monthly range partitions
+ * of the emotion_record table. Every month is a partition named after it, like p202301,
+ * holding the records created before the first day of the next month, and the trailing
+ * pmax partition catches the records beyond the last month.
+ */
+@UtilityClass
+public class MonthlyPartitions {
+
+  public static final String TABLE = "emotion_record";
+  public static final String MAX_VALUE_PARTITION = "pmax";
+  private static final Pattern PARTITION_NAME = Pattern.compile("p(\\d{4})(\\d{2})");
+
+  /**
+   * Returns the name of the partition of the month.
+   *
+   * @param month the month
+   * @return the partition name
+   */
+  public static String partitionName(YearMonth month) {
+    return String.format("p%04d%02d", month.getYear(), month.getMonthValue());
+  }
+
+  /**
+   * Parses the month of a partition name.
+   *
+   * @param partitionName the partition name
+   * @return the month, or an empty Optional for the pmax and other partitions
+   */
+  public static Optional<YearMonth> parseMonth(String partitionName) {
+    Matcher matcher = PARTITION_NAME.matcher(partitionName);
+    return matcher.matches()
+        ? Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)),
+            Integer.parseInt(matcher.group(2))))
+        : Optional.empty();
+  }
+
+  /**
+   * Builds the partitioning clause of the table with a partition per month.
+   *
+   * @param first the first month, all earlier records go to its partition
+   * @param last the last month, all later records go to the pmax partition
+   * @return the PARTITION BY clause
+   */
+  public static String partitionBy(YearMonth first, YearMonth last) {
+    return "PARTITION BY RANGE COLUMNS(`created_at`) (" + definitions(first, last) + ")";
+  }
+
+  /**
+   * Builds the statement splitting the months off the empty pmax partition,
+   * which changes only the metadata of the table.
+   *
+   * @param first the first month to add
+   * @param last the last month to add
+   * @return the ALTER TABLE statement
+   */
+  public static String reorganizeMaxValue(YearMonth first, YearMonth last) {
+    return "ALTER TABLE `" + TABLE + "` REORGANIZE PARTITION " + MAX_VALUE_PARTITION
+        + " INTO (" + definitions(first, last) + ")";
+  }
+
+  private static String definitions(YearMonth first, YearMonth last) {
+    StringJoiner definitions = new StringJoiner(", ");
+    for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+      definitions.add("PARTITION " + partitionName(month) + " VALUES LESS THAN ('"
+          + month.plusMonths(1).atDay(1) + "')");
+    }
+    definitions.add("PARTITION " + MAX_VALUE_PARTITION + " VALUES LESS THAN (MAXVALUE)");
+    return definitions.toString();
+  }
+}
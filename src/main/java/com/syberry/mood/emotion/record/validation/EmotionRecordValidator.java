@@ -3,6 +3,7 @@ package com.syberry.mood.emotion.record.validation;
 import com.syberry.mood.emotion.record.dto.Period;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
 import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.exception.ValidationException;
 import com.syberry.mood.user.entity.User;
 import java.time.LocalDate;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 public class EmotionRecordValidator {
 
   private final EmotionRecordRepository recordRepository;
+  private final PeriodSchedule schedule;
 
   /**
    * Validates that there is no other emotion record with the same patient ID, period, and date.
@@ -31,7 +33,7 @@ public class EmotionRecordValidator {
    */
   public void validateIsNoOtherRecordSameTime(Long patientId, Period period, LocalDate date) {
     Optional<EmotionRecord> optional = recordRepository.findByPatientIdAndPeriodAndDate(
-        patientId, period, date);
+        patientId, period, date, schedule);
     if (optional.isPresent()) {
       throw new ValidationException(
           String.format("There is already an emotion record for: %s %s",
@@ -63,7 +65,7 @@ public class EmotionRecordValidator {
    *     and the given date and period fall after the patient's disabled date.
    */
   public void validateDateNotAfterDisable(User patient, LocalDate date, Period period) {
-    LocalDateTime dateTime = date.atTime(period.getPeriodStartTime());
+    LocalDateTime dateTime = date.atTime(schedule.getStartTime(period));
     if (patient.isDisabled() && dateTime.isAfter(patient.getUpdatedAt())) {
       throw new ValidationException(
           "Emotion record can't be created after patient's disable date");
@@ -1,11 +1,13 @@
 package com.syberry.mood.employee.controller;
 
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.employee.dto.EmployeeCreatingDto;
 import com.syberry.mood.employee.dto.EmployeeDto;
+import com.syberry.mood.employee.dto.EmployeeFilter;
 import com.syberry.mood.employee.dto.EmployeeUpdatingDto;
 import com.syberry.mood.employee.dto.PasswordUpdatingDto;
 import com.syberry.mood.employee.service.EmployeeService;
-import java.util.List;
+import com.syberry.mood.monitoring.sql.SqlStatementBudget;
 import javax.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +29,7 @@ import org.springframework.web.bind.annotation.RestController;
  */
 @RestController
 @CrossOrigin
+@SqlStatementBudget(7)
 @RequestMapping("/employees")
 @RequiredArgsConstructor
 @Validated
@@ -36,15 +39,17 @@ public class EmployeeController {
   private final EmployeeService employeeService;
 
   /**
-   * Retrieves the list of employees.
+   * Retrieves one page of the employees filtered by role and disabled state.
    *
-   * @return the list of EmployeeDto
+   * @param filter the filter to use for paging, sorting and filtering the employees
+   * @return the page of EmployeeDto
    */
   @GetMapping
+  @SqlStatementBudget(2)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
-  public List<EmployeeDto> findAllEmployees() {
-    log.info("GET-request: getting all employees");
-    return employeeService.findAllEmployees();
+  public PageDto<EmployeeDto> findAllEmployees(EmployeeFilter filter) {
+    log.info("GET-request: getting page {} of employees", filter.getPage());
+    return employeeService.findAllEmployees(filter);
   }
 
   /**
@@ -2,15 +2,26 @@ package com.syberry.mood.employee.converter;
 
 import static org.springframework.util.StringUtils.capitalize;
 
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.employee.dto.EmployeeCreatingDto;
 import com.syberry.mood.employee.dto.EmployeeDto;
+import com.syberry.mood.employee.dto.EmployeeFilter;
 import com.syberry.mood.employee.dto.EmployeeUpdatingDto;
 import com.syberry.mood.employee.entity.Employee;
+import com.syberry.mood.employee.entity.Employee_;
 import com.syberry.mood.employee.repository.EmployeeRepository;
+import com.syberry.mood.exception.InvalidArgumentTypeException;
 import com.syberry.mood.user.converter.RoleConverter;
+import com.syberry.mood.user.entity.Role_;
 import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.entity.User_;
 import java.time.LocalDateTime;
+import java.util.Map;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Component;
 
 /**
@@ -22,6 +33,15 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class EmployeeConverter {
 
+  private static final int MAX_PAGE_SIZE = 100;
+  private static final Map<String, String> SORT_PROPERTIES = Map.of(
+      "id", Employee_.ID,
+      "email", Employee_.USER + "." + User_.USERNAME,
+      "firstName", Employee_.FIRST_NAME,
+      "lastName", Employee_.LAST_NAME,
+      "roleName", Employee_.USER + "." + User_.ROLE + "." + Role_.ROLE_NAME,
+      "disabled", Employee_.USER + "." + User_.DISABLED);
+
   private final RoleConverter converter;
   private final EmployeeRepository employeeRepository;
 
@@ -39,6 +59,7 @@ public class EmployeeConverter {
         .lastName(employee.getLastName())
         .roleName(employee.getUser().getRole().getRoleName())
         .disabled(employee.getUser().isDisabled())
+        .clinic(employee.getClinic())
         .build();
   }
 
@@ -52,6 +73,7 @@ public class EmployeeConverter {
     return Employee.builder()
         .firstName(capitalize(dto.getFirstName()))
         .lastName(capitalize(dto.getLastName()))
+        .clinic(dto.getClinic())
         .build();
   }
 
@@ -71,4 +93,51 @@ public class EmployeeConverter {
     employee.setLastName(capitalize(dto.getLastName()));
     return employee;
   }
+
+  /**
+   * Converts the paging and sorting part of EmployeeFilter into Pageable. The employees
+   * with equal sort values are ordered by id, so the pages do not overlap.
+   *
+   * @param filter EmployeeFilter
+   * @return Pageable
+   * @throws InvalidArgumentTypeException if the page, the size or the sort is invalid
+   */
+  public Pageable convertToPageable(EmployeeFilter filter) {
+    if (filter.getPage() < 0 || filter.getSize() < 1 || filter.getSize() > MAX_PAGE_SIZE) {
+      throw new InvalidArgumentTypeException(String.format(
+          "Invalid page: %s or size: %s. The page must not be negative, the size must be"
+              + " between 1 and %s", filter.getPage(), filter.getSize(), MAX_PAGE_SIZE));
+    }
+    String[] sort = filter.getSort().split(",");
+    String property = SORT_PROPERTIES.get(sort[0].trim());
+    Sort.Direction direction = sort.length == 2
+        ? Sort.Direction.fromOptionalString(sort[1].trim()).orElse(null)
+        : Sort.Direction.ASC;
+    if (property == null || direction == null || sort.length > 2) {
+      throw new InvalidArgumentTypeException(String.format(
+          "Error while converting invalid sort: %s. Valid properties: %s, valid directions: asc,"
+              + " desc", filter.getSort(), String.join(", ", SORT_PROPERTIES.keySet())));
+    }
+    Sort order = Sort.by(direction, property);
+    if (!property.equals(Employee_.ID)) {
+      order = order.and(Sort.by(Employee_.ID));
+    }
+    return PageRequest.of(filter.getPage(), filter.getSize(), order);
+  }
+
+  /**
+   * Converts a page of Employee JPA Entities into PageDto.
+   *
+   * @param page the page of Employee JPA Entities
+   * @return PageDto of EmployeeDto
+   */
+  public PageDto<EmployeeDto> convertToPageDto(Page<Employee> page) {
+    return PageDto.<EmployeeDto>builder()
+        .content(page.map(this::convertToDto).getContent())
+        .page(page.getNumber())
+        .size(page.getSize())
+        .totalElements(page.getTotalElements())
+        .totalPages(page.getTotalPages())
+        .build();
+  }
 }
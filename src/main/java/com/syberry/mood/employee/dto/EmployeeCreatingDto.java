@@ -32,4 +32,6 @@ public class EmployeeCreatingDto {
   private String lastName;
   @NotBlank
   private String roleName;
+  @Size(max = 50)
+  private String clinic;
 }
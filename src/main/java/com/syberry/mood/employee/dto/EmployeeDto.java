@@ -21,4 +21,5 @@ public class EmployeeDto {
   private String lastName;
   private RoleName roleName;
   private boolean disabled;
+  private String clinic;
 }
@@ -0,0 +1,21 @@
+package com.syberry.mood.employee.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A filter for paging, sorting and filtering employees by role and disabled state.
+ * The sort has the format "property[,asc|desc]".
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmployeeFilter {
+
+  private String roleName;
+  private Boolean disabled;
+  private int page = 0;
+  private int size = 20;
+  private String sort = "id";
+}
@@ -1,6 +1,7 @@
 package com.syberry.mood.employee.entity;
 
 import com.syberry.mood.user.entity.User;
+import javax.persistence.Cacheable;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
@@ -14,11 +15,15 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * This entity is mapped to the "employee" table used for storing employee data.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Getter
 @Setter
 @Builder
@@ -38,4 +43,6 @@ public class Employee {
   @OneToOne
   @JoinColumn(name = "user_id", referencedColumnName = "id")
   private User user;
+  @Size(max = 50)
+  private String clinic;
 }
@@ -1,23 +1,31 @@
 package com.syberry.mood.employee.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import com.syberry.mood.employee.entity.Employee;
 import com.syberry.mood.exception.EntityNotFoundException;
 import java.util.Optional;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
  * The repository for working with the 'employee' table.
  */
 @Repository
-public interface EmployeeRepository extends JpaRepository<Employee, Long> {
+public interface EmployeeRepository extends JpaRepository<Employee, Long>,
+    JpaSpecificationExecutor<Employee> {
 
   /**
    * Finds employee by its user id.
+   * The result is kept in the query cache.
    *
    * @param userId user id
    * @return an Optional containing employee if it exists or an empty Optional if it does not
    */
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Optional<Employee> findByUserId(Long userId);
 
   /**
@@ -1,10 +1,11 @@
 package com.syberry.mood.employee.service;
 
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.employee.dto.EmployeeCreatingDto;
 import com.syberry.mood.employee.dto.EmployeeDto;
+import com.syberry.mood.employee.dto.EmployeeFilter;
 import com.syberry.mood.employee.dto.EmployeeUpdatingDto;
 import com.syberry.mood.employee.dto.PasswordUpdatingDto;
-import java.util.List;
 
 /**
  * This class is responsible for working with the table "employee".
@@ -12,11 +13,12 @@ import java.util.List;
 public interface EmployeeService {
 
   /**
-   * Retrieves the list of employees.
+   * Retrieves one page of the employees matching the filter.
    *
-   * @return the list of employees
+   * @param filter the filter to use for paging, sorting and filtering the employees
+   * @return the page of employees
    */
-  List<EmployeeDto> findAllEmployees();
+  PageDto<EmployeeDto> findAllEmployees(EmployeeFilter filter);
 
   /**
    * Retrieves the employee by ID.
@@ -3,22 +3,25 @@ package com.syberry.mood.employee.service.impl;
 import static com.syberry.mood.authorization.util.SecurityUtils.getUserDetails;
 
 import com.syberry.mood.authorization.security.UserDetailsImpl;
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.employee.converter.EmployeeConverter;
 import com.syberry.mood.employee.dto.EmployeeCreatingDto;
 import com.syberry.mood.employee.dto.EmployeeDto;
+import com.syberry.mood.employee.dto.EmployeeFilter;
 import com.syberry.mood.employee.dto.EmployeeUpdatingDto;
 import com.syberry.mood.employee.dto.PasswordUpdatingDto;
 import com.syberry.mood.employee.entity.Employee;
 import com.syberry.mood.employee.repository.EmployeeRepository;
 import com.syberry.mood.employee.service.EmployeeService;
+import com.syberry.mood.employee.specification.EmployeeSpecification;
 import com.syberry.mood.employee.validation.EmployeeValidator;
+import com.syberry.mood.sharding.ClinicRouter;
 import com.syberry.mood.user.converter.RoleConverter;
 import com.syberry.mood.user.converter.UserConverter;
+import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.User;
 import com.syberry.mood.user.repository.UserRepository;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -37,19 +40,25 @@ public class EmployeeServiceImpl implements EmployeeService {
   private final UserConverter userConverter;
   private final EmployeeConverter employeeConverter;
   private final EmployeeValidator employeeValidator;
+  private final EmployeeSpecification specification;
   private final PasswordEncoder passwordEncoder;
+  private final ClinicRouter clinicRouter;
 
   /**
-   * Retrieves the list of employees.
+   * Retrieves one page of the employees matching the filter by one query fetching
+   * the employees with their users and roles and one count query.
    *
-   * @return the list of employees
+   * @param filter the filter to use for paging, sorting and filtering the employees
+   * @return the page of employees
    */
   @Override
-  public List<EmployeeDto> findAllEmployees() {
-    return employeeRepository.findAll()
-        .stream()
-        .map(employeeConverter::convertToDto)
-        .collect(Collectors.toList());
+  public PageDto<EmployeeDto> findAllEmployees(EmployeeFilter filter) {
+    RoleName roleName = filter.getRoleName() != null
+        ? roleConverter.convertToRoleName(filter.getRoleName())
+        : null;
+    return employeeConverter.convertToPageDto(employeeRepository.findAll(
+        specification.buildGetAllByRoleAndDisabledSpecification(roleName, filter.getDisabled()),
+        employeeConverter.convertToPageable(filter)));
   }
 
   /**
@@ -77,7 +86,7 @@ public class EmployeeServiceImpl implements EmployeeService {
   }
 
   /**
-   * Adds a new employee to the table.
+   * Adds a new employee to the table, on the shard of their clinic if sharding is enabled.
    *
    * @param dto an object containing information about the employee
    * @return employee
@@ -85,6 +94,7 @@ public class EmployeeServiceImpl implements EmployeeService {
   @Transactional
   @Override
   public EmployeeDto createEmployee(EmployeeCreatingDto dto) {
+    clinicRouter.routeToClinic(dto.getClinic());
     employeeValidator.validateEmailUniqueness(dto.getEmail());
     employeeValidator.validateRoleForEmployee(dto.getRoleName());
     User user = userConverter.convertToEntity(dto);
@@ -0,0 +1,60 @@
+package com.syberry.mood.employee.specification;
+
+import com.syberry.mood.employee.entity.Employee;
+import com.syberry.mood.employee.entity.Employee_;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.Role_;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.entity.User_;
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+
+/**
+ * A class for building JPA Specification objects for querying Employees.
+ */
+@Component
+public class EmployeeSpecification {
+
+  /**
+   * Builds a Specification object for retrieving the employees with the given role
+   * and disabled state. The user and the role are fetched by the same query, the count query
+   * only joins them.
+   *
+   * @param roleName the role of the employees, or null for all roles
+   * @param disabled the disabled state of the employees, or null for both states
+   * @return a Specification object for the specified role and disabled state
+   */
+  @SuppressWarnings("unchecked")
+  public Specification<Employee> buildGetAllByRoleAndDisabledSpecification(RoleName roleName,
+                                                                           Boolean disabled) {
+    return (root, query, criteriaBuilder) -> {
+      Join<Employee, User> user;
+      Join<User, Role> role;
+      if (isCountQuery(query)) {
+        user = root.join(Employee_.user);
+        role = user.join(User_.role);
+      } else {
+        user = (Join<Employee, User>) root.fetch(Employee_.user);
+        role = (Join<User, Role>) user.fetch(User_.role);
+      }
+      List<Predicate> predicates = new ArrayList<>();
+      if (roleName != null) {
+        predicates.add(criteriaBuilder.equal(role.get(Role_.roleName), roleName));
+      }
+      if (disabled != null) {
+        predicates.add(criteriaBuilder.equal(user.get(User_.disabled), disabled));
+      }
+      return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    };
+  }
+
+  private static boolean isCountQuery(CriteriaQuery<?> query) {
+    return query.getResultType() == Long.class || query.getResultType() == long.class;
+  }
+}
@@ -40,6 +40,37 @@ public class GlobalExceptionHandler extends Exception {
     return new ResponseEntity<>(getErrorsMap(errors), new HttpHeaders(), HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * Handles exceeded SQL statement budgets.
+   * Returns an HTTP Internal Server Error (500) status code.
+   *
+   * @param ex the exception to handle
+   * @return an HTTP response entity containing the errors
+   */
+  @ExceptionHandler(SqlStatementBudgetExceededException.class)
+  public ResponseEntity<Map<String, List<String>>> sqlStatementBudgetExceededHandler(
+      SqlStatementBudgetExceededException ex) {
+    List<String> errors = Collections.singletonList(ex.getMessage());
+    return new ResponseEntity<>(
+        getErrorsMap(errors), new HttpHeaders(), HttpStatus.INTERNAL_SERVER_ERROR);
+  }
+
+  /**
+   * Handles requests rejected by the admission control.
+   * Returns an HTTP Too Many Requests (429) status code with a Retry-After header.
+   *
+   * @param ex the exception to handle
+   * @return an HTTP response entity containing the errors
+   */
+  @ExceptionHandler(TooManyRequestsException.class)
+  public ResponseEntity<Map<String, List<String>>> tooManyRequestsHandler(
+      TooManyRequestsException ex) {
+    List<String> errors = Collections.singletonList(ex.getMessage());
+    HttpHeaders headers = new HttpHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+    return new ResponseEntity<>(getErrorsMap(errors), headers, HttpStatus.TOO_MANY_REQUESTS);
+  }
+
   /**
    * Handles validation errors when the request body fails validation.
    * Returns an HTTP Bad Request (400) status code.
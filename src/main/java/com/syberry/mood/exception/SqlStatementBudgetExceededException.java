@@ -0,0 +1,11 @@
+package com.syberry.mood.exception;
+
+/**
+ * Thrown to indicate that a controller method executed more SQL statements than its budget.
+ */
+public class SqlStatementBudgetExceededException extends RuntimeException {
+
+  public SqlStatementBudgetExceededException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,18 @@
+package com.syberry.mood.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown to indicate that a request is rejected by the admission control
+ * and may be retried after the given number of seconds.
+ */
+@Getter
+public class TooManyRequestsException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  public TooManyRequestsException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+}
@@ -0,0 +1,69 @@
+package com.syberry.mood.monitoring.metrics;
+
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import javax.servlet.http.HttpServletRequest;
+import lombok.experimental.UtilityClass;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * A utility class resolving the endpoint and role tags of the current request.
+ */
+@UtilityClass
+public class MetricTags {
+
+  public static final String ENDPOINT = "endpoint";
+  public static final String ROLE = "role";
+  public static final String NONE = "none";
+  private static final String ROLE_PREFIX = "ROLE_";
+  private static final String ANONYMOUS = "anonymous";
+
+  /**
+   * Returns the endpoint and role tags of the current request.
+   *
+   * @return the endpoint and role tags
+   */
+  public static Tags endpointAndRole() {
+    return Tags.of(endpoint(), role());
+  }
+
+  /**
+   * Returns the tag with the HTTP method and the matched URI pattern of the current request,
+   * so that path variables do not multiply the time series.
+   *
+   * @return the endpoint tag or "none" outside of a handled request
+   */
+  public static Tag endpoint() {
+    RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+    if (!(attributes instanceof ServletRequestAttributes)) {
+      return Tag.of(ENDPOINT, NONE);
+    }
+    HttpServletRequest request = ((ServletRequestAttributes) attributes).getRequest();
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    return Tag.of(ENDPOINT, pattern == null ? NONE : request.getMethod() + " " + pattern);
+  }
+
+  /**
+   * Returns the tag with the role of the authenticated user.
+   *
+   * @return the role tag or "anonymous" if the user is not authenticated
+   */
+  public static Tag role() {
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null || !authentication.isAuthenticated()) {
+      return Tag.of(ROLE, ANONYMOUS);
+    }
+    return authentication.getAuthorities().stream()
+        .map(GrantedAuthority::getAuthority)
+        .filter(authority -> authority.startsWith(ROLE_PREFIX))
+        .findFirst()
+        .map(authority -> Tag.of(ROLE, authority.substring(ROLE_PREFIX.length())))
+        .orElse(Tag.of(ROLE, ANONYMOUS));
+  }
+}
@@ -0,0 +1,86 @@
+package com.syberry.mood.monitoring.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Times the methods of the emotion record, compliance, trend, patient and employee services
+ * and records the size of the generated export files.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceMetricsAspect {
+
+  private static final String CSV = "csv";
+  private static final String PDF = "pdf";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Measures the invocation of a public service method.
+   *
+   * @param joinPoint the invoked service method
+   * @return the result of the service method
+   * @throws Throwable the exception thrown by the service method
+   */
+  @Around("execution(public * com.syberry.mood.emotion.record.service.EmotionRecordService+.*(..))"
+      + " || execution(public *"
+      + " com.syberry.mood.emotion.record.service.EmotionRecordImportService+.*(..))"
+      + " || execution(public *"
+      + " com.syberry.mood.emotion.record.service.ComplianceReportService+.*(..))"
+      + " || execution(public *"
+      + " com.syberry.mood.emotion.record.service.EmotionTrendService+.*(..))"
+      + " || execution(public * com.syberry.mood.user.service.PatientService+.*(..))"
+      + " || execution(public * com.syberry.mood.employee.service.EmployeeService+.*(..))")
+  public Object timeServiceMethod(ProceedingJoinPoint joinPoint) throws Throwable {
+    Tags tags = MetricTags.endpointAndRole()
+        .and("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+        .and("method", joinPoint.getSignature().getName());
+    Timer.Sample sample = Timer.start(meterRegistry);
+    String exception = MetricTags.NONE;
+    try {
+      Object result = joinPoint.proceed();
+      recordExportSize(result, tags);
+      return result;
+    } catch (Throwable ex) {
+      exception = ex.getClass().getSimpleName();
+      throw ex;
+    } finally {
+      sample.stop(Timer.builder("mood.service.method")
+          .description("Latency of the service methods")
+          .tags(tags)
+          .tag("exception", exception)
+          .publishPercentileHistogram()
+          .register(meterRegistry));
+    }
+  }
+
+  private void recordExportSize(Object result, Tags tags) {
+    if (result instanceof ByteArrayOutputStream) {
+      recordExportSize(CSV, ((ByteArrayOutputStream) result).size(), tags);
+    } else if (result instanceof ByteArrayInputStream) {
+      recordExportSize(PDF, ((ByteArrayInputStream) result).available(), tags);
+    }
+  }
+
+  private void recordExportSize(String format, long bytes, Tags tags) {
+    DistributionSummary.builder("mood.export.size")
+        .description("Size of the generated export files")
+        .baseUnit("bytes")
+        .tags(tags)
+        .tag("format", format)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(bytes);
+  }
+}
@@ -0,0 +1,44 @@
+package com.syberry.mood.monitoring.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Password encoder decorator measuring the time spent hashing and matching passwords.
+ */
+@RequiredArgsConstructor
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+  private static final String OPERATION = "operation";
+
+  private final PasswordEncoder delegate;
+  private final MeterRegistry meterRegistry;
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return record("encode", () -> delegate.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return record("matches", () -> delegate.matches(rawPassword, encodedPassword));
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    return delegate.upgradeEncoding(encodedPassword);
+  }
+
+  private <T> T record(String operation, Supplier<T> supplier) {
+    return Timer.builder("mood.security.password.hash")
+        .description("Time spent hashing passwords")
+        .tags(MetricTags.endpointAndRole())
+        .tag(OPERATION, operation)
+        .publishPercentileHistogram()
+        .register(meterRegistry)
+        .record(supplier);
+  }
+}
@@ -0,0 +1,34 @@
+package com.syberry.mood.monitoring.sql;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares the maximum number of SQL statements a controller method may execute.
+ * A class-level budget applies to every handler method of the controller
+ * unless the method declares its own one. Handlers that process their input in chunks
+ * declare a bound for each chunk they report through {@link SqlStatisticsHolder#recordChunk()}.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface SqlStatementBudget {
+
+  /**
+   * Returns the maximum number of statements.
+   *
+   * @return the maximum number of statements
+   */
+  int value();
+
+  /**
+   * Returns the maximum number of statements allowed for each processed chunk
+   * on top of the fixed budget.
+   *
+   * @return the maximum number of statements per chunk
+   */
+  int perChunk() default 0;
+}
@@ -0,0 +1,79 @@
+package com.syberry.mood.monitoring.sql;
+
+import java.util.concurrent.TimeUnit;
+import lombok.Getter;
+
+/**
+ * Holds the number of statements, fetched rows, JDBC time and processed chunks collected while
+ * processing a single HTTP request.
+ */
+@Getter
+public class SqlStatistics {
+
+  private long statementCount;
+  private long rowCount;
+  private long jdbcTimeNanos;
+  private long chunkCount;
+
+  /**
+   * Registers one executed statement (or one executed batch).
+   *
+   * @param elapsedNanos the time spent in the JDBC driver in nanoseconds
+   */
+  public void recordStatement(long elapsedNanos) {
+    statementCount++;
+    jdbcTimeNanos += elapsedNanos;
+  }
+
+  /**
+   * Registers one row read from a result set.
+   */
+  public void recordRow() {
+    rowCount++;
+  }
+
+  /**
+   * Registers one chunk of input processed by the handler.
+   */
+  public void recordChunk() {
+    chunkCount++;
+  }
+
+  /**
+   * Returns the JDBC time in microseconds.
+   *
+   * @return the JDBC time in microseconds
+   */
+  public long getJdbcTimeMicros() {
+    return TimeUnit.NANOSECONDS.toMicros(jdbcTimeNanos);
+  }
+
+  /**
+   * Creates an immutable-by-convention copy of the current counters.
+   *
+   * @return the copy of the counters
+   */
+  public SqlStatistics snapshot() {
+    SqlStatistics snapshot = new SqlStatistics();
+    snapshot.statementCount = statementCount;
+    snapshot.rowCount = rowCount;
+    snapshot.jdbcTimeNanos = jdbcTimeNanos;
+    snapshot.chunkCount = chunkCount;
+    return snapshot;
+  }
+
+  /**
+   * Calculates the counters collected since the given snapshot was taken.
+   *
+   * @param start the snapshot taken earlier from the same statistics
+   * @return the difference between the current counters and the snapshot
+   */
+  public SqlStatistics since(SqlStatistics start) {
+    SqlStatistics delta = new SqlStatistics();
+    delta.statementCount = statementCount - start.statementCount;
+    delta.rowCount = rowCount - start.rowCount;
+    delta.jdbcTimeNanos = jdbcTimeNanos - start.jdbcTimeNanos;
+    delta.chunkCount = chunkCount - start.chunkCount;
+    return delta;
+  }
+}
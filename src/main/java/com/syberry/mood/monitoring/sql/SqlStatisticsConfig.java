@@ -0,0 +1,50 @@
+package com.syberry.mood.monitoring.sql;
+
+import javax.sql.DataSource;
+import lombok.RequiredArgsConstructor;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Configuration for collecting SQL statistics of HTTP requests.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class SqlStatisticsConfig implements WebMvcConfigurer {
+
+  private final SqlStatisticsInterceptor sqlStatisticsInterceptor;
+
+  /**
+   * Defines a post processor wrapping every data source into a counting proxy.
+   *
+   * @return the bean post processor
+   */
+  @Bean
+  public static BeanPostProcessor sqlStatisticsDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource && !(bean instanceof ProxyDataSource)) {
+          SqlStatisticsListener listener = new SqlStatisticsListener();
+          return ProxyDataSourceBuilder.create((DataSource) bean)
+              .name(beanName)
+              .listener(listener)
+              .methodListener(listener)
+              .proxyResultSet()
+              .build();
+        }
+        return bean;
+      }
+    };
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(sqlStatisticsInterceptor);
+  }
+}
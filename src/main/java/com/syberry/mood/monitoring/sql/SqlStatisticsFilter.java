@@ -0,0 +1,86 @@
+package com.syberry.mood.monitoring.sql;
+
+import com.syberry.mood.exception.SqlStatementBudgetExceededException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Collects SQL statistics for the whole HTTP request, including the statements
+ * executed by the security filters, and publishes them as metrics. When configured,
+ * fails the requests whose handler exceeded its statement budget after writing the response
+ * itself, which the {@link SqlStatisticsResponseAdvice} cannot reject.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class SqlStatisticsFilter extends OncePerRequestFilter {
+
+  private static final String UNKNOWN_URI = "UNKNOWN";
+
+  private final MeterRegistry meterRegistry;
+
+  @Value("${app.sql-statistics.fail-on-budget-exceeded:false}")
+  private boolean failOnBudgetExceeded;
+
+  /**
+   * Binds fresh statistics to the request thread and records them after the request
+   * has been processed.
+   *
+   * @param request http request
+   * @param response http response
+   * @param filterChain chain of filter
+   * @throws ServletException servlet exception
+   * @throws IOException input and output exception
+   */
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    SqlStatistics statistics = SqlStatisticsHolder.start();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      SqlStatisticsHolder.clear();
+      record(request, statistics);
+    }
+    Object violation = request.getAttribute(SqlStatisticsInterceptor.BUDGET_EXCEEDED_ATTRIBUTE);
+    if (failOnBudgetExceeded && violation != null) {
+      throw new SqlStatementBudgetExceededException(violation.toString());
+    }
+  }
+
+  private void record(HttpServletRequest request, SqlStatistics statistics) {
+    Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    String uri = pattern == null ? UNKNOWN_URI : pattern.toString();
+    String method = request.getMethod();
+    DistributionSummary.builder("mood.sql.request.statements")
+        .description("SQL statements executed per HTTP request")
+        .tags("uri", uri, "method", method)
+        .register(meterRegistry)
+        .record(statistics.getStatementCount());
+    DistributionSummary.builder("mood.sql.request.rows")
+        .description("Rows fetched per HTTP request")
+        .tags("uri", uri, "method", method)
+        .register(meterRegistry)
+        .record(statistics.getRowCount());
+    Timer.builder("mood.sql.request.time")
+        .description("JDBC time spent per HTTP request")
+        .tags("uri", uri, "method", method)
+        .register(meterRegistry)
+        .record(statistics.getJdbcTimeNanos(), TimeUnit.NANOSECONDS);
+  }
+}
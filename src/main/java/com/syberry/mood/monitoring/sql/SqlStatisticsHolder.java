@@ -0,0 +1,50 @@
+package com.syberry.mood.monitoring.sql;
+
+import lombok.experimental.UtilityClass;
+
+/**
+ * Binds the SQL statistics of the current HTTP request to the processing thread.
+ */
+@UtilityClass
+public class SqlStatisticsHolder {
+
+  private static final ThreadLocal<SqlStatistics> STATISTICS = new ThreadLocal<>();
+
+  /**
+   * Starts collecting statistics for the current thread.
+   *
+   * @return the statistics bound to the current thread
+   */
+  public static SqlStatistics start() {
+    SqlStatistics statistics = new SqlStatistics();
+    STATISTICS.set(statistics);
+    return statistics;
+  }
+
+  /**
+   * Returns the statistics bound to the current thread.
+   *
+   * @return the statistics or null if the thread does not process an HTTP request
+   */
+  public static SqlStatistics get() {
+    return STATISTICS.get();
+  }
+
+  /**
+   * Registers one chunk of input processed by the handler of the current request,
+   * which raises the statement budget by the per chunk bound of the handler.
+   */
+  public static void recordChunk() {
+    SqlStatistics statistics = STATISTICS.get();
+    if (statistics != null) {
+      statistics.recordChunk();
+    }
+  }
+
+  /**
+   * Stops collecting statistics for the current thread.
+   */
+  public static void clear() {
+    STATISTICS.remove();
+  }
+}
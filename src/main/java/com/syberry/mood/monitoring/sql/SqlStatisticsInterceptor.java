@@ -0,0 +1,154 @@
+package com.syberry.mood.monitoring.sql;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Collects SQL statistics per controller method and checks them against
+ * the declared {@link SqlStatementBudget}. The check runs after the handler completed,
+ * so it also covers the handlers that write the response themselves or start async processing,
+ * whose bodies never pass the {@link SqlStatisticsResponseAdvice}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SqlStatisticsInterceptor implements AsyncHandlerInterceptor {
+
+  static final String BUDGET_EXCEEDED_ATTRIBUTE =
+      SqlStatisticsInterceptor.class.getName() + ".BUDGET_EXCEEDED";
+  static final String BUDGET_REJECTED_ATTRIBUTE =
+      SqlStatisticsInterceptor.class.getName() + ".BUDGET_REJECTED";
+  private static final String START_ATTRIBUTE = SqlStatisticsInterceptor.class.getName() + ".START";
+
+  private final MeterRegistry meterRegistry;
+
+  /**
+   * Remembers the request statistics at the moment the handler is invoked.
+   *
+   * @param request http request
+   * @param response http response
+   * @param handler chosen handler to execute
+   * @return always true
+   */
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    SqlStatistics statistics = SqlStatisticsHolder.get();
+    if (handler instanceof HandlerMethod && statistics != null) {
+      request.setAttribute(START_ATTRIBUTE, statistics.snapshot());
+    }
+    return true;
+  }
+
+  /**
+   * Records the statistics of the handler that started async processing, such as a server-sent
+   * events subscription, the statements of the async part are not bound to the request thread.
+   *
+   * @param request http request
+   * @param response http response
+   * @param handler the executed handler
+   */
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    afterCompletion(request, response, handler, null);
+  }
+
+  /**
+   * Records the statistics of the completed handler and logs budget violations.
+   * A violation the response advice has not rejected already is left as a request attribute
+   * for the {@link SqlStatisticsFilter}, as the response may be committed at this point.
+   *
+   * @param request http request
+   * @param response http response
+   * @param handler the executed handler
+   * @param ex exception thrown on handler execution, if any
+   */
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response,
+      Object handler, Exception ex) {
+    SqlStatistics statistics = getHandlerStatistics(request);
+    if (!(handler instanceof HandlerMethod) || statistics == null) {
+      return;
+    }
+    HandlerMethod handlerMethod = (HandlerMethod) handler;
+    String handlerName = handlerMethod.getBeanType().getSimpleName()
+        + "." + handlerMethod.getMethod().getName();
+    DistributionSummary.builder("mood.sql.handler.statements")
+        .description("SQL statements executed per controller method invocation")
+        .tag("handler", handlerName)
+        .register(meterRegistry)
+        .record(statistics.getStatementCount());
+    DistributionSummary.builder("mood.sql.handler.rows")
+        .description("Rows fetched per controller method invocation")
+        .tag("handler", handlerName)
+        .register(meterRegistry)
+        .record(statistics.getRowCount());
+    Timer.builder("mood.sql.handler.time")
+        .description("JDBC time spent per controller method invocation")
+        .tag("handler", handlerName)
+        .register(meterRegistry)
+        .record(statistics.getJdbcTimeNanos(), TimeUnit.NANOSECONDS);
+    Long budget = findBudget(handlerMethod.getMethod(), handlerMethod.getBeanType(), statistics);
+    log.debug("{} executed {} SQL statements fetching {} rows in {} us", handlerName,
+        statistics.getStatementCount(), statistics.getRowCount(), statistics.getJdbcTimeMicros());
+    if (budget != null && statistics.getStatementCount() > budget) {
+      log.warn("{} executed {} SQL statements, budget is {}",
+          handlerName, statistics.getStatementCount(), budget);
+      meterRegistry.counter("mood.sql.budget.exceeded", "handler", handlerName).increment();
+      if (request.getAttribute(BUDGET_REJECTED_ATTRIBUTE) == null) {
+        request.setAttribute(BUDGET_EXCEEDED_ATTRIBUTE, String.format(
+            "%s executed %d SQL statements, budget is %d",
+            handlerMethod.getMethod().getName(), statistics.getStatementCount(), budget));
+      }
+    }
+  }
+
+  /**
+   * Returns the statistics collected since the handler of the request was invoked.
+   *
+   * @param request http request
+   * @return the statistics or null if the request is not handled by a controller method
+   */
+  static SqlStatistics getHandlerStatistics(HttpServletRequest request) {
+    SqlStatistics statistics = SqlStatisticsHolder.get();
+    Object start = request.getAttribute(START_ATTRIBUTE);
+    if (statistics == null || !(start instanceof SqlStatistics)) {
+      return null;
+    }
+    return statistics.since((SqlStatistics) start);
+  }
+
+  /**
+   * Finds the statement budget declared on the method or its controller
+   * and adds the per chunk bound for the chunks the handler has processed.
+   *
+   * @param method the handler method
+   * @param controllerType the controller class
+   * @param statistics the statistics of the handler, if collected
+   * @return the budget or null if none is declared
+   */
+  static Long findBudget(Method method, Class<?> controllerType, SqlStatistics statistics) {
+    SqlStatementBudget budget = method == null ? null
+        : AnnotatedElementUtils.findMergedAnnotation(method, SqlStatementBudget.class);
+    if (budget == null) {
+      budget = AnnotatedElementUtils.findMergedAnnotation(controllerType, SqlStatementBudget.class);
+    }
+    if (budget == null) {
+      return null;
+    }
+    long chunkCount = statistics == null ? 0 : statistics.getChunkCount();
+    return budget.value() + budget.perChunk() * chunkCount;
+  }
+}
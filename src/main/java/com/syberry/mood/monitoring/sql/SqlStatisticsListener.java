@@ -0,0 +1,48 @@
+package com.syberry.mood.monitoring.sql;
+
+import java.sql.ResultSet;
+import java.util.List;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * Datasource proxy listener that feeds executed statements and fetched rows
+ * into the statistics of the current HTTP request.
+ */
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+  private static final String START_NANOS = "startNanos";
+  private static final String NEXT_METHOD = "next";
+
+  @Override
+  public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    execInfo.addCustomValue(START_NANOS, System.nanoTime());
+  }
+
+  @Override
+  public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    SqlStatistics statistics = SqlStatisticsHolder.get();
+    Long startNanos = execInfo.getCustomValue(START_NANOS, Long.class);
+    if (statistics != null && startNanos != null) {
+      statistics.recordStatement(System.nanoTime() - startNanos);
+    }
+  }
+
+  @Override
+  public void beforeMethod(MethodExecutionContext executionContext) {
+  }
+
+  @Override
+  public void afterMethod(MethodExecutionContext executionContext) {
+    SqlStatistics statistics = SqlStatisticsHolder.get();
+    if (statistics != null
+        && executionContext.getTarget() instanceof ResultSet
+        && NEXT_METHOD.equals(executionContext.getMethod().getName())
+        && Boolean.TRUE.equals(executionContext.getResult())) {
+      statistics.recordRow();
+    }
+  }
+}
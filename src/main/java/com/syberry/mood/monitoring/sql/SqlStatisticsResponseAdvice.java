@@ -0,0 +1,80 @@
+package com.syberry.mood.monitoring.sql;
+
+import com.syberry.mood.exception.SqlStatementBudgetExceededException;
+import javax.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Exposes the SQL statistics of the request as debug response headers and,
+ * when configured, rejects responses of handlers that exceeded their statement budget.
+ */
+@RestControllerAdvice
+public class SqlStatisticsResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+  public static final String ROW_COUNT_HEADER = "X-Sql-Row-Count";
+  public static final String JDBC_TIME_HEADER = "X-Sql-Time-Micros";
+  public static final String STATEMENT_BUDGET_HEADER = "X-Sql-Statement-Budget";
+
+  @Value("${app.sql-statistics.header-enabled:false}")
+  private boolean headerEnabled;
+  @Value("${app.sql-statistics.fail-on-budget-exceeded:false}")
+  private boolean failOnBudgetExceeded;
+
+  @Override
+  public boolean supports(
+      MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return headerEnabled || failOnBudgetExceeded;
+  }
+
+  /**
+   * Adds the debug headers and checks the statement budget before the body is written.
+   *
+   * @param body the body to be written
+   * @param returnType the return type of the handler method
+   * @param contentType the content type selected through content negotiation
+   * @param converterType the converter type selected to write to the response
+   * @param request the current request
+   * @param response the current response
+   * @return the body unchanged
+   */
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType contentType,
+      Class<? extends HttpMessageConverter<?>> converterType,
+      ServerHttpRequest request, ServerHttpResponse response) {
+    SqlStatistics statistics = SqlStatisticsHolder.get();
+    if (statistics == null || !(request instanceof ServletServerHttpRequest)) {
+      return body;
+    }
+    HttpServletRequest servletRequest = ((ServletServerHttpRequest) request).getServletRequest();
+    SqlStatistics handlerStatistics = SqlStatisticsInterceptor.getHandlerStatistics(servletRequest);
+    Long budget = SqlStatisticsInterceptor.findBudget(
+        returnType.getMethod(), returnType.getContainingClass(), handlerStatistics);
+    if (headerEnabled) {
+      HttpHeaders headers = response.getHeaders();
+      headers.set(STATEMENT_COUNT_HEADER, String.valueOf(statistics.getStatementCount()));
+      headers.set(ROW_COUNT_HEADER, String.valueOf(statistics.getRowCount()));
+      headers.set(JDBC_TIME_HEADER, String.valueOf(statistics.getJdbcTimeMicros()));
+      if (budget != null) {
+        headers.set(STATEMENT_BUDGET_HEADER, String.valueOf(budget));
+      }
+    }
+    if (failOnBudgetExceeded && budget != null && handlerStatistics != null
+        && handlerStatistics.getStatementCount() > budget) {
+      servletRequest.setAttribute(SqlStatisticsInterceptor.BUDGET_REJECTED_ATTRIBUTE, true);
+      throw new SqlStatementBudgetExceededException(String.format(
+          "%s executed %d SQL statements, budget is %d", returnType.getMethod().getName(),
+          handlerStatistics.getStatementCount(), budget));
+    }
+    return body;
+  }
+}
@@ -0,0 +1,30 @@
+package com.syberry.mood.sharding;
+
+/**
+ * The ways the results of a repository method called on every shard are combined.
+ */
+public enum Aggregation {
+
+  /**
+   * Concatenates the lists or the streams.
+   */
+  CONCAT,
+  /**
+   * Adds up the numbers.
+   */
+  SUM,
+  /**
+   * Returns true if any of the shards returns true.
+   */
+  ANY,
+  /**
+   * Returns the first present result. When the thread is in a transaction not bound to a shard
+   * yet, the transaction is bound to the shard of the result and the call is repeated in it,
+   * so the returned entity is managed.
+   */
+  FIRST,
+  /**
+   * Returns the least of the non-null results.
+   */
+  MIN
+}
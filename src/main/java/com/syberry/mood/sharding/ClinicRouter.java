@@ -0,0 +1,39 @@
+package com.syberry.mood.sharding;
+
+import com.syberry.mood.exception.AccessException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes the current transaction to the shard of a clinic, so the users created in it are
+ * stored on the shard of their clinic. Does nothing unless sharding is enabled.
+ */
+@Component
+@RequiredArgsConstructor
+public class ClinicRouter {
+
+  private final ObjectProvider<ShardMap> shardMap;
+
+  /**
+   * Binds the current transaction to the shard of the clinic.
+   *
+   * @param clinic the name of the clinic, or null to keep the shard of the current user
+   * @throws com.syberry.mood.exception.ValidationException if the clinic is not assigned
+   *     to a shard
+   * @throws AccessException if the current user works with another shard
+   */
+  public void routeToClinic(String clinic) {
+    ShardMap shards = shardMap.getIfAvailable();
+    if (shards == null || clinic == null) {
+      return;
+    }
+    int shard = shards.shardOfClinic(clinic);
+    Integer current = ShardContext.current();
+    if (current != null && current != shard) {
+      throw new AccessException(String.format(
+          "Clinic %s is not on the shard of the current user", clinic));
+    }
+    ShardContext.bind(shard);
+  }
+}
@@ -0,0 +1,34 @@
+package com.syberry.mood.sharding;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a repository method called on every shard when the thread works with all shards.
+ * Every shard is queried in its own transaction and the results are combined by the
+ * aggregation. The streams are read within the transaction of the shard.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ScatterGather {
+
+  /**
+   * Returns the way the results of the shards are combined.
+   *
+   * @return the aggregation
+   */
+  Aggregation value();
+
+  /**
+   * Returns the properties the concatenated results are ordered by, ascending. Without them
+   * the results are ordered by the {@link org.springframework.data.domain.Sort} argument,
+   * if any, or kept in the order of the shards.
+   *
+   * @return the property paths
+   */
+  String[] orderBy() default {};
+}
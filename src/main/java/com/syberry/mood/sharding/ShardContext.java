@@ -0,0 +1,172 @@
+package com.syberry.mood.sharding;
+
+import com.syberry.mood.authorization.security.UserDetailsImpl;
+import com.syberry.mood.user.dto.RoleName;
+import java.util.function.Supplier;
+import lombok.experimental.UtilityClass;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The shard the current thread works with. It is, in this order, the shard set for the current
+ * call, the shard the current transaction is bound to and the shard of the authenticated user.
+ * The ids of every shard are allocated from its own range, so the shard of a user or a record
+ * follows from its id, and a user works with the shard holding them, the one of their clinic.
+ * A super administrator has no shard, like the threads without a user, and reaches all shards
+ * through the repository methods annotated with {@link ScatterGather} and {@link ShardKey}.
+ */
+@UtilityClass
+public class ShardContext {
+
+  /**
+   * The number of the low bits of an id numbering the rows within a shard.
+   */
+  public static final int ID_BITS = 40;
+
+  private static final ThreadLocal<Integer> CALL_SHARD = new ThreadLocal<>();
+  private static final Object TRANSACTION_SHARD = new Object();
+  private static final SimpleGrantedAuthority SUPER_ADMIN =
+      new SimpleGrantedAuthority("ROLE_" + RoleName.SUPER_ADMIN.name());
+  private static volatile int shardCount = 1;
+
+  /**
+   * Returns the shard of the id of a user or a record.
+   *
+   * @param id the id
+   * @return the index of the shard
+   */
+  public static int shardOf(long id) {
+    return (int) (id >>> ID_BITS);
+  }
+
+  /**
+   * Returns the number of the shards.
+   *
+   * @return the number of the shards, 1 if the data is not sharded
+   */
+  public static int shardCount() {
+    return shardCount;
+  }
+
+  /**
+   * Returns the shard the current thread works with.
+   *
+   * @return the index of the shard, or null if the thread works with all shards
+   */
+  public static Integer current() {
+    Integer shard = CALL_SHARD.get();
+    if (shard == null) {
+      shard = bound();
+    }
+    return shard != null ? shard : userShard();
+  }
+
+  /**
+   * Checks whether the row of the id is on the shard the current thread works with.
+   *
+   * @param id the id of a user or a record
+   * @return true if the thread works with all shards or with the shard of the id
+   */
+  public static boolean isVisible(Long id) {
+    Integer shard = current();
+    return shard == null || shardOf(id) == shard;
+  }
+
+  /**
+   * Calls the supplier with the statements routed to the shard.
+   *
+   * @param shard the index of the shard
+   * @param call the call to make
+   * @param <T> the type of the result
+   * @return the result of the call
+   */
+  public static <T> T callOn(int shard, Supplier<T> call) {
+    Integer previous = enter(shard);
+    try {
+      return call.get();
+    } finally {
+      restore(previous);
+    }
+  }
+
+  /**
+   * Binds the current transaction to the shard, so all its statements are routed to it.
+   * Outside of a transaction nothing is bound.
+   *
+   * @param shard the index of the shard
+   * @throws IllegalStateException if the transaction is bound to another shard
+   */
+  public static void bind(int shard) {
+    Integer bound = bound();
+    if (bound != null) {
+      if (bound != shard) {
+        throw new IllegalStateException(String.format(
+            "The transaction on shard %s cannot reach shard %s", bound, shard));
+      }
+      return;
+    }
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      return;
+    }
+    TransactionSynchronizationManager.bindResource(TRANSACTION_SHARD, shard);
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        TransactionSynchronizationManager.unbindResourceIfPossible(TRANSACTION_SHARD);
+      }
+    });
+  }
+
+  /**
+   * Returns the shard the current transaction is bound to.
+   *
+   * @return the index of the shard, or null if the transaction is not bound to one
+   */
+  public static Integer bound() {
+    return (Integer) TransactionSynchronizationManager.getResource(TRANSACTION_SHARD);
+  }
+
+  /**
+   * Checks whether the shard is set for the current call or follows from the authenticated
+   * user, i.e. the repository calls are not routed by their arguments.
+   *
+   * @return true if the statements of the thread go to a given shard
+   */
+  static boolean isScoped() {
+    return CALL_SHARD.get() != null || userShard() != null;
+  }
+
+  static Integer enter(int shard) {
+    Integer previous = CALL_SHARD.get();
+    CALL_SHARD.set(shard);
+    return previous;
+  }
+
+  static void restore(Integer previous) {
+    if (previous == null) {
+      CALL_SHARD.remove();
+    } else {
+      CALL_SHARD.set(previous);
+    }
+  }
+
+  static void setShardCount(int count) {
+    shardCount = count;
+  }
+
+  private static Integer userShard() {
+    if (shardCount == 1) {
+      return null;
+    }
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    if (authentication == null
+        || !(authentication.getPrincipal() instanceof UserDetailsImpl userDetails)
+        || userDetails.getAuthorities().contains(SUPER_ADMIN)) {
+      return null;
+    }
+    return shardOf(userDetails.getId());
+  }
+}
@@ -0,0 +1,106 @@
+package com.syberry.mood.sharding;
+
+import com.syberry.mood.exception.ValidationException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * The shards with their data sources and the clinics assigned to them. The shard of index 0
+ * is the default one, it holds the super administrators and the clinics assigned to no shard.
+ */
+public class ShardMap implements Closeable {
+
+  /**
+   * The name of the default shard.
+   */
+  public static final String DEFAULT_SHARD = "default";
+
+  private final List<String> names;
+  private final List<DataSource> dataSources;
+  private final Map<String, Integer> clinics = new HashMap<>();
+
+  /**
+   * Creates the map of the shards.
+   *
+   * @param names the names of the shards, the default one first
+   * @param dataSources the data sources of the shards in the same order
+   * @param clinics the names of the shards by clinic
+   * @throws IllegalArgumentException if a shard name repeats or a clinic is assigned to
+   *     an unknown shard
+   */
+  public ShardMap(List<String> names, List<DataSource> dataSources,
+                  Map<String, String> clinics) {
+    if (names.stream().distinct().count() != names.size()) {
+      throw new IllegalArgumentException("The shard names must be unique: " + names);
+    }
+    this.names = List.copyOf(names);
+    this.dataSources = List.copyOf(dataSources);
+    clinics.forEach((clinic, shard) -> {
+      int index = names.indexOf(shard);
+      if (index < 0) {
+        throw new IllegalArgumentException(String.format(
+            "Clinic %s is assigned to unknown shard %s", clinic, shard));
+      }
+      this.clinics.put(clinic, index);
+    });
+    ShardContext.setShardCount(names.size());
+  }
+
+  /**
+   * Returns the number of the shards.
+   *
+   * @return the number of the shards
+   */
+  public int size() {
+    return names.size();
+  }
+
+  /**
+   * Returns the name of the shard.
+   *
+   * @param shard the index of the shard
+   * @return the name of the shard
+   */
+  public String name(int shard) {
+    return names.get(shard);
+  }
+
+  /**
+   * Returns the data source of the shard.
+   *
+   * @param shard the index of the shard
+   * @return the data source connecting to the shard
+   */
+  public DataSource dataSource(int shard) {
+    return dataSources.get(shard);
+  }
+
+  /**
+   * Returns the shard of the clinic.
+   *
+   * @param clinic the name of the clinic
+   * @return the index of the shard
+   * @throws ValidationException if the clinic is not assigned to a shard
+   */
+  public int shardOfClinic(String clinic) {
+    Integer shard = clinics.get(clinic);
+    if (shard == null) {
+      throw new ValidationException(String.format("Clinic %s is not assigned to a shard", clinic));
+    }
+    return shard;
+  }
+
+  @Override
+  public void close() throws IOException {
+    ShardContext.setShardCount(1);
+    for (DataSource dataSource : dataSources) {
+      if (dataSource instanceof Closeable closeable) {
+        closeable.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,49 @@
+package com.syberry.mood.sharding;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * A data source sending the statements to the shard the current thread works with,
+ * see {@link ShardContext}, and to the default shard if it works with all of them.
+ * The physical connection is fetched lazily on the first statement, so a transaction is routed
+ * by the shard known at that point, and the transaction is bound to it for its other statements.
+ */
+public class ShardRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+  /**
+   * Creates the data source routing between the shards.
+   *
+   * @param shardMap the shards
+   */
+  public ShardRoutingDataSource(ShardMap shardMap) {
+    Map<Object, Object> targets = new HashMap<>();
+    for (int shard = 0; shard < shardMap.size(); shard++) {
+      targets.put(shard, shardMap.dataSource(shard));
+    }
+    Router router = new Router();
+    router.setTargetDataSources(targets);
+    router.setDefaultTargetDataSource(shardMap.dataSource(0));
+    router.afterPropertiesSet();
+    setTargetDataSource(router);
+  }
+
+  private static int determineShard() {
+    Integer current = ShardContext.current();
+    int shard = current != null ? current : 0;
+    if (ShardContext.bound() == null) {
+      ShardContext.bind(shard);
+    }
+    return shard;
+  }
+
+  private static class Router extends AbstractRoutingDataSource {
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+      return determineShard();
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package com.syberry.mood.sharding;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Routes the calls of the repository methods made by a thread working with all shards.
+ * The methods annotated with {@link ScatterGather} are called on every shard, the ones with
+ * a {@link ShardKey} parameter on the shard of its id, and the other ones go to the shard
+ * the transaction is bound to or the default one. The calls of the threads working with
+ * a given shard are passed through.
+ */
+@RequiredArgsConstructor
+public class ShardRoutingInterceptor implements MethodInterceptor {
+
+  private final Class<?> repositoryInterface;
+  private final ObjectProvider<ShardMap> shardMap;
+  private final ObjectProvider<PlatformTransactionManager> transactionManager;
+
+  @Override
+  public Object invoke(MethodInvocation invocation) throws Throwable {
+    if (ShardContext.isScoped()) {
+      return invocation.proceed();
+    }
+    Method method = declaredMethod(invocation.getMethod());
+    ScatterGather scatterGather = method.getAnnotation(ScatterGather.class);
+    if (scatterGather != null) {
+      return scatterGather(invocation, method, scatterGather);
+    }
+    Integer shard = shardKey(method, invocation.getArguments());
+    if (shard != null) {
+      ShardContext.bind(shard);
+      return proceedOn(shard, invocation);
+    }
+    return invocation.proceed();
+  }
+
+  private Object scatterGather(MethodInvocation invocation, Method method,
+                               ScatterGather scatterGather) throws Throwable {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager.getObject());
+    transaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    transaction.setReadOnly(!method.isAnnotationPresent(Modifying.class));
+    List<Object> results = new ArrayList<>();
+    ShardMap shards = shardMap.getObject();
+    for (int shard = 0; shard < shards.size(); shard++) {
+      MethodInvocation call = ((ProxyMethodInvocation) invocation).invocableClone();
+      Object result = ShardContext.callOn(shard,
+          () -> transaction.execute(status -> materialize(proceed(call))));
+      if (scatterGather.value() == Aggregation.FIRST && isPresent(result)) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+            && ShardContext.bound() == null) {
+          ShardContext.bind(shard);
+          return proceedOn(shard, invocation);
+        }
+        return result;
+      }
+      results.add(result);
+    }
+    return gather(method, scatterGather, invocation.getArguments(), results);
+  }
+
+  private static Object gather(Method method, ScatterGather scatterGather, Object[] arguments,
+                               List<Object> results) {
+    Class<?> type = method.getReturnType();
+    switch (scatterGather.value()) {
+      case CONCAT -> {
+        List<Object> values = new ArrayList<>();
+        results.forEach(result -> values.addAll((Collection<?>) result));
+        Sort sort = scatterGather.orderBy().length > 0 ? Sort.by(scatterGather.orderBy())
+            : Stream.of(arguments).filter(Sort.class::isInstance).map(Sort.class::cast)
+                .findFirst().orElse(Sort.unsorted());
+        List<Object> ordered = sort.isSorted() ? sort(values, sort) : values;
+        return Stream.class.isAssignableFrom(type) ? ordered.stream() : ordered;
+      }
+      case SUM -> {
+        long sum = results.stream().mapToLong(result -> ((Number) result).longValue()).sum();
+        return type == int.class || type == Integer.class ? Math.toIntExact(sum) : sum;
+      }
+      case ANY -> {
+        return results.contains(Boolean.TRUE);
+      }
+      case MIN -> {
+        return results.stream()
+            .filter(result -> result != null)
+            .min(Comparator.comparing(ShardRoutingInterceptor::comparable))
+            .orElse(null);
+      }
+      default -> {
+        return results.get(0);
+      }
+    }
+  }
+
+  private static List<Object> sort(List<Object> values, Sort sort) {
+    List<Sort.Order> orders = sort.toList();
+    List<Keyed> keyed = new ArrayList<>(values.size());
+    for (Object value : values) {
+      BeanWrapperImpl wrapper = new BeanWrapperImpl(value);
+      Comparable<Object>[] keys = orders.stream()
+          .map(order -> comparable(wrapper.getPropertyValue(order.getProperty())))
+          .toArray(Comparable[]::new);
+      keyed.add(new Keyed(keys, value));
+    }
+    Comparator<Keyed> comparator = (left, right) -> 0;
+    for (int i = 0; i < orders.size(); i++) {
+      int index = i;
+      Comparator<Keyed> byKey = Comparator.comparing(key -> key.keys()[index],
+          Comparator.nullsFirst(Comparator.naturalOrder()));
+      comparator = comparator.thenComparing(
+          orders.get(i).isAscending() ? byKey : byKey.reversed());
+    }
+    // the results of every shard are ordered already, so the sort merges the runs
+    keyed.sort(comparator);
+    return keyed.stream().map(Keyed::value).toList();
+  }
+
+  private Method declaredMethod(Method method) {
+    Method declared = ReflectionUtils.findMethod(repositoryInterface, method.getName(),
+        method.getParameterTypes());
+    return declared != null ? declared : method;
+  }
+
+  private static Integer shardKey(Method method, Object[] arguments) {
+    Annotation[][] annotations = method.getParameterAnnotations();
+    for (int i = 0; i < annotations.length; i++) {
+      for (Annotation annotation : annotations[i]) {
+        if (annotation instanceof ShardKey && arguments[i] instanceof Long id) {
+          return ShardContext.shardOf(id);
+        }
+      }
+    }
+    return null;
+  }
+
+  private static Object proceedOn(int shard, MethodInvocation invocation) throws Throwable {
+    Integer previous = ShardContext.enter(shard);
+    try {
+      return invocation.proceed();
+    } finally {
+      ShardContext.restore(previous);
+    }
+  }
+
+  private static Object proceed(MethodInvocation invocation) {
+    try {
+      return invocation.proceed();
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new UndeclaredThrowableException(e);
+    }
+  }
+
+  private static Object materialize(Object result) {
+    if (result instanceof Stream<?> stream) {
+      try (stream) {
+        return stream.toList();
+      }
+    }
+    return result;
+  }
+
+  private static boolean isPresent(Object result) {
+    if (result instanceof Optional<?> optional) {
+      return optional.isPresent();
+    }
+    if (result instanceof Collection<?> collection) {
+      return !collection.isEmpty();
+    }
+    return result != null && !Boolean.FALSE.equals(result);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Comparable<Object> comparable(Object value) {
+    return (Comparable<Object>) value;
+  }
+
+  private record Keyed(Comparable<Object>[] keys, Object value) {
+  }
+}
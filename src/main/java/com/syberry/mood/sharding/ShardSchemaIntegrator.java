@@ -0,0 +1,134 @@
+package com.syberry.mood.sharding;
+
+import com.syberry.mood.emotion.record.migration.PartitionedTableIntegrator;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.PersistentClass;
+import org.hibernate.mapping.RootClass;
+import org.hibernate.mapping.SimpleValue;
+import org.hibernate.mapping.Value;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaUpdate;
+import org.hibernate.tool.schema.TargetType;
+
+/**
+ * Updates the schema of the shards besides the default one, whose schema is managed by
+ * Hibernate as configured, while the session factory is built. The roles are seeded with the ids
+ * data.sql gives them on the default shard, and the identities of the entity tables are moved to
+ * the id range of the shard, so a shard has to be empty when it is added.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ShardSchemaIntegrator implements Integrator {
+
+  private static final String IDENTITY = "identity";
+
+  private final ShardMap shardMap;
+
+  @Override
+  public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                        SessionFactoryServiceRegistry serviceRegistry) {
+    Dialect dialect = sessionFactory.getJdbcServices().getDialect();
+    PartitionedTableIntegrator.disableForeignKeys(metadata, dialect);
+    for (int shard = 1; shard < shardMap.size(); shard++) {
+      ShardContext.callOn(shard, () -> {
+        new SchemaUpdate()
+            .setHaltOnError(true)
+            .execute(EnumSet.of(TargetType.DATABASE), metadata, serviceRegistry);
+        return null;
+      });
+      try (Connection connection = shardMap.dataSource(shard).getConnection()) {
+        seedRoles(connection, metadata, dialect);
+        for (PersistentClass entity : metadata.getEntityBindings()) {
+          if (entity instanceof RootClass && entity.getIdentifier() instanceof SimpleValue id
+              && IDENTITY.equals(id.getIdentifierGeneratorStrategy())) {
+            moveIdentity(connection, dialect, entity, shard);
+          }
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException("Failed to initialize shard " + shardMap.name(shard), e);
+      }
+      log.info("Initialized the schema of shard {}", shardMap.name(shard));
+    }
+  }
+
+  @Override
+  public void disintegrate(SessionFactoryImplementor sessionFactory,
+                           SessionFactoryServiceRegistry serviceRegistry) {
+  }
+
+  private static void seedRoles(Connection connection, Metadata metadata, Dialect dialect)
+      throws SQLException {
+    PersistentClass role = metadata.getEntityBinding(Role.class.getName());
+    String table = role.getTable().getQuotedName(dialect);
+    if (queryLong(connection, "SELECT COUNT(*) FROM " + table) > 0) {
+      return;
+    }
+    try (PreparedStatement statement = connection.prepareStatement(String.format(
+        "INSERT INTO %s (%s, %s) VALUES (?, ?)", table,
+        column(role.getIdentifier(), dialect),
+        column(role.getProperty("roleName").getValue(), dialect)))) {
+      for (RoleName roleName : RoleName.values()) {
+        statement.setLong(1, roleName.ordinal() + 1L);
+        statement.setString(2, roleName.name());
+        statement.addBatch();
+      }
+      statement.executeBatch();
+    }
+  }
+
+  private void moveIdentity(Connection connection, Dialect dialect, PersistentClass entity,
+                            int shard) throws SQLException {
+    String table = entity.getTable().getQuotedName(dialect);
+    String id = column(entity.getIdentifier(), dialect);
+    long first = (long) shard << ShardContext.ID_BITS;
+    long max = queryLong(connection, String.format("SELECT COALESCE(MAX(%s), 0) FROM %s", id,
+        table));
+    if (max >= first) {
+      return;
+    }
+    if (max > 0 && entity.getMappedClass() != Role.class) {
+      throw new IllegalStateException(String.format(
+          "Table %s of shard %s has ids outside of the range of the shard", table,
+          shardMap.name(shard)));
+    }
+    String sql;
+    if (dialect instanceof H2Dialect) {
+      sql = String.format("ALTER TABLE %s ALTER COLUMN %s RESTART WITH %d", table, id, first);
+    } else if (dialect instanceof MySQLDialect) {
+      sql = String.format("ALTER TABLE %s AUTO_INCREMENT = %d", table, first);
+    } else {
+      throw new IllegalStateException("Sharding does not support " + dialect);
+    }
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private static String column(Value value, Dialect dialect) {
+    return ((Column) value.getColumnIterator().next()).getQuotedName(dialect);
+  }
+
+  private static long queryLong(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement();
+         ResultSet resultSet = statement.executeQuery(sql)) {
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
+}
@@ -0,0 +1,133 @@
+package com.syberry.mood.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.repository.core.support.RepositoryFactoryBeanSupport;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Configuration of the clinic shards. It is active only when sharding is enabled, otherwise
+ * the auto-configured data source is the only database. The read replica is not supported
+ * together with the shards, both define the data source.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+  /**
+   * Defines the properties of the shards.
+   *
+   * @return the properties bound from app.sharding
+   */
+  @Bean
+  @ConfigurationProperties("app.sharding")
+  public ShardingProperties shardingProperties() {
+    return new ShardingProperties();
+  }
+
+  /**
+   * Defines the map of the shards with their connection pools. The shards use the driver
+   * and, unless overridden, the credentials of the default shard.
+   *
+   * @param properties the properties of the data source of the default shard
+   * @param sharding the properties of the other shards
+   * @return the map of the shards
+   */
+  @Bean
+  public ShardMap shardMap(DataSourceProperties properties, ShardingProperties sharding) {
+    List<String> names = new ArrayList<>(List.of(ShardMap.DEFAULT_SHARD));
+    List<DataSource> dataSources = new ArrayList<>();
+    HikariDataSource defaultShard = properties.initializeDataSourceBuilder()
+        .type(HikariDataSource.class)
+        .build();
+    defaultShard.setPoolName(ShardMap.DEFAULT_SHARD);
+    dataSources.add(defaultShard);
+    for (ShardingProperties.Shard shard : sharding.getShards()) {
+      HikariDataSource dataSource = DataSourceBuilder.create()
+          .type(HikariDataSource.class)
+          .driverClassName(properties.determineDriverClassName())
+          .url(shard.getUrl())
+          .username(shard.getUsername() != null
+              ? shard.getUsername() : properties.determineUsername())
+          .password(shard.getPassword() != null
+              ? shard.getPassword() : properties.determinePassword())
+          .build();
+      dataSource.setPoolName(shard.getName());
+      names.add(shard.getName());
+      dataSources.add(dataSource);
+    }
+    return new ShardMap(names, dataSources, sharding.getClinics());
+  }
+
+  /**
+   * Defines the data source routing the statements to the shards.
+   *
+   * @param shardMap the shards
+   * @return the routing data source
+   */
+  @Bean
+  public DataSource dataSource(ShardMap shardMap) {
+    return new ShardRoutingDataSource(shardMap);
+  }
+
+  /**
+   * Registers the integrator updating the schema of the shards and disables the query cache,
+   * whose results are not kept per shard. The entity cache is kept, the ids are unique
+   * across the shards. The connection is released after every transaction, so the entity
+   * manager kept open for the whole request reaches the shard of each of its transactions.
+   *
+   * @param shardMap the shards
+   * @return the customizer of the Hibernate properties
+   */
+  @Bean
+  public HibernatePropertiesCustomizer shardingHibernatePropertiesCustomizer(ShardMap shardMap) {
+    return properties -> {
+      properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+      properties.put(AvailableSettings.CONNECTION_HANDLING,
+          PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+      properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER,
+          (IntegratorProvider) () -> List.of(new ShardSchemaIntegrator(shardMap)));
+    };
+  }
+
+  /**
+   * Defines a post processor adding the {@link ShardRoutingInterceptor} in front of every
+   * repository.
+   *
+   * @param shardMap the shards
+   * @param transactionManager the transaction manager of the calls made on every shard
+   * @return the bean post processor
+   */
+  @Bean
+  public static BeanPostProcessor shardRoutingRepositoryPostProcessor(
+      ObjectProvider<ShardMap> shardMap,
+      ObjectProvider<PlatformTransactionManager> transactionManager) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessBeforeInitialization(Object bean, String beanName) {
+        if (bean instanceof RepositoryFactoryBeanSupport<?, ?, ?> factoryBean) {
+          factoryBean.addRepositoryFactoryCustomizer(factory ->
+              factory.addRepositoryProxyPostProcessor((proxyFactory, repository) ->
+                  proxyFactory.addAdvice(0, new ShardRoutingInterceptor(
+                      repository.getRepositoryInterface(), shardMap, transactionManager))));
+        }
+        return bean;
+      }
+    };
+  }
+}
@@ -0,0 +1,32 @@
+package com.syberry.mood.sharding;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.Data;
+
+/**
+ * The properties of the shards, bound from app.sharding. The default shard is the data source
+ * of spring.datasource, the other shards are numbered from 1 in the order they are listed,
+ * so the list may only be appended to once the shards hold data.
+ */
+@Data
+public class ShardingProperties {
+
+  private boolean enabled;
+  private List<Shard> shards = new ArrayList<>();
+  private Map<String, String> clinics = new LinkedHashMap<>();
+
+  /**
+   * The connection properties of a shard besides the default one.
+   */
+  @Data
+  public static class Shard {
+
+    private String name;
+    private String url;
+    private String username;
+    private String password;
+  }
+}
@@ -1,11 +1,18 @@
 package com.syberry.mood.user.controller;
 
+import com.syberry.mood.common.dto.PageDto;
+import com.syberry.mood.monitoring.sql.SqlStatementBudget;
 import com.syberry.mood.user.dto.PatientCreationDto;
 import com.syberry.mood.user.dto.PatientDto;
 import com.syberry.mood.user.service.PatientService;
 import com.syberry.mood.user.util.Constants;
+import com.syberry.mood.version.service.DataVersionService;
+import com.syberry.mood.version.util.ConditionalRequestUtils;
 import java.util.List;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,8 +26,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * A controller for handling patient-related HTTP requests.
@@ -30,23 +39,50 @@ import org.springframework.web.bind.annotation.RestController;
 @Validated
 @Slf4j
 @RequiredArgsConstructor
+@SqlStatementBudget(4)
 @RequestMapping("/patients")
 public class PatientController {
 
   private final PatientService patientService;
+  private final DataVersionService dataVersionService;
 
   /**
    * Returns a list of all patients ordered by id DESC.
    *
-   * @return a list of all patients
+   * @param request the current request
+   * @return a list of all patients, or nothing if the client has the current version
    */
   @GetMapping
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
-  public List<PatientDto> findAllPatients() {
+  public List<PatientDto> findAllPatients(WebRequest request) {
     log.info("GET-request: getting all patients");
+    if (ConditionalRequestUtils.checkNotModified(request,
+        dataVersionService.getSettledTag(dataVersionService.getPatientDirectoryTag()))) {
+      return null;
+    }
     return patientService.findAllPatients();
   }
 
+  /**
+   * Returns one page of the patients whose superhero name starts with the query
+   * or is within one typo of it, ignoring case.
+   *
+   * @param q    the beginning or the misspelled superhero name
+   * @param page the zero-based page number
+   * @param size the page size
+   * @return the page of matching patients
+   */
+  @GetMapping("/search")
+  @SqlStatementBudget(0)
+  @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN', 'MODERATOR')")
+  public PageDto<PatientDto> searchPatients(@RequestParam @NotBlank String q,
+                                            @RequestParam(defaultValue = "0") @Min(0) int page,
+                                            @RequestParam(defaultValue = "20") @Min(1) @Max(100)
+                                            int size) {
+    log.info("GET-request: searching patients, page: {}", page);
+    return patientService.searchPatients(q, page, size);
+  }
+
   /**
    * Returns the patient with the specified ID.
    *
@@ -80,6 +116,7 @@ public class PatientController {
    */
   @PostMapping
   @ResponseStatus(HttpStatus.CREATED)
+  @SqlStatementBudget(5)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
   public PatientDto createPatient(@Valid @RequestBody PatientCreationDto dto) {
     log.info("POST-request: creating new patient");
@@ -94,6 +131,7 @@ public class PatientController {
    * @return the updated patient
    */
   @PutMapping("/{id}")
+  @SqlStatementBudget(5)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
   public PatientDto updatePatientHeroNameById(@PathVariable("id") Long id,
                                        @Pattern(regexp = Constants.SUPERHERO_NAME_REGEX,
@@ -110,6 +148,7 @@ public class PatientController {
    * @return the updated patient
    */
   @PutMapping("/{id}/disabled")
+  @SqlStatementBudget(5)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
   public PatientDto disablePatientById(@PathVariable("id") Long id) {
     log.info("PUT-request: reverse is patient disabled for patient with id: {}", id);
@@ -123,6 +162,7 @@ public class PatientController {
    * @param password the new password of the patient
    */
   @PutMapping("/{id}/new-password")
+  @SqlStatementBudget(5)
   @ResponseStatus(HttpStatus.NO_CONTENT)
   @PreAuthorize("hasAnyRole('SUPER_ADMIN', 'ADMIN')")
   public void updatePasswordByPatientId(@PathVariable("id") Long id,
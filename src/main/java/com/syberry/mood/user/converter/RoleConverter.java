@@ -34,8 +34,19 @@ public class RoleConverter {
    * @throws InvalidArgumentTypeException if the given role name is invalid.
    */
   public Role convertToEntity(String role) {
+    return convertToEntity(convertToRoleName(role));
+  }
+
+  /**
+   * Converts a role name string to a RoleName.
+   *
+   * @param role the role name string to be converted.
+   * @return the RoleName corresponding to the given role name.
+   * @throws InvalidArgumentTypeException if the given role name is invalid.
+   */
+  public RoleName convertToRoleName(String role) {
     try {
-      return convertToEntity(RoleName.valueOf(role.toUpperCase()));
+      return RoleName.valueOf(role.toUpperCase());
     } catch (IllegalArgumentException e) {
       throw new InvalidArgumentTypeException(
           String.format("Error while converting invalid role: %s. Valid roles: %s",
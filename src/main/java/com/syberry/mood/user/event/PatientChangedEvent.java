@@ -0,0 +1,26 @@
+package com.syberry.mood.user.event;
+
+import com.syberry.mood.user.entity.User;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * An application event published when a patient is created or updated.
+ * Listeners should use {@link org.springframework.transaction.event.TransactionalEventListener}
+ * to react only to committed changes.
+ */
+@Getter
+@RequiredArgsConstructor
+public class PatientChangedEvent {
+
+  private final User patient;
+
+  /**
+   * Returns the ID of the changed patient.
+   *
+   * @return the ID of the patient
+   */
+  public Long getPatientId() {
+    return patient.getId();
+  }
+}
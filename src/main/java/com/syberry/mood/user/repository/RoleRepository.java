@@ -1,10 +1,14 @@
 package com.syberry.mood.user.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import com.syberry.mood.exception.EntityNotFoundException;
 import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.Role;
 import java.util.Optional;
+import javax.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,10 +19,12 @@ public interface RoleRepository extends JpaRepository<Role, Long> {
 
   /**
    * Finds a role by its name.
+   * The result is kept in the query cache.
    *
    * @param roleName the name of the role to find
    * @return an Optional containing the role if it exists, or an empty Optional if it does not
    */
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Optional<Role> findByRoleName(RoleName roleName);
 
   /**
@@ -1,12 +1,19 @@
 package com.syberry.mood.user.repository;
 
 import com.syberry.mood.exception.EntityNotFoundException;
+import com.syberry.mood.sharding.Aggregation;
+import com.syberry.mood.sharding.ScatterGather;
+import com.syberry.mood.sharding.ShardKey;
 import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.User;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import javax.persistence.LockModeType;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -15,6 +22,15 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
 
+  /**
+   * Finds a user by their ID on the shard of the ID.
+   *
+   * @param id the ID of the user to find
+   * @return an Optional containing the user if it exists, or an empty Optional if it does not
+   */
+  @Override
+  Optional<User> findById(@ShardKey Long id);
+
   /**
    * Finds all users with a given role name and sorts them.
    *
@@ -22,6 +38,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
    * @param sort     the sorting criteria to apply
    * @return a list of users with the given role name, sorted as specified
    */
+  @ScatterGather(Aggregation.CONCAT)
   List<User> findByRoleRoleName(RoleName roleName, Sort sort);
 
   /**
@@ -30,6 +47,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
    * @param username the username of the user to find
    * @return an Optional containing the user if it exists, or an empty Optional if it does not
    */
+  @ScatterGather(Aggregation.FIRST)
   Optional<User> findByUsername(String username);
 
   /**
@@ -39,7 +57,39 @@ public interface UserRepository extends JpaRepository<User, Long> {
    * @param roleName the name of the role of the user to find
    * @return an Optional containing the user if it exists, or an empty Optional if it does not
    */
-  Optional<User> findByIdAndRoleRoleName(Long id, RoleName roleName);
+  Optional<User> findByIdAndRoleRoleName(@ShardKey Long id, RoleName roleName);
+
+  /**
+   * Finds the users with the given IDs and the name of their role.
+   *
+   * @param ids      the IDs of the users to find
+   * @param roleName the name of the role of the users to find
+   * @return a list of the found users
+   */
+  @ScatterGather(Aggregation.CONCAT)
+  List<User> findByIdInAndRoleRoleName(Collection<Long> ids, RoleName roleName);
+
+  /**
+   * Finds a user by their ID and locks their row until the transaction completes.
+   * The writes of the emotion records of a patient lock the patient,
+   * so a slot checked to be free stays free until the record is inserted.
+   *
+   * @param id the ID of the user to find
+   * @return an Optional containing the user if it exists, or an empty Optional if it does not
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM User u WHERE u.id = :id")
+  Optional<User> findByIdForUpdate(@ShardKey Long id);
+
+  /**
+   * Finds the users with the given IDs and locks their rows until the transaction completes.
+   *
+   * @param ids the IDs of the users to find
+   * @return a list of the found users
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT u FROM User u WHERE u.id IN :ids")
+  List<User> findAllByIdForUpdate(Collection<Long> ids);
 
   /**
    * Checks if the user with a given role name exists.
@@ -47,14 +97,18 @@ public interface UserRepository extends JpaRepository<User, Long> {
    * @param roleName the name of the role of the user to find
    * @return true if the user with a given role name exists, or false if it does not exist
    */
+  @ScatterGather(Aggregation.ANY)
   boolean existsUserByRoleRoleNameIs(RoleName roleName);
 
   /**
-   * Finds an active user by Username.
+   * Finds an active user by Username. Every authenticated request is checked by this lookup,
+   * so it is never served from the caches local to the instance: a user disabled
+   * through another instance must be rejected at once.
    *
    * @param username the username of the user to find
    * @return an Optional containing the user if it exists, or an empty Optional if it does not
    */
+  @ScatterGather(Aggregation.FIRST)
   Optional<User> findByUsernameAndDisabledFalse(String username);
 
   /**
@@ -78,6 +132,21 @@ public interface UserRepository extends JpaRepository<User, Long> {
         -> new EntityNotFoundException(String.format("Patient with id: %s is not found", id)));
   }
 
+  /**
+   * Finds a patient by their ID, locks their row until the transaction completes
+   * and throws an EntityNotFoundException if they do not exist.
+   *
+   * @param id the ID of the patient to find
+   * @return the patient with the given ID
+   * @throws EntityNotFoundException if the patient does not exist
+   */
+  default User findPatientByIdForUpdate(Long id) {
+    return findByIdForUpdate(id)
+        .filter(user -> user.getRole().getRoleName() == RoleName.USER)
+        .orElseThrow(() -> new EntityNotFoundException(
+            String.format("Patient with id: %s is not found", id)));
+  }
+
   /**
    * Finds a user by their ID and throws an EntityNotFoundException if they do not exist.
    *
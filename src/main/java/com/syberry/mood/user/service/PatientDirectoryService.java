@@ -0,0 +1,48 @@
+package com.syberry.mood.user.service;
+
+import com.syberry.mood.user.entity.User;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service interface for the in-memory directory of the patients.
+ */
+public interface PatientDirectoryService {
+
+  /**
+   * Returns the current snapshot of all patients ordered by id DESC, only the ones of the shard
+   * the current thread works with if sharding is enabled. The snapshot is never modified,
+   * a change of a patient replaces it, so it may be read without locking.
+   * The patients are detached copies without password and role and must not be modified.
+   *
+   * @return the unmodifiable list of all patients
+   */
+  List<User> findAllPatients();
+
+  /**
+   * Searches the patients by superhero name, ignoring case. The patients whose name starts
+   * with the query come first, followed by the patients whose name is within one inserted,
+   * deleted or replaced character of the query, both ordered by name. Only the patients of
+   * the shard the current thread works with are returned.
+   *
+   * @param query the beginning or the misspelled superhero name
+   * @return the matching patients from the current snapshot
+   */
+  List<User> searchPatients(String query);
+
+  /**
+   * Finds the patient with the given superhero name, ignoring case, on any shard,
+   * as the names are unique across the shards.
+   *
+   * @param superheroName the superhero name to find
+   * @return an Optional containing the patient, or an empty Optional if the name is free
+   */
+  Optional<User> findPatientBySuperheroName(String superheroName);
+
+  /**
+   * Replaces the snapshot with the patients read from the database, so the changes
+   * of the patients missed by the change log, like the ones written by other tools,
+   * are caught up with.
+   */
+  void reloadPatients();
+}
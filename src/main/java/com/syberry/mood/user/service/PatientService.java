@@ -1,5 +1,6 @@
 package com.syberry.mood.user.service;
 
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.user.dto.PatientCreationDto;
 import com.syberry.mood.user.dto.PatientDto;
 import java.util.List;
@@ -17,6 +18,17 @@ public interface PatientService {
    */
   List<PatientDto> findAllPatients();
 
+  /**
+   * Searches the patients by the beginning of their superhero name or by a superhero name
+   * with one typo, ignoring case, and returns one page of them as DTOs.
+   *
+   * @param query the beginning or the misspelled superhero name
+   * @param page  the zero-based page number
+   * @param size  the page size
+   * @return the page of matching patients, represented as DTOs
+   */
+  PageDto<PatientDto> searchPatients(String query, int page, int size);
+
   /**
    * Finds a patient by their ID and returns them as a DTO.
    *
@@ -0,0 +1,110 @@
+package com.syberry.mood.user.service.impl;
+
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.UserRepository;
+import com.syberry.mood.user.service.PatientDirectoryService;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Implementation of the {@link PatientDirectoryService} interface.
+ * The snapshot is loaded before the application starts and is replaced copy-on-write
+ * after every committed change of a patient, made by this instance or tailed from the change
+ * log, together with the index of the superhero names. It is reloaded periodically.
+ * The readers only dereference a volatile field, the rare writers are serialized, copy the list
+ * and rebuild the index.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PatientDirectoryServiceImpl implements PatientDirectoryService,
+    SmartInitializingSingleton {
+
+  private static final Comparator<User> ID_DESC =
+      Comparator.comparing(User::getId, Comparator.reverseOrder());
+
+  private final UserRepository userRepository;
+  private final PlatformTransactionManager transactionManager;
+  private volatile PatientNameIndex index = PatientNameIndex.EMPTY;
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    reloadPatients();
+  }
+
+  @Override
+  public List<User> findAllPatients() {
+    Integer shard = ShardContext.current();
+    return shard == null ? index.getPatients() : index.getPatients(shard);
+  }
+
+  @Override
+  public List<User> searchPatients(String query) {
+    List<User> patients = index.search(query);
+    return ShardContext.current() == null ? patients : patients.stream()
+        .filter(patient -> ShardContext.isVisible(patient.getId()))
+        .toList();
+  }
+
+  @Override
+  public Optional<User> findPatientBySuperheroName(String superheroName) {
+    return index.findByName(superheroName);
+  }
+
+  /**
+   * Reads the patients while holding the lock of the changes, so no change committed
+   * during the read is lost.
+   */
+  @Override
+  @Scheduled(cron = "${app.index-reconcile.cron:0 0 * * * *}")
+  public synchronized void reloadPatients() {
+    // not read-only, so the patients are read from the primary and not from a lagging replica
+    List<User> snapshot = new TransactionTemplate(transactionManager).execute(status ->
+        userRepository.findAllPatientsSortIdDesc().stream()
+            .map(PatientDirectoryServiceImpl::copy)
+            .toList());
+    index = new PatientNameIndex(snapshot);
+    log.info("Loaded {} patients into the patient directory", snapshot.size());
+  }
+
+  /**
+   * Replaces the snapshot with a copy containing the committed state of the changed patient,
+   * which is carried by the event, so no query is made. It runs before the other listeners,
+   * so the data version is bumped only after the new snapshot is visible.
+   *
+   * @param event the committed change of the patient
+   */
+  @Order(Ordered.HIGHEST_PRECEDENCE)
+  @TransactionalEventListener(fallbackExecution = true)
+  public synchronized void onPatientChanged(PatientChangedEvent event) {
+    List<User> snapshot = new ArrayList<>(index.getPatients());
+    snapshot.removeIf(patient -> patient.getId().equals(event.getPatientId()));
+    snapshot.add(copy(event.getPatient()));
+    snapshot.sort(ID_DESC);
+    index = new PatientNameIndex(snapshot);
+  }
+
+  private static User copy(User patient) {
+    return User.builder()
+        .id(patient.getId())
+        .username(patient.getUsername())
+        .createdAt(patient.getCreatedAt())
+        .updatedAt(patient.getUpdatedAt())
+        .disabled(patient.isDisabled())
+        .build();
+  }
+}
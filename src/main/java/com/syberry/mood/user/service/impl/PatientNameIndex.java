@@ -0,0 +1,156 @@
+package com.syberry.mood.user.service.impl;
+
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.user.entity.User;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable index of the superhero names of the patients. The lowercased names are kept
+ * in a sorted array for the exact and prefix lookups, and every name is registered under
+ * itself and each of its single-character deletions, so the names within one edit of a query
+ * are found by looking up the query and its own deletions.
+ */
+final class PatientNameIndex {
+
+  static final PatientNameIndex EMPTY = new PatientNameIndex(Collections.emptyList());
+
+  private final List<User> patients;
+  private final String[] names;
+  private final User[] patientsByName;
+  private final Map<String, List<User>> patientsByDeletion = new HashMap<>();
+  private final Map<Integer, List<User>> patientsByShard = new ConcurrentHashMap<>();
+
+  /**
+   * Builds the index of the patients.
+   *
+   * @param patients the patients ordered by id DESC
+   */
+  PatientNameIndex(List<User> patients) {
+    this.patients = Collections.unmodifiableList(patients);
+    patientsByName = patients.toArray(new User[0]);
+    Arrays.sort(patientsByName, Comparator.comparing(patient -> normalize(patient.getUsername())));
+    names = new String[patientsByName.length];
+    for (int i = 0; i < patientsByName.length; i++) {
+      names[i] = normalize(patientsByName[i].getUsername());
+      for (String deletion : deletions(names[i])) {
+        patientsByDeletion.computeIfAbsent(deletion, key -> new ArrayList<>(1))
+            .add(patientsByName[i]);
+      }
+    }
+  }
+
+  List<User> getPatients() {
+    return patients;
+  }
+
+  /**
+   * Returns the patients stored on the shard, the list is built on the first call.
+   *
+   * @param shard the index of the shard
+   * @return the patients of the shard ordered by id DESC
+   */
+  List<User> getPatients(int shard) {
+    return patientsByShard.computeIfAbsent(shard, key -> patients.stream()
+        .filter(patient -> ShardContext.shardOf(patient.getId()) == key)
+        .toList());
+  }
+
+  /**
+   * Finds the patient with the given superhero name, ignoring case.
+   *
+   * @param superheroName the superhero name
+   * @return the patient, or an empty Optional if there is none
+   */
+  Optional<User> findByName(String superheroName) {
+    int position = Arrays.binarySearch(names, normalize(superheroName));
+    return position >= 0 ? Optional.of(patientsByName[position]) : Optional.empty();
+  }
+
+  /**
+   * Finds the patients whose superhero name starts with the query, ordered by name, followed by
+   * the other patients whose superhero name is within one edit of the query, ordered by name.
+   * The case is ignored.
+   *
+   * @param query the query
+   * @return the matching patients
+   */
+  List<User> search(String query) {
+    String normalized = normalize(query);
+    List<User> result = new ArrayList<>();
+    int position = lowerBound(normalized);
+    while (position < names.length && names[position].startsWith(normalized)) {
+      result.add(patientsByName[position++]);
+    }
+    Set<User> similar = new LinkedHashSet<>();
+    for (String deletion : deletions(normalized)) {
+      for (User patient : patientsByDeletion.getOrDefault(deletion, List.of())) {
+        String name = normalize(patient.getUsername());
+        if (!name.startsWith(normalized) && isWithinOneEdit(name, normalized)) {
+          similar.add(patient);
+        }
+      }
+    }
+    similar.stream()
+        .sorted(Comparator.comparing(patient -> normalize(patient.getUsername())))
+        .forEach(result::add);
+    return result;
+  }
+
+  private int lowerBound(String key) {
+    int low = 0;
+    int high = names.length;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (names[middle].compareTo(key) < 0) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private static String normalize(String name) {
+    return name.trim().toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Returns the word itself and all words produced by deleting one of its characters.
+   */
+  private static Set<String> deletions(String word) {
+    Set<String> deletions = new LinkedHashSet<>();
+    deletions.add(word);
+    for (int i = 0; i < word.length(); i++) {
+      deletions.add(word.substring(0, i) + word.substring(i + 1));
+    }
+    return deletions;
+  }
+
+  /**
+   * Checks whether one insertion, deletion or substitution turns one word into the other.
+   */
+  private static boolean isWithinOneEdit(String first, String second) {
+    if (Math.abs(first.length() - second.length()) > 1) {
+      return false;
+    }
+    String shorter = first.length() <= second.length() ? first : second;
+    String longer = shorter == first ? second : first;
+    int i = 0;
+    while (i < shorter.length() && shorter.charAt(i) == longer.charAt(i)) {
+      i++;
+    }
+    int offset = shorter.length() == longer.length() ? 1 : 0;
+    return shorter.regionMatches(i + offset, longer, i + 1, shorter.length() - i - offset);
+  }
+}
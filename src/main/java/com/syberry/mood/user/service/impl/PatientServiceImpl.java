@@ -2,17 +2,24 @@ package com.syberry.mood.user.service.impl;
 
 import static com.syberry.mood.authorization.util.SecurityUtils.getUserDetails;
 
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.common.dto.PageDto;
+import com.syberry.mood.emotion.record.event.ChangeType;
 import com.syberry.mood.user.converter.UserConverter;
 import com.syberry.mood.user.dto.PatientCreationDto;
 import com.syberry.mood.user.dto.PatientDto;
 import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
 import com.syberry.mood.user.repository.UserRepository;
+import com.syberry.mood.user.service.PatientDirectoryService;
 import com.syberry.mood.user.service.PatientService;
 import com.syberry.mood.user.validation.PatientValidator;
 import java.time.LocalDateTime;
 import java.util.List;
 import javax.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -27,6 +34,9 @@ public class PatientServiceImpl implements PatientService {
   private final UserRepository userRepository;
   private final PatientValidator patientValidator;
   private final PasswordEncoder passwordEncoder;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PatientDirectoryService patientDirectory;
+  private final ChangeLogService changeLog;
 
   /**
    * Finds all patients and returns them as a list of DTOs.
@@ -35,10 +45,34 @@ public class PatientServiceImpl implements PatientService {
    */
   @Override
   public List<PatientDto> findAllPatients() {
-    return userRepository.findAllPatientsSortIdDesc()
+    return patientDirectory.findAllPatients()
         .stream().map(userConverter::convertToPatientDto).toList();
   }
 
+  /**
+   * Searches the patients in the patient directory, so no query is made, and returns
+   * the requested page of them as DTOs.
+   *
+   * @param query the beginning or the misspelled superhero name
+   * @param page  the zero-based page number
+   * @param size  the page size
+   * @return the page of matching patients, represented as DTOs
+   */
+  @Override
+  public PageDto<PatientDto> searchPatients(String query, int page, int size) {
+    List<User> patients = patientDirectory.searchPatients(query);
+    int from = (int) Math.min((long) page * size, patients.size());
+    int to = Math.min(from + size, patients.size());
+    return PageDto.<PatientDto>builder()
+        .content(patients.subList(from, to).stream()
+            .map(userConverter::convertToPatientDto).toList())
+        .page(page)
+        .size(size)
+        .totalElements(patients.size())
+        .totalPages((patients.size() + size - 1) / size)
+        .build();
+  }
+
   /**
    * Finds a patient by their ID and returns them as a DTO.
    *
@@ -68,11 +102,12 @@ public class PatientServiceImpl implements PatientService {
    * @return the created patient, represented as a DTO
    */
   @Override
+  @Transactional
   public PatientDto createPatient(PatientCreationDto dto) {
     patientValidator.validateSuperheroName(dto.getSuperheroName(), null);
     User user = userConverter.convertToEntity(dto);
     user.setPassword(passwordEncoder.encode(dto.getPassword()));
-    return userConverter.convertToPatientDto(userRepository.save(user));
+    return publish(ChangeType.CREATED, userRepository.save(user));
   }
 
   /**
@@ -90,7 +125,7 @@ public class PatientServiceImpl implements PatientService {
     patientValidator.validateUpdating(user);
     user.setUsername(superheroName);
     user.setUpdatedAt(LocalDateTime.now());
-    return userConverter.convertToPatientDto(user);
+    return publish(ChangeType.UPDATED, user);
   }
 
   /**
@@ -105,7 +140,7 @@ public class PatientServiceImpl implements PatientService {
     User user = userRepository.findPatientByIdIfExists(id);
     user.setDisabled(!user.isDisabled());
     user.setUpdatedAt(LocalDateTime.now());
-    return userConverter.convertToPatientDto(user);
+    return publish(ChangeType.UPDATED, user);
   }
 
   /**
@@ -121,5 +156,21 @@ public class PatientServiceImpl implements PatientService {
     patientValidator.validateUpdating(user);
     user.setPassword(passwordEncoder.encode(password));
     user.setUpdatedAt(LocalDateTime.now());
+    changeLog.recordChange(ChangedEntity.PATIENT, id, ChangeType.UPDATED,
+        userConverter.convertToPatientDto(user));
+  }
+
+  /**
+   * Records the change of the patient in the change log and publishes it to the listeners.
+   *
+   * @param type the kind of the change
+   * @param user the changed patient
+   * @return the changed patient, represented as a DTO
+   */
+  private PatientDto publish(ChangeType type, User user) {
+    PatientDto dto = userConverter.convertToPatientDto(user);
+    changeLog.recordChange(ChangedEntity.PATIENT, user.getId(), type, dto);
+    eventPublisher.publishEvent(new PatientChangedEvent(user));
+    return dto;
   }
 }
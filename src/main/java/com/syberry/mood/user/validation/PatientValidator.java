@@ -2,7 +2,7 @@ package com.syberry.mood.user.validation;
 
 import com.syberry.mood.exception.ValidationException;
 import com.syberry.mood.user.entity.User;
-import com.syberry.mood.user.repository.UserRepository;
+import com.syberry.mood.user.service.PatientDirectoryService;
 import java.util.Objects;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
@@ -15,7 +15,7 @@ import org.springframework.stereotype.Service;
 @RequiredArgsConstructor
 public class PatientValidator {
 
-  private final UserRepository userRepository;
+  private final PatientDirectoryService patientDirectory;
 
   /**
    * Validates if the user is disabled and throws a ValidationException if it is.
@@ -32,13 +32,15 @@ public class PatientValidator {
   /**
    * Validates if the given superhero name is already taken
    * by another user and throws a ValidationException if it is.
+   * The name is looked up in the patient directory, ignoring case; it cannot be taken
+   * by an employee, whose username is an email.
    *
    * @param username the superhero name to validate
    * @param id       the ID of the user to update, null if creating a new user
    * @throws ValidationException if the superhero name is already taken by another user
    */
   public void validateSuperheroName(String username, Long id) {
-    Optional<User> optionalByUsername = userRepository.findByUsername(username);
+    Optional<User> optionalByUsername = patientDirectory.findPatientBySuperheroName(username);
     if (optionalByUsername.isPresent() && !Objects.equals(optionalByUsername.get().getId(), id)) {
       throw new ValidationException(
           String.format("SuperheroName: %s is already taken. Try another one", username));
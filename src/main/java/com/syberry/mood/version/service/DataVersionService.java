@@ -0,0 +1,42 @@
+package com.syberry.mood.version.service;
+
+/**
+ * Service interface providing the entity tags of the read endpoints. The tags are derived
+ * from the sequences of the change log kept in memory, so a conditional request is answered
+ * without a query and every instance hands out the same tag for the same data.
+ */
+public interface DataVersionService {
+
+  /**
+   * Returns the entity tag of the patient directory.
+   *
+   * @return the strong entity tag of the patient directory
+   */
+  String getPatientDirectoryTag();
+
+  /**
+   * Returns the entity tag of the emotion records of all patients.
+   *
+   * @param qualifiers the request parameters the response depends on
+   * @return the strong entity tag of the emotion records of all patients
+   */
+  String getAllRecordsTag(Object... qualifiers);
+
+  /**
+   * Returns the entity tag of the emotion records of the patient.
+   *
+   * @param patientId the ID of the patient
+   * @param qualifiers the request parameters the response depends on
+   * @return the strong entity tag of the emotion records of the patient
+   */
+  String getPatientRecordsTag(Long patientId, Object... qualifiers);
+
+  /**
+   * Returns the entity tag unless its version changed within the maximum lag of the read
+   * replica, since a response read from a lagging replica may still be older than the tag.
+   *
+   * @param tag the entity tag of the response
+   * @return the entity tag, or null if the response must not be tagged
+   */
+  String getSettledTag(String tag);
+}
@@ -0,0 +1,229 @@
+package com.syberry.mood.version.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import com.syberry.mood.changelog.event.ChangesLoggedEvent;
+import com.syberry.mood.changelog.event.ChangesTailedEvent;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.sharding.ShardMap;
+import com.syberry.mood.version.service.DataVersionService;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Implementation of the {@link DataVersionService} interface.
+ * The versions are the sequences of the change log, so the instances reading the same changes
+ * from the tail of the log hand out the same tags, whichever instance or tool appended them.
+ * The all-records tag holds the cursor of the log of every shard, the directory tag the last
+ * patient change of every shard, and the tag of a patient the last change of their records,
+ * or the cursor the log was tailed from or the last month removed, whichever is later.
+ * The changes appended by this instance are added to its tags as pending as soon as they are
+ * committed, until the tail reaches them, so a response computed before a change is read
+ * can only carry an older tag than its data. When a read replica is configured, the versions
+ * read within its maximum lag are remembered with their time, so the tags of the data
+ * the replica may not have yet are not handed out.
+ */
+@Service
+public class DataVersionServiceImpl implements DataVersionService {
+
+  private final ObjectMapper objectMapper;
+  private final AtomicLongArray cursors;
+  private final AtomicLongArray floors;
+  private final AtomicLongArray directoryVersions;
+  private final Map<Long, Long> patientVersions = new ConcurrentHashMap<>();
+  private final AtomicLongArray pendingVersions;
+  private final AtomicLongArray pendingFloors;
+  private final AtomicLongArray pendingDirectoryVersions;
+  private final Map<Long, Long> pendingPatientVersions = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<Long, Long> recentBumps = new ConcurrentSkipListMap<>();
+  private final long settleNanos;
+
+  /**
+   * Creates the service.
+   *
+   * @param objectMapper the mapper reading the patients of the logged record changes
+   * @param shardMap the shards, if the data is sharded
+   * @param replicaUrl the JDBC URL of the read replica, empty if there is none
+   * @param maxLag the maximum lag of the read replica in seconds
+   */
+  public DataVersionServiceImpl(
+      ObjectMapper objectMapper,
+      ObjectProvider<ShardMap> shardMap,
+      @Value("${app.datasource.replica.url:}") String replicaUrl,
+      @Value("${app.datasource.replica.max-lag:5}") long maxLag) {
+    this.objectMapper = objectMapper;
+    ShardMap shards = shardMap.getIfAvailable();
+    int shardCount = shards != null ? shards.size() : 1;
+    this.cursors = new AtomicLongArray(shardCount);
+    this.floors = new AtomicLongArray(shardCount);
+    this.directoryVersions = new AtomicLongArray(shardCount);
+    this.pendingVersions = new AtomicLongArray(shardCount);
+    this.pendingFloors = new AtomicLongArray(shardCount);
+    this.pendingDirectoryVersions = new AtomicLongArray(shardCount);
+    this.settleNanos = replicaUrl.isEmpty() ? 0 : Duration.ofSeconds(maxLag).toNanos();
+  }
+
+  @Override
+  public String getPatientDirectoryTag() {
+    StringJoiner versions = new StringJoiner(".");
+    for (int shard = 0; shard < cursors.length(); shard++) {
+      addVersions(versions, Math.max(directoryVersions.get(shard), floors.get(shard)),
+          pendingDirectoryVersions.get(shard));
+    }
+    return tag(versions);
+  }
+
+  @Override
+  public String getAllRecordsTag(Object... qualifiers) {
+    StringJoiner versions = new StringJoiner(".");
+    for (int shard = 0; shard < cursors.length(); shard++) {
+      addVersions(versions, cursors.get(shard), pendingVersions.get(shard));
+    }
+    return tag(versions, qualifiers);
+  }
+
+  @Override
+  public String getPatientRecordsTag(Long patientId, Object... qualifiers) {
+    int shard = shardOf(patientId);
+    StringJoiner versions = new StringJoiner(".");
+    addVersions(versions, Math.max(patientVersions.getOrDefault(patientId, 0L), floors.get(shard)),
+        Math.max(pendingPatientVersions.getOrDefault(patientId, 0L), pendingFloors.get(shard)));
+    return tag(versions, qualifiers);
+  }
+
+  @Override
+  public String getSettledTag(String tag) {
+    if (settleNanos == 0) {
+      return tag;
+    }
+    // the versions lead the tag, see tag(StringJoiner, Object...)
+    int end = tag.indexOf('-');
+    long now = System.nanoTime();
+    for (String version : tag.substring(1, end < 0 ? tag.length() - 1 : end).split("\\.")) {
+      Long bumpedAt = recentBumps.get(Long.parseLong(version));
+      if (bumpedAt != null && now - bumpedAt < settleNanos) {
+        return null;
+      }
+    }
+    return tag;
+  }
+
+  /**
+   * Adds the changes appended by this instance to the tags until the tail reaches them.
+   *
+   * @param event the committed changes
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChangesLogged(ChangesLoggedEvent event) {
+    for (ChangeLogEntryDto change : event.getChanges()) {
+      long sequence = change.getSequence();
+      int shard = ShardContext.shardOf(sequence);
+      if (sequence <= cursors.get(shard)) {
+        continue;
+      }
+      remember(sequence);
+      pendingVersions.accumulateAndGet(shard, sequence, Math::max);
+      switch (change.getEntityType()) {
+        case PATIENT -> {
+          pendingDirectoryVersions.accumulateAndGet(shard, sequence, Math::max);
+          pendingPatientVersions.merge(change.getEntityId(), sequence, Math::max);
+        }
+        case EMOTION_RECORD -> {
+          if (change.getOperation() != ChangeType.ARCHIVED) {
+            pendingPatientVersions.merge(readPatientId(change), sequence, Math::max);
+          }
+        }
+        case EMOTION_RECORD_MONTH -> pendingFloors.accumulateAndGet(shard, sequence, Math::max);
+        default -> throw new IllegalStateException("Unknown entity " + change.getEntityType());
+      }
+    }
+  }
+
+  /**
+   * Moves the versions to the changes read from the tail of the log and drops the pending
+   * versions the tail has reached.
+   *
+   * @param event the changes read from the log of a shard
+   */
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onChangesTailed(ChangesTailedEvent event) {
+    int shard = event.getShard();
+    for (ChangeLogEntryDto change : event.getChanges()) {
+      long sequence = change.getSequence();
+      remember(sequence);
+      switch (change.getEntityType()) {
+        case PATIENT -> {
+          directoryVersions.accumulateAndGet(shard, sequence, Math::max);
+          patientVersions.merge(change.getEntityId(), sequence, Math::max);
+        }
+        case EMOTION_RECORD -> {
+          if (change.getOperation() != ChangeType.ARCHIVED) {
+            patientVersions.merge(readPatientId(change), sequence, Math::max);
+          }
+        }
+        case EMOTION_RECORD_MONTH -> floors.accumulateAndGet(shard, sequence, Math::max);
+        default -> throw new IllegalStateException("Unknown entity " + change.getEntityType());
+      }
+    }
+    long cursor = event.getCursor();
+    if (event.getChanges().isEmpty()) {
+      floors.accumulateAndGet(shard, cursor, Math::max);
+    }
+    cursors.accumulateAndGet(shard, cursor, Math::max);
+    pendingVersions.getAndUpdate(shard, version -> version <= cursor ? 0 : version);
+    pendingFloors.getAndUpdate(shard, version -> version <= cursor ? 0 : version);
+    pendingDirectoryVersions.getAndUpdate(shard, version -> version <= cursor ? 0 : version);
+    pendingPatientVersions.entrySet().removeIf(pending -> pending.getValue() <= cursor
+        && shardOf(pending.getKey()) == shard);
+  }
+
+  private Long readPatientId(ChangeLogEntryDto change) {
+    try {
+      return objectMapper.readTree(change.getPayload()).path("patientId").asLong();
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private void remember(long sequence) {
+    if (settleNanos > 0) {
+      long now = System.nanoTime();
+      recentBumps.put(sequence, now);
+      Iterator<Long> bumpTimes = recentBumps.values().iterator();
+      while (bumpTimes.hasNext() && now - bumpTimes.next() >= settleNanos) {
+        bumpTimes.remove();
+      }
+    }
+  }
+
+  private int shardOf(Long patientId) {
+    return Math.min(ShardContext.shardOf(patientId), cursors.length() - 1);
+  }
+
+  private static void addVersions(StringJoiner versions, long version, long pending) {
+    versions.add(Long.toString(version));
+    if (pending > version) {
+      versions.add(Long.toString(pending));
+    }
+  }
+
+  private static String tag(StringJoiner versions, Object... qualifiers) {
+    StringBuilder tag = new StringBuilder("\"").append(versions);
+    for (Object qualifier : qualifiers) {
+      tag.append('-').append(qualifier);
+    }
+    return tag.append('"').toString();
+  }
+}
@@ -0,0 +1,38 @@
+package com.syberry.mood.version.util;
+
+import javax.servlet.http.HttpServletResponse;
+import lombok.experimental.UtilityClass;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * A utility class answering conditional GET requests.
+ */
+@UtilityClass
+public class ConditionalRequestUtils {
+
+  private static final String CACHE_CONTROL =
+      CacheControl.noCache().cachePrivate().getHeaderValue();
+
+  /**
+   * Checks the "If-None-Match" header of the request against the entity tag. The tag is set
+   * on the response together with a cache control allowing clients to keep and revalidate it;
+   * if it matches, the response status is set to 304 and the handler must not write a body.
+   * Without a tag the response is never answered as not modified.
+   *
+   * @param request the current request
+   * @param etag the strong entity tag of the current representation, or null
+   * @return true if the client has the current representation
+   */
+  public static boolean checkNotModified(WebRequest request, String etag) {
+    if (request instanceof ServletWebRequest) {
+      HttpServletResponse response = ((ServletWebRequest) request).getResponse();
+      if (response != null) {
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+      }
+    }
+    return etag != null && request.checkNotModified(etag);
+  }
+}
@@ -0,0 +1,48 @@
+package com.syberry.mood.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+public class TokenBucketUnitTest {
+
+  private static final long SECOND = 1_000_000_000L;
+
+  @Test
+  public void should_TakeTokensUntilBucketIsEmpty() {
+    TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+    assertEquals(0, bucket.tryConsume(6, 0));
+    assertEquals(0, bucket.tryConsume(4, 0));
+    assertEquals(SECOND / 2, bucket.tryConsume(1, 0));
+  }
+
+  @Test
+  public void should_RefillTokensUpToCapacity() {
+    TokenBucket bucket = new TokenBucket(10, 2, 0);
+    bucket.tryConsume(10, 0);
+
+    assertEquals(0, bucket.tryConsume(4, 2 * SECOND));
+    assertEquals(SECOND, bucket.tryConsume(2, 2 * SECOND));
+    assertEquals(0, bucket.tryConsume(10, 60 * SECOND));
+    assertEquals(5 * SECOND, bucket.tryConsume(10, 60 * SECOND));
+  }
+
+  @Test
+  public void should_TakeFullBucket_When_CostExceedsCapacity() {
+    TokenBucket bucket = new TokenBucket(10, 2, 0);
+
+    assertEquals(0, bucket.tryConsume(1_000, 0));
+    assertEquals(5 * SECOND, bucket.tryConsume(1_000, 0));
+  }
+
+  @Test
+  public void should_DelayNextRequests_When_ChargedIntoDeficit() {
+    TokenBucket bucket = new TokenBucket(10, 2, 0);
+    bucket.tryConsume(8, 0);
+    bucket.consume(6, 0);
+
+    assertEquals(5 * SECOND / 2, bucket.tryConsume(1, 0));
+    assertEquals(0, bucket.tryConsume(1, 5 * SECOND / 2));
+  }
+}
@@ -0,0 +1,118 @@
+package com.syberry.mood.coalescing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class SingleFlightUnitTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final SingleFlight singleFlight = new SingleFlight(meterRegistry);
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void should_ShareResultOfConcurrentIdenticalCalls() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<Object> call = () -> {
+      calls.incrementAndGet();
+      await(release);
+      return new Object();
+    };
+    Future<Object> leader = executor.submit(() -> singleFlight.execute("grid", "key", call));
+    awaitCount("leader", 1);
+    Future<Object> follower = executor.submit(() -> singleFlight.execute("grid", "key", call));
+    awaitCount("follower", 1);
+    release.countDown();
+
+    assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+    assertEquals(1, calls.get());
+    assertEquals("other", singleFlight.execute("grid", "other", () -> "other"));
+    assertEquals(2, count("leader"));
+  }
+
+  @Test
+  public void should_PropagateFailureToWaitingCalls() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    Supplier<Object> call = () -> {
+      await(release);
+      throw new IllegalStateException("failed");
+    };
+    Future<Object> leader = executor.submit(() -> singleFlight.execute("grid", "key", call));
+    awaitCount("leader", 1);
+    Future<Object> follower = executor.submit(() -> singleFlight.execute("grid", "key", call));
+    awaitCount("follower", 1);
+    release.countDown();
+
+    ExecutionException failure = assertThrows(ExecutionException.class,
+        () -> follower.get(5, TimeUnit.SECONDS));
+    assertTrue(failure.getCause() instanceof IllegalStateException);
+    assertThrows(ExecutionException.class, () -> leader.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  public void should_RetryCall_When_ComputingCallerIsInterrupted() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Supplier<Object> call = () -> {
+      if (calls.incrementAndGet() == 1) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IllegalStateException("interrupted", e);
+        }
+      }
+      return "result";
+    };
+    Future<Object> leader = executor.submit(() -> singleFlight.execute("grid", "key", call));
+    awaitCount("leader", 1);
+    Future<Object> follower = executor.submit(() -> singleFlight.execute("grid", "key", call));
+    awaitCount("follower", 1);
+    leader.cancel(true);
+
+    assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+    assertEquals(2, calls.get());
+    assertEquals(1, count("retried"));
+  }
+
+  private double count(String role) {
+    return meterRegistry.counter("mood.single-flight.calls", "name", "grid", "role", role)
+        .count();
+  }
+
+  private void awaitCount(String role, double expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5_000;
+    while (count(role) < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, count(role));
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException(e);
+    }
+  }
+}
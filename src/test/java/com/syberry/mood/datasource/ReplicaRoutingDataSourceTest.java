@@ -0,0 +1,96 @@
+package com.syberry.mood.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+public class ReplicaRoutingDataSourceTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionTemplate readWrite;
+  private TransactionTemplate readOnly;
+
+  @BeforeEach
+  @AfterEach
+  public void clearSecurityContext() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  public void should_RouteReadOnlyTransactionsToReplica() {
+    setUp(Duration.ofHours(1));
+    assertEquals("replica", readOnly.execute(status -> readName()));
+    assertEquals("primary", readWrite.execute(status -> readName()));
+    assertEquals("primary", readName());
+  }
+
+  @Test
+  public void should_RouteReadsOfRecentWriterToPrimary() {
+    setUp(Duration.ofHours(1));
+    loginAs("Hulk Smash");
+    readWrite.executeWithoutResult(status -> writeName("written"));
+    assertEquals("written", readOnly.execute(status -> readName()));
+
+    loginAs("Magical Frog");
+    assertEquals("replica", readOnly.execute(status -> readName()));
+  }
+
+  @Test
+  public void should_RouteReadsToReplica_When_WriteRolledBackOrLagElapsed() {
+    setUp(Duration.ZERO);
+    loginAs("Hulk Smash");
+    readWrite.executeWithoutResult(status -> writeName("written"));
+    assertEquals("replica", readOnly.execute(status -> readName()));
+
+    setUp(Duration.ofHours(1));
+    readWrite.executeWithoutResult(status -> {
+      writeName("rolled back");
+      status.setRollbackOnly();
+    });
+    assertEquals("replica", readOnly.execute(status -> readName()));
+  }
+
+  private void setUp(Duration maxLag) {
+    ReplicaRoutingDataSource dataSource = new ReplicaRoutingDataSource(
+        database("primary"), database("replica"), maxLag);
+    dataSource.afterPropertiesSet();
+    jdbcTemplate = new JdbcTemplate(dataSource);
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+    readWrite = new TransactionTemplate(transactionManager);
+    readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+  }
+
+  private String readName() {
+    return jdbcTemplate.queryForObject("select name from node", String.class);
+  }
+
+  private void writeName(String name) {
+    jdbcTemplate.update("update node set name = ?", name);
+  }
+
+  private static DataSource database(String name) {
+    DriverManagerDataSource dataSource = new DriverManagerDataSource(
+        "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "sa");
+    JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+    jdbcTemplate.execute("drop table if exists node");
+    jdbcTemplate.execute("create table node (name varchar(20))");
+    jdbcTemplate.update("insert into node values (?)", name);
+    return dataSource;
+  }
+
+  private static void loginAs(String username) {
+    SecurityContextHolder.getContext()
+        .setAuthentication(new TestingAuthenticationToken(username, null));
+  }
+}
@@ -0,0 +1,101 @@
+package com.syberry.mood.emotion.record.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.util.MergingIterator;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class ArchiveSegmentUnitTest {
+
+  private static final LocalDate DATE = LocalDate.of(2023, 1, 10);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  public void should_ReadWrittenRecords() throws IOException {
+    List<EmotionRecordDto> records = List.of(
+        record(1L, 1L, DATE.atTime(9, 0, 0, 123_456_000), Period.MORNING, null),
+        record(2L, 2L, DATE.atTime(13, 30), Period.AFTERNOON, "Calm after lunch"),
+        record(3L, 1L, DATE.atTime(18, 0), Period.EVENING, "Счастлив 😊"));
+    Path file = directory.resolve("records-2023-01.seg");
+
+    assertEquals(3, ArchiveSegment.write(file, records.iterator()));
+    ArchiveSegment segment = ArchiveSegment.open(file);
+
+    assertEquals(3, segment.size());
+    assertEquals(records, segment.stream(null, DATE.atStartOfDay(),
+        DATE.plusDays(1).atStartOfDay()).toList());
+    assertFalse(Files.exists(directory.resolve("records-2023-01.seg.tmp")));
+  }
+
+  @Test
+  public void should_StreamRecordsOfPatientWithinRange() throws IOException {
+    Path file = directory.resolve("records-2023-01.seg");
+    ArchiveSegment.write(file, List.of(
+        record(1L, 1L, DATE.atTime(9, 0), Period.MORNING, null),
+        record(2L, 2L, DATE.atTime(13, 0), Period.AFTERNOON, null),
+        record(3L, 1L, DATE.atTime(18, 0), Period.EVENING, null),
+        record(4L, 1L, DATE.plusDays(1).atTime(9, 0), Period.MORNING, null)).iterator());
+    ArchiveSegment segment = ArchiveSegment.open(file);
+
+    assertEquals(List.of(3L), segment.stream(1L, DATE.atTime(9, 0).plusNanos(1_000),
+        DATE.plusDays(1).atTime(9, 0)).map(EmotionRecordDto::getId).toList());
+    assertEquals(List.of(1L, 2L, 3L), segment.stream(null, DATE.atStartOfDay(),
+        DATE.plusDays(1).atStartOfDay()).map(EmotionRecordDto::getId).toList());
+    assertEquals(List.of(), segment.stream(null, DATE.minusDays(1).atStartOfDay(),
+        DATE.atStartOfDay()).toList());
+  }
+
+  @Test
+  public void should_MergeRecordsIntoSegment() throws IOException {
+    Path file = directory.resolve("records-2023-01.seg");
+    ArchiveSegment.write(file, List.of(
+        record(1L, 1L, DATE.atTime(9, 0), Period.MORNING, null),
+        record(3L, 1L, DATE.atTime(18, 0), Period.EVENING, null)).iterator());
+    ArchiveSegment archived = ArchiveSegment.open(file);
+    List<EmotionRecordDto> live = List.of(
+        record(2L, 2L, DATE.atTime(13, 0), Period.AFTERNOON, null),
+        record(3L, 1L, DATE.atTime(18, 0), Period.EVENING, "Updated"));
+
+    ArchiveSegment.write(file, new MergingIterator<>(live.iterator(), archived.stream(null,
+        LocalDateTime.MIN, LocalDateTime.MAX).iterator(), ArchiveSegment.ORDER));
+    List<EmotionRecordDto> merged = ArchiveSegment.open(file)
+        .stream(null, LocalDateTime.MIN, LocalDateTime.MAX).toList();
+
+    assertEquals(List.of(1L, 2L, 3L), merged.stream().map(EmotionRecordDto::getId).toList());
+    assertEquals("Updated", merged.get(2).getNote());
+  }
+
+  @Test
+  public void should_RejectOtherFiles() throws IOException {
+    Path file = Files.writeString(directory.resolve("records-2023-01.seg"), "not a segment");
+
+    assertThrows(IOException.class, () -> ArchiveSegment.open(file));
+  }
+
+  private static EmotionRecordDto record(Long id, Long patientId, LocalDateTime createdAt,
+                                         Period period, String note) {
+    return EmotionRecordDto.builder()
+        .id(id)
+        .patientId(patientId)
+        .createdAt(createdAt)
+        .period(period)
+        .emotion(Emotion.values()[(int) (id % Emotion.values().length)])
+        .intensity(id.intValue())
+        .note(note)
+        .build();
+  }
+}
@@ -0,0 +1,116 @@
+package com.syberry.mood.emotion.record.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsImportedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsRemovedEvent;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+public class GridSliceCacheUnitTest {
+
+  private static final Clock CLOCK =
+      Clock.fixed(Instant.parse("2023-01-10T12:00:00Z"), ZoneOffset.UTC);
+  private static final LocalDate TODAY = LocalDate.now(CLOCK);
+  private static final LocalDate YESTERDAY = TODAY.minusDays(1);
+
+  private final GridSliceCache cache =
+      new GridSliceCache(new SimpleMeterRegistry(), CLOCK, 2, 0);
+
+  @Test
+  public void should_CacheDaysBeforeToday() {
+    cache.put(YESTERDAY, slice(), cache.stamp());
+    cache.put(TODAY, slice(), cache.stamp());
+
+    assertEquals(slice(), cache.get(YESTERDAY));
+    assertNull(cache.get(TODAY));
+  }
+
+  @Test
+  public void should_DropOldestDays() {
+    long stamp = cache.stamp();
+    cache.put(YESTERDAY.minusDays(2), slice(), stamp);
+    cache.put(YESTERDAY, slice(), stamp);
+    cache.put(YESTERDAY.minusDays(1), slice(), stamp);
+
+    assertNull(cache.get(YESTERDAY.minusDays(2)));
+    assertEquals(slice(), cache.get(YESTERDAY.minusDays(1)));
+    assertEquals(slice(), cache.get(YESTERDAY));
+  }
+
+  @Test
+  public void should_EvictDaysOfWrittenRecords() {
+    cache.put(YESTERDAY, slice(), cache.stamp());
+    cache.put(YESTERDAY.minusDays(1), slice(), cache.stamp());
+
+    cache.onEmotionRecordChanged(new EmotionRecordChangedEvent(ChangeType.UPDATED,
+        EmotionRecordDto.builder().createdAt(YESTERDAY.atTime(18, 0)).build()));
+
+    assertNull(cache.get(YESTERDAY));
+    assertEquals(slice(), cache.get(YESTERDAY.minusDays(1)));
+
+    cache.onEmotionRecordsImported(new EmotionRecordsImportedEvent(Set.of(1L),
+        Set.of(YESTERDAY.minusDays(1))));
+
+    assertNull(cache.get(YESTERDAY.minusDays(1)));
+  }
+
+  @Test
+  public void should_EvictDaysOfRemovedRecords() {
+    cache.put(YESTERDAY, slice(), cache.stamp());
+    cache.put(YESTERDAY.minusDays(1), slice(), cache.stamp());
+
+    cache.onEmotionRecordsRemoved(new EmotionRecordsRemovedEvent(YESTERDAY.minusDays(30),
+        YESTERDAY.minusDays(1)));
+
+    assertEquals(slice(), cache.get(YESTERDAY));
+    assertNull(cache.get(YESTERDAY.minusDays(1)));
+  }
+
+  @Test
+  public void should_NotPutSliceReadBeforeEviction() {
+    long stamp = cache.stamp();
+    cache.evict(Set.of(YESTERDAY));
+    cache.put(YESTERDAY, slice(), stamp);
+    cache.put(YESTERDAY.minusDays(1), slice(), stamp);
+
+    assertNull(cache.get(YESTERDAY));
+    assertEquals(slice(), cache.get(YESTERDAY.minusDays(1)));
+
+    stamp = cache.stamp();
+    cache.onPatientChanged(new PatientChangedEvent(new User()));
+    cache.put(YESTERDAY, slice(), stamp);
+
+    assertNull(cache.get(YESTERDAY));
+    assertNull(cache.get(YESTERDAY.minusDays(1)));
+  }
+
+  @Test
+  public void should_NotCacheDaysEvictedWithinSettlePeriod() {
+    GridSliceCache settlingCache = new GridSliceCache(new SimpleMeterRegistry(), CLOCK, 2, 60);
+
+    settlingCache.put(YESTERDAY, slice(), settlingCache.stamp());
+    settlingCache.evict(Set.of(YESTERDAY.minusDays(1)));
+    settlingCache.put(YESTERDAY.minusDays(1), slice(), settlingCache.stamp());
+
+    assertEquals(slice(), settlingCache.get(YESTERDAY));
+    assertNull(settlingCache.get(YESTERDAY.minusDays(1)));
+  }
+
+  private static SerializableString slice() {
+    return new SerializedString("{\"Magical Fairy\":{\"MORNING\":null,\"EVENING\":null}}");
+  }
+}
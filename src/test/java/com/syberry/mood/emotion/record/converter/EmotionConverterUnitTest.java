@@ -4,10 +4,12 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.exception.InvalidArgumentTypeException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -18,6 +20,8 @@ public class EmotionConverterUnitTest {
 
   @InjectMocks
   private PeriodConverter periodConverter;
+  @Spy
+  private PeriodSchedule schedule = PeriodSchedule.DEFAULT;
 
   @Test
   public void should_SuccessfullyConvertToEnum() {
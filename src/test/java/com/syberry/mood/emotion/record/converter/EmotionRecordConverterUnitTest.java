@@ -12,6 +12,7 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordUpdatingDto;
 import com.syberry.mood.emotion.record.dto.Period;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.user.entity.Role;
 import com.syberry.mood.user.entity.User;
 import java.time.LocalDate;
@@ -21,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -35,6 +37,8 @@ public class EmotionRecordConverterUnitTest {
   private PeriodConverter periodConverter;
   @Mock
   private EmotionConverter emotionConverter;
+  @Spy
+  private PeriodSchedule schedule = PeriodSchedule.DEFAULT;
   private final User patient = new User(1L, "Super Man", "cat_dog_frog", new Role(),
       LocalDateTime.now(), null, false);
   private final Long id = 1L;
@@ -0,0 +1,89 @@
+package com.syberry.mood.emotion.record.converter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class EmotionRecordGridWriterUnitTest {
+
+  private static final LocalDate DATE = LocalDate.of(2023, 1, 10);
+
+  private final ObjectMapper objectMapper = new ObjectMapper().registerModule(
+      new JavaTimeModule());
+  private final EmotionRecordGridWriter gridWriter =
+      new EmotionRecordGridWriter(PeriodSchedule.DEFAULT);
+  private final EmotionRecordConverter recordConverter = new EmotionRecordConverter(
+      new EmotionConverter(), new PeriodConverter(PeriodSchedule.DEFAULT), PeriodSchedule.DEFAULT);
+  private final List<User> patients = List.of(
+      patient(4L, "Magical Frog", false, null),
+      patient(3L, "Magical Cat", true, DATE.minusDays(3).atStartOfDay()),
+      patient(2L, "Magical Dog", true, DATE.minusDays(3).atStartOfDay()),
+      patient(1L, "Magical Fairy", false, null));
+
+  @Test
+  public void should_WriteSameJsonAsMap() throws IOException {
+    List<EmotionRecordDto> records = new ArrayList<>(List.of(
+        record(1L, 1L, "Magical Fairy", DATE.atTime(18, 0), Period.EVENING),
+        record(2L, 5L, "Magical Fox", DATE.atTime(9, 0), Period.MORNING),
+        record(3L, 3L, "Magical Cat", DATE.atTime(13, 0), Period.AFTERNOON),
+        record(4L, 1L, "Magical Fairy", DATE.atTime(9, 0), Period.MORNING)));
+    records.sort(EmotionRecordGridWriter.DAY_ORDER);
+
+    StringWriter writer = new StringWriter();
+    try (JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)) {
+      gridWriter.writeDay(generator, DATE, records, patients);
+    }
+
+    assertEquals(objectMapper.readTree(objectMapper.writeValueAsString(recordConverter
+            .convertToMap(records, new EmotionRecordFilter(DATE, DATE), patients)
+            .get(DATE.toString()))),
+        objectMapper.readTree(writer.toString()));
+  }
+
+  @Test
+  public void should_SkipDayWithoutRecordsAndPatients() {
+    List<User> disabled = List.of(patients.get(1), patients.get(2));
+
+    assertTrue(gridWriter.hasContent(DATE, List.of(), patients));
+    assertFalse(gridWriter.hasContent(DATE, List.of(), disabled));
+    assertTrue(gridWriter.hasContent(DATE.minusDays(4), List.of(), disabled));
+  }
+
+  private static User patient(Long id, String username, boolean disabled,
+                              LocalDateTime updatedAt) {
+    return new User(id, username, "password", new Role(), DATE.minusYears(1).atStartOfDay(),
+        updatedAt, disabled);
+  }
+
+  private static EmotionRecordDto record(Long id, Long patientId, String superheroName,
+                                         LocalDateTime createdAt, Period period) {
+    return EmotionRecordDto.builder()
+        .id(id)
+        .emotion(Emotion.HAPPY)
+        .intensity(3)
+        .period(period)
+        .createdAt(createdAt)
+        .note("Note " + id)
+        .patientId(patientId)
+        .superheroName(superheroName)
+        .build();
+  }
+}
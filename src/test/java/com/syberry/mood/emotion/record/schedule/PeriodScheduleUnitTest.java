@@ -0,0 +1,86 @@
+package com.syberry.mood.emotion.record.schedule;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.exception.InvalidArgumentTypeException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+public class PeriodScheduleUnitTest {
+
+  private final PeriodSchedule schedule = PeriodSchedule.DEFAULT;
+  private final PeriodSchedule twoPeriods = PeriodSchedule.parse("evening=18:30, morning=00:00");
+
+  @Test
+  public void should_FindPeriodByTime() {
+    assertEquals(Period.MORNING, schedule.periodAt(LocalTime.MIDNIGHT));
+    assertEquals(Period.MORNING, schedule.periodAt(LocalTime.of(11, 59, 59)));
+    assertEquals(Period.AFTERNOON, schedule.periodAt(LocalTime.NOON));
+    assertEquals(Period.EVENING, schedule.periodAt(LocalTime.of(17, 0)));
+    assertEquals(Period.EVENING, schedule.periodAt(LocalTime.MAX));
+    assertEquals(Period.EVENING, twoPeriods.periodAt(LocalTime.of(18, 30)));
+  }
+
+  @Test
+  public void should_ReturnPeriodBoundaries() {
+    assertEquals(List.of(Period.MORNING, Period.EVENING), twoPeriods.getPeriods());
+    assertEquals(LocalTime.of(18, 30), twoPeriods.getStartTime(Period.EVENING));
+    assertEquals(LocalTime.of(18, 30), twoPeriods.getEndTime(Period.MORNING));
+    assertEquals(LocalTime.MIDNIGHT, twoPeriods.getEndTime(Period.EVENING));
+    assertFalse(twoPeriods.isScheduled(Period.AFTERNOON));
+  }
+
+  @Test
+  public void should_CountPeriodsOfDay() {
+    assertEquals(3, schedule.countPeriodsFrom(Period.MORNING));
+    assertEquals(1, schedule.countPeriodsFrom(Period.EVENING));
+    assertEquals(1, schedule.countPeriodsUntil(Period.MORNING));
+    assertEquals(2, schedule.countPeriodsUntil(Period.AFTERNOON));
+    assertEquals(3, schedule.countPeriodsUntil(Period.EVENING));
+    assertEquals(3, schedule.countPeriodsBetween(Period.EVENING, Period.MORNING));
+  }
+
+  @Test
+  public void should_CountPeriodsBetweenInstants() {
+    LocalDateTime start = LocalDateTime.of(2023, 1, 1, 13, 0);
+    assertEquals(1, schedule.countPeriodsBetween(start, start.plusHours(3)));
+    assertEquals(2, schedule.countPeriodsBetween(start, start.plusHours(4)));
+    assertEquals(3, schedule.countPeriodsBetween(start, start.withHour(23).plusHours(1)));
+    assertEquals(2 + 9 * 3 + 1,
+        schedule.countPeriodsBetween(start, start.plusDays(10).withHour(0)));
+    for (int hours = 0; hours < 24 * 7; hours++) {
+      assertEquals(countBySteps(twoPeriods, start, start.plusHours(hours)),
+          twoPeriods.countPeriodsBetween(start, start.plusHours(hours)));
+    }
+  }
+
+  @Test
+  public void should_ThrowError_When_ScheduleIsInvalid() {
+    assertThrows(InvalidArgumentTypeException.class,
+        () -> PeriodSchedule.parse("MORNING=06:00, EVENING=18:00"));
+    assertThrows(InvalidArgumentTypeException.class,
+        () -> PeriodSchedule.parse("MORNING=00:00, BEDTIME=22:00"));
+    assertThrows(InvalidArgumentTypeException.class,
+        () -> PeriodSchedule.parse("MORNING=00:00, EVENING=18:00, evening=19:00"));
+    assertThrows(InvalidArgumentTypeException.class,
+        () -> twoPeriods.getStartTime(Period.AFTERNOON));
+  }
+
+  private static int countBySteps(PeriodSchedule schedule, LocalDateTime start,
+                                  LocalDateTime end) {
+    int count = 1;
+    Period period = schedule.periodAt(start.toLocalTime());
+    for (LocalDateTime time = start; !time.isAfter(end); time = time.plusMinutes(30)) {
+      if (schedule.periodAt(time.toLocalTime()) != period) {
+        period = schedule.periodAt(time.toLocalTime());
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -13,6 +13,9 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.syberry.mood.authorization.security.UserDetailsImpl;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.emotion.record.cache.GridSliceCache;
 import com.syberry.mood.emotion.record.converter.EmotionRecordConverter;
 import com.syberry.mood.emotion.record.converter.PeriodConverter;
 import com.syberry.mood.emotion.record.dto.Emotion;
@@ -24,7 +27,10 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordUpdatingDto;
 import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
 import com.syberry.mood.emotion.record.dto.Period;
 import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
 import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.emotion.record.service.impl.EmotionRecordServiceImpl;
 import com.syberry.mood.emotion.record.service.impl.PdfServiceImpl;
 import com.syberry.mood.emotion.record.specification.EmotionRecordSpecification;
@@ -36,11 +42,15 @@ import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.Role;
 import com.syberry.mood.user.entity.User;
 import com.syberry.mood.user.repository.UserRepository;
+import com.syberry.mood.user.service.PatientDirectoryService;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -51,9 +61,11 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -84,9 +96,23 @@ public class EmotionRecordServiceTest {
   @Mock
   private StatisticService statisticService;
   @Mock
+  private EmotionRecordArchiveService archiveService;
+  @Mock
+  private GridSliceCache gridCache;
+  @Mock
   private PdfServiceImpl pdfService;
   @Mock
   private CsvService csvService;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Mock
+  private PatientDirectoryService patientDirectory;
+  @Mock
+  private ChangeLogService changeLog;
+  @Spy
+  private PeriodSchedule schedule = PeriodSchedule.DEFAULT;
+  @Mock
+  private Clock clock;
 
   private final Long id = 1L;
   private final String username = "Super Man";
@@ -152,7 +178,7 @@ public class EmotionRecordServiceTest {
       .id(id)
       .emotion(emotion)
       .intensity(intensity)
-      .period(Period.findOutPeriodByTime(LocalTime.now()))
+      .period(PeriodSchedule.DEFAULT.periodAt(LocalTime.now()))
       .createdAt(createdAt)
       .patientId(patient.getId())
       .superheroName(patient.getUsername())
@@ -176,6 +202,8 @@ public class EmotionRecordServiceTest {
 
   @BeforeEach
   public void mock() {
+    when(clock.instant()).thenAnswer(invocation -> Instant.now());
+    when(clock.getZone()).thenReturn(ZoneId.systemDefault());
     when(securityContext.getAuthentication()).thenReturn(authentication);
     SecurityContextHolder.setContext(securityContext);
     when(authentication.getPrincipal())
@@ -185,7 +213,7 @@ public class EmotionRecordServiceTest {
 
   @Test
   public void should_SuccessfullyReturnAllEmotionRecords() {
-    when(userRepository.findAllPatientsSortIdDesc())
+    when(patientDirectory.findAllPatients())
         .thenReturn(new ArrayList<>(Collections.singletonList(patient)));
     when(recordRepository.findAll(
         specification.buildGetAllByDatesSpecification(any(EmotionRecordFilter.class))))
@@ -245,11 +273,11 @@ public class EmotionRecordServiceTest {
   @Test
   public void should_SuccessfullyFindTodayEmotionRecordForCurrentPatient() {
     when(recordRepository.findByPatientIdAndPeriodAndDate(anyLong(), any(Period.class),
-        any(LocalDate.class)))
+        any(LocalDate.class), any(PeriodSchedule.class)))
         .thenReturn(Optional.empty());
     when(recordConverter.convertToDto(any(EmotionRecord.class))).thenReturn(emotionRecordDto);
     Map<String, EmotionRecordDto> todayEmotions = new HashMap<>();
-    for (Period period : Period.values()) {
+    for (Period period : PeriodSchedule.DEFAULT.getPeriods()) {
       todayEmotions.put(period.toString(), null);
     }
     assertEquals(recordService.findTodayEmotionRecordsForCurrentPatient(), todayEmotions);
@@ -310,7 +338,8 @@ public class EmotionRecordServiceTest {
 
   @Test
   public void should_SuccessfullyUpdateEmotionRecordByPatient() {
-    when(recordRepository.findByPatientIdAndCurrentDate(anyLong())).thenReturn(emotionRecordDb2);
+    when(recordRepository.findByPatientIdAndCurrentDate(anyLong(), any(), any()))
+        .thenReturn(emotionRecordDb2);
     doNothing().when(recordValidator).validateIsNotUpdated(any(EmotionRecord.class));
     when(recordConverter.convertToEntity(any(EmotionRecordByPatientDto.class), any(EmotionRecord.class)))
         .thenReturn(emotionRecordDb);
@@ -320,7 +349,7 @@ public class EmotionRecordServiceTest {
 
   @Test
   public void should_ThrowError_When_UpdatingByPatientNotExistedEmotionRecord() {
-    when(recordRepository.findByPatientIdAndCurrentDate(anyLong()))
+    when(recordRepository.findByPatientIdAndCurrentDate(anyLong(), any(), any()))
         .thenThrow(EntityNotFoundException.class);
     assertThrows(EntityNotFoundException.class,
         () -> recordService.updateEmotionRecordByPatient(byPatientDto));
@@ -329,7 +358,11 @@ public class EmotionRecordServiceTest {
   @Test
   public void should_SuccessfullyDeleteEmotionRecord() {
     when(recordRepository.findByIdIfExists(anyLong())).thenReturn(emotionRecordDb);
-    recordService.deleteEmotionRecordById(anyLong());
+    when(recordConverter.convertToDto(any(EmotionRecord.class))).thenReturn(emotionRecordDto);
+    recordService.deleteEmotionRecordById(id);
+    verify(changeLog).recordChange(ChangedEntity.EMOTION_RECORD, id, ChangeType.DELETED,
+        emotionRecordDto);
+    verify(eventPublisher).publishEvent(any(EmotionRecordChangedEvent.class));
   }
 
   @Test
@@ -343,7 +376,7 @@ public class EmotionRecordServiceTest {
   public void should_SuccessfullyCreateCsvFile() {
     try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
       byteArrayOutputStream.write(CSV_CONTENT.getBytes());
-      createCsv(null, null, null, byteArrayOutputStream);
+      createCsv(null, LocalDate.now(), LocalDate.now(), byteArrayOutputStream);
     } catch (IOException e) {
       throw new CsvFileException("Can't generate CSV file.", e);
     }
@@ -353,7 +386,7 @@ public class EmotionRecordServiceTest {
   public void should_ReturnCsvFileWithEmptyBodyWhenFilterByNonExistingPatient() {
     try (ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream()) {
       byteArrayOutputStream.write(CSV_HEADER.getBytes());
-      createCsv(99L, null, null, byteArrayOutputStream);
+      createCsv(99L, LocalDate.now(), LocalDate.now(), byteArrayOutputStream);
     } catch (IOException e) {
       throw new CsvFileException("Can't generate CSV file.", e);
     }
@@ -380,7 +413,7 @@ public class EmotionRecordServiceTest {
 
   @Test
   void should_SuccessfullyGetEmotionRecordsDataInPdf() {
-    when(userRepository.findAllPatientsSortIdDesc())
+    when(patientDirectory.findAllPatients())
         .thenReturn(new ArrayList<>(Collections.singletonList(patient)));
     when(recordRepository.findAll(
         specification.buildGetAllByDatesSpecification(any(EmotionRecordFilter.class))))
@@ -9,6 +9,7 @@ import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
 import com.syberry.mood.emotion.record.dto.EmotionRecordFilter;
 import com.syberry.mood.emotion.record.dto.EmotionsStatisticDto;
 import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.emotion.record.service.impl.PdfServiceImpl;
 import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.Role;
@@ -25,6 +26,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -40,6 +42,8 @@ class PdfServiceTest {
 
   @Mock
   UserRepository userRepository;
+  @Spy
+  PeriodSchedule schedule = PeriodSchedule.DEFAULT;
   Map<String, Map<String, Map<String, EmotionRecordDto>>> records = new HashMap<>();
   EmotionsStatisticDto statisticDto;
   EmotionRecordFilter filter;
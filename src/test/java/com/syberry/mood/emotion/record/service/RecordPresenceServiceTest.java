@@ -0,0 +1,149 @@
+package com.syberry.mood.emotion.record.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.when;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsImportedEvent;
+import com.syberry.mood.emotion.record.event.EmotionRecordsRemovedEvent;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.emotion.record.service.impl.RecordPresenceServiceImpl;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class RecordPresenceServiceTest {
+
+  private static final LocalDate DATE = LocalDate.of(2023, 1, 10);
+
+  @Mock
+  private EmotionRecordRepository recordRepository;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+  @Mock
+  private EmotionRecordArchiveService archiveService;
+  private RecordPresenceServiceImpl presenceService;
+
+  @BeforeEach
+  public void setUp() {
+    presenceService = new RecordPresenceServiceImpl(recordRepository, transactionManager,
+        PeriodSchedule.DEFAULT, archiveService);
+    when(recordRepository.streamAllSlots()).thenReturn(Stream.of(
+        new Object[] {1L, DATE.atTime(9, 0), Period.MORNING},
+        new Object[] {1L, DATE.atTime(17, 0), Period.EVENING},
+        new Object[] {2L, DATE.plusDays(1).atTime(12, 0), Period.AFTERNOON}));
+    when(archiveService.streamRecords(isNull(), any(), any())).thenReturn(Stream.of(
+        EmotionRecordDto.builder().patientId(4L).createdAt(DATE.minusYears(1).atTime(9, 0))
+            .period(Period.MORNING).build()));
+    presenceService.afterSingletonsInstantiated();
+  }
+
+  @Test
+  public void should_LoadFilledSlots() {
+    assertTrue(presenceService.isFilled(1L, DATE, Period.MORNING));
+    assertFalse(presenceService.isFilled(1L, DATE, Period.AFTERNOON));
+    assertTrue(presenceService.isFilled(2L, DATE.plusDays(1), Period.AFTERNOON));
+    assertFalse(presenceService.isFilled(3L, DATE, Period.MORNING));
+    assertTrue(presenceService.isFilled(4L, DATE.minusYears(1), Period.MORNING));
+  }
+
+  @Test
+  public void should_CountFilledSlotsBetweenInstants() {
+    assertEquals(2, presenceService.countFilledSlots(1L, DATE.atStartOfDay(),
+        DATE.atTime(23, 59)));
+    assertEquals(1, presenceService.countFilledSlots(1L, DATE.atTime(11, 30),
+        DATE.atTime(12, 0)));
+    assertEquals(0, presenceService.countFilledSlots(1L, DATE.atTime(12, 0),
+        DATE.atTime(16, 0)));
+    assertEquals(2, presenceService.countFilledSlots(1L, DATE.minusYears(1).atStartOfDay(),
+        DATE.plusYears(1).atStartOfDay()));
+  }
+
+  @Test
+  public void should_FindMissingSlots() {
+    BitSet missing = presenceService.findMissingSlots(1L, DATE.minusDays(1), DATE);
+    BitSet expected = new BitSet();
+    expected.set(0, 3);
+    expected.set(4);
+    assertEquals(expected, missing);
+    assertEquals(6, presenceService.findMissingSlots(3L, DATE, DATE.plusDays(1)).cardinality());
+  }
+
+  @Test
+  public void should_MaintainSlots_When_RecordsChange() {
+    presenceService.onEmotionRecordChanged(new EmotionRecordChangedEvent(ChangeType.DELETED,
+        record(1L, DATE.atTime(9, 0), Period.MORNING)));
+    presenceService.onEmotionRecordChanged(new EmotionRecordChangedEvent(ChangeType.CREATED,
+        record(1L, DATE.minusYears(2).atTime(12, 0), Period.AFTERNOON)));
+    assertFalse(presenceService.isFilled(1L, DATE, Period.MORNING));
+    assertTrue(presenceService.isFilled(1L, DATE, Period.EVENING));
+    assertTrue(presenceService.isFilled(1L, DATE.minusYears(2), Period.AFTERNOON));
+
+    when(recordRepository.findAllSlotsByPatientIds(Set.of(3L))).thenReturn(List.<Object[]>of(
+        new Object[] {3L, DATE.atTime(0, 0), Period.MORNING}));
+    presenceService.onEmotionRecordsImported(new EmotionRecordsImportedEvent(Set.of(3L),
+        Set.of(DATE)));
+    assertEquals(List.of(1L, 2L),
+        presenceService.findPatientsWithoutRecord(List.of(1L, 2L, 3L), DATE, Period.MORNING));
+  }
+
+  @Test
+  public void should_KeepChangesMadeDuringReload_When_SlotsReloaded() {
+    when(recordRepository.streamAllSlots()).thenAnswer(invocation -> {
+      presenceService.onEmotionRecordChanged(new EmotionRecordChangedEvent(ChangeType.CREATED,
+          record(6L, DATE.atTime(12, 0), Period.AFTERNOON)));
+      return Stream.<Object[]>of(new Object[] {3L, DATE.atTime(9, 0), Period.MORNING});
+    });
+    when(archiveService.streamRecords(isNull(), any(), any())).thenReturn(Stream.empty());
+
+    presenceService.reloadSlots();
+
+    assertFalse(presenceService.isFilled(1L, DATE, Period.MORNING));
+    assertFalse(presenceService.isFilled(4L, DATE.minusYears(1), Period.MORNING));
+    assertTrue(presenceService.isFilled(3L, DATE, Period.MORNING));
+    assertTrue(presenceService.isFilled(6L, DATE, Period.AFTERNOON));
+  }
+
+  @Test
+  public void should_KeepOnlyArchivedSlots_When_RecordsRemoved() {
+    when(archiveService.streamRecords(null, LocalDateTime.of(2023, 1, 1, 0, 0),
+        LocalDateTime.of(2023, 2, 1, 0, 0))).thenReturn(Stream.of(
+            record(5L, DATE.minusDays(3).atTime(9, 0), Period.MORNING)));
+
+    presenceService.onEmotionRecordsRemoved(new EmotionRecordsRemovedEvent(
+        LocalDate.of(2023, 1, 1), LocalDate.of(2023, 1, 31)));
+
+    assertFalse(presenceService.isFilled(1L, DATE, Period.MORNING));
+    assertFalse(presenceService.isFilled(1L, DATE, Period.EVENING));
+    assertFalse(presenceService.isFilled(2L, DATE.plusDays(1), Period.AFTERNOON));
+    assertTrue(presenceService.isFilled(4L, DATE.minusYears(1), Period.MORNING));
+    assertTrue(presenceService.isFilled(5L, DATE.minusDays(3), Period.MORNING));
+  }
+
+  private static EmotionRecordDto record(Long patientId, LocalDateTime createdAt,
+                                         Period period) {
+    return EmotionRecordDto.builder()
+        .patientId(patientId)
+        .createdAt(createdAt)
+        .period(period)
+        .build();
+  }
+}
@@ -0,0 +1,156 @@
+package com.syberry.mood.emotion.record.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.emotion.record.event.EmotionRecordChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class EmotionRecordEventServiceImplTest {
+
+  private static final Pattern EVENT = Pattern.compile("id:(\\d+)\nevent:(\\w+)\n");
+
+  private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private RecordingEmitter emitter = new RecordingEmitter();
+  private final EmotionRecordEventServiceImpl eventService =
+      new EmotionRecordEventServiceImpl(2, 2, 1, meterRegistry) {
+        @Override
+        SseEmitter createEmitter() {
+          return emitter;
+        }
+      };
+
+  @AfterEach
+  public void tearDown() {
+    emitter.release.countDown();
+    eventService.shutdown();
+  }
+
+  @Test
+  public void should_DropOldestEvents_When_BufferOfSubscriberIsFull() throws Exception {
+    emitter.blockFirstSend();
+    eventService.subscribe(null);
+    assertEquals("subscribed:0", emitter.nextSent());
+
+    publish(ChangeType.CREATED);
+    publish(ChangeType.UPDATED);
+    publish(ChangeType.DELETED);
+    emitter.release.countDown();
+
+    assertEquals("updated:2", emitter.nextSent());
+    assertEquals("deleted:3", emitter.nextSent());
+    assertEquals(1, meterRegistry.counter("mood.record.events.dropped").count());
+  }
+
+  @Test
+  public void should_ReplayHistory_When_ResumeTokenIsInHistory() throws Exception {
+    publish(ChangeType.CREATED);
+    publish(ChangeType.UPDATED);
+    publish(ChangeType.DELETED);
+
+    eventService.subscribe("1");
+
+    assertEquals("updated:2", emitter.nextSent());
+    assertEquals("deleted:3", emitter.nextSent());
+  }
+
+  @Test
+  public void should_SendReset_When_ResumeTokenIsOlderThanHistory() throws Exception {
+    publish(ChangeType.CREATED);
+    publish(ChangeType.UPDATED);
+    publish(ChangeType.DELETED);
+
+    eventService.subscribe("0");
+    assertEquals("reset:3", emitter.nextSent());
+
+    emitter = new RecordingEmitter();
+    eventService.subscribe("4");
+    assertEquals("reset:3", emitter.nextSent());
+  }
+
+  @Test
+  public void should_RemoveSubscriber_When_SendingFails() throws Exception {
+    emitter.failSends();
+    eventService.subscribe(null);
+
+    assertEquals("failed", emitter.nextSent());
+    assertTrue(emitter.completedWithError.await(5, TimeUnit.SECONDS));
+    assertEquals(0, meterRegistry.get("mood.record.events.subscribers").gauge().value());
+    publish(ChangeType.CREATED);
+    assertNull(emitter.sent.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  private void publish(ChangeType type) {
+    eventService.onEmotionRecordChanged(
+        new EmotionRecordChangedEvent(type, EmotionRecordDto.builder().id(1L).build()));
+  }
+
+  /**
+   * An emitter recording the names and the IDs of the events it is asked to send.
+   */
+  private static class RecordingEmitter extends SseEmitter {
+
+    private final BlockingQueue<String> sent = new LinkedBlockingQueue<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch completedWithError = new CountDownLatch(1);
+    private boolean blocking;
+    private boolean failing;
+
+    void blockFirstSend() {
+      blocking = true;
+    }
+
+    void failSends() {
+      failing = true;
+    }
+
+    String nextSent() throws InterruptedException {
+      return sent.poll(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (failing) {
+        sent.add("failed");
+        throw new IOException("Broken pipe");
+      }
+      String text = builder.build().stream()
+          .map(DataWithMediaType::getData)
+          .filter(String.class::isInstance)
+          .map(String.class::cast)
+          .collect(Collectors.joining());
+      Matcher event = EVENT.matcher(text);
+      if (event.find()) {
+        sent.add(event.group(2) + ":" + event.group(1));
+      }
+      if (blocking) {
+        blocking = false;
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    }
+
+    @Override
+    public void completeWithError(Throwable ex) {
+      completedWithError.countDown();
+    }
+  }
+}
@@ -0,0 +1,19 @@
+package com.syberry.mood.emotion.record.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.Test;
+
+public class DateUtilUnitTest {
+
+  @Test
+  public void should_KeepEndOfDayWithinDay() {
+    LocalDate lastDayOfMonth = LocalDate.of(2024, 1, 31);
+    assertEquals(LocalDateTime.of(2024, 1, 31, 23, 59, 59, 999_999_000),
+        DateUtil.convertToDateTimeEndDay(lastDayOfMonth));
+    assertEquals(LocalDateTime.of(2024, 2, 1, 0, 0),
+        DateUtil.convertToDateTimeStartNextDay(lastDayOfMonth));
+  }
+}
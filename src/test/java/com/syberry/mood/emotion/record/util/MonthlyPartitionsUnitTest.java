@@ -0,0 +1,35 @@
+package com.syberry.mood.emotion.record.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.YearMonth;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+public class MonthlyPartitionsUnitTest {
+
+  @Test
+  public void should_NamePartitionsAfterMonths() {
+    assertEquals("p202301", MonthlyPartitions.partitionName(YearMonth.of(2023, 1)));
+    assertEquals(Optional.of(YearMonth.of(2023, 12)), MonthlyPartitions.parseMonth("p202312"));
+    assertEquals(Optional.empty(), MonthlyPartitions.parseMonth("pmax"));
+  }
+
+  @Test
+  public void should_BuildPartitionPerMonth() {
+    assertEquals("PARTITION BY RANGE COLUMNS(`created_at`) ("
+            + "PARTITION p202311 VALUES LESS THAN ('2023-12-01'), "
+            + "PARTITION p202312 VALUES LESS THAN ('2024-01-01'), "
+            + "PARTITION p202401 VALUES LESS THAN ('2024-02-01'), "
+            + "PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+        MonthlyPartitions.partitionBy(YearMonth.of(2023, 11), YearMonth.of(2024, 1)));
+  }
+
+  @Test
+  public void should_SplitMonthsOffMaxValuePartition() {
+    assertEquals("ALTER TABLE `emotion_record` REORGANIZE PARTITION pmax INTO ("
+            + "PARTITION p202402 VALUES LESS THAN ('2024-03-01'), "
+            + "PARTITION pmax VALUES LESS THAN (MAXVALUE))",
+        MonthlyPartitions.reorganizeMaxValue(YearMonth.of(2024, 2), YearMonth.of(2024, 2)));
+  }
+}
@@ -2,14 +2,17 @@ package com.syberry.mood.employee.converter;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 import com.syberry.mood.employee.dto.EmployeeCreatingDto;
 import com.syberry.mood.employee.dto.EmployeeDto;
+import com.syberry.mood.employee.dto.EmployeeFilter;
 import com.syberry.mood.employee.dto.EmployeeUpdatingDto;
 import com.syberry.mood.employee.entity.Employee;
 import com.syberry.mood.employee.repository.EmployeeRepository;
+import com.syberry.mood.exception.InvalidArgumentTypeException;
 import com.syberry.mood.user.converter.RoleConverter;
 import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.Role;
@@ -21,6 +24,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 @ExtendWith(MockitoExtension.class)
 class EmployeeConverterTest {
@@ -94,6 +99,28 @@ class EmployeeConverterTest {
         .isEqualTo(updatedEmployee);
   }
 
+  @Test
+  void convertToPageableWhenSortByEmailDescThenReturnPageableOrderedByUsernameAndId() {
+    EmployeeFilter filter = new EmployeeFilter(null, null, 2, 10, "email,desc");
+
+    Pageable pageable = employeeConverter.convertToPageable(filter);
+
+    assertEquals(2, pageable.getPageNumber());
+    assertEquals(10, pageable.getPageSize());
+    assertEquals(Sort.by(Sort.Direction.DESC, "user.username").and(Sort.by("id")),
+        pageable.getSort());
+  }
+
+  @Test
+  void convertToPageableWhenSortOrSizeInvalidThenThrowInvalidArgumentTypeException() {
+    assertThrows(InvalidArgumentTypeException.class, () -> employeeConverter
+        .convertToPageable(new EmployeeFilter(null, null, 0, 20, "password")));
+    assertThrows(InvalidArgumentTypeException.class, () -> employeeConverter
+        .convertToPageable(new EmployeeFilter(null, null, 0, 20, "id,up")));
+    assertThrows(InvalidArgumentTypeException.class, () -> employeeConverter
+        .convertToPageable(new EmployeeFilter(null, null, 0, 101, "id")));
+  }
+
   private Employee createEmployee(String firstname, String lastname, User user) {
     return Employee.builder()
         .id(ID)
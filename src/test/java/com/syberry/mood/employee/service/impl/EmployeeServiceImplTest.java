@@ -3,20 +3,25 @@ package com.syberry.mood.employee.service.impl;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import com.syberry.mood.authorization.security.UserDetailsImpl;
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.employee.converter.EmployeeConverter;
 import com.syberry.mood.employee.dto.EmployeeCreatingDto;
 import com.syberry.mood.employee.dto.EmployeeDto;
+import com.syberry.mood.employee.dto.EmployeeFilter;
 import com.syberry.mood.employee.dto.EmployeeUpdatingDto;
 import com.syberry.mood.employee.entity.Employee;
 import com.syberry.mood.employee.repository.EmployeeRepository;
+import com.syberry.mood.employee.specification.EmployeeSpecification;
 import com.syberry.mood.employee.validation.EmployeeValidator;
 import com.syberry.mood.exception.EntityNotFoundException;
 import com.syberry.mood.exception.ValidationException;
+import com.syberry.mood.sharding.ClinicRouter;
 import com.syberry.mood.user.converter.RoleConverter;
 import com.syberry.mood.user.converter.UserConverter;
 import com.syberry.mood.user.dto.RoleName;
@@ -33,6 +38,11 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -54,12 +64,16 @@ class EmployeeServiceImplTest {
   @Mock
   private EmployeeValidator employeeValidator;
   @Mock
+  private EmployeeSpecification specification;
+  @Mock
   private UserConverter userConverter;
   @Mock
   private RoleConverter roleConverter;
   @Mock
   private PasswordEncoder passwordEncoder;
   @Mock
+  private ClinicRouter clinicRouter;
+  @Mock
   private SecurityContext securityContext;
   @Mock
   private Authentication authentication;
@@ -107,13 +121,22 @@ class EmployeeServiceImplTest {
   }
 
   @Test
-  void findAllEmployeesWhenCalledThenReturnsListOfEmployeeDto() {
-    when(employeeRepository.findAll()).thenReturn(List.of(employee));
-    when(employeeConverter.convertToDto(any())).thenReturn(employeeDto);
-
-    List<EmployeeDto> actualResult = employeeService.findAllEmployees();
-
-    assertEquals(List.of(employeeDto), actualResult);
+  void findAllEmployeesWhenCalledThenReturnsPageOfEmployeeDto() {
+    EmployeeFilter filter = new EmployeeFilter();
+    filter.setRoleName("admin");
+    Pageable pageable = PageRequest.of(0, 20);
+    Page<Employee> page = new PageImpl<>(List.of(employee), pageable, 1);
+    PageDto<EmployeeDto> pageDto = new PageDto<>(List.of(employeeDto), 0, 20, 1, 1);
+    when(roleConverter.convertToRoleName("admin")).thenReturn(RoleName.ADMIN);
+    when(specification.buildGetAllByRoleAndDisabledSpecification(RoleName.ADMIN, null))
+        .thenReturn(Specification.where(null));
+    when(employeeConverter.convertToPageable(filter)).thenReturn(pageable);
+    when(employeeRepository.findAll(any(Specification.class), eq(pageable))).thenReturn(page);
+    when(employeeConverter.convertToPageDto(page)).thenReturn(pageDto);
+
+    PageDto<EmployeeDto> actualResult = employeeService.findAllEmployees(filter);
+
+    assertEquals(pageDto, actualResult);
   }
 
   @Test
@@ -0,0 +1,136 @@
+package com.syberry.mood.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.RoleRepository;
+import com.syberry.mood.user.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * This class checks that the expensive endpoints reject the requests exceeding the token bucket
+ * of the user or the concurrency limit of the endpoint class with 429 Too Many Requests.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class, properties = {
+    "app.admission.bucket-capacity=10",
+    "app.admission.refill-per-second=0.01",
+    "app.admission.max-concurrent.pdf=0"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+public class AdmissionControlIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+  @Autowired
+  private MeterRegistry meterRegistry;
+
+  @BeforeEach
+  public void setUp() {
+    roleRepository.save(new Role(1L, RoleName.SUPER_ADMIN));
+    roleRepository.save(new Role(2L, RoleName.ADMIN));
+    roleRepository.save(new Role(3L, RoleName.MODERATOR));
+    Role userRole = roleRepository.save(new Role(4L, RoleName.USER));
+    savePatient(new User(2L, "Magical Fairy",
+        "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
+        LocalDateTime.now(), null, false));
+    savePatient(new User(3L, "Magical Frog",
+        "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
+        LocalDateTime.now(), null, false));
+  }
+
+  @Test
+  public void should_RejectRequests_When_TokenBucketOfUserIsEmpty() throws Exception {
+    perform("/emotion-records", "2023-01-01", "2023-01-04")
+        .andExpect(status().isOk());
+    perform("/emotion-records/patients/2", "2023-01-01", "2023-01-02")
+        .andExpect(status().isOk());
+    perform("/emotion-records/patients/2/statistic", "2023-01-01", "2023-01-05")
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "500"));
+    perform("/emotion-records/patients/2/statistic", "2023-01-01", "2023-01-01")
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "100"));
+
+    assertEquals(2, meterRegistry.counter("mood.admission.rejected",
+        "class", "statistic", "reason", "rate").count());
+  }
+
+  @Test
+  public void should_ChargeFullCost_When_ConditionalRequestHasNoCurrentTag() throws Exception {
+    String etag = perform("/emotion-records/patients/2", "2023-01-01", "2023-01-08")
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    revalidate(etag)
+        .andExpect(status().isNotModified());
+    revalidate("\"stale\"")
+        .andExpect(status().isTooManyRequests());
+    revalidate(etag)
+        .andExpect(status().isNotModified());
+
+    assertEquals(1, meterRegistry.counter("mood.admission.rejected",
+        "class", "grid", "reason", "rate").count());
+  }
+
+  @Test
+  public void should_RejectRequests_When_EndpointClassHasNoFreeSlot() throws Exception {
+    perform("/emotion-records/pdf-file", "2023-01-01", "2023-01-01")
+        .andExpect(status().isTooManyRequests())
+        .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"));
+    perform("/emotion-records/csv-file", "2023-01-01", "2023-01-01")
+        .andExpect(status().isOk());
+
+    assertEquals(1, meterRegistry.counter("mood.admission.rejected",
+        "class", "pdf", "reason", "concurrency").count());
+  }
+
+  private ResultActions revalidate(String etag) throws Exception {
+    return mockMvc.perform(get("/emotion-records/patients/2")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .param("startDate", "2023-01-01")
+        .param("endDate", "2023-01-08"));
+  }
+
+  private void savePatient(User patient) {
+    eventPublisher.publishEvent(new PatientChangedEvent(userRepository.save(patient)));
+  }
+
+  private ResultActions perform(String url, String startDate, String endDate)
+      throws Exception {
+    return mockMvc.perform(get(url)
+        .param("startDate", startDate)
+        .param("endDate", endDate));
+  }
+}
@@ -0,0 +1,198 @@
+package com.syberry.mood.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.changelog.service.ChangeLogTailService;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.repository.RoleRepository;
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class, properties = "app.change-log.chunk-size=1")
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+public class ChangeLogIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private ChangeLogService changeLogService;
+  @Autowired
+  private ChangeLogTailService changeLogTailService;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    roleRepository.save(new Role(1L, RoleName.ADMIN));
+    roleRepository.save(new Role(2L, RoleName.MODERATOR));
+    roleRepository.save(new Role(3L, RoleName.USER));
+
+    mockMvc.perform(post("/patients")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(readJson("create-patient.json")))
+        .andExpect(status().isCreated());
+    mockMvc.perform(post("/emotion-records/patients/1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(readJson("create-emotion-record.json")))
+        .andExpect(status().isCreated());
+    mockMvc.perform(put("/patients/1").content("Bat Man"))
+        .andExpect(status().isOk());
+    mockMvc.perform(delete("/emotion-records/1"))
+        .andExpect(status().isNoContent());
+  }
+
+  @Test
+  public void should_TailChangesInCommitOrder() throws Exception {
+    mockMvc.perform(get("/changes").param("limit", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(2)))
+        .andExpect(jsonPath("$.changes[0].sequence").value(1))
+        .andExpect(jsonPath("$.changes[0].entityType").value("PATIENT"))
+        .andExpect(jsonPath("$.changes[0].operation").value("CREATED"))
+        .andExpect(jsonPath("$.changes[0].payload.superheroName").value("Super Man"))
+        .andExpect(jsonPath("$.changes[1].entityType").value("EMOTION_RECORD"))
+        .andExpect(jsonPath("$.changes[1].payload.patientId").value(1))
+        .andExpect(jsonPath("$.cursor").value(2))
+        .andExpect(jsonPath("$.truncated").value(false));
+    mockMvc.perform(get("/changes").param("cursor", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(2)))
+        .andExpect(jsonPath("$.changes[0].operation").value("UPDATED"))
+        .andExpect(jsonPath("$.changes[0].payload.superheroName").value("Bat Man"))
+        .andExpect(jsonPath("$.changes[1].entityId").value(1))
+        .andExpect(jsonPath("$.changes[1].operation").value("DELETED"))
+        .andExpect(jsonPath("$.cursor").value(4));
+    mockMvc.perform(get("/changes").param("cursor", "4"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(0)))
+        .andExpect(jsonPath("$.cursor").value(4));
+  }
+
+  @Test
+  public void should_LogImportedRecords() throws Exception {
+    mockMvc.perform(post("/emotion-records/import")
+            .contentType("text/csv")
+            .content("patientId,date,period,emotion,intensity\n"
+                + "1,2023-01-01,morning,happy,3\n"
+                + "1,2023-01-02,evening,sad,2\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(2));
+
+    mockMvc.perform(get("/changes").param("cursor", "4"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(2)))
+        .andExpect(jsonPath("$.changes[0].entityType").value("EMOTION_RECORD"))
+        .andExpect(jsonPath("$.changes[0].entityId").value(2))
+        .andExpect(jsonPath("$.changes[0].operation").value("CREATED"))
+        .andExpect(jsonPath("$.changes[0].payload.patientId").value(1))
+        .andExpect(jsonPath("$.changes[1].entityId").value(3))
+        .andExpect(jsonPath("$.changes[1].payload.period").value("EVENING"))
+        .andExpect(jsonPath("$.cursor").value(6));
+  }
+
+  @Test
+  public void should_DeleteExpiredChangesInChunks() throws Exception {
+    jdbcTemplate.update("UPDATE \"change_log\" SET \"created_at\" = ? WHERE \"sequence\" <= 3",
+        LocalDateTime.now().minusDays(31));
+
+    changeLogService.deleteExpiredChanges();
+
+    mockMvc.perform(get("/changes"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.changes[0].sequence").value(4))
+        .andExpect(jsonPath("$.truncated").value(true));
+    mockMvc.perform(get("/changes").param("cursor", "3"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.truncated").value(false));
+  }
+
+  @Test
+  public void should_WaitForGap_Until_CommitTimeout() throws Exception {
+    jdbcTemplate.update("DELETE FROM \"change_log\" WHERE \"sequence\" = 3");
+
+    mockMvc.perform(get("/changes").param("cursor", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(0)))
+        .andExpect(jsonPath("$.cursor").value(2))
+        .andExpect(jsonPath("$.truncated").value(false));
+
+    jdbcTemplate.update("UPDATE \"change_log\" SET \"created_at\" = ? WHERE \"sequence\" = 4",
+        LocalDateTime.now().minusMinutes(2));
+
+    mockMvc.perform(get("/changes").param("cursor", "2"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.changes[0].sequence").value(4))
+        .andExpect(jsonPath("$.cursor").value(4))
+        .andExpect(jsonPath("$.truncated").value(false));
+  }
+
+  @Test
+  public void should_ApplyChangesOfOtherInstances_When_Tailed() throws Exception {
+    jdbcTemplate.update("UPDATE \"user\" SET \"username\" = 'Iron Man' WHERE \"id\" = 1");
+    jdbcTemplate.update("INSERT INTO \"change_log\" (\"entity_type\", \"entity_id\","
+        + " \"operation\", \"created_at\") VALUES ('PATIENT', 1, 'UPDATED', ?)",
+        LocalDateTime.now());
+
+    mockMvc.perform(get("/patients"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].superheroName").value("Bat Man"));
+
+    changeLogTailService.pollChanges();
+
+    mockMvc.perform(get("/patients"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$[0].superheroName").value("Iron Man"));
+  }
+
+  @Test
+  public void should_RejectChanges_When_ShardNotFound() throws Exception {
+    mockMvc.perform(get("/changes").param("shard", "1"))
+        .andExpect(status().isBadRequest());
+  }
+
+  @Test
+  @WithMockUser(username = "Super Man", roles = "ADMIN")
+  public void should_ForbidChanges_When_NotSuperAdmin() throws Exception {
+    mockMvc.perform(get("/changes"))
+        .andExpect(status().isForbidden());
+  }
+
+  private String readJson(String name) throws Exception {
+    final File jsonFile = new ClassPathResource("json/" + name).getFile();
+    return Files.readString(jsonFile.toPath());
+  }
+}
@@ -0,0 +1,197 @@
+package com.syberry.mood.integration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mockingDetails;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.service.EmotionRecordArchiveService;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.RoleRepository;
+import com.syberry.mood.user.repository.UserRepository;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+/**
+ * This class checks that the archived emotion records are moved out of the database
+ * and are still returned by the reads together with the live records.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class)
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+public class EmotionRecordArchiveIntegrationTest {
+
+  private static final String PARAM_DATE = "2023-01-01";
+
+  @TempDir
+  static Path archiveDirectory;
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private UserRepository userRepository;
+  @SpyBean
+  private EmotionRecordRepository recordRepository;
+  @Autowired
+  private EmotionRecordArchiveService archiveService;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void archiveProperties(DynamicPropertyRegistry registry) {
+    registry.add("app.record-archive.horizon-months", () -> 1);
+    registry.add("app.record-archive.directory", () -> archiveDirectory.toString());
+  }
+
+  @BeforeEach
+  public void setUp() {
+    Role adminRole = new Role(1L, RoleName.SUPER_ADMIN);
+    Role userRole = new Role(4L, RoleName.USER);
+    roleRepository.save(adminRole);
+    roleRepository.save(new Role(2L, RoleName.ADMIN));
+    roleRepository.save(new Role(3L, RoleName.MODERATOR));
+    roleRepository.save(userRole);
+    userRepository.save(new User(1L, "doc@gmail.com", "#tv!ghw36", adminRole,
+        LocalDateTime.now(), null, false));
+    savePatient(new User(2L, "Magical Fairy",
+        "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
+        LocalDateTime.now(), null, false));
+    savePatient(new User(3L, "Magical Frog",
+        "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
+        LocalDateTime.now(), null, false));
+  }
+
+  @Test
+  public void should_ReadArchivedRecordsTogetherWithLiveRecords() throws Exception {
+    mockMvc.perform(post("/emotion-records/patients/2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"emotion\": \"sad\", \"intensity\": 5, \"note\": \"Note\", "
+                + "\"date\": \"2023-01-01\", \"period\": \"evening\"}"))
+        .andExpect(status().isCreated());
+
+    archiveService.archiveClosedMonths();
+
+    assertEquals(0, recordRepository.count());
+    assertTrue(Files.exists(archiveDirectory.resolve("records-2023-01.seg")));
+    assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM \"change_log\" "
+        + "WHERE \"entity_id\" = 1 AND \"operation\" = 'ARCHIVED'", Long.class));
+    mockMvc.perform(post("/emotion-records/import")
+            .contentType("text/csv")
+            .content("patientId,date,period,emotion,intensity\n3,2023-01-01,MORNING,HAPPY,2\n"))
+        .andExpect(status().isOk());
+    perform("/emotion-records", MediaType.APPLICATION_NDJSON)
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "{\"id\":2,\"emotion\":\"HAPPY\",\"intensity\":2,\"period\":\"MORNING\","
+                + "\"createdAt\":\"2023-01-01 00:00\",\"updatedAt\":null,\"note\":null,"
+                + "\"patientId\":3,\"superheroName\":\"Magical Frog\"}\n"
+                + "{\"id\":1,\"emotion\":\"SAD\",\"intensity\":5,\"period\":\"EVENING\","
+                + "\"createdAt\":\"2023-01-01 17:00\",\"updatedAt\":null,\"note\":\"Note\","
+                + "\"patientId\":2,\"superheroName\":\"Magical Fairy\"}\n"));
+    perform("/emotion-records", MediaType.APPLICATION_JSON)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING.note").value("Note"))
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Frog'].MORNING.id").value(2));
+    perform("/emotion-records/patients/2/statistic", MediaType.APPLICATION_JSON)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.lastEmotion").value("SAD"))
+        .andExpect(jsonPath("$.totalEmotionRecords").value(1));
+
+    archiveService.archiveClosedMonths();
+
+    assertEquals(0, recordRepository.count());
+    perform("/emotion-records/patients/3", MediaType.APPLICATION_NDJSON)
+        .andExpect(status().isOk())
+        .andExpect(content().string(
+            "{\"id\":2,\"emotion\":\"HAPPY\",\"intensity\":2,\"period\":\"MORNING\","
+                + "\"createdAt\":\"2023-01-01 00:00\",\"updatedAt\":null,\"note\":null,"
+                + "\"patientId\":3,\"superheroName\":\"Magical Frog\"}\n"));
+  }
+
+  @Test
+  public void should_KeepRecordsCommittedAfterSegmentWrite() throws Exception {
+    for (String period : new String[] {"morning", "evening"}) {
+      mockMvc.perform(post("/emotion-records/patients/2")
+              .contentType(MediaType.APPLICATION_JSON)
+              .content("{\"emotion\": \"sad\", \"intensity\": 5, "
+                  + "\"date\": \"2023-02-01\", \"period\": \"" + period + "\"}"))
+          .andExpect(status().isCreated());
+    }
+    // the first id is taken by an import that commits after the segment is written
+    jdbcTemplate.update("DELETE FROM \"emotion_record\" WHERE \"id\" = 1");
+    AtomicBoolean committed = new AtomicBoolean();
+    Answer<?> delete = mockingDetails(recordRepository).getMockCreationSettings()
+        .getDefaultAnswer();
+    doAnswer(invocation -> {
+      if (!committed.getAndSet(true)) {
+        jdbcTemplate.update("INSERT INTO \"emotion_record\" (\"id\", \"emotion\", "
+            + "\"intensity\", \"created_at\", \"user_id\", \"period\") "
+            + "VALUES (1, 'HAPPY', 2, '2023-02-01 00:00:00', 3, 'MORNING')");
+      }
+      return delete.answer(invocation);
+    }).when(recordRepository).deleteAllByIdIn(anyCollection());
+
+    archiveService.archiveClosedMonths();
+
+    assertEquals(0, recordRepository.count());
+    mockMvc.perform(get("/emotion-records")
+            .param("startDate", "2023-02-01")
+            .param("endDate", "2023-02-01"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.['2023-02-01'].['Magical Fairy'].EVENING.id").value(2))
+        .andExpect(jsonPath("$.['2023-02-01'].['Magical Frog'].MORNING.id").value(1));
+  }
+
+  private void savePatient(User patient) {
+    eventPublisher.publishEvent(new PatientChangedEvent(userRepository.save(patient)));
+  }
+
+  private ResultActions perform(String url, MediaType accept) throws Exception {
+    return mockMvc.perform(get(url)
+        .accept(accept)
+        .param("startDate", PARAM_DATE)
+        .param("endDate", PARAM_DATE));
+  }
+}
@@ -1,26 +1,40 @@
 package com.syberry.mood.integration;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.syberry.mood.MoodApplication;
-import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
 import com.syberry.mood.user.dto.RoleName;
 import com.syberry.mood.user.entity.Role;
 import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
 import com.syberry.mood.user.repository.RoleRepository;
 import com.syberry.mood.user.repository.UserRepository;
 import java.io.File;
 import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.ZoneId;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -29,7 +43,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
@@ -53,6 +70,10 @@ public class EmotionRecordIntegrationTest {
   private RoleRepository roleRepository;
   @Autowired
   private UserRepository userRepository;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+  @MockBean
+  private Clock clock;
 
   private static final String PARAM_DATE = "2023-01-01";
   private static final String PARAM_START_DATE = "startDate";
@@ -64,6 +85,8 @@ public class EmotionRecordIntegrationTest {
 
   @BeforeEach
   public void setUp() {
+    when(clock.instant()).thenAnswer(invocation -> Instant.now());
+    when(clock.getZone()).thenReturn(ZoneId.systemDefault());
     Role adminRole = new Role(1L, RoleName.SUPER_ADMIN);
     Role userRole = new Role(4L, RoleName.USER);
     roleRepository.save(adminRole);
@@ -72,10 +95,10 @@ public class EmotionRecordIntegrationTest {
     roleRepository.save(userRole);
     userRepository.save(new User(1L, "doc@gmail.com", "#tv!ghw36", adminRole,
         LocalDateTime.now(), null, false));
-    userRepository.save(new User(2L, "Magical Fairy",
+    savePatient(new User(2L, "Magical Fairy",
         "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
         LocalDateTime.now(), null, false));
-    userRepository.save(new User(3L, "Magical Frog",
+    savePatient(new User(3L, "Magical Frog",
         "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
         LocalDateTime.now(), null, false));
   }
@@ -203,7 +226,7 @@ public class EmotionRecordIntegrationTest {
         .andExpect(jsonPath("$.emotion").value("SAD"))
         .andExpect(jsonPath("$.intensity").value(5))
         .andExpect(jsonPath("$.period")
-            .value(Period.findOutPeriodByTime(LocalTime.now()).toString()))
+            .value(PeriodSchedule.DEFAULT.periodAt(LocalTime.now()).toString()))
         .andExpect(jsonPath("$.note").doesNotExist())
         .andExpect(jsonPath("$.patientId").value(2L))
         .andExpect(jsonPath("$.superheroName").value("Magical Fairy"));
@@ -260,7 +283,7 @@ public class EmotionRecordIntegrationTest {
         .andExpect(jsonPath("$.emotion").value("HAPPY"))
         .andExpect(jsonPath("$.intensity").value(3))
         .andExpect(jsonPath("$.period")
-            .value(Period.findOutPeriodByTime(LocalTime.now()).toString()))
+            .value(PeriodSchedule.DEFAULT.periodAt(LocalTime.now()).toString()))
         .andExpect(jsonPath("$.note").doesNotExist())
         .andExpect(jsonPath("$.patientId").value(2L))
         .andExpect(jsonPath("$.superheroName").value("Magical Fairy"));
@@ -330,6 +353,324 @@ public class EmotionRecordIntegrationTest {
     assertNotNull(result.getResponse().getOutputStream());
   }
 
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_ImportEmotionRecordsFromCsv() throws Exception {
+    String csv = "patientId,date,period,emotion,intensity,note\n"
+        + "2,2023-02-01,MORNING,HAPPY,4,\"Diary, page 1\"\n"
+        + "2,2023-02-01,morning,sad,2,\n"
+        + "9,2023-02-01,MORNING,SAD,2,\n"
+        + "3,2023-02-01,NIGHT,SAD,2,\n"
+        + "3,2023-02-02,EVENING,SAD,6,\n"
+        + "3,2023-02-02,EVENING,EXCITED,3,-\n";
+    mockMvc.perform(post("/emotion-records/import")
+            .contentType("text/csv")
+            .content(csv))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rows").value(6))
+        .andExpect(jsonPath("$.imported").value(2))
+        .andExpect(jsonPath("$.rejected").value(4))
+        .andExpect(jsonPath("$.errors[0].line").value(3))
+        .andExpect(jsonPath("$.errors[0].message").value(
+            "There is already an emotion record for: 2023-02-01 morning"))
+        .andExpect(jsonPath("$.errors[1].message").value("Patient with id: 9 is not found"))
+        .andExpect(jsonPath("$.errors[2].message").value(
+            "Error while converting invalid period: NIGHT. "
+                + "Valid periods: MORNING, AFTERNOON, EVENING"))
+        .andExpect(jsonPath("$.errors[3].line").value(6));
+
+    mockMvc.perform(get("/emotion-records/patients/2")
+            .param(PARAM_START_DATE, "2023-02-01")
+            .param(PARAM_END_DATE, "2023-02-01"))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("\"note\":\"Diary, page 1\"")));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_ImportEmotionRecordsFromJsonLines() throws Exception {
+    createEmotionRecord();
+    String jsonLines = "{\"patientId\":2,\"date\":\"2023-01-01\",\"period\":\"EVENING\","
+        + "\"emotion\":\"HAPPY\",\"intensity\":1}\n"
+        + "{\"patientId\":2,\"date\":\"2023-01-02\",\"period\":\"EVENING\"\n"
+        + "\n"
+        + "{\"patientId\":3,\"date\":\"2023-01-01\",\"period\":\"EVENING\","
+        + "\"emotion\":\"HAPPY\",\"intensity\":1}\n";
+    mockMvc.perform(post("/emotion-records/import")
+            .contentType("application/x-ndjson")
+            .content(jsonLines))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.rows").value(3))
+        .andExpect(jsonPath("$.imported").value(1))
+        .andExpect(jsonPath("$.rejected").value(2))
+        .andExpect(jsonPath("$.errors[0].message").value(
+            "There is already an emotion record for: 2023-01-01 evening"))
+        .andExpect(jsonPath("$.errors[1].line").value(2));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_RejectCsvImportWithoutRequiredColumns() throws Exception {
+    mockMvc.perform(post("/emotion-records/import")
+            .contentType("text/csv")
+            .content("patientId,date,emotion\n2,2023-02-01,HAPPY\n"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.errors[0]").value(
+            "The csv header misses the columns: period, intensity"));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_StreamEmotionRecordsAsJsonLines() throws Exception {
+    createEmotionRecord();
+    mockMvc.perform(post("/emotion-records/import")
+        .contentType("text/csv")
+        .content("patientId,date,period,emotion,intensity\n3,2023-01-01,MORNING,HAPPY,2\n"));
+
+    String expected = "{\"id\":2,\"emotion\":\"HAPPY\",\"intensity\":2,\"period\":\"MORNING\","
+        + "\"createdAt\":\"2023-01-01 00:00\",\"updatedAt\":null,\"note\":null,"
+        + "\"patientId\":3,\"superheroName\":\"Magical Frog\"}\n"
+        + "{\"id\":1,\"emotion\":\"SAD\",\"intensity\":5,\"period\":\"EVENING\","
+        + "\"createdAt\":\"2023-01-01 17:00\",\"updatedAt\":null,\"note\":\"Note\","
+        + "\"patientId\":2,\"superheroName\":\"Magical Fairy\"}\n";
+    perform("/emotion-records", MediaType.APPLICATION_NDJSON)
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+        .andExpect(content().string(expected));
+    perform("/emotion-records/patients/2", MediaType.APPLICATION_NDJSON)
+        .andExpect(status().isOk())
+        .andExpect(content().string(expected.substring(expected.indexOf("\n") + 1)));
+    mockMvc.perform(get("/emotion-records/records")
+            .param("patientId", "3")
+            .param(PARAM_START_DATE, PARAM_DATE)
+            .param(PARAM_END_DATE, PARAM_DATE))
+        .andExpect(status().isOk())
+        .andExpect(content().string(expected.substring(0, expected.indexOf("\n") + 1)));
+    perform("/emotion-records/patients/9", MediaType.APPLICATION_NDJSON)
+        .andExpect(status().isBadRequest());
+    perform("/emotion-records", MediaType.APPLICATION_JSON)
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_PushEmotionRecordChangesToSubscribers() throws Exception {
+    MvcResult subscription = mockMvc.perform(get("/emotion-records/events"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    createEmotionRecord();
+    mockMvc.perform(delete("/emotion-records/1"));
+
+    String events = awaitContent(subscription, "event:deleted");
+    assertTrue(events.contains("id:0\nevent:subscribed\n"));
+    assertTrue(events.contains("id:1\nevent:created\ndata:{\"id\":1,\"emotion\":\"SAD\""));
+    assertTrue(events.contains("id:2\nevent:deleted\ndata:{\"id\":1,"));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_ResumeEmotionRecordEventsAfterLastEventId() throws Exception {
+    createEmotionRecord();
+    mockMvc.perform(delete("/emotion-records/1"));
+
+    MvcResult resumed = mockMvc.perform(get("/emotion-records/events")
+            .header("Last-Event-ID", "1"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    String events = awaitContent(resumed, "event:deleted");
+    assertFalse(events.contains("event:created"));
+
+    MvcResult reset = mockMvc.perform(get("/emotion-records/events")
+            .param("lastEventId", "5"))
+        .andExpect(request().asyncStarted())
+        .andReturn();
+    assertTrue(awaitContent(reset, "event:reset").contains("id:2\nevent:reset"));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_GetEmotionTrendDownsampledToBuckets() throws Exception {
+    createEmotionRecord("2023-01-02", "evening", "sad", 5);
+    createEmotionRecord("2023-01-03", "morning", "happy", 3);
+    createEmotionRecord("2023-01-10", "morning", "happy", 1);
+
+    mockMvc.perform(get("/emotion-records/patients/2/trend")
+            .param(PARAM_START_DATE, "2023-01-01")
+            .param(PARAM_END_DATE, "2023-01-15"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.bucket").value("DAY"))
+        .andExpect(jsonPath("$.points.length()").value(15))
+        .andExpect(jsonPath("$.points[1].frequencyOfEmotions.SAD").value(1))
+        .andExpect(jsonPath("$.points[2].meanIntensity").value(3.0))
+        .andExpect(jsonPath("$.points[2].movingAverageIntensity").value(4.0))
+        .andExpect(jsonPath("$.points[5].meanIntensity").doesNotExist());
+    mockMvc.perform(get("/emotion-records/patients/2/trend")
+            .param(PARAM_START_DATE, "2023-01-01")
+            .param(PARAM_END_DATE, "2023-01-15")
+            .param("bucket", "week"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.points.length()").value(3))
+        .andExpect(jsonPath("$.points[0].startDate").value("2023-01-01"))
+        .andExpect(jsonPath("$.points[1].startDate").value("2023-01-02"))
+        .andExpect(jsonPath("$.points[1].totalEmotionRecords").value(2))
+        .andExpect(jsonPath("$.points[1].meanIntensity").value(4.0))
+        .andExpect(jsonPath("$.points[1].maxIntensity").value(5))
+        .andExpect(jsonPath("$.points[2].movingAverageIntensity").value(3.0));
+    mockMvc.perform(get("/emotion-records/patients/2/trend")
+            .param(PARAM_START_DATE, "2023-01-01")
+            .param(PARAM_END_DATE, "2024-12-31"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.bucket").value("WEEK"))
+        .andExpect(jsonPath("$.points.length()").value(106));
+  }
+
+  @Test
+  @WithMockUser(username = "Magical Fairy", roles = "USER")
+  public void should_GetComplianceReportOfAllPatients() throws Exception {
+    login();
+    final File jsonFile = new ClassPathResource("json/create-emotion-record-patient.json")
+        .getFile();
+    mockMvc.perform(post("/emotion-records")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(Files.readString(jsonFile.toPath())))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(get("/emotion-records/compliance")
+            .with(user("doc@gmail.com").roles("MODERATOR")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2))
+        .andExpect(jsonPath("$[0].patientId").value(3))
+        .andExpect(jsonPath("$[0].expectedRecords").value(1))
+        .andExpect(jsonPath("$[0].recordedRecords").value(0))
+        .andExpect(jsonPath("$[0].missedRecords").value(1))
+        .andExpect(jsonPath("$[0].completionRate").value(0.0))
+        .andExpect(jsonPath("$[1].patientId").value(2))
+        .andExpect(jsonPath("$[1].recordedRecords").value(1))
+        .andExpect(jsonPath("$[1].missedRecords").value(0))
+        .andExpect(jsonPath("$[1].completionRate").value(100.0));
+    mockMvc.perform(get("/emotion-records/compliance/csv-file")
+            .with(user("doc@gmail.com").roles("MODERATOR")))
+        .andExpect(status().isOk())
+        .andExpect(content().string(containsString("\"patientId\",\"superheroName\","
+            + "\"disabled\",\"expectedRecords\",\"recordedRecords\",\"missedRecords\","
+            + "\"completionRate\"\n\"3\",\"Magical Frog\",\"false\",\"1\",\"0\",\"1\",\"0.0\"")));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_GetPatientsWithoutRecordInCurrentPeriod() throws Exception {
+    mockMvc.perform(get("/emotion-records/missing"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(2));
+    login();
+    final File jsonFile = new ClassPathResource("json/create-emotion-record-patient.json")
+        .getFile();
+    mockMvc.perform(post("/emotion-records")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(Files.readString(jsonFile.toPath())))
+        .andExpect(status().isCreated());
+
+    mockMvc.perform(get("/emotion-records/missing")
+            .with(user("doc@gmail.com").roles("MODERATOR")))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.length()").value(1))
+        .andExpect(jsonPath("$[0].id").value(3));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_AnswerNotModified_WhenPatientRecordsAreUnchanged() throws Exception {
+    String etag = perform("/emotion-records/patients/2")
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, private"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    String otherPatientEtag = perform("/emotion-records/patients/3")
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    mockMvc.perform(get("/emotion-records/patients/2")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .param(PARAM_START_DATE, PARAM_DATE)
+            .param(PARAM_END_DATE, PARAM_DATE))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    createEmotionRecord();
+
+    mockMvc.perform(get("/emotion-records/patients/2")
+            .header(HttpHeaders.IF_NONE_MATCH, etag)
+            .param(PARAM_START_DATE, PARAM_DATE)
+            .param(PARAM_END_DATE, PARAM_DATE))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING.id").value(1));
+    mockMvc.perform(get("/emotion-records/patients/3")
+            .header(HttpHeaders.IF_NONE_MATCH, otherPatientEtag)
+            .param(PARAM_START_DATE, PARAM_DATE)
+            .param(PARAM_END_DATE, PARAM_DATE))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_RecomputeCachedGridDay_WhenItsRecordChanges() throws Exception {
+    perform("/emotion-records")
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING").value(nullValue()));
+
+    createEmotionRecord();
+
+    perform("/emotion-records")
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING.note").value("Note"));
+    final File jsonFileUpdate = new ClassPathResource("json/update-emotion-record.json")
+        .getFile();
+    mockMvc.perform(put("/emotion-records/1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(Files.readString(jsonFileUpdate.toPath())))
+        .andExpect(status().isOk());
+    perform("/emotion-records")
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING.note").value("New Note"))
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Frog'].MORNING").value(nullValue()));
+  }
+
+  @Test
+  @WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+  public void should_ChangeGridTags_WhenDayEnds() throws Exception {
+    for (String url : new String[] {"/emotion-records", "/emotion-records/patients/2"}) {
+      setToday("2023-01-02");
+      String etag = performUntil(url, "2023-01-05", "\"none\"")
+          .andExpect(status().isOk())
+          .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      String closedEtag = performUntil(url, PARAM_DATE, "\"none\"")
+          .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+      performUntil(url, "2023-01-05", etag)
+          .andExpect(status().isNotModified());
+
+      setToday("2023-01-03");
+
+      performUntil(url, "2023-01-05", etag)
+          .andExpect(status().isOk())
+          .andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+      performUntil(url, PARAM_DATE, closedEtag)
+          .andExpect(status().isNotModified());
+    }
+  }
+
+  private void setToday(String date) {
+    when(clock.instant()).thenReturn(LocalDate.parse(date).atTime(LocalTime.NOON)
+        .atZone(ZoneId.systemDefault()).toInstant());
+  }
+
+  private ResultActions performUntil(String url, String endDate, String etag) throws Exception {
+    return mockMvc.perform(get(url)
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .param(PARAM_START_DATE, PARAM_DATE)
+        .param(PARAM_END_DATE, endDate));
+  }
+
+  private void savePatient(User patient) {
+    eventPublisher.publishEvent(new PatientChangedEvent(userRepository.save(patient)));
+  }
+
   private void login() throws Exception {
     final File loginRequestDtoFile =
         new ClassPathResource("json/login-request-dto2.json").getFile();
@@ -340,6 +681,15 @@ public class EmotionRecordIntegrationTest {
         .andDo(print());
   }
 
+  private void createEmotionRecord(String date, String period, String emotion, int intensity)
+      throws Exception {
+    mockMvc.perform(post("/emotion-records/patients/2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(String.format("{\"emotion\": \"%s\", \"intensity\": %d, "
+                + "\"date\": \"%s\", \"period\": \"%s\"}", emotion, intensity, date, period)))
+        .andExpect(status().isCreated());
+  }
+
   private void createEmotionRecord() throws Exception {
     final File jsonFile = new ClassPathResource("json/create-emotion-record.json").getFile();
     String emotionRecord = Files.readString(jsonFile.toPath());
@@ -354,4 +704,22 @@ public class EmotionRecordIntegrationTest {
         .param(PARAM_START_DATE, PARAM_DATE)
         .param(PARAM_END_DATE, PARAM_DATE));
   }
+
+  private ResultActions perform(String url, MediaType accept) throws Exception {
+    return mockMvc.perform(get(url)
+        .accept(accept)
+        .param(PARAM_START_DATE, PARAM_DATE)
+        .param(PARAM_END_DATE, PARAM_DATE));
+  }
+
+  private String awaitContent(MvcResult result, String expected) throws Exception {
+    long deadline = System.currentTimeMillis() + 5_000;
+    String content = result.getResponse().getContentAsString();
+    while (!content.contains(expected) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(50);
+      content = result.getResponse().getContentAsString();
+    }
+    assertTrue(content.contains(expected), content);
+    return content;
+  }
 }
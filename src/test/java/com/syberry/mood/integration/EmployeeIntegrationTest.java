@@ -1,11 +1,14 @@
 package com.syberry.mood.integration;
 
+import static com.syberry.mood.monitoring.sql.SqlStatisticsResponseAdvice.STATEMENT_COUNT_HEADER;
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -62,17 +65,48 @@ public class EmployeeIntegrationTest {
   }
 
   @Test
-  void findAllEmployeesWhenCalledThenReturnJsonArray() throws Exception {
+  void findAllEmployeesWhenCalledThenReturnJsonPage() throws Exception {
     mockMvc.perform(get("/employees"))
         .andDo(print())
         .andExpect(status().isOk())
-        .andExpect(jsonPath("$", hasSize(1)))
-        .andExpect(jsonPath("$[0].id", is(1)))
-        .andExpect(jsonPath("$[0].email", is("test1@gmail.com")))
-        .andExpect(jsonPath("$[0].firstName", is("Forrest")))
-        .andExpect(jsonPath("$[0].lastName", is("Gump")))
-        .andExpect(jsonPath("$[0].roleName", is("ADMIN")))
-        .andExpect(jsonPath("$[0].disabled", is(false)));
+        .andExpect(jsonPath("$.content", hasSize(1)))
+        .andExpect(jsonPath("$.content[0].id", is(1)))
+        .andExpect(jsonPath("$.content[0].email", is("test1@gmail.com")))
+        .andExpect(jsonPath("$.content[0].firstName", is("Forrest")))
+        .andExpect(jsonPath("$.content[0].lastName", is("Gump")))
+        .andExpect(jsonPath("$.content[0].roleName", is("ADMIN")))
+        .andExpect(jsonPath("$.content[0].disabled", is(false)))
+        .andExpect(jsonPath("$.page", is(0)))
+        .andExpect(jsonPath("$.size", is(20)))
+        .andExpect(jsonPath("$.totalElements", is(1)))
+        .andExpect(jsonPath("$.totalPages", is(1)));
+  }
+
+  @Test
+  void findAllEmployeesWhenFilteredAndSortedThenReturnRequestedPage() throws Exception {
+    mockMvc.perform(post("/employees").contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-employee2.json")));
+    mockMvc.perform(post("/employees").contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-employee3.json")));
+    mockMvc.perform(put("/employees/2/disabled"));
+
+    mockMvc.perform(get("/employees")
+            .param("sort", "lastName,desc")
+            .param("size", "2")
+            .param("page", "0"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(STATEMENT_COUNT_HEADER, "2"))
+        .andExpect(jsonPath("$.content[*].lastName", contains("Gump", "Doe")))
+        .andExpect(jsonPath("$.totalElements", is(3)))
+        .andExpect(jsonPath("$.totalPages", is(2)));
+    mockMvc.perform(get("/employees")
+            .param("roleName", "moderator")
+            .param("disabled", "false"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[*].email", contains("test3@gmail.com")))
+        .andExpect(jsonPath("$.totalElements", is(1)));
+    mockMvc.perform(get("/employees").param("sort", "password"))
+        .andExpect(status().isBadRequest());
   }
 
   @Test
@@ -135,4 +169,9 @@ public class EmployeeIntegrationTest {
         .andExpect(status().isOk())
         .andExpect(jsonPath("$.disabled").value(true));
   }
+
+  private static String readJson(String fileName) throws Exception {
+    File jsonFile = new ClassPathResource("json/" + fileName).getFile();
+    return Files.readString(jsonFile.toPath());
+  }
 }
@@ -0,0 +1,106 @@
+package com.syberry.mood.integration;
+
+import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.anonymous;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.repository.RoleRepository;
+import java.io.File;
+import java.nio.file.Files;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+/**
+ * This class is responsible for integration testing of the Prometheus metrics.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class)
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "ADMIN")
+public class MetricsIntegrationTest {
+
+  private static final RequestPostProcessor SUPER_ADMIN =
+      user("doc@gmail.com").roles("SUPER_ADMIN");
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    roleRepository.save(new Role(1L, RoleName.ADMIN));
+    roleRepository.save(new Role(2L, RoleName.MODERATOR));
+    roleRepository.save(new Role(3L, RoleName.USER));
+
+    final File jsonFile = new ClassPathResource("json/create-patient.json").getFile();
+    mockMvc.perform(post("/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(Files.readString(jsonFile.toPath())));
+  }
+
+  @Test
+  void prometheusEndpointExposesServiceTimersTaggedByEndpointAndRole() throws Exception {
+    mockMvc.perform(get("/patients")).andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/prometheus").with(SUPER_ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(content().string(allOf(
+            containsString("mood_service_method_seconds_bucket{"),
+            containsString("endpoint=\"GET /patients\""),
+            containsString("method=\"findAllPatients\""),
+            containsString("role=\"ADMIN\""))));
+  }
+
+  @Test
+  void prometheusEndpointExposesExportSizesAndSecurityMeters() throws Exception {
+    mockMvc.perform(get("/emotion-records/csv-file")).andExpect(status().isOk());
+
+    mockMvc.perform(get("/actuator/prometheus").with(SUPER_ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(content().string(allOf(
+            containsString("mood_export_size_bytes_count{"),
+            containsString("format=\"csv\""),
+            containsString("mood_security_password_hash_seconds_count{"),
+            containsString("operation=\"encode\""),
+            containsString("cache=\"passwordResetTokenCache\",result=\"hit\""))));
+  }
+
+  @Test
+  void actuatorEndpointsExceptHealthRequireSuperAdmin() throws Exception {
+    // the health may be down without a mail server, but it is never hidden
+    mockMvc.perform(get("/actuator/health").with(anonymous()))
+        .andExpect(jsonPath("$.status").exists());
+    mockMvc.perform(get("/actuator/prometheus").with(anonymous()))
+        .andExpect(status().isUnauthorized());
+    mockMvc.perform(get("/actuator/prometheus"))
+        .andExpect(status().isForbidden());
+  }
+}
@@ -1,10 +1,14 @@
 package com.syberry.mood.integration;
 
+import static com.syberry.mood.monitoring.sql.SqlStatisticsResponseAdvice.STATEMENT_COUNT_HEADER;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -22,6 +26,7 @@ import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabas
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.test.context.support.WithMockUser;
@@ -74,6 +79,25 @@ public class PatientIntegrationTest {
         .andExpect(jsonPath("$[0].disabled").value(false));
   }
 
+  @Test
+  public void should_SearchPatientsByPrefixAndTypo() throws Exception {
+    final File jsonFile = new ClassPathResource("json/create-patient2.json").getFile();
+    mockMvc.perform(post("/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(Files.readString(jsonFile.toPath())));
+    mockMvc.perform(get("/patients/search").param("q", "super"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(STATEMENT_COUNT_HEADER, "0"))
+        .andExpect(jsonPath("$.content", hasSize(1)))
+        .andExpect(jsonPath("$.content[0].superheroName").value("Super Man"))
+        .andExpect(jsonPath("$.totalElements").value(1));
+    mockMvc.perform(get("/patients/search").param("q", "Magical Fairt"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.content[0].superheroName").value("Magical Fairy"));
+    mockMvc.perform(get("/patients/search").param("q", " "))
+        .andExpect(status().isBadRequest());
+  }
+
   @Test
   public void should_GetPatientById() throws Exception {
     mockMvc.perform(get("/patients/1")
@@ -122,6 +146,25 @@ public class PatientIntegrationTest {
         .andExpect(jsonPath("$.disabled").value(true));
   }
 
+  @Test
+  public void should_AnswerNotModified_WhenPatientDirectoryIsUnchanged() throws Exception {
+    String etag = mockMvc.perform(get("/patients"))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    mockMvc.perform(get("/patients").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+
+    mockMvc.perform(put("/patients/1")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("Updated Name"));
+
+    mockMvc.perform(get("/patients").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, not(etag)))
+        .andExpect(jsonPath("$[0].superheroName").value("Updated Name"));
+  }
+
   @Test
   public void should_UpdatePatientPassword() throws Exception {
     String password = "cat_cat_cat";
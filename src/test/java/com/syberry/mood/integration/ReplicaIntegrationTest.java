@@ -0,0 +1,150 @@
+package com.syberry.mood.integration;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.RoleRepository;
+import com.syberry.mood.user.repository.UserRepository;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import javax.sql.DataSource;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+/**
+ * This class checks that the responses read from a lagging replica are not tagged
+ * with the version of the data the replica does not have yet.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class, properties = {
+    "spring.datasource.url=" + ReplicaIntegrationTest.PRIMARY_URL,
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "app.datasource.replica.url=" + ReplicaIntegrationTest.REPLICA_URL,
+    "app.datasource.replica.max-lag=1",
+    "app.sql-statistics.fail-on-budget-exceeded=false"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+public class ReplicaIntegrationTest {
+
+  static final String PRIMARY_URL = "jdbc:h2:mem:mood-primary;DB_CLOSE_DELAY=-1";
+  static final String REPLICA_URL = "jdbc:h2:mem:mood-replica;DB_CLOSE_DELAY=-1";
+  private static final long MAX_LAG_MILLIS = 1_000;
+  private static final RequestPostProcessor READER =
+      user("reader@gmail.com").roles("SUPER_ADMIN");
+
+  @TempDir
+  Path snapshotDirectory;
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+
+  @BeforeEach
+  public void setUp() {
+    Role adminRole = new Role(1L, RoleName.SUPER_ADMIN);
+    Role userRole = new Role(4L, RoleName.USER);
+    roleRepository.save(adminRole);
+    roleRepository.save(new Role(2L, RoleName.ADMIN));
+    roleRepository.save(new Role(3L, RoleName.MODERATOR));
+    roleRepository.save(userRole);
+    userRepository.save(new User(1L, "doc@gmail.com", "#tv!ghw36", adminRole,
+        LocalDateTime.now(), null, false));
+    eventPublisher.publishEvent(new PatientChangedEvent(userRepository.save(
+        new User(2L, "Magical Fairy",
+            "$2a$10$06JtH78fSVtkurq0agdiO.R.H5MnpZkoxks.tIlvxmTwYjZHIjYv6", userRole,
+            LocalDateTime.now(), null, false))));
+  }
+
+  @Test
+  public void should_NotTagResponses_WhileReplicaMayLag() throws Exception {
+    catchUpReplica();
+    String etag = performAsReader(null)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING").doesNotExist())
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(post("/emotion-records/patients/2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"emotion\": \"sad\", \"intensity\": 5, "
+                + "\"date\": \"2023-01-01\", \"period\": \"evening\"}"))
+        .andExpect(status().isCreated());
+
+    performAsReader(etag)
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING").doesNotExist());
+
+    catchUpReplica();
+    performAsReader(etag)
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, Matchers.not(etag)))
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Fairy'].EVENING.id").value(1));
+  }
+
+  private ResultActions performAsReader(String etag) throws Exception {
+    return mockMvc.perform(get("/emotion-records/patients/2")
+        .with(READER)
+        .headers(etag == null ? new HttpHeaders() : ifNoneMatch(etag))
+        .param("startDate", "2023-01-01")
+        .param("endDate", "2023-01-01"));
+  }
+
+  /**
+   * Copies the primary into the replica and waits out the maximum lag,
+   * as a replica catching up would.
+   */
+  private void catchUpReplica() throws Exception {
+    String snapshot = snapshotDirectory.resolve("snapshot.sql").toString();
+    new JdbcTemplate(database(PRIMARY_URL)).execute("SCRIPT TO '" + snapshot + "'");
+    JdbcTemplate replica = new JdbcTemplate(database(REPLICA_URL));
+    replica.execute("DROP ALL OBJECTS");
+    replica.execute("RUNSCRIPT FROM '" + snapshot + "'");
+    Thread.sleep(MAX_LAG_MILLIS + 100);
+  }
+
+  private static HttpHeaders ifNoneMatch(String etag) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setIfNoneMatch(etag);
+    return headers;
+  }
+
+  private static DataSource database(String url) {
+    return new DriverManagerDataSource(url, "sa", "");
+  }
+}
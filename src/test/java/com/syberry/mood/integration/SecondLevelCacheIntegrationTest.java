@@ -0,0 +1,150 @@
+package com.syberry.mood.integration;
+
+import static com.syberry.mood.monitoring.sql.SqlStatisticsResponseAdvice.STATEMENT_COUNT_HEADER;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.repository.RoleRepository;
+import java.io.File;
+import java.nio.file.Files;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * This class checks that the repeated lookups of roles and employees are served
+ * from the second-level and query caches, that the cached data is invalidated on update
+ * and that the authentication does not rely on the caches.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class)
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+public class SecondLevelCacheIntegrationTest {
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @BeforeEach
+  public void setUp() {
+    roleRepository.save(new Role(1L, RoleName.ADMIN));
+    roleRepository.save(new Role(2L, RoleName.MODERATOR));
+    roleRepository.save(new Role(3L, RoleName.USER));
+  }
+
+  @Test
+  public void should_ResolveRoleFromQueryCache_When_PatientsCreated() throws Exception {
+    long first = countStatements(post("/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-patient.json")));
+    long second = countStatements(post("/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-patient2.json")));
+    assertEquals(first - 1, second);
+  }
+
+  @Test
+  public void should_RejectLogin_When_UserDisabledThroughAnotherInstance() throws Exception {
+    mockMvc.perform(post("/patients")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-patient.json")));
+    countStatements(login());
+
+    // a write of another instance does not invalidate the caches of this one
+    jdbcTemplate.update("UPDATE \"user\" SET \"disabled\" = TRUE");
+    mockMvc.perform(login())
+        .andExpect(status().is4xxClientError());
+  }
+
+  @Test
+  public void should_LoadEmployeeFromSecondLevelCache() throws Exception {
+    mockMvc.perform(post("/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-employee.json")));
+    evictAllRegions();
+
+    long first = countStatements(get("/employees/1"));
+    long second = countStatements(get("/employees/1"));
+    assertTrue(first > 0);
+    assertEquals(0, second);
+  }
+
+  @Test
+  public void should_ReturnUpdatedEmployee_When_CachedEmployeeUpdated() throws Exception {
+    mockMvc.perform(post("/employees")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("create-employee.json")));
+    mockMvc.perform(get("/employees/1"))
+        .andExpect(jsonPath("$.firstName", is("Forrest")));
+
+    mockMvc.perform(put("/employees/1")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(readJson("update-employee.json")))
+        .andExpect(status().isOk());
+    mockMvc.perform(put("/employees/1/disabled"))
+        .andExpect(status().isOk());
+
+    mockMvc.perform(get("/employees/1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.email", is("test3@gmail.com")))
+        .andExpect(jsonPath("$.firstName", is("Tom")))
+        .andExpect(jsonPath("$.disabled", is(true)));
+  }
+
+  private long countStatements(MockHttpServletRequestBuilder request) throws Exception {
+    String statementCount = mockMvc.perform(request)
+        .andExpect(status().is2xxSuccessful())
+        .andReturn()
+        .getResponse()
+        .getHeader(STATEMENT_COUNT_HEADER);
+    return Long.parseLong(statementCount);
+  }
+
+  private MockHttpServletRequestBuilder login() throws Exception {
+    return post("/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content(readJson("login-request-dto.json"));
+  }
+
+  private void evictAllRegions() {
+    entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+  }
+
+  private static String readJson(String fileName) throws Exception {
+    File jsonFile = new ClassPathResource("json/" + fileName).getFile();
+    return Files.readString(jsonFile.toPath());
+  }
+}
@@ -0,0 +1,228 @@
+package com.syberry.mood.integration;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.authorization.security.UserDetailsImpl;
+import com.syberry.mood.emotion.record.dto.EmotionRecordDto;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.sharding.ShardContext;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.repository.RoleRepository;
+import com.syberry.mood.user.repository.UserRepository;
+import java.io.File;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class, properties = {
+    "app.sharding.enabled=true",
+    "spring.datasource.url=jdbc:h2:mem:mood-default",
+    "spring.datasource.driver-class-name=org.h2.Driver",
+    "spring.datasource.username=sa",
+    "spring.datasource.password=",
+    "app.sharding.shards[0].name=north",
+    "app.sharding.shards[0].url=jdbc:h2:mem:mood-north",
+    "app.sharding.clinics.central=default",
+    "app.sharding.clinics.north=north",
+    "app.sql-statistics.fail-on-budget-exceeded=false"})
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@ActiveProfiles("test")
+public class ShardingIntegrationTest {
+
+  private static final RequestPostProcessor SUPER_ADMIN =
+      principal(1L, "doc@gmail.com", RoleName.SUPER_ADMIN);
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private ObjectMapper objectMapper;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private EmotionRecordRepository emotionRecordRepository;
+  private String patientToCreate;
+
+  @BeforeEach
+  public void setUp() throws Exception {
+    roleRepository.save(new Role(1L, RoleName.SUPER_ADMIN));
+    roleRepository.save(new Role(2L, RoleName.ADMIN));
+    roleRepository.save(new Role(3L, RoleName.MODERATOR));
+    roleRepository.save(new Role(4L, RoleName.USER));
+
+    final File jsonFile = new ClassPathResource("json/create-patient.json").getFile();
+    patientToCreate = Files.readString(jsonFile.toPath());
+  }
+
+  @Test
+  public void should_KeepPatientsOnShardOfClinic() throws Exception {
+    RequestPostProcessor northAdmin = createAdmin("north@gmail.com", "north");
+    RequestPostProcessor centralAdmin = createAdmin("central@gmail.com", "central");
+
+    String response = mockMvc.perform(post("/patients")
+            .with(northAdmin)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(patientToCreate))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+    long patientId = objectMapper.readTree(response).get("id").asLong();
+
+    assertEquals(1, ShardContext.shardOf(patientId));
+    mockMvc.perform(get("/patients").with(northAdmin))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(1)));
+    mockMvc.perform(get("/patients").with(centralAdmin))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$", hasSize(0)));
+    mockMvc.perform(get("/patients/" + patientId).with(centralAdmin))
+        .andExpect(status().is4xxClientError());
+    mockMvc.perform(get("/patients/" + patientId).with(SUPER_ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.superheroName").value("Super Man"));
+  }
+
+  @Test
+  public void should_GatherRecordsOfAllShards() throws Exception {
+    RequestPostProcessor northAdmin = createAdmin("north@gmail.com", "north");
+    long centralPatient = createPatient(SUPER_ADMIN, "Magical Cat");
+    long northPatient = createPatient(northAdmin, "Magical Dog");
+    String emotionRecord = Files.readString(
+        new ClassPathResource("json/create-emotion-record.json").getFile().toPath());
+
+    for (long patientId : List.of(northPatient, centralPatient)) {
+      mockMvc.perform(post("/emotion-records/patients/" + patientId)
+              .with(SUPER_ADMIN)
+              .contentType(MediaType.APPLICATION_JSON)
+              .content(emotionRecord))
+          .andExpect(status().isCreated());
+    }
+
+    List<EmotionRecordDto> records;
+    try (Stream<EmotionRecordDto> stream = emotionRecordRepository.streamAllCreatedWithin(
+        LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 1, 2, 0, 0))) {
+      records = stream.toList();
+    }
+    assertEquals(List.of(centralPatient, northPatient),
+        records.stream().map(EmotionRecordDto::getPatientId).toList());
+    assertEquals(records.get(0).getCreatedAt(), emotionRecordRepository.findFirstCreatedAt());
+    assertEquals(0, ShardContext.shardOf(records.get(0).getId()));
+    assertEquals(1, ShardContext.shardOf(records.get(1).getId()));
+  }
+
+  @Test
+  public void should_ImportRecordsOnShardOfPatient() throws Exception {
+    RequestPostProcessor northAdmin = createAdmin("north@gmail.com", "north");
+    long centralPatient = createPatient(SUPER_ADMIN, "Magical Cat");
+    long northPatient = createPatient(northAdmin, "Magical Dog");
+
+    mockMvc.perform(post("/emotion-records/import")
+            .with(SUPER_ADMIN)
+            .contentType("text/csv")
+            .content("patientId,date,period,emotion,intensity\n"
+                + northPatient + ",2023-01-01,morning,happy,3\n"
+                + centralPatient + ",2023-01-01,morning,sad,2\n"
+                + (northPatient + 1) + ",2023-01-01,morning,sad,2\n"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.imported").value(2))
+        .andExpect(jsonPath("$.rejected").value(1));
+
+    List<EmotionRecordDto> records;
+    try (Stream<EmotionRecordDto> stream = emotionRecordRepository.streamAllCreatedWithin(
+        LocalDateTime.of(2023, 1, 1, 0, 0), LocalDateTime.of(2023, 1, 2, 0, 0))) {
+      records = stream.toList();
+    }
+    assertEquals(List.of(centralPatient, northPatient),
+        records.stream().map(EmotionRecordDto::getPatientId).toList());
+    assertEquals(0, ShardContext.shardOf(records.get(0).getId()));
+    assertEquals(1, ShardContext.shardOf(records.get(1).getId()));
+    mockMvc.perform(get("/emotion-records/patients/" + northPatient)
+            .with(northAdmin)
+            .param("startDate", "2023-01-01")
+            .param("endDate", "2023-01-01"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.['2023-01-01'].['Magical Dog'].MORNING.emotion").value("HAPPY"));
+  }
+
+  @Test
+  public void should_TailChangesOfEveryShard() throws Exception {
+    RequestPostProcessor northAdmin = createAdmin("north@gmail.com", "north");
+    long centralPatient = createPatient(SUPER_ADMIN, "Magical Cat");
+    long northPatient = createPatient(northAdmin, "Magical Dog");
+
+    mockMvc.perform(get("/changes").with(SUPER_ADMIN))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.changes[0].entityId").value(centralPatient))
+        .andExpect(jsonPath("$.truncated").value(false));
+    String page = mockMvc.perform(get("/changes").with(SUPER_ADMIN).param("shard", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(1)))
+        .andExpect(jsonPath("$.changes[0].entityId").value(northPatient))
+        .andExpect(jsonPath("$.truncated").value(false))
+        .andReturn().getResponse().getContentAsString();
+    long cursor = objectMapper.readTree(page).get("cursor").asLong();
+    assertEquals(1, ShardContext.shardOf(cursor));
+    mockMvc.perform(get("/changes").with(SUPER_ADMIN).param("shard", "1")
+            .param("cursor", Long.toString(cursor)))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.changes", hasSize(0)));
+  }
+
+  private RequestPostProcessor createAdmin(String email, String clinic) throws Exception {
+    mockMvc.perform(post("/employees")
+            .with(SUPER_ADMIN)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(String.format("{\"email\":\"%s\",\"password\":\"1abcdefgA\","
+                + "\"firstName\":\"Forrest\",\"lastName\":\"Gump\",\"roleName\":\"ADMIN\","
+                + "\"clinic\":\"%s\"}", email, clinic)))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.clinic").value(clinic));
+    User admin = userRepository.findByUsername(email).orElseThrow();
+    return principal(admin.getId(), email, RoleName.ADMIN);
+  }
+
+  private long createPatient(RequestPostProcessor admin, String superheroName)
+      throws Exception {
+    String response = mockMvc.perform(post("/patients")
+            .with(admin)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(String.format("{\"superheroName\":\"%s\",\"password\":\"cat_dog_frog\"}",
+                superheroName)))
+        .andExpect(status().isCreated())
+        .andReturn().getResponse().getContentAsString();
+    return objectMapper.readTree(response).get("id").asLong();
+  }
+
+  private static RequestPostProcessor principal(Long id, String username, RoleName role) {
+    return user(new UserDetailsImpl(id, username, "password",
+        new SimpleGrantedAuthority("ROLE_" + role.name())));
+  }
+}
@@ -0,0 +1,204 @@
+package com.syberry.mood.integration;
+
+import static com.syberry.mood.monitoring.sql.SqlStatisticsResponseAdvice.STATEMENT_BUDGET_HEADER;
+import static com.syberry.mood.monitoring.sql.SqlStatisticsResponseAdvice.STATEMENT_COUNT_HEADER;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.syberry.mood.MoodApplication;
+import com.syberry.mood.emotion.record.dto.Emotion;
+import com.syberry.mood.emotion.record.dto.ImportFormat;
+import com.syberry.mood.emotion.record.dto.Period;
+import com.syberry.mood.emotion.record.entity.EmotionRecord;
+import com.syberry.mood.emotion.record.repository.EmotionRecordRepository;
+import com.syberry.mood.emotion.record.schedule.PeriodSchedule;
+import com.syberry.mood.employee.entity.Employee;
+import com.syberry.mood.employee.repository.EmployeeRepository;
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.RoleRepository;
+import com.syberry.mood.user.repository.UserRepository;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+/**
+ * This class checks that controller methods stay within their SQL statement budgets
+ * on a data set with several patients, employees and records.
+ */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(classes = MoodApplication.class)
+@AutoConfigureMockMvc
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.ANY)
+@ActiveProfiles("test")
+@WithMockUser(username = "doc@gmail.com", roles = "SUPER_ADMIN")
+public class SqlStatementBudgetIntegrationTest {
+
+  private static final int PATIENTS = 4;
+  private static final int EMPLOYEES = 3;
+  private static final LocalDate FIRST_DAY = LocalDate.of(2023, 3, 13);
+  private static final int DAYS = 3;
+  private static final int IMPORTED_DAYS = 200;
+  private static final String PASSWORD = "cat_dog_frog";
+  private static final String START_DATE = "startDate";
+  private static final String END_DATE = "endDate";
+
+  @Autowired
+  private MockMvc mockMvc;
+  @Autowired
+  private RoleRepository roleRepository;
+  @Autowired
+  private UserRepository userRepository;
+  @Autowired
+  private ApplicationEventPublisher eventPublisher;
+  @Autowired
+  private EmployeeRepository employeeRepository;
+  @Autowired
+  private EmotionRecordRepository recordRepository;
+  @Autowired
+  private PasswordEncoder passwordEncoder;
+
+  @BeforeEach
+  public void setUp() {
+    Role superAdminRole = roleRepository.save(new Role(1L, RoleName.SUPER_ADMIN));
+    Role adminRole = roleRepository.save(new Role(2L, RoleName.ADMIN));
+    roleRepository.save(new Role(3L, RoleName.MODERATOR));
+    Role userRole = roleRepository.save(new Role(4L, RoleName.USER));
+    userRepository.save(new User(null, "doc@gmail.com", passwordEncoder.encode(PASSWORD),
+        superAdminRole, LocalDateTime.now(), null, false));
+    for (int i = 0; i < EMPLOYEES; i++) {
+      User user = userRepository.save(new User(null, "employee" + i + "@gmail.com",
+          passwordEncoder.encode(PASSWORD), adminRole, LocalDateTime.now(), null, false));
+      employeeRepository.save(new Employee(null, "First" + i, "Last" + i, user, null));
+    }
+    for (int i = 0; i < PATIENTS; i++) {
+      User patient = userRepository.save(new User(null, "Super Man" + (char) ('a' + i),
+          passwordEncoder.encode(PASSWORD), userRole,
+          FIRST_DAY.atStartOfDay(), null, false));
+      eventPublisher.publishEvent(new PatientChangedEvent(patient));
+      for (int day = 0; day < DAYS; day++) {
+        for (Period period : PeriodSchedule.DEFAULT.getPeriods()) {
+          recordRepository.save(EmotionRecord.builder()
+              .emotion(Emotion.HAPPY)
+              .intensity(3)
+              .period(period)
+              .createdAt(
+                  FIRST_DAY.plusDays(day).atTime(PeriodSchedule.DEFAULT.getStartTime(period)))
+              .patient(patient)
+              .build());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void emotionRecordEndpointsStayWithinBudget() throws Exception {
+    Long patientId = userRepository.findAllPatientsSortIdDesc().get(0).getId();
+    String startDate = FIRST_DAY.toString();
+    String endDate = FIRST_DAY.plusDays(DAYS - 1).toString();
+    assertWithinBudget(get("/emotion-records")
+        .param(START_DATE, startDate).param(END_DATE, endDate));
+    assertWithinBudget(get("/emotion-records/patients/" + patientId)
+        .param(START_DATE, startDate).param(END_DATE, endDate));
+    assertWithinBudget(get("/emotion-records/patients/" + patientId + "/statistic")
+        .param(START_DATE, startDate).param(END_DATE, endDate));
+    assertWithinBudget(get("/emotion-records/csv-file")
+        .param(START_DATE, startDate).param(END_DATE, endDate));
+    assertWithinBudget(get("/emotion-records/pdf-file")
+        .param(START_DATE, startDate).param(END_DATE, endDate));
+  }
+
+  @Test
+  public void streamingEmotionRecordEndpointsStayWithinBudget() throws Exception {
+    Long patientId = userRepository.findAllPatientsSortIdDesc().get(0).getId();
+    String startDate = FIRST_DAY.toString();
+    String endDate = FIRST_DAY.plusDays(DAYS - 1).toString();
+    mockMvc.perform(get("/emotion-records")
+            .accept(MediaType.APPLICATION_NDJSON)
+            .param(START_DATE, startDate).param(END_DATE, endDate))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/emotion-records/patients/" + patientId)
+            .accept(MediaType.APPLICATION_NDJSON)
+            .param(START_DATE, startDate).param(END_DATE, endDate))
+        .andExpect(status().isOk());
+  }
+
+  @Test
+  public void importStaysWithinBudgetPerChunk() throws Exception {
+    StringBuilder content = new StringBuilder("patientId,date,period,emotion,intensity\n");
+    int rows = 0;
+    for (User patient : userRepository.findAllPatientsSortIdDesc()) {
+      for (int day = 1; day <= IMPORTED_DAYS; day++) {
+        for (Period period : PeriodSchedule.DEFAULT.getPeriods()) {
+          content.append(patient.getId()).append(',').append(FIRST_DAY.minusDays(day))
+              .append(',').append(period).append(",happy,3\n");
+          rows++;
+        }
+      }
+    }
+    assertWithinBudget(post("/emotion-records/import")
+        .contentType(ImportFormat.CSV_MEDIA_TYPE)
+        .content(content.toString()))
+        .andExpect(jsonPath("$.imported").value(rows));
+  }
+
+  @Test
+  public void patientEndpointsStayWithinBudget() throws Exception {
+    Long patientId = userRepository.findAllPatientsSortIdDesc().get(0).getId();
+    assertWithinBudget(get("/patients"));
+    assertWithinBudget(get("/patients/" + patientId));
+  }
+
+  @Test
+  public void employeeEndpointsStayWithinBudget() throws Exception {
+    Long employeeId = employeeRepository.findAll().get(0).getId();
+    assertWithinBudget(get("/employees"));
+    assertWithinBudget(get("/employees/" + employeeId));
+  }
+
+  @Test
+  public void authEndpointsStayWithinBudget() throws Exception {
+    assertWithinBudget(post("/auth/login")
+        .contentType(MediaType.APPLICATION_JSON)
+        .content("{\"username\": \"Super Mana\", \"password\": \"" + PASSWORD + "\"}"));
+  }
+
+  private ResultActions assertWithinBudget(MockHttpServletRequestBuilder request)
+      throws Exception {
+    ResultActions actions = mockMvc.perform(request)
+        .andExpect(status().isOk());
+    MvcResult result = actions.andReturn();
+    String statementCount = result.getResponse().getHeader(STATEMENT_COUNT_HEADER);
+    String statementBudget = result.getResponse().getHeader(STATEMENT_BUDGET_HEADER);
+    assertNotNull(statementCount);
+    assertNotNull(statementBudget);
+    assertTrue(Long.parseLong(statementCount) <= Long.parseLong(statementBudget),
+        () -> request + " executed " + statementCount + " statements, budget is "
+            + statementBudget);
+    return actions;
+  }
+}
@@ -0,0 +1,104 @@
+package com.syberry.mood.user.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import com.syberry.mood.user.dto.RoleName;
+import com.syberry.mood.user.entity.Role;
+import com.syberry.mood.user.entity.User;
+import com.syberry.mood.user.event.PatientChangedEvent;
+import com.syberry.mood.user.repository.UserRepository;
+import com.syberry.mood.user.service.impl.PatientDirectoryServiceImpl;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@ExtendWith(MockitoExtension.class)
+public class PatientDirectoryServiceTest {
+
+  @InjectMocks
+  private PatientDirectoryServiceImpl patientDirectory;
+  @Mock
+  private UserRepository userRepository;
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @BeforeEach
+  public void setUp() {
+    when(userRepository.findAllPatientsSortIdDesc())
+        .thenReturn(List.of(patient(5L, "Hulk", false), patient(2L, "Magical Frog", false)));
+    patientDirectory.afterSingletonsInstantiated();
+  }
+
+  @Test
+  public void should_ReturnDetachedSnapshot() {
+    List<User> patients = patientDirectory.findAllPatients();
+    assertEquals(List.of(5L, 2L), patients.stream().map(User::getId).toList());
+    assertNull(patients.get(0).getPassword());
+    assertThrows(UnsupportedOperationException.class, () -> patients.remove(0));
+  }
+
+  @Test
+  public void should_ReplaceSnapshot_When_PatientChanged() {
+    List<User> before = patientDirectory.findAllPatients();
+    patientDirectory.onPatientChanged(new PatientChangedEvent(patient(3L, "Batman", false)));
+    patientDirectory.onPatientChanged(new PatientChangedEvent(patient(5L, "Hulk", true)));
+
+    List<User> after = patientDirectory.findAllPatients();
+    assertEquals(List.of(5L, 3L, 2L), after.stream().map(User::getId).toList());
+    assertEquals(true, after.get(0).isDisabled());
+    assertEquals(2, before.size());
+  }
+
+  @Test
+  public void should_ReplaceSnapshot_When_Reloaded() {
+    when(userRepository.findAllPatientsSortIdDesc())
+        .thenReturn(List.of(patient(7L, "Storm", false), patient(5L, "Hulk", false)));
+
+    patientDirectory.reloadPatients();
+
+    assertEquals(List.of(7L, 5L),
+        patientDirectory.findAllPatients().stream().map(User::getId).toList());
+    assertTrue(patientDirectory.findPatientBySuperheroName("storm").isPresent());
+  }
+
+  @Test
+  public void should_FindPatientsByPrefixAndByOneTypo() {
+    patientDirectory.onPatientChanged(new PatientChangedEvent(patient(7L, "Hulk Smash", false)));
+    patientDirectory.onPatientChanged(new PatientChangedEvent(patient(8L, "Hulq", false)));
+
+    assertEquals(List.of(5L, 7L, 8L), ids(patientDirectory.searchPatients("hul")));
+    assertEquals(List.of(5L, 7L, 8L), ids(patientDirectory.searchPatients("HULK")));
+    assertEquals(List.of(2L), ids(patientDirectory.searchPatients("Magicl Frog")));
+    assertEquals(List.of(5L), ids(patientDirectory.searchPatients("Hul k")));
+    assertEquals(List.of(), ids(patientDirectory.searchPatients("Batman")));
+  }
+
+  @Test
+  public void should_FindPatientBySuperheroNameIgnoringCase() {
+    assertEquals(2L, patientDirectory.findPatientBySuperheroName("magical frog").get().getId());
+    assertTrue(patientDirectory.findPatientBySuperheroName("Magical").isEmpty());
+
+    patientDirectory.onPatientChanged(new PatientChangedEvent(patient(2L, "Magical Toad", false)));
+    assertTrue(patientDirectory.findPatientBySuperheroName("Magical Frog").isEmpty());
+    assertEquals(2L, patientDirectory.findPatientBySuperheroName("Magical Toad").get().getId());
+  }
+
+  private static List<Long> ids(List<User> patients) {
+    return patients.stream().map(User::getId).toList();
+  }
+
+  private static User patient(Long id, String username, boolean disabled) {
+    return new User(id, username, "cat_dog_frog", new Role(2L, RoleName.USER),
+        LocalDateTime.now(), LocalDateTime.now(), disabled);
+  }
+}
@@ -8,6 +8,8 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 
 import com.syberry.mood.authorization.security.UserDetailsImpl;
+import com.syberry.mood.changelog.service.ChangeLogService;
+import com.syberry.mood.common.dto.PageDto;
 import com.syberry.mood.exception.EntityNotFoundException;
 import com.syberry.mood.exception.ValidationException;
 import com.syberry.mood.user.converter.UserConverter;
@@ -21,6 +23,7 @@ import com.syberry.mood.user.service.impl.PatientServiceImpl;
 import com.syberry.mood.user.validation.PatientValidator;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -30,6 +33,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
@@ -54,6 +58,12 @@ public class PatientServiceTest {
   private Authentication authentication;
   @Mock
   private PasswordEncoder passwordEncoder;
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+  @Mock
+  private PatientDirectoryService patientDirectory;
+  @Mock
+  private ChangeLogService changeLog;
 
   private User user = new User();
   private PatientDto patientDto = new PatientDto();
@@ -91,10 +101,19 @@ public class PatientServiceTest {
 
   @Test
   public void should_SuccessfullyReturnAllPatients() {
-    when(userRepository.findAllPatientsSortIdDesc()).thenReturn(new ArrayList<>());
+    when(patientDirectory.findAllPatients()).thenReturn(new ArrayList<>());
     assertEquals(patientService.findAllPatients(), new ArrayList<>());
   }
 
+  @Test
+  public void should_ReturnRequestedPage_When_SearchingPatients() {
+    when(patientDirectory.searchPatients("sup")).thenReturn(List.of(user, user, user));
+    when(userConverter.convertToPatientDto(any())).thenReturn(patientDto);
+    PageDto<PatientDto> page = patientService.searchPatients("sup", 1, 2);
+    assertEquals(new PageDto<>(List.of(patientDto), 1, 2, 3, 2), page);
+    assertEquals(List.of(), patientService.searchPatients("sup", 5, 2).getContent());
+  }
+
   @Test
   public void should_SuccessfullyFindPatientById() {
     when(userRepository.findPatientByIdIfExists(any())).thenReturn(user);
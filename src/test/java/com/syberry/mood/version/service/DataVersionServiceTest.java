@@ -0,0 +1,116 @@
+package com.syberry.mood.version.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.syberry.mood.changelog.dto.ChangeLogEntryDto;
+import com.syberry.mood.changelog.dto.ChangedEntity;
+import com.syberry.mood.changelog.event.ChangesLoggedEvent;
+import com.syberry.mood.changelog.event.ChangesTailedEvent;
+import com.syberry.mood.emotion.record.event.ChangeType;
+import com.syberry.mood.sharding.ShardMap;
+import com.syberry.mood.version.service.impl.DataVersionServiceImpl;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+
+@ExtendWith(MockitoExtension.class)
+public class DataVersionServiceTest {
+
+  @Mock
+  private ObjectProvider<ShardMap> shardMap;
+  private DataVersionServiceImpl writer;
+  private DataVersionServiceImpl reader;
+
+  @BeforeEach
+  public void setUp() {
+    writer = new DataVersionServiceImpl(new ObjectMapper(), shardMap, "", 5);
+    reader = new DataVersionServiceImpl(new ObjectMapper(), shardMap, "", 5);
+    tail(new ChangesTailedEvent(0, List.of(), 10));
+  }
+
+  @Test
+  public void should_HandOutSameTags_When_TailReachedSameChanges() {
+    String patientTag = reader.getPatientRecordsTag(2L);
+    String allRecordsTag = reader.getAllRecordsTag();
+    ChangeLogEntryDto change = change(11L, ChangedEntity.EMOTION_RECORD, 7L,
+        "{\"id\":7,\"patientId\":2}");
+
+    writer.onChangesLogged(new ChangesLoggedEvent(List.of(change)));
+
+    assertNotEquals(patientTag, writer.getPatientRecordsTag(2L));
+    assertNotEquals(allRecordsTag, writer.getAllRecordsTag());
+    assertEquals(reader.getPatientRecordsTag(3L), writer.getPatientRecordsTag(3L));
+    assertEquals(reader.getPatientDirectoryTag(), writer.getPatientDirectoryTag());
+
+    tail(new ChangesTailedEvent(0, List.of(change), 11));
+
+    assertEquals(reader.getPatientRecordsTag(2L), writer.getPatientRecordsTag(2L));
+    assertEquals(reader.getAllRecordsTag("2023-01-01"), writer.getAllRecordsTag("2023-01-01"));
+    assertNotEquals(patientTag, reader.getPatientRecordsTag(2L));
+    assertNotEquals(allRecordsTag, reader.getAllRecordsTag());
+  }
+
+  @Test
+  public void should_ChangePatientTag_When_EarlierChangeCommittedLater() {
+    ChangeLogEntryDto early = change(11L, ChangedEntity.PATIENT, 2L, "{\"id\":2}");
+    ChangeLogEntryDto late = change(12L, ChangedEntity.PATIENT, 2L, "{\"id\":2}");
+
+    writer.onChangesLogged(new ChangesLoggedEvent(List.of(late)));
+    String pendingTag = writer.getPatientRecordsTag(2L);
+    String pendingDirectoryTag = writer.getPatientDirectoryTag();
+    writer.onChangesTailed(new ChangesTailedEvent(0, List.of(early), 11));
+
+    assertNotEquals(pendingTag, writer.getPatientRecordsTag(2L));
+    assertNotEquals(pendingDirectoryTag, writer.getPatientDirectoryTag());
+
+    String tailedTag = writer.getPatientRecordsTag(2L);
+    writer.onChangesTailed(new ChangesTailedEvent(0, List.of(late), 12));
+
+    assertNotEquals(tailedTag, writer.getPatientRecordsTag(2L));
+    assertEquals("\"12\"", writer.getPatientRecordsTag(2L));
+  }
+
+  @Test
+  public void should_ChangeTagsOfAllPatients_When_MonthRemoved() {
+    String patientTag = reader.getPatientRecordsTag(2L);
+
+    tail(new ChangesTailedEvent(0, List.of(change(11L, ChangedEntity.EMOTION_RECORD_MONTH,
+        202301L, "{\"startDate\":\"2023-01-01\",\"endDate\":\"2023-01-31\"}")), 11));
+
+    assertNotEquals(patientTag, reader.getPatientRecordsTag(2L));
+    assertEquals(reader.getPatientRecordsTag(2L), writer.getPatientRecordsTag(2L));
+  }
+
+  @Test
+  public void should_KeepTags_When_RecordsArchived() {
+    List<String> tags = List.of(reader.getPatientRecordsTag(2L), reader.getPatientDirectoryTag());
+
+    tail(new ChangesTailedEvent(0, List.of(ChangeLogEntryDto.builder().sequence(11L)
+        .entityType(ChangedEntity.EMOTION_RECORD).entityId(7L)
+        .operation(ChangeType.ARCHIVED).build()), 11));
+
+    assertEquals(tags, List.of(reader.getPatientRecordsTag(2L), reader.getPatientDirectoryTag()));
+  }
+
+  private void tail(ChangesTailedEvent event) {
+    writer.onChangesTailed(event);
+    reader.onChangesTailed(event);
+  }
+
+  private static ChangeLogEntryDto change(Long sequence, ChangedEntity entityType,
+                                          Long entityId, String payload) {
+    return ChangeLogEntryDto.builder()
+        .sequence(sequence)
+        .entityType(entityType)
+        .entityId(entityId)
+        .operation(ChangeType.UPDATED)
+        .payload(payload)
+        .build();
+  }
+}